@@ -0,0 +1,39 @@
+package com.utn.productos.benchmark;
+
+import com.utn.productos.ProductosApplication;
+import com.utn.productos.model.Categoria;
+import com.utn.productos.model.Producto;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+// Utilidades compartidas por los benchmarks: contexto Spring sin servidor web y datos de prueba
+public final class ContextoBenchmark {
+
+    private ContextoBenchmark() {
+    }
+
+    // Las propiedades se pasan como argumentos de línea de comandos: como propiedades por defecto
+    // (SpringApplicationBuilder.properties) application.properties tendría prioridad sobre ellas
+    public static ConfigurableApplicationContext iniciar(String baseDeDatos, String... propiedades) {
+        Stream<String> comunes = Stream.of(
+                "spring.datasource.url=jdbc:h2:mem:" + baseDeDatos + ";DB_CLOSE_ON_EXIT=FALSE",
+                "spring.jpa.show-sql=false",
+                "spring.jpa.properties.hibernate.format_sql=false",
+                "logging.level.root=WARN");
+        return new SpringApplicationBuilder(ProductosApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run(Stream.concat(comunes, Arrays.stream(propiedades))
+                        .map(propiedad -> "--" + propiedad)
+                        .toArray(String[]::new));
+    }
+
+    public static Producto producto(int i) {
+        return new Producto(null, "Producto " + i, "Descripción del producto de prueba número " + i,
+                10.0 + i % 1000, i % 100, Categoria.values()[i % Categoria.values().length]);
+    }
+}
@@ -0,0 +1,108 @@
+package com.utn.productos.benchmark;
+
+import com.utn.productos.model.Categoria;
+import com.utn.productos.model.Producto;
+import com.utn.productos.repository.ProductoRepository;
+import com.utn.productos.service.ProductoService;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Lecturas con la caché desactivada (el peor caso: caché fría o recién invalidada) desde muchos hilos,
+// con ids elegidos con una distribución de Zipf (pocos productos concentran la mayoría de las lecturas),
+// con y sin compartir/agrupar las cargas. Al final de cada iteración registra las consultas SQL por lectura.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Threads(16)
+@Slf4j
+public class LecturasCoalescidasBenchmark {
+
+    private static final int PRODUCTOS = 10_000;
+    private static final double EXPONENTE_ZIPF = 1.1;
+
+    @Param({"false", "true"})
+    public boolean compartir;
+
+    private ConfigurableApplicationContext contexto;
+    private ProductoService productoService;
+    private Statistics estadisticas;
+    private Long[] ids;
+    // Función de distribución acumulada de Zipf sobre las posiciones de ids
+    private double[] acumulada;
+    private final LongAdder lecturas = new LongAdder();
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        contexto = ContextoBenchmark.iniciar("lecturas-benchmark-" + compartir,
+                "spring.cache.type=none",
+                "spring.jpa.properties.hibernate.generate_statistics=true",
+                "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN",
+                "productos.lectura.compartir-cargas=" + compartir,
+                "productos.lectura.lote.ventana=" + (compartir ? "1ms" : "0ms"));
+        productoService = contexto.getBean(ProductoService.class);
+        List<Producto> productos = new ArrayList<>();
+        for (int i = 0; i < PRODUCTOS; i++) {
+            productos.add(ContextoBenchmark.producto(i));
+        }
+        ids = contexto.getBean(ProductoRepository.class).saveAll(productos).stream()
+                .map(Producto::getId)
+                .toArray(Long[]::new);
+
+        acumulada = new double[PRODUCTOS];
+        double suma = 0;
+        for (int i = 0; i < PRODUCTOS; i++) {
+            suma += 1 / Math.pow(i + 1, EXPONENTE_ZIPF);
+            acumulada[i] = suma;
+        }
+        for (int i = 0; i < PRODUCTOS; i++) {
+            acumulada[i] /= suma;
+        }
+        estadisticas = contexto.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Setup(Level.Iteration)
+    public void reiniciarContadores() {
+        estadisticas.clear();
+        lecturas.reset();
+    }
+
+    @TearDown(Level.Iteration)
+    public void informar() {
+        log.info("[compartir={}] {} lecturas, {} consultas SQL ({} por lectura)", compartir, lecturas.sum(),
+                estadisticas.getPrepareStatementCount(),
+                String.format("%.3f", (double) estadisticas.getPrepareStatementCount() / Math.max(1, lecturas.sum())));
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        contexto.close();
+    }
+
+    // GET /api/productos/{id}
+    @Benchmark
+    public Optional<Producto> obtenerPorId() {
+        int posicion = Arrays.binarySearch(acumulada, ThreadLocalRandom.current().nextDouble());
+        lecturas.increment();
+        return productoService.obtenerPorId(ids[Math.min(posicion < 0 ? -posicion - 1 : posicion, PRODUCTOS - 1)]);
+    }
+
+    // GET /api/productos/categoria/{categoria}: pocas claves, todas "calientes"
+    @Benchmark
+    public List<Producto> obtenerPorCategoria() {
+        Categoria[] categorias = Categoria.values();
+        lecturas.increment();
+        return productoService.obtenerPorCategoria(categorias[ThreadLocalRandom.current().nextInt(categorias.length)]);
+    }
+}
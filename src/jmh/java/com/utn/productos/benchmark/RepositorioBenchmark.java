@@ -0,0 +1,56 @@
+package com.utn.productos.benchmark;
+
+import com.utn.productos.model.Categoria;
+import com.utn.productos.model.Producto;
+import com.utn.productos.repository.ProductoRepository;
+import com.utn.productos.service.ProductoService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// ProductoRepository.findByCategoria contra un H2 en memoria precargado
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class RepositorioBenchmark {
+
+    private static final int TAMANIO_CHUNK = 1000;
+
+    @Param({"10000", "100000"})
+    private int filas;
+
+    private ConfigurableApplicationContext contexto;
+    private ProductoRepository productoRepository;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        contexto = ContextoBenchmark.iniciar("repositorio-benchmark");
+        productoRepository = contexto.getBean(ProductoRepository.class);
+        ProductoService productoService = contexto.getBean(ProductoService.class);
+
+        List<Producto> bloque = new ArrayList<>(TAMANIO_CHUNK);
+        for (int i = 0; i < filas; i++) {
+            bloque.add(ContextoBenchmark.producto(i));
+            if (bloque.size() == TAMANIO_CHUNK) {
+                productoService.guardarLote(bloque);
+                bloque = new ArrayList<>(TAMANIO_CHUNK);
+            }
+        }
+        if (!bloque.isEmpty()) {
+            productoService.guardarLote(bloque);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public List<Producto> findByCategoria() {
+        return productoRepository.findByCategoria(Categoria.ELECTRONICA);
+    }
+}
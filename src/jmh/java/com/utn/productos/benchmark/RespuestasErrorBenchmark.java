@@ -0,0 +1,75 @@
+package com.utn.productos.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.utn.productos.exception.ErrorResponse;
+import com.utn.productos.exception.GlobalExceptionHandler;
+import com.utn.productos.exception.ProductoNotFoundException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Camino de un 404 por id inexistente, desde que el servicio lanza la excepción hasta los bytes de la
+// respuesta. "anterior" reproduce lo que se hacía antes: RuntimeException con stack trace, ErrorResponse
+// con LocalDateTime.now() y getDescription().replace(), serializado con Jackson. La excepción se lanza a
+// `profundidad` frames, porque el costo de capturar la pila crece con ella (una request real atraviesa
+// ~100 frames de Tomcat y Spring antes de llegar al servicio).
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class RespuestasErrorBenchmark {
+
+    @Param({"20", "150"})
+    public int profundidad;
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private MockHttpServletRequest request;
+    // Se reutiliza entre operaciones para no medir la creación del mock
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Setup
+    public void preparar() {
+        request = new MockHttpServletRequest("DELETE", "/api/productos/999999999");
+        request.addHeader("Accept", "*/*");
+    }
+
+    @Benchmark
+    public MockHttpServletResponse anterior() throws IOException {
+        response.reset();
+        try {
+            lanzar(profundidad, () -> new RuntimeException("Producto no encontrado con id: " + 999999999L));
+        } catch (RuntimeException ex) {
+            ErrorResponse error = new ErrorResponse(LocalDateTime.now(), 404, ex.getMessage(),
+                    new ServletWebRequest(request).getDescription(false).replace("uri=", ""));
+            response.setStatus(404);
+            response.setContentType("application/json");
+            objectMapper.writeValue(response.getOutputStream(), error);
+        }
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse actual() throws IOException {
+        response.reset();
+        try {
+            lanzar(profundidad, () -> new ProductoNotFoundException(999999999L));
+        } catch (ProductoNotFoundException ex) {
+            handler.handleProductoNotFoundException(ex, request, response);
+        }
+        return response;
+    }
+
+    private static void lanzar(int profundidad, Supplier<RuntimeException> excepcion) {
+        if (profundidad == 0) {
+            throw excepcion.get();
+        }
+        lanzar(profundidad - 1, excepcion);
+    }
+}
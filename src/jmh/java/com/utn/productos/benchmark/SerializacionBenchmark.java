@@ -0,0 +1,113 @@
+package com.utn.productos.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufMapper;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchema;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.utn.productos.config.ProtobufProductosHttpMessageConverter.ListaProductos;
+import com.utn.productos.dto.ProductoResponseDTO;
+import com.utn.productos.model.Producto;
+import lombok.extern.slf4j.Slf4j;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Serialización y lectura de List<ProductoResponseDTO> en cada formato que negocia el controlador:
+// JSON, CBOR y Smile (enums por ordinal, como en FormatosBinariosConfig) y Protobuf (dentro de ListaProductos)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Slf4j
+public class SerializacionBenchmark {
+
+    @Param({"1000", "100000"})
+    private int cantidad;
+
+    @Param({"json", "cbor", "smile", "protobuf"})
+    private String formato;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private Object mensaje;
+    private byte[] codificado;
+
+    @Setup
+    public void preparar() throws IOException {
+        List<ProductoResponseDTO> productos = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            Producto p = ContextoBenchmark.producto(i);
+            productos.add(new ProductoResponseDTO((long) i, p.getNombre(), p.getDescripcion(),
+                    p.getPrecio(), p.getStock(), p.getCategoria()));
+        }
+        TypeReference<List<ProductoResponseDTO>> tipoLista = new TypeReference<>() {
+        };
+        mensaje = productos;
+        switch (formato) {
+            case "json" -> {
+                ObjectMapper mapper = new ObjectMapper();
+                writer = mapper.writerFor(tipoLista);
+                reader = mapper.readerFor(tipoLista);
+            }
+            case "cbor" -> {
+                ObjectMapper mapper = CBORMapper.builder()
+                        .enable(SerializationFeature.WRITE_ENUMS_USING_INDEX).build();
+                writer = mapper.writerFor(tipoLista);
+                reader = mapper.readerFor(tipoLista);
+            }
+            case "smile" -> {
+                ObjectMapper mapper = SmileMapper.builder()
+                        .enable(SerializationFeature.WRITE_ENUMS_USING_INDEX).build();
+                writer = mapper.writerFor(tipoLista);
+                reader = mapper.readerFor(tipoLista);
+            }
+            case "protobuf" -> {
+                ProtobufMapper mapper = new ProtobufMapper();
+                ProtobufSchema esquema = mapper.generateSchemaFor(ListaProductos.class);
+                writer = mapper.writer(esquema);
+                reader = mapper.readerFor(ListaProductos.class).with(esquema);
+                mensaje = new ListaProductos(productos);
+            }
+            default -> throw new IllegalArgumentException("Formato desconocido: " + formato);
+        }
+        codificado = writer.writeValueAsBytes(mensaje);
+        log.info("{}, {} productos: {} bytes ({} por producto)", formato, cantidad, codificado.length,
+                String.format("%.1f", (double) codificado.length / cantidad));
+    }
+
+    @Benchmark
+    public long serializarLista() throws IOException {
+        ContadorBytes salida = new ContadorBytes();
+        writer.writeValue(salida, mensaje);
+        return salida.bytes;
+    }
+
+    @Benchmark
+    public Object deserializarLista() throws IOException {
+        return reader.readValue(codificado);
+    }
+
+    // Descarta los bytes para medir sólo la codificación, sin copiar buffers
+    private static final class ContadorBytes extends OutputStream {
+
+        private long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+}
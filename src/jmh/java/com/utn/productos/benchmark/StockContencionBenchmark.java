@@ -0,0 +1,56 @@
+package com.utn.productos.benchmark;
+
+import com.utn.productos.model.Producto;
+import com.utn.productos.service.ProductoService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+// Actualización de stock de un único producto "caliente" desde muchos hilos a la vez,
+// con el stock en la base (writeBehind=false) o en contadores en memoria volcados en segundo plano
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Threads(16)
+public class StockContencionBenchmark {
+
+    @Param({"false", "true"})
+    public boolean writeBehind;
+
+    private ConfigurableApplicationContext contexto;
+    private ProductoService productoService;
+    private Long id;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        contexto = ContextoBenchmark.iniciar("stock-benchmark-" + writeBehind,
+                "productos.stock.write-behind.habilitado=" + writeBehind,
+                "productos.stock.write-behind.diario=" + Files.createTempDirectory("stock-diario"),
+                "productos.cambios.directorio=" + Files.createTempDirectory("cambios"));
+        productoService = contexto.getBean(ProductoService.class);
+        Producto producto = ContextoBenchmark.producto(1);
+        producto.setStock(Integer.MAX_VALUE / 2);
+        id = productoService.crearProducto(producto).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        contexto.close();
+    }
+
+    // PATCH /{id}/stock: findById + save (lectura-modificación-escritura), o sólo el contador en write-behind
+    @Benchmark
+    public Producto actualizarStock() {
+        return productoService.actualizarStock(id, 1000);
+    }
+
+    // POST /{id}/stock/reservar + /liberar: UPDATE condicional atómico
+    @Benchmark
+    public Producto reservarYLiberarStock() {
+        productoService.reservarStock(id, 1);
+        return productoService.liberarStock(id, 1);
+    }
+}
@@ -0,0 +1,46 @@
+package com.utn.productos.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.utn.productos.benchmark.ContextoBenchmark;
+import com.utn.productos.dto.ProductoDTO;
+import com.utn.productos.dto.ProductoResponseDTO;
+import com.utn.productos.model.Producto;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Costo de ProductoController.mapToDTO / mapToEntity
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class MapeoProductoBenchmark {
+
+    private ProductoController controller;
+    private Producto producto;
+    private ProductoDTO dto;
+
+    @Setup
+    public void preparar() {
+        // El mapeo no usa el servicio ni el validador
+        controller = new ProductoController(null, new ObjectMapper(), null, 1000);
+        producto = ContextoBenchmark.producto(42);
+        producto.setId(42L);
+
+        dto = new ProductoDTO();
+        dto.setNombre(producto.getNombre());
+        dto.setDescripcion(producto.getDescripcion());
+        dto.setPrecio(producto.getPrecio());
+        dto.setStock(producto.getStock());
+        dto.setCategoria(producto.getCategoria());
+    }
+
+    @Benchmark
+    public ProductoResponseDTO mapToDTO() {
+        return ProductoController.mapToDTO(producto);
+    }
+
+    @Benchmark
+    public Producto mapToEntity() {
+        return controller.mapToEntity(dto);
+    }
+}
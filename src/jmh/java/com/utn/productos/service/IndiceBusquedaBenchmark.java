@@ -0,0 +1,58 @@
+package com.utn.productos.service;
+
+import com.utn.productos.model.Categoria;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Latencia de consulta del índice invertido con un catálogo sintético de gran tamaño
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class IndiceBusquedaBenchmark {
+
+    private static final String[] MARCAS = {"samsung", "lenovo", "motorola", "philips", "adidas", "nike",
+            "puma", "arcor", "bagley", "tramontina", "oster", "atma", "xiaomi", "apple", "sony"};
+    private static final String[] TIPOS = {"smartphone", "tablet", "notebook", "remera", "zapatilla", "pelota",
+            "galletitas", "sarten", "licuadora", "auriculares", "campera", "mochila", "cafetera", "monitor"};
+    private static final String[] ATRIBUTOS = {"negro", "blanco", "rojo", "azul", "grande", "chico", "premium",
+            "inalambrico", "resistente", "liviano", "clasico", "deportivo", "original", "oferta"};
+
+    @Param({"1000000"})
+    private int productos;
+
+    private IndiceBusqueda indice;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        // Sin repositorio: el índice se carga directamente con indexar (fuera de transacción se aplica en el acto)
+        indice = new IndiceBusqueda(null, null, false, 0);
+        SplittableRandom azar = new SplittableRandom(42);
+        for (long id = 1; id <= productos; id++) {
+            String nombre = TIPOS[azar.nextInt(TIPOS.length)] + " " + MARCAS[azar.nextInt(MARCAS.length)]
+                    + " modelo" + azar.nextInt(5000);
+            String descripcion = ATRIBUTOS[azar.nextInt(ATRIBUTOS.length)] + " "
+                    + ATRIBUTOS[azar.nextInt(ATRIBUTOS.length)] + " lote" + azar.nextInt(100_000);
+            indice.indexar(new IndiceBusqueda.Documento(id, nombre, descripcion,
+                    Categoria.values()[azar.nextInt(Categoria.values().length)], 1.0 + azar.nextInt(1000)));
+        }
+    }
+
+    @Benchmark
+    public List<Long> terminoSelectivo() {
+        return indice.buscar("modelo1234", null, null, null, 20);
+    }
+
+    @Benchmark
+    public List<Long> prefijoSelectivo() {
+        return indice.buscar("lote9999", null, null, null, 20);
+    }
+
+    @Benchmark
+    public List<Long> dosTerminosConFiltros() {
+        return indice.buscar("samsung modelo12", Categoria.ELECTRONICA, 100.0, 500.0, 20);
+    }
+}
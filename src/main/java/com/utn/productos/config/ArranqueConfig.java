@@ -0,0 +1,53 @@
+package com.utn.productos.config;
+
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.MethodMetadata;
+
+import java.util.List;
+
+// Inicialización diferida de lo que no hace falta para atender la API: los beans declarados en los paquetes
+// de productos.arranque.diferidos (springdoc, consola H2) se crean recién cuando algo los usa (el primer
+// pedido a /v3/api-docs o /swagger-ui). El resto del contexto sigue siendo eager: un error de configuración
+// de la API tiene que impedir el arranque, no aparecer en el primer request.
+@Configuration
+public class ArranqueConfig {
+
+    // Static: es un BeanFactoryPostProcessor y tiene que registrarse antes que el resto de los beans
+    @Bean
+    public static BeanFactoryPostProcessor diferirBeansNoCriticos(Environment environment) {
+        List<String> paquetes = Binder.get(environment)
+                .bind("productos.arranque.diferidos", Bindable.listOf(String.class))
+                .orElse(List.of());
+        return beanFactory -> {
+            if (paquetes.isEmpty()) {
+                return;
+            }
+            for (String nombre : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition definicion = beanFactory.getBeanDefinition(nombre);
+                String clase = claseDeclarante(definicion);
+                if (clase != null && paquetes.stream().anyMatch(p -> clase.startsWith(p + "."))) {
+                    definicion.setLazyInit(true);
+                }
+            }
+        };
+    }
+
+    // Para los métodos @Bean cuenta la configuración que los declara (el tipo devuelto suele ser de Spring);
+    // con AOT las definiciones llegan ya generadas, con el lazy-init resuelto en el build
+    private static String claseDeclarante(BeanDefinition definicion) {
+        if (definicion instanceof AnnotatedBeanDefinition anotada) {
+            MethodMetadata metodo = anotada.getFactoryMethodMetadata();
+            if (metodo != null) {
+                return metodo.getDeclaringClassName();
+            }
+        }
+        return definicion.getBeanClassName();
+    }
+}
@@ -0,0 +1,15 @@
+package com.utn.productos.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+// Los tamaños y el TTL de las cachés se configuran en application.properties (spring.cache.caffeine.spec).
+// Las cachés las usa ProductoCache directamente (sin @Cacheable): así puede descartar el valor de una
+// lectura que terminó después de la invalidación de un cambio confirmado.
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String PRODUCTOS = "productos";
+    public static final String PRODUCTOS_POR_CATEGORIA = "productosPorCategoria";
+}
@@ -0,0 +1,53 @@
+package com.utn.productos.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+// Activa LimitadorConexionesDataSource cuando se define productos.bd.limite-concurrencia
+// (el perfil "virtual" lo iguala al tamaño del pool de Hikari). Envuelve sólo el DataSource "dataSource":
+// con réplica de lectura, los pools de la primaria y de la réplica quedan detrás de él y el límite
+// es sobre el total de conexiones.
+@Configuration
+@ConditionalOnProperty("productos.bd.limite-concurrencia")
+public class ConcurrenciaBDConfig {
+
+    @Bean
+    static BeanPostProcessor limitadorConexionesPostProcessor(Environment environment) {
+        int limite = environment.getRequiredProperty("productos.bd.limite-concurrencia", Integer.class);
+        long esperaMaximaMs = environment.getProperty("productos.bd.espera-maxima-ms", Long.class, 5000L);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof LimitadorConexionesDataSource)
+                        && "dataSource".equals(beanName)) {
+                    return new LimitadorConexionesDataSource(dataSource, limite, esperaMaximaMs);
+                }
+                return bean;
+            }
+        };
+    }
+
+    // Saturación del limitador: permisos libres e hilos esperando una conexión
+    @Bean
+    MeterBinder limitadorConexionesMetricas(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof LimitadorConexionesDataSource limitador) {
+                Gauge.builder("productos.bd.limitador.disponibles", limitador,
+                                LimitadorConexionesDataSource::getPermisosDisponibles)
+                        .description("Permisos libres para acceder a la base de datos")
+                        .register(registry);
+                Gauge.builder("productos.bd.limitador.en.espera", limitador,
+                                LimitadorConexionesDataSource::getHilosEnEspera)
+                        .description("Hilos esperando un permiso para acceder a la base de datos")
+                        .register(registry);
+            }
+        };
+    }
+}
@@ -0,0 +1,31 @@
+package com.utn.productos.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Cuenta las sentencias que Hibernate prepara en el hilo actual. Hibernate crea la instancia por
+// nombre de clase, por eso el contador es estático y por hilo; MetricasSqlInterceptor lo abre y
+// cierra alrededor de cada request.
+public class ContadorSentenciasSql implements StatementInspector {
+
+    private static final ThreadLocal<int[]> CONTADOR = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        int[] contador = CONTADOR.get();
+        if (contador != null) {
+            contador[0]++;
+        }
+        return sql;
+    }
+
+    public static void iniciar() {
+        CONTADOR.set(new int[1]);
+    }
+
+    // Devuelve la cantidad de sentencias desde iniciar() y deja de contar; -1 si no se estaba contando
+    public static int finalizar() {
+        int[] contador = CONTADOR.get();
+        CONTADOR.remove();
+        return contador == null ? -1 : contador[0];
+    }
+}
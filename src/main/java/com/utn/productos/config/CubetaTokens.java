@@ -0,0 +1,34 @@
+package com.utn.productos.config;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Cubeta de tokens sin locks. Se implementa como GCRA: todo el estado es un único long, el instante en que la
+// cubeta vuelve a estar llena, que se avanza con CAS. Equivale a una cubeta de 'capacidad' tokens que se
+// repone a 'porSegundo' tokens por segundo, sin un hilo que la recargue.
+final class CubetaTokens {
+
+    private final long intervaloNanos;
+    private final long capacidadNanos;
+    private final AtomicLong llenaEn;
+
+    CubetaTokens(double porSegundo, int capacidad, long ahora) {
+        this.intervaloNanos = Math.max(1, (long) (1_000_000_000L / porSegundo));
+        this.capacidadNanos = intervaloNanos * Math.max(1, capacidad);
+        this.llenaEn = new AtomicLong(ahora);
+    }
+
+    // Toma un token: 0 si lo había, o cuántos nanosegundos faltan para que haya uno
+    long tomar(long ahora) {
+        while (true) {
+            long actual = llenaEn.get();
+            long siguiente = Math.max(actual, ahora) + intervaloNanos;
+            long faltan = siguiente - ahora - capacidadNanos;
+            if (faltan > 0) {
+                return faltan;
+            }
+            if (llenaEn.compareAndSet(actual, siguiente)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.utn.productos.config;
+
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+// Formatos binarios para llamadas entre servicios, elegidos con el header Accept (y Content-Type al enviar):
+// application/cbor, application/x-jackson-smile y application/x-protobuf. Van después de JSON en la lista
+// de conversores, así que sin Accept (o con */*) se sigue respondiendo JSON.
+@Configuration
+public class FormatosBinariosConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> builders;
+    private final ProtobufProductosHttpMessageConverter protobuf;
+
+    public FormatosBinariosConfig(ObjectProvider<Jackson2ObjectMapperBuilder> builders,
+                                  ProtobufProductosHttpMessageConverter protobuf) {
+        this.builders = builders;
+        this.protobuf = protobuf;
+    }
+
+    @Bean
+    public static ProtobufProductosHttpMessageConverter protobufProductosHttpMessageConverter() {
+        return new ProtobufProductosHttpMessageConverter();
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Reemplaza los de Spring por unos con la configuración de Jackson de la aplicación
+        // y con los enums (Categoria) codificados por ordinal en lugar de por nombre
+        converters.removeIf(c -> c instanceof MappingJackson2CborHttpMessageConverter
+                || c instanceof MappingJackson2SmileHttpMessageConverter
+                || c instanceof ProtobufProductosHttpMessageConverter);
+        converters.add(new MappingJackson2CborHttpMessageConverter(builders.getObject()
+                .factory(new CBORFactory())
+                .featuresToEnable(SerializationFeature.WRITE_ENUMS_USING_INDEX)
+                .build()));
+        converters.add(new MappingJackson2SmileHttpMessageConverter(builders.getObject()
+                .factory(new SmileFactory())
+                .featuresToEnable(SerializationFeature.WRITE_ENUMS_USING_INDEX)
+                .build()));
+        converters.add(protobuf);
+    }
+}
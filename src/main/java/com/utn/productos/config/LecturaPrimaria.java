@@ -0,0 +1,39 @@
+package com.utn.productos.config;
+
+import java.util.function.Supplier;
+
+// Lecturas que no toleran el retraso de la réplica aunque corran en una transacción de sólo lectura:
+// las que preceden a una escritura (leer-modificar-guardar) y las cargas iniciales de estructuras en
+// memoria que después se mantienen con cada cambio. Sin réplica configurada no tiene efecto.
+public final class LecturaPrimaria {
+
+    private static final ThreadLocal<Boolean> FORZADA = new ThreadLocal<>();
+
+    private LecturaPrimaria() {
+    }
+
+    // La conexión se elige al ejecutar la primera sentencia, así que la transacción tiene que empezar
+    // y terminar dentro de lectura
+    public static <T> T ejecutar(Supplier<T> lectura) {
+        Boolean anterior = FORZADA.get();
+        FORZADA.set(Boolean.TRUE);
+        try {
+            return lectura.get();
+        } finally {
+            if (anterior == null) {
+                FORZADA.remove();
+            }
+        }
+    }
+
+    public static void ejecutar(Runnable lectura) {
+        ejecutar(() -> {
+            lectura.run();
+            return null;
+        });
+    }
+
+    static boolean forzada() {
+        return FORZADA.get() != null;
+    }
+}
@@ -0,0 +1,196 @@
+package com.utn.productos.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.utn.productos.exception.PlantillaError;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.security.Principal;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+
+// Delante de /api/productos: primero la cubeta de tokens del cliente para el tipo de ruta (429 si se agotó),
+// después el límite de concurrencia adaptativo global (503 si está lleno). Ambos rechazos llevan Retry-After
+// y se resuelven sin tocar la base. El cliente es el usuario autenticado o, si no hay, la IP; el header
+// configurado sólo se toma de los proxies de confianza.
+public class LimitadorTraficoFilter extends OncePerRequestFilter {
+
+    public enum TipoRuta {
+        LECTURA,
+        ESCRITURA,
+        MASIVA
+    }
+
+    // Tasa sostenida y ráfaga permitidas a cada cliente para un tipo de ruta
+    public record Presupuesto(double porSegundo, int rafaga) {
+    }
+
+    private static final PlantillaError DEMASIADAS_SOLICITUDES = new PlantillaError(HttpStatus.TOO_MANY_REQUESTS,
+            "Demasiadas solicitudes, reintente más tarde");
+    private static final PlantillaError SATURADO = new PlantillaError(HttpStatus.SERVICE_UNAVAILABLE,
+            "Servicio saturado, reintente en unos segundos");
+
+    private final Map<TipoRuta, Presupuesto> presupuestos;
+    private final LimiteConcurrenciaAdaptativo concurrencia;
+    private final String headerCliente;
+    private final Set<String> proxiesConfiables;
+    // Clientes inactivos se descartan: al volver empiezan con las cubetas llenas
+    private final Cache<String, Map<TipoRuta, CubetaTokens>> cubetas = Caffeine.newBuilder()
+            .expireAfterAccess(Duration.ofMinutes(10))
+            .maximumSize(100_000)
+            .build();
+    private final Map<TipoRuta, Counter> admitidas = new EnumMap<>(TipoRuta.class);
+    private final Map<TipoRuta, Counter> rechazadasPorTasa = new EnumMap<>(TipoRuta.class);
+    private final Map<TipoRuta, Counter> rechazadasPorConcurrencia = new EnumMap<>(TipoRuta.class);
+
+    LimitadorTraficoFilter(Map<TipoRuta, Presupuesto> presupuestos, LimiteConcurrenciaAdaptativo concurrencia,
+                           String headerCliente, Set<String> proxiesConfiables, MeterRegistry meterRegistry) {
+        this.presupuestos = presupuestos;
+        this.concurrencia = concurrencia;
+        this.headerCliente = headerCliente;
+        this.proxiesConfiables = proxiesConfiables;
+        for (TipoRuta tipo : TipoRuta.values()) {
+            String nombre = tipo.name().toLowerCase();
+            admitidas.put(tipo, Counter.builder("productos.limites.admitidas")
+                    .description("Requests admitidas por el limitador de tráfico")
+                    .tag("tipo", nombre)
+                    .register(meterRegistry));
+            rechazadasPorTasa.put(tipo, Counter.builder("productos.limites.rechazadas")
+                    .description("Requests rechazadas por el limitador de tráfico")
+                    .tag("tipo", nombre)
+                    .tag("motivo", "tasa")
+                    .register(meterRegistry));
+            rechazadasPorConcurrencia.put(tipo, Counter.builder("productos.limites.rechazadas")
+                    .description("Requests rechazadas por el limitador de tráfico")
+                    .tag("tipo", nombre)
+                    .tag("motivo", "concurrencia")
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        TipoRuta tipo = clasificar(request);
+        long ahora = System.nanoTime();
+        long faltan = cubetasDe(cliente(request), ahora).get(tipo).tomar(ahora);
+        if (faltan > 0) {
+            rechazadasPorTasa.get(tipo).increment();
+            rechazar(request, response, DEMASIADAS_SOLICITUDES, (faltan + 999_999_999L) / 1_000_000_000L);
+            return;
+        }
+
+        // El flujo SSE de cambios queda abierto indefinidamente: no ocupa lugar en el límite de concurrencia
+        if (esFlujoDeCambios(request)) {
+            admitidas.get(tipo).increment();
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!concurrencia.intentarAdmitir()) {
+            rechazadasPorConcurrencia.get(tipo).increment();
+            rechazar(request, response, SATURADO, 1);
+            return;
+        }
+        admitidas.get(tipo).increment();
+
+        boolean completada = false;
+        try {
+            chain.doFilter(request, response);
+            completada = true;
+        } finally {
+            if (request.isAsyncStarted()) {
+                // Exportaciones en streaming: el lugar se libera cuando termina la respuesta
+                request.getAsyncContext().addListener(new LiberarAlTerminar());
+            } else if (tipo == TipoRuta.MASIVA) {
+                concurrencia.liberarSinMedir();
+            } else {
+                concurrencia.liberar(System.nanoTime() - ahora,
+                        !completada || response.getStatus() == HttpStatus.SERVICE_UNAVAILABLE.value());
+            }
+        }
+    }
+
+    // Cargas y descargas masivas, escrituras y el resto (lecturas). Sólo por ruta: el Accept lo elige el
+    // cliente, y un GET de un producto no pasa a ser masivo por pedir NDJSON
+    static TipoRuta clasificar(HttpServletRequest request) {
+        String ruta = request.getRequestURI().substring(request.getContextPath().length());
+        if (ruta.endsWith("/batch") || ruta.endsWith("/import") || ruta.endsWith("/export")) {
+            return TipoRuta.MASIVA;
+        }
+        return switch (request.getMethod()) {
+            case "GET", "HEAD", "OPTIONS" -> TipoRuta.LECTURA;
+            default -> TipoRuta.ESCRITURA;
+        };
+    }
+
+    private static boolean esFlujoDeCambios(HttpServletRequest request) {
+        return request.getRequestURI().endsWith("/cambios");
+    }
+
+    // El header lo completa el proxy: aceptado de cualquier origen, un cliente podría mandar un valor nuevo en
+    // cada request para estrenar cubetas llenas y, de paso, desplazar de la caché las de los demás
+    private String cliente(HttpServletRequest request) {
+        Principal usuario = request.getUserPrincipal();
+        if (usuario != null) {
+            return "usuario:" + usuario.getName();
+        }
+        String ip = request.getRemoteAddr();
+        if (!headerCliente.isEmpty() && proxiesConfiables.contains(ip)) {
+            String cliente = request.getHeader(headerCliente);
+            if (cliente != null && !cliente.isBlank()) {
+                return "cliente:" + cliente;
+            }
+        }
+        return ip;
+    }
+
+    private Map<TipoRuta, CubetaTokens> cubetasDe(String cliente, long ahora) {
+        return cubetas.get(cliente, clave -> {
+            Map<TipoRuta, CubetaTokens> porTipo = new EnumMap<>(TipoRuta.class);
+            presupuestos.forEach((tipo, presupuesto) ->
+                    porTipo.put(tipo, new CubetaTokens(presupuesto.porSegundo(), presupuesto.rafaga(), ahora)));
+            return porTipo;
+        });
+    }
+
+    private static void rechazar(HttpServletRequest request, HttpServletResponse response, PlantillaError plantilla,
+                                 long segundos) throws IOException {
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, segundos)));
+        plantilla.escribir(null, request, response);
+    }
+
+    private final class LiberarAlTerminar implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            concurrencia.liberarSinMedir();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.utn.productos.config;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+
+// Límite de requests en vuelo que se ajusta solo (AIMD):
+// - Sube de a 1 cada 'limite' respuestas rápidas.
+// - Baja un 10% ante una señal de saturación, como mucho una vez por latencia objetivo.
+//   Las señales son una respuesta más lenta que la objetivo, un 503 por falta de conexión o hilos
+//   esperando una conexión de Hikari.
+// Así el servicio rechaza lo que excede su capacidad antes de que el pool de conexiones se agote y
+// todas las requests empiecen a esperar.
+final class LimiteConcurrenciaAdaptativo {
+
+    private final int minimo;
+    private final int maximo;
+    private final long latenciaObjetivoNanos;
+    private final IntSupplier esperandoConexion;
+    private final AtomicInteger limite;
+    private final AtomicInteger enCurso = new AtomicInteger();
+    private final AtomicInteger rapidasDesdeAumento = new AtomicInteger();
+    private final AtomicLong ultimaReduccion;
+
+    LimiteConcurrenciaAdaptativo(int inicial, int minimo, int maximo, long latenciaObjetivoNanos,
+                                 IntSupplier esperandoConexion) {
+        this.minimo = minimo;
+        this.maximo = maximo;
+        this.latenciaObjetivoNanos = latenciaObjetivoNanos;
+        this.esperandoConexion = esperandoConexion;
+        this.limite = new AtomicInteger(Math.max(minimo, Math.min(maximo, inicial)));
+        this.ultimaReduccion = new AtomicLong(System.nanoTime() - latenciaObjetivoNanos);
+    }
+
+    boolean intentarAdmitir() {
+        while (true) {
+            int actual = enCurso.get();
+            if (actual >= limite.get()) {
+                return false;
+            }
+            if (enCurso.compareAndSet(actual, actual + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // Fin de una request admitida, con su latencia como muestra para ajustar el límite
+    void liberar(long latenciaNanos, boolean saturada) {
+        enCurso.decrementAndGet();
+        if (saturada || latenciaNanos > latenciaObjetivoNanos || esperandoConexion.getAsInt() > 0) {
+            reducir();
+        } else if (rapidasDesdeAumento.incrementAndGet() >= limite.get()) {
+            rapidasDesdeAumento.set(0);
+            limite.updateAndGet(actual -> Math.min(maximo, actual + 1));
+        }
+    }
+
+    // Fin de una request cuya duración no indica saturación (importaciones, exportaciones, streaming)
+    void liberarSinMedir() {
+        enCurso.decrementAndGet();
+    }
+
+    int getLimite() {
+        return limite.get();
+    }
+
+    int getEnCurso() {
+        return enCurso.get();
+    }
+
+    private void reducir() {
+        long ahora = System.nanoTime();
+        long anterior = ultimaReduccion.get();
+        if (ahora - anterior < latenciaObjetivoNanos || !ultimaReduccion.compareAndSet(anterior, ahora)) {
+            return;
+        }
+        rapidasDesdeAumento.set(0);
+        limite.updateAndGet(actual -> Math.max(minimo, Math.min(actual - 1, (int) (actual * 0.9))));
+    }
+}
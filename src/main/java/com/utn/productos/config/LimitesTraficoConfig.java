@@ -0,0 +1,92 @@
+package com.utn.productos.config;
+
+import com.utn.productos.config.LimitadorTraficoFilter.Presupuesto;
+import com.utn.productos.config.LimitadorTraficoFilter.TipoRuta;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntSupplier;
+
+// Limitador de tráfico de /api/productos. Se activa con productos.limites.habilitado=true (perfil prod): en
+// desarrollo, con un solo cliente en la máquina, los presupuestos sólo frenarían los propios endpoints masivos.
+@Configuration
+@ConditionalOnProperty(name = "productos.limites.habilitado", havingValue = "true")
+public class LimitesTraficoConfig {
+
+    @Bean
+    LimiteConcurrenciaAdaptativo limiteConcurrencia(
+            MeterRegistry meterRegistry, DataSource dataSource,
+            @Value("${productos.limites.concurrencia.inicial:20}") int concurrenciaInicial,
+            @Value("${productos.limites.concurrencia.minimo:4}") int concurrenciaMinima,
+            @Value("${productos.limites.concurrencia.maximo:200}") int concurrenciaMaxima,
+            @Value("${productos.limites.concurrencia.latencia-objetivo:250ms}") Duration latenciaObjetivo) {
+
+        LimiteConcurrenciaAdaptativo concurrencia = new LimiteConcurrenciaAdaptativo(concurrenciaInicial,
+                concurrenciaMinima, concurrenciaMaxima, latenciaObjetivo.toNanos(), esperandoConexion(dataSource));
+        Gauge.builder("productos.limites.concurrencia.limite", concurrencia, LimiteConcurrenciaAdaptativo::getLimite)
+                .description("Límite actual de requests en vuelo")
+                .register(meterRegistry);
+        Gauge.builder("productos.limites.concurrencia.en.curso", concurrencia, LimiteConcurrenciaAdaptativo::getEnCurso)
+                .description("Requests en vuelo admitidas por el limitador")
+                .register(meterRegistry);
+        return concurrencia;
+    }
+
+    @Bean
+    FilterRegistrationBean<LimitadorTraficoFilter> limitadorTrafico(
+            LimiteConcurrenciaAdaptativo concurrencia, MeterRegistry meterRegistry,
+            @Value("${productos.limites.cliente-header:}") String headerCliente,
+            @Value("${productos.limites.proxies-confiables:}") Set<String> proxiesConfiables,
+            @Value("${productos.limites.lectura.por-segundo:100}") double lecturasPorSegundo,
+            @Value("${productos.limites.lectura.rafaga:200}") int rafagaLecturas,
+            @Value("${productos.limites.escritura.por-segundo:20}") double escriturasPorSegundo,
+            @Value("${productos.limites.escritura.rafaga:40}") int rafagaEscrituras,
+            @Value("${productos.limites.masiva.por-segundo:0.2}") double masivasPorSegundo,
+            @Value("${productos.limites.masiva.rafaga:2}") int rafagaMasivas) {
+
+        Map<TipoRuta, Presupuesto> presupuestos = new EnumMap<>(TipoRuta.class);
+        presupuestos.put(TipoRuta.LECTURA, new Presupuesto(lecturasPorSegundo, rafagaLecturas));
+        presupuestos.put(TipoRuta.ESCRITURA, new Presupuesto(escriturasPorSegundo, rafagaEscrituras));
+        presupuestos.put(TipoRuta.MASIVA, new Presupuesto(masivasPorSegundo, rafagaMasivas));
+
+        FilterRegistrationBean<LimitadorTraficoFilter> registro = new FilterRegistrationBean<>(
+                new LimitadorTraficoFilter(presupuestos, concurrencia, headerCliente, proxiesConfiables,
+                        meterRegistry));
+        registro.addUrlPatterns("/api/productos", "/api/productos/*");
+        // Después del filtro de observación de Spring, para que los rechazos también cuenten en http.server.requests
+        registro.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registro;
+    }
+
+    // Hilos esperando una conexión de Hikari: la señal de que el pool está por agotarse
+    private static IntSupplier esperandoConexion(DataSource dataSource) {
+        HikariDataSource hikari;
+        try {
+            hikari = dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException ex) {
+            hikari = null;
+        }
+        if (hikari == null) {
+            return () -> 0;
+        }
+        HikariDataSource pool = hikari;
+        return () -> {
+            HikariPoolMXBean mxBean = pool.getHikariPoolMXBean();
+            return mxBean == null ? 0 : mxBean.getThreadsAwaitingConnection();
+        };
+    }
+}
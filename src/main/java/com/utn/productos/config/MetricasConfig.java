@@ -0,0 +1,80 @@
+package com.utn.productos.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// Instrumentación propia además de la que ya aporta Actuator
+// (http.server.requests por endpoint, hikaricp.* del pool y cache.* de Caffeine)
+@Configuration
+public class MetricasConfig implements WebMvcConfigurer {
+
+    private final MeterRegistry meterRegistry;
+
+    public MetricasConfig(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    // Habilita @Timed en ProductoService
+    @Bean
+    public TimedAspect timedAspect() {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new MetricasSqlInterceptor(meterRegistry)).addPathPatterns("/api/**");
+    }
+
+    // Registra cuántas sentencias SQL ejecutó Hibernate en cada request, por método y ruta. El contador es
+    // por hilo, así que los requests asíncronos (StreamingResponseBody, SSE) no se registran: sus consultas
+    // corren en otro hilo y el valor sería 0. El contador del hilo se descarta al pasar a modo asíncrono.
+    static class MetricasSqlInterceptor implements AsyncHandlerInterceptor {
+
+        private final MeterRegistry meterRegistry;
+
+        MetricasSqlInterceptor(MeterRegistry meterRegistry) {
+            this.meterRegistry = meterRegistry;
+        }
+
+        @Override
+        public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+            if (request.getDispatcherType() != DispatcherType.ASYNC) {
+                ContadorSentenciasSql.iniciar();
+            }
+            return true;
+        }
+
+        @Override
+        public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                                   Object handler) {
+            ContadorSentenciasSql.finalizar();
+        }
+
+        @Override
+        public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                    Exception ex) {
+            int sentencias = ContadorSentenciasSql.finalizar();
+            if (sentencias < 0) {
+                return;
+            }
+            Object ruta = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            DistributionSummary.builder("productos.sql.sentencias")
+                    .description("Sentencias SQL de Hibernate por request")
+                    .tag("method", request.getMethod())
+                    .tag("uri", ruta == null ? "UNKNOWN" : ruta.toString())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(sentencias);
+        }
+    }
+}
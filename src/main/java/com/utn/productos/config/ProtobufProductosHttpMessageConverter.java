@@ -0,0 +1,132 @@
+package com.utn.productos.config;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufMapper;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchema;
+import com.utn.productos.dto.ProductoDTO;
+import com.utn.productos.dto.ProductoResponseDTO;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Protobuf (application/x-protobuf) para los DTO de producto. Los esquemas se generan al iniciar a partir
+// de las clases, con los números de campo en el orden en que están declarados; Categoria queda como enum
+// de protobuf (se codifica por ordinal). Protobuf no admite una lista como mensaje raíz, así que los
+// listados viajan dentro de ListaProductos.
+public class ProtobufProductosHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final MediaType APPLICATION_PROTOBUF = new MediaType("application", "x-protobuf");
+
+    // Mensaje contenedor de los listados
+    public record ListaProductos(List<ProductoResponseDTO> productos) {
+    }
+
+    private final ProtobufMapper mapper = new ProtobufMapper();
+    private final Map<Class<?>, ProtobufSchema> esquemas;
+
+    public ProtobufProductosHttpMessageConverter() {
+        super(APPLICATION_PROTOBUF);
+        try {
+            this.esquemas = Map.of(
+                    ProductoResponseDTO.class, mapper.generateSchemaFor(ProductoResponseDTO.class),
+                    ProductoDTO.class, mapper.generateSchemaFor(ProductoDTO.class),
+                    ListaProductos.class, mapper.generateSchemaFor(ListaProductos.class));
+        } catch (JsonMappingException ex) {
+            throw new IllegalStateException("No se pudieron generar los esquemas protobuf", ex);
+        }
+    }
+
+    // Definición .proto de todos los mensajes, para que los clientes generen su código. Cada esquema
+    // generado repite los tipos que anida (Categoria, ProductoResponseDTO): se deja una sola definición de cada uno
+    public String esquemasProto() {
+        Map<String, String> definiciones = new LinkedHashMap<>();
+        for (Class<?> clase : List.of(ListaProductos.class, ProductoResponseDTO.class, ProductoDTO.class)) {
+            StringBuilder actual = null;
+            for (String linea : esquemas.get(clase).getSource().toString().split("\n")) {
+                if (linea.startsWith("message ") || linea.startsWith("enum ")) {
+                    actual = new StringBuilder();
+                }
+                if (actual != null) {
+                    actual.append(linea).append('\n');
+                    if (linea.equals("}")) {
+                        definiciones.putIfAbsent(actual.substring(0, actual.indexOf(" {")), actual.toString());
+                        actual = null;
+                    }
+                }
+            }
+        }
+        return "syntax = \"proto2\";\n\n" + String.join("\n", definiciones.values());
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return type == ProductoDTO.class && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return claseDeMensaje(type != null ? type : clazz) != null && canWrite(mediaType);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return esquemas.containsKey(clazz);
+    }
+
+    // Spring arma la lista de formatos ofrecibles con la clase del valor (ArrayList para los listados), después
+    // de validar el tipo declarado (List<ProductoResponseDTO>) con canWrite(Type, ...). Sin esto los endpoints
+    // que no declaran x-protobuf en produces (categoría, búsqueda) responden 406.
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        return supports(clazz) || List.class.isAssignableFrom(clazz) ? getSupportedMediaTypes() : List.of();
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        return readInternal((Class<?>) type, inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        try {
+            return mapper.readerFor(clazz).with(esquemas.get(clazz)).readValue(inputMessage.getBody());
+        } catch (IOException ex) {
+            throw new HttpMessageNotReadableException("Mensaje protobuf inválido: " + ex.getMessage(),
+                    ex, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object valor, Type type, HttpOutputMessage outputMessage) throws IOException {
+        Object mensaje = valor instanceof List<?> lista ? new ListaProductos(castLista(lista)) : valor;
+        mapper.writer(esquemas.get(mensaje.getClass())).writeValue(outputMessage.getBody(), mensaje);
+    }
+
+    // ProductoResponseDTO, ProductoDTO o List<ProductoResponseDTO> (como ListaProductos); null si no aplica
+    private Class<?> claseDeMensaje(Type type) {
+        if (type instanceof Class<?> clase) {
+            return clase == ProductoResponseDTO.class || clase == ProductoDTO.class ? clase : null;
+        }
+        if (type instanceof ParameterizedType parametrizado
+                && parametrizado.getRawType() instanceof Class<?> crudo
+                && List.class.isAssignableFrom(crudo)
+                && parametrizado.getActualTypeArguments()[0] == ProductoResponseDTO.class) {
+            return ListaProductos.class;
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<ProductoResponseDTO> castLista(List<?> lista) {
+        return (List<ProductoResponseDTO>) lista;
+    }
+}
@@ -0,0 +1,63 @@
+package com.utn.productos.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+// Réplica de lectura (productos.bd.replica.habilitada=true): dos pools de Hikari dimensionados por separado,
+// la primaria con spring.datasource.* y la réplica con productos.bd.replica.*, detrás de un único DataSource
+// que elige la base en cada transacción (RuteoLecturaDataSource). Así los recorridos largos del listado no
+// ocupan las conexiones que necesitan las actualizaciones de stock.
+@Configuration
+@ConditionalOnProperty(name = "productos.bd.replica.habilitada", havingValue = "true")
+public class ReplicaLecturaConfig {
+
+    // Los pools no son candidatos a inyección por tipo: el resto de la aplicación recibe "dataSource"
+    @Bean(defaultCandidate = false)
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource primariaDataSource(DataSourceProperties propiedades) {
+        HikariDataSource primaria = propiedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primaria.setPoolName("primaria");
+        return primaria;
+    }
+
+    @Bean(defaultCandidate = false)
+    @ConfigurationProperties("productos.bd.replica.hikari")
+    HikariDataSource replicaDataSource(DataSourceProperties propiedades,
+                                       @Value("${productos.bd.replica.url}") String url,
+                                       @Value("${productos.bd.replica.username:${spring.datasource.username:}}")
+                                       String usuario,
+                                       @Value("${productos.bd.replica.password:${spring.datasource.password:}}")
+                                       String clave) {
+        HikariDataSource replica = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(propiedades.determineDriverClassName())
+                .url(url)
+                .username(usuario)
+                .password(clave)
+                .build();
+        replica.setPoolName("replica");
+        replica.setReadOnly(true);
+        return replica;
+    }
+
+    @Bean
+    DataSource dataSource(@Qualifier("primariaDataSource") DataSource primaria,
+                          @Qualifier("replicaDataSource") DataSource replica, MeterRegistry meterRegistry,
+                          @Value("${productos.bd.replica.retraso-maximo:2s}") Duration retrasoMaximo,
+                          @Value("${productos.bd.replica.reintento:10s}") Duration reintento) {
+        return new LazyConnectionDataSourceProxy(new RuteoLecturaDataSource(primaria, replica,
+                retrasoMaximo.toNanos(), reintento.toNanos(), meterRegistry));
+    }
+}
@@ -0,0 +1,146 @@
+package com.utn.productos.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Elige la base de cada conexión: las transacciones de sólo lectura (@Transactional(readOnly = true) y las
+// lecturas de los repositorios fuera de una transacción) van a la réplica; todo lo demás, a la primaria.
+// Tiene que usarse detrás de un LazyConnectionDataSourceProxy, que pide la conexión real recién en la
+// primera sentencia, cuando ya se sabe si la transacción es de sólo lectura.
+// Política de retraso y de fallas:
+// - durante retrasoMaximo después de confirmar una escritura, las lecturas van a la primaria: cubre el
+//   retraso de replicación (el que escribió ve su cambio y la caché no se vuelve a llenar con datos viejos);
+// - si la réplica no entrega una conexión, se lee de la primaria y no se la vuelve a intentar durante
+//   reintento.
+public class RuteoLecturaDataSource extends AbstractDataSource {
+
+    private static final Logger log = LoggerFactory.getLogger(RuteoLecturaDataSource.class);
+
+    private enum Motivo {
+        ESCRITURA("escritura"),
+        LECTURA("lectura"),
+        LECTURA_FORZADA("lectura-forzada"),
+        ESCRITURA_RECIENTE("escritura-reciente"),
+        REPLICA_NO_DISPONIBLE("replica-no-disponible");
+
+        private final String etiqueta;
+
+        Motivo(String etiqueta) {
+            this.etiqueta = etiqueta;
+        }
+    }
+
+    private final DataSource primaria;
+    private final DataSource replica;
+    private final long retrasoMaximoNanos;
+    private final long reintentoNanos;
+    private final Counter[] aPrimaria = new Counter[Motivo.values().length];
+    private final Counter aReplica;
+    // Instantes (System.nanoTime) de la última escritura confirmada y hasta el que la réplica se evita
+    private final AtomicLong ultimaEscritura;
+    private volatile long replicaEvitadaHasta;
+    private volatile boolean replicaEvitada;
+
+    public RuteoLecturaDataSource(DataSource primaria, DataSource replica, long retrasoMaximoNanos,
+                                  long reintentoNanos, MeterRegistry meterRegistry) {
+        this.primaria = primaria;
+        this.replica = replica;
+        this.retrasoMaximoNanos = retrasoMaximoNanos;
+        this.reintentoNanos = reintentoNanos;
+        this.ultimaEscritura = new AtomicLong(System.nanoTime() - retrasoMaximoNanos - 1);
+        for (Motivo motivo : Motivo.values()) {
+            if (motivo != Motivo.LECTURA) {
+                aPrimaria[motivo.ordinal()] = contador(meterRegistry, "primaria", motivo);
+            }
+        }
+        this.aReplica = contador(meterRegistry, "replica", Motivo.LECTURA);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            registrarEscritura();
+            return aPrimaria(Motivo.ESCRITURA);
+        }
+        if (LecturaPrimaria.forzada()) {
+            return aPrimaria(Motivo.LECTURA_FORZADA);
+        }
+        long ahora = System.nanoTime();
+        if (ahora - ultimaEscritura.get() <= retrasoMaximoNanos) {
+            return aPrimaria(Motivo.ESCRITURA_RECIENTE);
+        }
+        if (replicaEvitada && ahora - replicaEvitadaHasta < 0) {
+            return aPrimaria(Motivo.REPLICA_NO_DISPONIBLE);
+        }
+        try {
+            Connection conexion = replica.getConnection();
+            if (replicaEvitada) {
+                replicaEvitada = false;
+                log.info("La réplica de lectura vuelve a estar disponible");
+            }
+            aReplica.increment();
+            return conexion;
+        } catch (SQLException | RuntimeException ex) {
+            replicaEvitadaHasta = ahora + reintentoNanos;
+            if (!replicaEvitada) {
+                replicaEvitada = true;
+                log.warn("Réplica de lectura no disponible, se lee de la primaria: {}", ex.getMessage());
+            }
+            return aPrimaria(Motivo.REPLICA_NO_DISPONIBLE);
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new UnsupportedOperationException("Las credenciales son las de cada pool");
+    }
+
+    // unwrap/isWrapperFor llegan a la primaria: LimitesTraficoConfig mira la saturación del pool de escritura
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return iface.isInstance(this) ? (T) this : primaria.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || primaria.isWrapperFor(iface);
+    }
+
+    private Connection aPrimaria(Motivo motivo) throws SQLException {
+        aPrimaria[motivo.ordinal()].increment();
+        return primaria.getConnection();
+    }
+
+    // El retraso se cuenta desde que la escritura se confirma. Las conexiones fuera de una transacción
+    // (arranque de Hibernate y Flyway, restauración de snapshots) no cuentan: todas las escrituras de la
+    // aplicación pasan por una transacción
+    private void registrarEscritura() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    ultimaEscritura.set(System.nanoTime());
+                }
+            });
+        }
+    }
+
+    private static Counter contador(MeterRegistry meterRegistry, String destino, Motivo motivo) {
+        return Counter.builder("productos.bd.conexiones")
+                .description("Conexiones entregadas por base (primaria o réplica) y motivo de la elección")
+                .tag("destino", destino)
+                .tag("motivo", motivo.etiqueta)
+                .register(meterRegistry);
+    }
+}
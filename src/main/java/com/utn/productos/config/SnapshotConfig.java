@@ -0,0 +1,40 @@
+package com.utn.productos.config;
+
+import com.utn.productos.service.SnapshotProductos;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+// Restauración del catálogo al arrancar (perfil prod). Corre como parte de la migración de Flyway,
+// que Spring Boot ejecuta antes de crear el EntityManagerFactory: cuando los índices en memoria
+// (ResumenCategorias, IndiceBusqueda) hacen su lectura inicial, los productos ya están cargados.
+@Configuration
+public class SnapshotConfig {
+
+    // "ultimo" toma el snapshot más reciente del directorio; vacío no restaura nada
+    private static final String ULTIMO = "ultimo";
+
+    @Bean
+    FlywayMigrationStrategy migrarYRestaurarSnapshot(SnapshotProductos snapshots,
+                                                     @Value("${productos.snapshot.restaurar:}") String restaurar) {
+        return flyway -> {
+            flyway.migrate();
+            if (restaurar.isBlank()) {
+                return;
+            }
+            try {
+                Optional<Path> archivo = ULTIMO.equals(restaurar) ? snapshots.ultimo() : Optional.of(Path.of(restaurar));
+                if (archivo.isPresent()) {
+                    snapshots.restaurar(archivo.get());
+                }
+            } catch (Exception ex) {
+                // Mejor no arrancar que servir un catálogo vacío o parcial
+                throw new IllegalStateException("No se pudo restaurar el snapshot de productos", ex);
+            }
+        };
+    }
+}
@@ -0,0 +1,55 @@
+package com.utn.productos.controller;
+
+import com.utn.productos.dto.SnapshotDTO;
+import com.utn.productos.service.SnapshotProductos;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+// Sin autenticación en la API: los endpoints de mantenimiento sólo existen con productos.admin.habilitado=true
+// (apagado por defecto, también en prod); sin la propiedad /api/admin/** responde 404
+@Tag(name = "Administración", description = "Operaciones de mantenimiento del catálogo")
+@RestController
+@ConditionalOnProperty(name = "productos.admin.habilitado", havingValue = "true")
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    private final SnapshotProductos snapshotProductos;
+
+    public AdminController(SnapshotProductos snapshotProductos) {
+        this.snapshotProductos = snapshotProductos;
+    }
+
+    // ===========================================================================
+    // POST /api/admin/snapshot
+    // ===========================================================================
+    @Operation(
+            summary = "Crear un snapshot del catálogo",
+            description = "Escribe una copia consistente y comprimida de la tabla de productos en "
+                    + "productos.snapshot.directorio, sin bloquear las escrituras. Con el perfil prod, "
+                    + "al arrancar sobre una base vacía se restaura el snapshot más reciente.",
+            responses = {
+                    @ApiResponse(responseCode = "201", description = "Snapshot creado correctamente",
+                            content = @Content(mediaType = "application/json",
+                                    schema = @Schema(implementation = SnapshotDTO.class)))
+            }
+    )
+    @PostMapping("/snapshot")
+    public ResponseEntity<SnapshotDTO> crearSnapshot() throws IOException, SQLException {
+        SnapshotProductos.Resultado resultado = snapshotProductos.crear();
+        SnapshotDTO dto = new SnapshotDTO(resultado.archivo().toString(), resultado.productos(),
+                resultado.bytes(), resultado.duracion().toMillis());
+        return ResponseEntity.status(HttpStatus.CREATED).body(dto);
+    }
+}
@@ -0,0 +1,85 @@
+package com.utn.productos.controller;
+
+import com.utn.productos.dto.CambioProductoDTO;
+import com.utn.productos.service.DifusorCambios;
+import com.utn.productos.service.RegistroCambios;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+@Tag(name = "Cambios", description = "Flujo de cambios de productos (change data capture)")
+@RestController
+@RequestMapping("/api/productos/cambios")
+public class CambioProductoController {
+
+    private final DifusorCambios difusorCambios;
+
+    public CambioProductoController(DifusorCambios difusorCambios) {
+        this.difusorCambios = difusorCambios;
+    }
+
+    // ===========================================================================
+    // GET /api/productos/cambios?desde=<offset>
+    // ===========================================================================
+    @Operation(
+            summary = "Seguir los cambios de productos",
+            description = "Server-Sent Events con cada alta, modificación, cambio de stock y baja confirmados, en orden "
+                    + "de offset. El id de cada evento es su offset: para retomar tras una desconexión se envía "
+                    + "Last-Event-ID (lo hace el navegador automáticamente) o desde=<último offset + 1>. "
+                    + "Sin ninguno de los dos se reciben sólo los cambios posteriores a la suscripción.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Flujo de eventos 'cambio'",
+                            content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE,
+                                    schema = @Schema(implementation = CambioProductoDTO.class)))
+            }
+    )
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter seguirCambios(
+            @Parameter(description = "Primer offset a recibir (inclusive)", example = "0")
+            @RequestParam(required = false) Long desde,
+            @Parameter(description = "Offset del último evento recibido (reconexión)")
+            @RequestHeader(value = "Last-Event-ID", required = false) Long ultimoEvento) {
+        // Al reconectarse el navegador repite la URL original: Last-Event-ID tiene prioridad sobre desde
+        Long inicio = ultimoEvento != null ? Long.valueOf(ultimoEvento + 1) : desde;
+
+        // Sin timeout: la suscripción dura lo que la conexión (un cliente caído se detecta en el próximo latido)
+        SseEmitter emisor = new SseEmitter(-1L);
+        DifusorCambios.Suscripcion suscripcion = difusorCambios.suscribir(inicio, new DifusorCambios.Destino() {
+            @Override
+            public void enviar(RegistroCambios.Cambio cambio) throws IOException {
+                // El cambio ya está serializado en el registro: se envía tal cual, sin volver a mapearlo
+                emisor.send(SseEmitter.event()
+                        .id(Long.toString(cambio.offset()))
+                        .name("cambio")
+                        .data(new String(cambio.datos(), StandardCharsets.UTF_8), MediaType.APPLICATION_JSON));
+            }
+
+            @Override
+            public void latido() throws IOException {
+                emisor.send(SseEmitter.event().comment("latido"));
+            }
+
+            @Override
+            public void cerrar() {
+                emisor.complete();
+            }
+        });
+        emisor.onCompletion(suscripcion::cancelar);
+        emisor.onTimeout(suscripcion::cancelar);
+        emisor.onError(ex -> suscripcion.cancelar());
+        return emisor;
+    }
+}
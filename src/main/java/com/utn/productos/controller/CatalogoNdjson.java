@@ -0,0 +1,43 @@
+package com.utn.productos.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.utn.productos.service.ProductoService;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+// Catálogo completo como NDJSON, leyendo la base de forma secuencial: un producto por línea y cada línea
+// terminada en '\n', también la última. Lo comparten GET /api/productos (Accept: application/x-ndjson) y
+// GET /api/productos/export, así ambas descargas producen exactamente los mismos bytes.
+final class CatalogoNdjson {
+
+    private final ProductoService productoService;
+    private final ObjectWriter writer;
+
+    CatalogoNdjson(ProductoService productoService, ObjectMapper objectMapper) {
+        this.productoService = productoService;
+        // Sin flush por elemento: el buffer de la respuesta decide cuándo enviar
+        this.writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    StreamingResponseBody cuerpo() {
+        return salida -> {
+            try (JsonGenerator generador = writer.createGenerator(salida)) {
+                // El separador de Jackson va entre valores; el terminador de línea se escribe a mano
+                generador.setRootValueSeparator(null);
+                productoService.recorrerTodos(producto -> {
+                    try {
+                        writer.writeValue(generador, ProductoController.mapToDTO(producto));
+                        generador.writeRaw('\n');
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+            }
+        };
+    }
+}
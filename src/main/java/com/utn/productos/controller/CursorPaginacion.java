@@ -0,0 +1,99 @@
+package com.utn.productos.controller;
+
+import com.utn.productos.exception.CursorInvalidoException;
+import com.utn.productos.repository.ConsultaProductos;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Codifica la clave de la última fila de una página como un cursor opaco para el cliente. Ordenando sólo
+// por id es "id:<id>"; con otro orden el cursor lleva el orden y un valor por campo
+// ("k:-precio,id:<precio>;<id>") y no se acepta con un orden distinto.
+public final class CursorPaginacion {
+
+    private static final String PREFIJO = "id:";
+    private static final String PREFIJO_CLAVE = "k:";
+
+    private CursorPaginacion() {
+    }
+
+    private static String codificar(Long id) {
+        return base64(PREFIJO + id);
+    }
+
+    public static String codificar(List<ConsultaProductos.Orden> orden, List<Object> clave) {
+        if (soloPorId(orden)) {
+            return codificar((Long) clave.get(0));
+        }
+        String valores = clave.stream()
+                .map(valor -> URLEncoder.encode(String.valueOf(valor), StandardCharsets.UTF_8))
+                .collect(Collectors.joining(";"));
+        return base64(PREFIJO_CLAVE + especificacion(orden) + ":" + valores);
+    }
+
+    private static Long decodificar(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String valor = texto(cursor);
+            if (!valor.startsWith(PREFIJO)) {
+                throw new CursorInvalidoException(cursor);
+            }
+            return Long.parseLong(valor.substring(PREFIJO.length()));
+        } catch (IllegalArgumentException ex) {
+            // Base64 mal formado o id no numérico (NumberFormatException)
+            throw new CursorInvalidoException(cursor);
+        }
+    }
+
+    // Clave de la última fila vista para el orden dado; null si no hay cursor (primera página)
+    public static List<Object> decodificar(String cursor, List<ConsultaProductos.Orden> orden) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        if (soloPorId(orden)) {
+            return List.of(decodificar(cursor));
+        }
+        try {
+            String valor = texto(cursor);
+            String prefijo = PREFIJO_CLAVE + especificacion(orden) + ":";
+            if (!valor.startsWith(prefijo)) {
+                throw new CursorInvalidoException(cursor);
+            }
+            String[] valores = valor.substring(prefijo.length()).split(";", -1);
+            if (valores.length != orden.size()) {
+                throw new CursorInvalidoException(cursor);
+            }
+            List<Object> clave = new ArrayList<>(valores.length);
+            for (int i = 0; i < valores.length; i++) {
+                clave.add(orden.get(i).campo().desdeTexto(URLDecoder.decode(valores[i], StandardCharsets.UTF_8)));
+            }
+            return clave;
+        } catch (IllegalArgumentException ex) {
+            // Base64 mal formado, valor que no corresponde al tipo del campo o categoría inexistente
+            throw new CursorInvalidoException(cursor);
+        }
+    }
+
+    private static boolean soloPorId(List<ConsultaProductos.Orden> orden) {
+        return orden.size() == 1 && orden.get(0).campo() == ConsultaProductos.Campo.ID && !orden.get(0).descendente();
+    }
+
+    private static String especificacion(List<ConsultaProductos.Orden> orden) {
+        return orden.stream().map(ConsultaProductos.Orden::toString).collect(Collectors.joining(","));
+    }
+
+    private static String base64(String texto) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String texto(String cursor) {
+        return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    }
+}
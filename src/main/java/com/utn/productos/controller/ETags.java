@@ -0,0 +1,47 @@
+package com.utn.productos.controller;
+
+import com.utn.productos.model.Producto;
+
+// ETags fuertes de los recursos de producto: "<id>-<version>" para un producto
+public final class ETags {
+
+    private ETags() {
+    }
+
+    static String producto(Producto producto) {
+        return producto(producto.getId(), producto.getVersion());
+    }
+
+    public static String producto(Long id, Long version) {
+        return "\"" + id + "-" + version + "\"";
+    }
+
+    static String categoria(String version) {
+        return "\"c" + version + "\"";
+    }
+
+    // Versión esperada según If-Match: null si no hay precondición o es "*";
+    // -1 si ningún ETag corresponde al producto (nunca coincidirá)
+    public static Long versionEsperada(String ifMatch, Long id) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String prefijo = id + "-";
+        for (String etag : ifMatch.split(",")) {
+            String valor = etag.trim();
+            if (valor.startsWith("W/")) {
+                // If-Match exige comparación fuerte: los ETags débiles nunca coinciden
+                continue;
+            }
+            valor = valor.replace("\"", "");
+            if (valor.startsWith(prefijo)) {
+                try {
+                    return Long.parseLong(valor.substring(prefijo.length()));
+                } catch (NumberFormatException ex) {
+                    // ETag ajeno: se ignora
+                }
+            }
+        }
+        return -1L;
+    }
+}
@@ -0,0 +1,34 @@
+package com.utn.productos.controller;
+
+import com.utn.productos.config.ProtobufProductosHttpMessageConverter;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@Tag(name = "Productos", description = "Operaciones CRUD para la gestión de productos")
+@RestController
+@RequestMapping("/api/productos")
+public class EsquemaProtobufController {
+
+    private final ProtobufProductosHttpMessageConverter protobuf;
+
+    public EsquemaProtobufController(ProtobufProductosHttpMessageConverter protobuf) {
+        this.protobuf = protobuf;
+    }
+
+    // ===========================================================================
+    // GET /api/productos/esquema.proto
+    // ===========================================================================
+    @Operation(
+            summary = "Esquema protobuf de los productos",
+            description = "Definición .proto de ProductoResponseDTO, ListaProductos (respuesta de los listados) "
+                    + "y ProductoDTO, tal como se usan con Accept/Content-Type application/x-protobuf."
+    )
+    @GetMapping(value = "/esquema.proto", produces = MediaType.TEXT_PLAIN_VALUE)
+    public String obtenerEsquema() {
+        return protobuf.esquemasProto();
+    }
+}
@@ -0,0 +1,143 @@
+package com.utn.productos.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.utn.productos.dto.ProductoLoteDTO;
+import com.utn.productos.dto.ProductoResponseDTO;
+import com.utn.productos.dto.ResultadoImportacionDTO;
+import com.utn.productos.service.ImportacionProductos;
+import com.utn.productos.service.ProductoService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+@Tag(name = "Productos", description = "Operaciones CRUD para la gestión de productos")
+@RestController
+@RequestMapping("/api/productos")
+public class ImportacionController {
+
+    private static final String TEXT_CSV = "text/csv";
+
+    private final ImportacionProductos importacionProductos;
+    private final ProductoService productoService;
+    private final CatalogoNdjson catalogoNdjson;
+    private final ObjectWriter csvWriter;
+
+    public ImportacionController(ImportacionProductos importacionProductos, ProductoService productoService,
+                                 ObjectMapper objectMapper) {
+        this.importacionProductos = importacionProductos;
+        this.productoService = productoService;
+        this.catalogoNdjson = new CatalogoNdjson(productoService, objectMapper);
+        CsvSchema.Builder columnas = CsvSchema.builder();
+        ImportacionProductos.COLUMNAS.forEach(columnas::addColumn);
+        this.csvWriter = new CsvMapper().writerFor(ProductoResponseDTO.class)
+                .with(columnas.build().withHeader())
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    // ===========================================================================
+    // POST /api/productos/import - Importación masiva desde CSV o NDJSON
+    // ===========================================================================
+    @Operation(
+            summary = "Importar productos desde CSV o NDJSON",
+            description = "Lee el archivo en streaming, sin cargarlo completo. En CSV la primera fila es la cabecera "
+                    + "(columnas id, nombre, descripcion, precio, stock, categoria; id es opcional). Las filas sin ID "
+                    + "se crean y las que tienen ID se actualizan. La interpretación y la validación de las filas se "
+                    + "reparten entre varios hilos y se guardan en bloques con batching JDBC. La respuesta resume la "
+                    + "importación e informa los errores de cada fila rechazada.",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(content = {
+                    @Content(mediaType = TEXT_CSV, schema = @Schema(type = "string")),
+                    @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                            schema = @Schema(implementation = ProductoLoteDTO.class))
+            }),
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Importación terminada",
+                            content = @Content(mediaType = "application/json",
+                                    schema = @Schema(implementation = ResultadoImportacionDTO.class))),
+                    @ApiResponse(responseCode = "400", description = "CSV sin cabecera o con columnas desconocidas",
+                            content = @Content)
+            }
+    )
+    @PostMapping(value = "/import", consumes = {TEXT_CSV, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ResultadoImportacionDTO> importar(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType tipo, InputStream cuerpo) throws IOException {
+        ImportacionProductos.Formato formato = MediaType.APPLICATION_NDJSON.isCompatibleWith(tipo)
+                ? ImportacionProductos.Formato.NDJSON
+                : ImportacionProductos.Formato.CSV;
+        return ResponseEntity.ok(importacionProductos.importar(cuerpo, formato));
+    }
+
+    // ===========================================================================
+    // GET /api/productos/export - Exportación del catálogo en CSV o NDJSON
+    // ===========================================================================
+    @Operation(
+            summary = "Exportar el catálogo como CSV o NDJSON",
+            description = "Descarga el catálogo completo leyendo la base de forma secuencial, sin cargar toda la "
+                    + "tabla en memoria. El archivo se puede volver a importar con POST /api/productos/import.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Catálogo transmitido correctamente",
+                            content = {
+                                    @Content(mediaType = TEXT_CSV, schema = @Schema(type = "string")),
+                                    @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                                            schema = @Schema(implementation = ProductoResponseDTO.class))
+                            }),
+                    @ApiResponse(responseCode = "400", description = "Formato desconocido", content = @Content)
+            }
+    )
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @Parameter(description = "Formato del archivo: ndjson o csv")
+            @RequestParam(defaultValue = "ndjson") String formato) {
+
+        boolean csv = formato.equalsIgnoreCase("csv");
+        if (!csv && !formato.equalsIgnoreCase("ndjson")) {
+            return ResponseEntity.badRequest().build();
+        }
+        SinTimeoutAsincrono.aplicar();
+        StreamingResponseBody cuerpo = csv ? catalogoCsv() : catalogoNdjson.cuerpo();
+        return ResponseEntity.ok()
+                .contentType(csv ? MediaType.parseMediaType(TEXT_CSV + ";charset=UTF-8") : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(csv ? "productos.csv" : "productos.ndjson")
+                        .build()
+                        .toString())
+                .body(cuerpo);
+    }
+
+    // El NDJSON es el mismo que sirve GET /api/productos; el CSV lleva la cabecera que espera /import
+    private StreamingResponseBody catalogoCsv() {
+        return salida -> {
+            try (SequenceWriter filas = csvWriter.writeValues(salida)) {
+                productoService.recorrerTodos(producto -> {
+                    try {
+                        filas.write(ProductoController.mapToDTO(producto));
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+            }
+        };
+    }
+}
@@ -1,22 +1,57 @@
 package com.utn.productos.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.utn.productos.dto.ActualizarStockDTO;
+import com.utn.productos.dto.AjusteStockLoteDTO;
+import com.utn.productos.dto.MovimientoStockDTO;
 import com.utn.productos.dto.ProductoDTO;
+import com.utn.productos.dto.ProductoLoteDTO;
 import com.utn.productos.dto.ProductoResponseDTO;
+import com.utn.productos.dto.ResultadoItemLoteDTO;
+import com.utn.productos.dto.ResultadoLoteDTO;
+import com.utn.productos.dto.ResumenCategoriaDTO;
+import com.utn.productos.exception.ConsultaInvalidaException;
 import com.utn.productos.model.Categoria;
 import com.utn.productos.model.Producto;
+import com.utn.productos.repository.ConsultaProductos;
 import com.utn.productos.service.ProductoService;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.TransactionException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Tag(name = "Productos", description = "Operaciones CRUD para la gestión de productos")
@@ -24,13 +59,35 @@ import java.util.stream.Collectors;
 @RequestMapping("/api/productos")
 public class ProductoController {
 
+    static final String HEADER_SIGUIENTE_CURSOR = "X-Next-Cursor";
+    static final String HEADER_TOTAL = "X-Total-Count";
+
+    private static final int LIMITE_MAXIMO = 1000;
+
     private final ProductoService productoService;
+    private final ObjectMapper objectMapper;
+    private final CatalogoNdjson catalogoNdjson;
+    private final ObjectReader loteReader;
+    private final Validator validator;
+    private final int tamanioChunk;
+
+    // Elemento válido de un lote junto con su posición original
+    private record ItemLote<T>(int indice, T valor) {
+    }
 
-    public ProductoController(ProductoService productoService) {
+    public ProductoController(ProductoService productoService, ObjectMapper objectMapper, Validator validator,
+                              @Value("${productos.lote.tamanio-chunk:1000}") int tamanioChunk) {
         this.productoService = productoService;
+        this.objectMapper = objectMapper;
+        this.catalogoNdjson = new CatalogoNdjson(productoService, objectMapper);
+        this.loteReader = objectMapper.readerFor(JsonNode.class);
+        this.validator = validator;
+        this.tamanioChunk = tamanioChunk;
     }
 
-    private ProductoResponseDTO mapToDTO(Producto producto) {
+    // Visibilidad de paquete para poder medirlos en los benchmarks JMH; mapToDTO también lo usan
+    // ImportacionController y CatalogoNdjson
+    static ProductoResponseDTO mapToDTO(Producto producto) {
         return new ProductoResponseDTO(
                 producto.getId(),
                 producto.getNombre(),
@@ -41,7 +98,7 @@ public class ProductoController {
         );
     }
 
-    private Producto mapToEntity(ProductoDTO dto) {
+    Producto mapToEntity(ProductoDTO dto) {
         Producto producto = new Producto();
         producto.setNombre(dto.getNombre());
         producto.setDescripcion(dto.getDescripcion());
@@ -51,25 +108,133 @@ public class ProductoController {
         return producto;
     }
 
-    // ================================================
-    // GET /api/productos - Listar todos los productos
-    // ================================================
+    // ================================================================
+    // GET /api/productos - Listar productos paginados por cursor
+    // ================================================================
     @Operation(
-            summary = "Listar todos los productos",
-            description = "Obtiene una lista de todos los productos disponibles en el sistema.",
+            summary = "Listar productos paginados",
+            description = "Obtiene una página de productos, por defecto ordenados por ID. Admite filtros (categorías, "
+                    + "rango de precio, sólo con stock, comienzo del nombre), orden por varios campos y una "
+                    + "proyección con fields=, todo resuelto en la consulta SQL. Si hay más resultados, el cursor "
+                    + "de la página siguiente se devuelve en el header X-Next-Cursor (y en un header Link con "
+                    + "rel=\"next\"); con total=true el total de productos que cumplen los filtros viene en "
+                    + "X-Total-Count. Además de JSON, negocia por Accept los formatos binarios application/cbor, "
+                    + "application/x-jackson-smile y application/x-protobuf.",
             responses = {
-                    @ApiResponse(responseCode = "200", description = "Listado obtenido correctamente",
+                    @ApiResponse(responseCode = "200", description = "Página obtenida correctamente",
                             content = @Content(mediaType = "application/json",
+                                    schema = @Schema(implementation = ProductoResponseDTO.class))),
+                    @ApiResponse(responseCode = "400", description = "Cursor inválido o campo desconocido en "
+                            + "sort o fields", content = @Content)
+            }
+    )
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+            "application/x-jackson-smile", "application/x-protobuf"})
+    public ResponseEntity<List<ProductoResponseDTO>> obtenerTodos(
+            @Parameter(description = "Cursor opaco devuelto por la página anterior")
+            @RequestParam(required = false) String after,
+            @Parameter(description = "Cantidad máxima de productos por página (1-1000)")
+            @RequestParam(defaultValue = "100") int limit,
+            @Parameter(description = "Filtrar por una o varias categorías", example = "HOGAR,ROPA")
+            @RequestParam(required = false) List<Categoria> categoria,
+            @Parameter(description = "Precio mínimo (inclusive)")
+            @RequestParam(required = false) Double precioMin,
+            @Parameter(description = "Precio máximo (inclusive)")
+            @RequestParam(required = false) Double precioMax,
+            @Parameter(description = "Sólo productos con stock mayor a 0")
+            @RequestParam(defaultValue = "false") boolean enStock,
+            @Parameter(description = "Comienzo del nombre, sin distinguir mayúsculas", example = "smart")
+            @RequestParam(required = false) String nombre,
+            @Parameter(description = "Campos de orden separados por coma, con - para descendente "
+                    + "(id, nombre, precio, stock, categoria)", example = "-precio,nombre")
+            @RequestParam(required = false) String sort,
+            @Parameter(description = "Campos a devolver separados por coma "
+                    + "(id, nombre, descripcion, precio, stock, categoria)", example = "id,nombre,precio")
+            @RequestParam(required = false) String fields,
+            @Parameter(description = "Informar en X-Total-Count cuántos productos cumplen los filtros")
+            @RequestParam(defaultValue = "false") boolean total) {
+
+        int limite = Math.max(1, Math.min(limit, LIMITE_MAXIMO));
+        ConsultaProductos consulta = new ConsultaProductos(
+                categoria == null || categoria.isEmpty() ? null : EnumSet.copyOf(categoria),
+                precioMin, precioMax, enStock,
+                nombre == null || nombre.isBlank() ? null : nombre.trim(),
+                ordenDe(sort), camposDe(fields));
+        List<ConsultaProductos.Orden> orden = consulta.ordenCompleto();
+        ProductoService.PaginaProductos pagina = productoService.consultar(consulta,
+                CursorPaginacion.decodificar(after, orden), limite);
+
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok();
+        if (pagina.siguiente() != null) {
+            String cursor = CursorPaginacion.codificar(orden, pagina.siguiente());
+            String siguiente = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("after", cursor)
+                    .replaceQueryParam("limit", limite)
+                    .toUriString();
+            respuesta.header(HEADER_SIGUIENTE_CURSOR, cursor)
+                    .header("Link", "<" + siguiente + ">; rel=\"next\"");
+        }
+        if (total) {
+            respuesta.header(HEADER_TOTAL, String.valueOf(productoService.contar(consulta)));
+        }
+        return respuesta.body(pagina.productos());
+    }
+
+    // "-precio,nombre" → [precio descendente, nombre ascendente]
+    private static List<ConsultaProductos.Orden> ordenDe(String sort) {
+        List<ConsultaProductos.Orden> orden = new ArrayList<>();
+        if (sort == null || sort.isBlank()) {
+            return orden;
+        }
+        for (String criterio : sort.split(",")) {
+            String nombre = criterio.trim();
+            boolean descendente = nombre.startsWith("-");
+            String propiedad = descendente ? nombre.substring(1) : nombre;
+            ConsultaProductos.Campo campo = ConsultaProductos.Campo.dePropiedad(propiedad)
+                    .filter(ConsultaProductos.Campo::esOrdenable)
+                    .orElseThrow(() -> new ConsultaInvalidaException("No se puede ordenar por '" + propiedad
+                            + "' (se admiten id, nombre, precio, stock y categoria)"));
+            if (orden.stream().noneMatch(o -> o.campo() == campo)) {
+                orden.add(new ConsultaProductos.Orden(campo, descendente));
+            }
+        }
+        return orden;
+    }
+
+    // "id,nombre" → {ID, NOMBRE}; null (todos los campos) si no se indica
+    private static Set<ConsultaProductos.Campo> camposDe(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Set<ConsultaProductos.Campo> campos = EnumSet.noneOf(ConsultaProductos.Campo.class);
+        for (String campo : fields.split(",")) {
+            String propiedad = campo.trim();
+            campos.add(ConsultaProductos.Campo.dePropiedad(propiedad)
+                    .orElseThrow(() -> new ConsultaInvalidaException("Campo desconocido en fields: '" + propiedad
+                            + "' (se admiten id, nombre, descripcion, precio, stock y categoria)")));
+        }
+        return campos;
+    }
+
+    // ==================================================================
+    // GET /api/productos (Accept: application/x-ndjson) - Streaming
+    // ==================================================================
+    @Operation(
+            summary = "Exportar todos los productos en streaming",
+            description = "Devuelve el catálogo completo como NDJSON (un producto por línea), "
+                    + "leyendo la base de forma secuencial sin cargar toda la tabla en memoria.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Catálogo transmitido correctamente",
+                            content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
                                     schema = @Schema(implementation = ProductoResponseDTO.class)))
             }
     )
-    @GetMapping
-    public ResponseEntity<List<ProductoResponseDTO>> obtenerTodos() {
-        List<ProductoResponseDTO> productos = productoService.obtenerTodos()
-                .stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(productos);
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> transmitirTodos() {
+        SinTimeoutAsincrono.aplicar();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(catalogoNdjson.cuerpo());
     }
 
     // ======================================================
@@ -77,41 +242,113 @@ public class ProductoController {
     // ======================================================
     @Operation(
             summary = "Obtener producto por ID",
-            description = "Devuelve un producto según su identificador único.",
+            description = "Devuelve un producto según su identificador único, con ETag y Last-Modified. "
+                    + "Con If-None-Match o If-Modified-Since responde 304 si el producto no cambió.",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Producto encontrado",
                             content = @Content(mediaType = "application/json",
                                     schema = @Schema(implementation = ProductoResponseDTO.class))),
+                    @ApiResponse(responseCode = "304", description = "Producto sin cambios", content = @Content),
                     @ApiResponse(responseCode = "404", description = "Producto no encontrado",
                             content = @Content)
             }
     )
     @GetMapping("/{id}")
     public ResponseEntity<ProductoResponseDTO> obtenerPorId(@PathVariable Long id) {
+        // Spring responde 304 automáticamente si If-None-Match / If-Modified-Since coinciden
         return productoService.obtenerPorId(id)
-                .map(producto -> ResponseEntity.ok(mapToDTO(producto)))
+                .map(producto -> {
+                    ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok().eTag(ETags.producto(producto));
+                    if (producto.getUltimaModificacion() != null) {
+                        respuesta.lastModified(producto.getUltimaModificacion());
+                    }
+                    return respuesta.body(mapToDTO(producto));
+                })
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    // ====================================================================
+    // GET /api/productos/buscar - Búsqueda por texto con filtros
+    // ====================================================================
+    @Operation(
+            summary = "Buscar productos",
+            description = "Busca por texto en el nombre y la descripción (sin distinguir mayúsculas ni tildes). "
+                    + "Cada palabra de la consulta puede ser una palabra completa o su comienzo, y todas deben "
+                    + "aparecer. Los resultados se ordenan por relevancia (las coincidencias en el nombre pesan más).",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Resultados de la búsqueda",
+                            content = @Content(mediaType = "application/json",
+                                    schema = @Schema(implementation = ProductoResponseDTO.class))),
+                    @ApiResponse(responseCode = "503", description = "El índice todavía se está construyendo "
+                            + "tras el arranque (ver Retry-After)", content = @Content)
+            }
+    )
+    @GetMapping("/buscar")
+    public ResponseEntity<List<ProductoResponseDTO>> buscar(
+            @Parameter(description = "Texto a buscar", example = "smart gal")
+            @RequestParam String q,
+            @Parameter(description = "Filtrar por categoría")
+            @RequestParam(required = false) Categoria categoria,
+            @Parameter(description = "Precio mínimo (inclusive)")
+            @RequestParam(required = false) Double precioMin,
+            @Parameter(description = "Precio máximo (inclusive)")
+            @RequestParam(required = false) Double precioMax,
+            @Parameter(description = "Cantidad máxima de resultados (1-1000)")
+            @RequestParam(defaultValue = "20") int limit) {
+
+        int limite = Math.max(1, Math.min(limit, LIMITE_MAXIMO));
+        List<ProductoResponseDTO> productos = productoService.buscar(q, categoria, precioMin, precioMax, limite)
+                .stream()
+                .map(ProductoController::mapToDTO)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(productos);
+    }
+
     // =================================================================
     // GET /api/productos/categoria/{categoria} - Filtrar por categoría
     // =================================================================
     @Operation(
             summary = "Filtrar productos por categoría",
-            description = "Obtiene todos los productos pertenecientes a una categoría específica.",
+            description = "Obtiene todos los productos pertenecientes a una categoría específica. "
+                    + "Con If-None-Match responde 304 si la categoría no cambió, sin consultar la base.",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Listado filtrado correctamente",
                             content = @Content(mediaType = "application/json",
-                                    schema = @Schema(implementation = ProductoResponseDTO.class)))
+                                    schema = @Schema(implementation = ProductoResponseDTO.class))),
+                    @ApiResponse(responseCode = "304", description = "Listado sin cambios", content = @Content)
             }
     )
     @GetMapping("/categoria/{categoria}")
-    public ResponseEntity<List<ProductoResponseDTO>> obtenerPorCategoria(@PathVariable Categoria categoria) {
+    public ResponseEntity<List<ProductoResponseDTO>> obtenerPorCategoria(@PathVariable Categoria categoria,
+                                                                         WebRequest request) {
+        // La versión se toma antes de leer: si cambia en el medio, el cliente sólo vuelve a descargar
+        String etag = ETags.categoria(productoService.obtenerVersionCategoria(categoria));
+        if (request.checkNotModified(etag)) {
+            return null; // 304 Not Modified
+        }
         List<ProductoResponseDTO> productos = productoService.obtenerPorCategoria(categoria)
                 .stream()
-                .map(this::mapToDTO)
+                .map(ProductoController::mapToDTO)
                 .collect(Collectors.toList());
-        return ResponseEntity.ok(productos);
+        return ResponseEntity.ok().eTag(etag).body(productos);
+    }
+
+    // ===========================================================================
+    // GET /api/productos/categoria/{categoria}/resumen - Métricas de la categoría
+    // ===========================================================================
+    @Operation(
+            summary = "Resumen de una categoría",
+            description = "Devuelve la cantidad de productos, el stock total y el precio mínimo, máximo y promedio "
+                    + "de una categoría. Se calcula a partir de agregados mantenidos en memoria, sin recorrer la tabla.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Resumen obtenido correctamente",
+                            content = @Content(mediaType = "application/json",
+                                    schema = @Schema(implementation = ResumenCategoriaDTO.class)))
+            }
+    )
+    @GetMapping("/categoria/{categoria}/resumen")
+    public ResponseEntity<ResumenCategoriaDTO> obtenerResumenCategoria(@PathVariable Categoria categoria) {
+        return ResponseEntity.ok(productoService.obtenerResumen(categoria));
     }
 
     // ===================================================
@@ -139,20 +376,25 @@ public class ProductoController {
     // ======================================================
     @Operation(
             summary = "Actualizar un producto existente",
-            description = "Modifica todos los campos de un producto existente.",
+            description = "Modifica todos los campos de un producto existente. Si se envía If-Match con el ETag "
+                    + "obtenido al leerlo, la actualización se rechaza cuando el producto cambió desde entonces.",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Producto actualizado correctamente",
                             content = @Content(mediaType = "application/json",
                                     schema = @Schema(implementation = ProductoResponseDTO.class))),
-                    @ApiResponse(responseCode = "404", description = "Producto no encontrado", content = @Content)
+                    @ApiResponse(responseCode = "404", description = "Producto no encontrado", content = @Content),
+                    @ApiResponse(responseCode = "409", description = "Modificación concurrente", content = @Content),
+                    @ApiResponse(responseCode = "412", description = "If-Match no coincide", content = @Content)
             }
     )
     @PutMapping("/{id}")
     public ResponseEntity<ProductoResponseDTO> actualizarProducto(@PathVariable Long id,
-                                                                  @Valid @RequestBody ProductoDTO dto) {
+                                                                  @Valid @RequestBody ProductoDTO dto,
+                                                                  @RequestHeader(value = "If-Match", required = false)
+                                                                  String ifMatch) {
         Producto actualizado = mapToEntity(dto);
-        Producto guardado = productoService.actualizarProducto(id, actualizado);
-        return ResponseEntity.ok(mapToDTO(guardado));
+        Producto guardado = productoService.actualizarProducto(id, actualizado, ETags.versionEsperada(ifMatch, id));
+        return ResponseEntity.ok().eTag(ETags.producto(guardado)).body(mapToDTO(guardado));
     }
 
     // ====================================================
@@ -175,6 +417,144 @@ public class ProductoController {
         return ResponseEntity.ok(mapToDTO(actualizado));
     }
 
+    // ==================================================================
+    // POST /api/productos/{id}/stock/reservar - Reservar stock
+    // ==================================================================
+    @Operation(
+            summary = "Reservar stock de un producto",
+            description = "Descuenta de forma atómica la cantidad indicada del stock disponible. "
+                    + "Es seguro ante compras concurrentes: nunca se vende más stock del existente.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Stock reservado correctamente",
+                            content = @Content(mediaType = "application/json",
+                                    schema = @Schema(implementation = ProductoResponseDTO.class))),
+                    @ApiResponse(responseCode = "400", description = "Cantidad inválida", content = @Content),
+                    @ApiResponse(responseCode = "404", description = "Producto no encontrado", content = @Content),
+                    @ApiResponse(responseCode = "409", description = "Stock insuficiente", content = @Content)
+            }
+    )
+    @PostMapping("/{id}/stock/reservar")
+    public ResponseEntity<ProductoResponseDTO> reservarStock(@PathVariable Long id,
+                                                             @Valid @RequestBody MovimientoStockDTO dto) {
+        Producto actualizado = productoService.reservarStock(id, dto.getCantidad());
+        return ResponseEntity.ok(mapToDTO(actualizado));
+    }
+
+    // ==================================================================
+    // POST /api/productos/{id}/stock/liberar - Liberar stock reservado
+    // ==================================================================
+    @Operation(
+            summary = "Liberar stock reservado de un producto",
+            description = "Devuelve de forma atómica la cantidad indicada al stock disponible.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Stock liberado correctamente",
+                            content = @Content(mediaType = "application/json",
+                                    schema = @Schema(implementation = ProductoResponseDTO.class))),
+                    @ApiResponse(responseCode = "400", description = "Cantidad inválida", content = @Content),
+                    @ApiResponse(responseCode = "404", description = "Producto no encontrado", content = @Content),
+                    @ApiResponse(responseCode = "409", description = "El stock superaría el máximo permitido",
+                            content = @Content)
+            }
+    )
+    @PostMapping("/{id}/stock/liberar")
+    public ResponseEntity<ProductoResponseDTO> liberarStock(@PathVariable Long id,
+                                                            @Valid @RequestBody MovimientoStockDTO dto) {
+        Producto actualizado = productoService.liberarStock(id, dto.getCantidad());
+        return ResponseEntity.ok(mapToDTO(actualizado));
+    }
+
+    // ================================================================
+    // POST /api/productos/batch - Crear o actualizar productos en lote
+    // ================================================================
+    @Operation(
+            summary = "Crear o actualizar productos en lote",
+            description = "Recibe un array JSON o NDJSON de productos. Los elementos sin ID se crean y los que "
+                    + "tienen ID se actualizan. Cada elemento se valida por separado y se guarda en bloques "
+                    + "transaccionales con batching JDBC. Si un bloque falla en la base se reintenta elemento por "
+                    + "elemento y el lote continúa. La respuesta informa el resultado de cada elemento.",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(content = {
+                    @Content(mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = ProductoLoteDTO.class))),
+                    @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                            schema = @Schema(implementation = ProductoLoteDTO.class))
+            }),
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Lote procesado",
+                            content = @Content(mediaType = "application/json",
+                                    schema = @Schema(implementation = ResultadoLoteDTO.class)))
+            }
+    )
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ResultadoLoteDTO> guardarLote(InputStream cuerpo) throws IOException {
+        ResultadoLoteDTO resultado = procesarLote(cuerpo, ProductoLoteDTO.class, bloque -> {
+            List<Producto> productos = bloque.stream()
+                    .map(item -> {
+                        Producto producto = mapToEntity(item.valor());
+                        producto.setId(item.valor().getId());
+                        return producto;
+                    })
+                    .toList();
+            List<Producto> guardados = productoService.guardarLote(productos);
+
+            List<ResultadoItemLoteDTO> resultados = new ArrayList<>(bloque.size());
+            for (int i = 0; i < bloque.size(); i++) {
+                ItemLote<ProductoLoteDTO> item = bloque.get(i);
+                Producto guardado = guardados.get(i);
+                if (guardado == null) {
+                    resultados.add(ResultadoItemLoteDTO.error(item.indice(), item.valor().getId(),
+                            Map.of("id", "Producto no encontrado con id: " + item.valor().getId())));
+                } else {
+                    resultados.add(ResultadoItemLoteDTO.exito(item.indice(), guardado.getId(),
+                            item.valor().getId() == null
+                                    ? ResultadoItemLoteDTO.Estado.CREADO
+                                    : ResultadoItemLoteDTO.Estado.ACTUALIZADO));
+                }
+            }
+            return resultados;
+        });
+        return ResponseEntity.ok(resultado);
+    }
+
+    // ================================================================
+    // PATCH /api/productos/stock/batch - Ajustar stock en lote
+    // ================================================================
+    @Operation(
+            summary = "Ajustar el stock de varios productos",
+            description = "Recibe un array JSON o NDJSON de pares {id, stock}. Cada elemento se valida por separado "
+                    + "y los ajustes se aplican en bloques con batching JDBC. Si un bloque falla en la base se "
+                    + "reintenta elemento por elemento y el lote continúa.",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(content = {
+                    @Content(mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = AjusteStockLoteDTO.class))),
+                    @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                            schema = @Schema(implementation = AjusteStockLoteDTO.class))
+            }),
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Lote procesado",
+                            content = @Content(mediaType = "application/json",
+                                    schema = @Schema(implementation = ResultadoLoteDTO.class)))
+            }
+    )
+    @PatchMapping(value = "/stock/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ResultadoLoteDTO> ajustarStockLote(InputStream cuerpo) throws IOException {
+        ResultadoLoteDTO resultado = procesarLote(cuerpo, AjusteStockLoteDTO.class, bloque -> {
+            List<Boolean> actualizados = productoService.ajustarStockLote(bloque.stream()
+                    .map(item -> new ProductoService.AjusteStock(item.valor().getId(), item.valor().getStock()))
+                    .toList());
+
+            List<ResultadoItemLoteDTO> resultados = new ArrayList<>(bloque.size());
+            for (int i = 0; i < bloque.size(); i++) {
+                ItemLote<AjusteStockLoteDTO> item = bloque.get(i);
+                Long id = item.valor().getId();
+                resultados.add(actualizados.get(i)
+                        ? ResultadoItemLoteDTO.exito(item.indice(), id, ResultadoItemLoteDTO.Estado.ACTUALIZADO)
+                        : ResultadoItemLoteDTO.error(item.indice(), id, Map.of("id", "Producto no encontrado con id: " + id)));
+            }
+            return resultados;
+        });
+        return ResponseEntity.ok(resultado);
+    }
+
     // =====================================================
     // DELETE /api/productos/{id} - Eliminar un producto
     // =====================================================
@@ -191,4 +571,96 @@ public class ProductoController {
         productoService.eliminarProducto(id);
         return ResponseEntity.noContent().build(); // 204 No Content
     }
+
+    // Lee el cuerpo elemento por elemento (array JSON o NDJSON, sin cargarlo completo), valida cada uno
+    // y entrega los válidos en bloques de tamanioChunk a guardarBloque, que se ejecuta en su propia transacción
+    private <T> ResultadoLoteDTO procesarLote(InputStream cuerpo, Class<T> tipo,
+                                              Function<List<ItemLote<T>>, List<ResultadoItemLoteDTO>> guardarBloque)
+            throws IOException {
+
+        List<ResultadoItemLoteDTO> resultados = new ArrayList<>();
+        List<ItemLote<T>> bloque = new ArrayList<>(tamanioChunk);
+        int indice = 0;
+        try (MappingIterator<JsonNode> nodos = loteReader.readValues(cuerpo)) {
+            while (nodos.hasNextValue()) {
+                JsonNode nodo = nodos.nextValue();
+                try {
+                    T item = objectMapper.treeToValue(nodo, tipo);
+                    Map<String, String> errores = validar(item);
+                    if (errores.isEmpty()) {
+                        bloque.add(new ItemLote<>(indice, item));
+                    } else {
+                        resultados.add(ResultadoItemLoteDTO.error(indice, null, errores));
+                    }
+                } catch (JsonProcessingException ex) {
+                    // Tipo o valor incorrecto (por ejemplo, una categoría inexistente): sólo falla este elemento
+                    resultados.add(ResultadoItemLoteDTO.error(indice, null, Map.of("json", ex.getOriginalMessage())));
+                }
+                indice++;
+
+                if (bloque.size() >= tamanioChunk) {
+                    resultados.addAll(guardarBloque(bloque, guardarBloque));
+                    bloque = new ArrayList<>(tamanioChunk);
+                }
+            }
+        } catch (JsonProcessingException ex) {
+            // JSON mal formado: no es posible seguir leyendo, se informa y se corta el lote
+            resultados.add(ResultadoItemLoteDTO.error(indice, null, Map.of("json", "JSON inválido: " + ex.getOriginalMessage())));
+            indice++;
+        }
+        if (!bloque.isEmpty()) {
+            resultados.addAll(guardarBloque(bloque, guardarBloque));
+        }
+
+        resultados.sort(Comparator.comparingInt(ResultadoItemLoteDTO::getIndice));
+        int fallidos = (int) resultados.stream()
+                .filter(r -> r.getEstado() == ResultadoItemLoteDTO.Estado.ERROR)
+                .count();
+        return new ResultadoLoteDTO(indice, indice - fallidos, fallidos, resultados);
+    }
+
+    // Si el bloque falla en la base (conflicto de versión, restricción, conexión) su transacción se revierte
+    // sin afectar a los bloques ya confirmados: se reintenta elemento por elemento para informar cuáles se
+    // guardaron y cuáles no, y el lote sigue con el bloque siguiente
+    private <T> List<ResultadoItemLoteDTO> guardarBloque(
+            List<ItemLote<T>> bloque, Function<List<ItemLote<T>>, List<ResultadoItemLoteDTO>> guardar) {
+        try {
+            return guardar.apply(bloque);
+        } catch (DataAccessException | TransactionException ex) {
+            if (bloque.size() == 1) {
+                return List.of(ResultadoItemLoteDTO.error(bloque.get(0).indice(), idDe(bloque.get(0).valor()),
+                        Map.of("base", motivoDeFallo(ex))));
+            }
+            List<ResultadoItemLoteDTO> resultados = new ArrayList<>(bloque.size());
+            for (ItemLote<T> item : bloque) {
+                resultados.addAll(guardarBloque(List.of(item), guardar));
+            }
+            return resultados;
+        }
+    }
+
+    private static Long idDe(Object item) {
+        if (item instanceof ProductoLoteDTO producto) {
+            return producto.getId();
+        }
+        return item instanceof AjusteStockLoteDTO ajuste ? ajuste.getId() : null;
+    }
+
+    private static String motivoDeFallo(RuntimeException ex) {
+        if (ex instanceof OptimisticLockingFailureException) {
+            return "El producto fue modificado por otra operación; reintente";
+        }
+        if (ex instanceof DataIntegrityViolationException) {
+            return "El elemento viola una restricción de la base de datos";
+        }
+        return "No se pudo guardar el elemento; reintente";
+    }
+
+    private Map<String, String> validar(Object item) {
+        Map<String, String> errores = new HashMap<>();
+        for (ConstraintViolation<Object> violacion : validator.validate(item)) {
+            errores.put(violacion.getPropertyPath().toString(), violacion.getMessage());
+        }
+        return errores;
+    }
 }
@@ -0,0 +1,38 @@
+package com.utn.productos.controller;
+
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+import java.util.concurrent.Callable;
+
+// Quita el timeout asíncrono (spring.mvc.async.request-timeout) sólo al request actual: las descargas del
+// catálogo completo (NDJSON, CSV) pueden tardar más que cualquier límite razonable para el resto de la API.
+// Spring fija el timeout antes de invocar al controller, así que se cambia justo antes de iniciar el
+// procesamiento asíncrono del StreamingResponseBody.
+final class SinTimeoutAsincrono {
+
+    private static final CallableProcessingInterceptor SIN_TIMEOUT = new CallableProcessingInterceptor() {
+        @Override
+        public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+            if (request instanceof AsyncWebRequest asincrono) {
+                asincrono.setTimeout(-1L);
+            }
+        }
+    };
+
+    private SinTimeoutAsincrono() {
+    }
+
+    static void aplicar() {
+        RequestAttributes atributos = RequestContextHolder.getRequestAttributes();
+        if (atributos instanceof ServletRequestAttributes servlet) {
+            WebAsyncUtils.getAsyncManager(servlet.getRequest())
+                    .registerCallableInterceptor(SinTimeoutAsincrono.class, SIN_TIMEOUT);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.utn.productos.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Schema(description = "Cambio confirmado sobre un producto, tal como se publica en el registro de cambios. "
+        + "El offset del cambio viaja como id del evento SSE.")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CambioProductoDTO {
+
+    public enum Tipo {
+        CREADO,
+        ACTUALIZADO,
+        STOCK,
+        ELIMINADO
+    }
+
+    @Schema(
+            description = "Tipo de cambio",
+            example = "STOCK"
+    )
+    private Tipo tipo;
+
+    @Schema(
+            description = "ID del producto afectado",
+            example = "1"
+    )
+    private Long productoId;
+
+    @Schema(
+            description = "Versión del producto tras el cambio; permite descartar eventos fuera de orden",
+            example = "3"
+    )
+    private Long version;
+
+    @Schema(
+            description = "Momento del cambio",
+            example = "2025-01-01T12:00:00Z"
+    )
+    private Instant fecha;
+
+    @Schema(description = "Estado del producto tras el cambio (ausente si fue eliminado)")
+    private ProductoResponseDTO producto;
+}
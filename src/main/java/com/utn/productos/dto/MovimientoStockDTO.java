@@ -0,0 +1,23 @@
+package com.utn.productos.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Schema(description = "Objeto utilizado para reservar o liberar unidades de stock de un producto")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovimientoStockDTO {
+
+    @Schema(
+            description = "Cantidad de unidades a reservar o liberar. Debe ser un número entero mayor o igual a 1.",
+            example = "2"
+    )
+    @NotNull(message = "La cantidad no puede ser nula")
+    @Min(value = 1, message = "La cantidad debe ser mayor o igual a 1")
+    private Integer cantidad;
+}
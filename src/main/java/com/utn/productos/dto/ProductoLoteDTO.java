@@ -0,0 +1,17 @@
+package com.utn.productos.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+
+@Schema(description = "Producto dentro de una carga masiva: sin ID se crea, con ID se actualiza")
+@Getter
+@Setter
+public class ProductoLoteDTO extends ProductoDTO {
+
+    @Schema(
+            description = "ID del producto a actualizar (omitir para crear uno nuevo)",
+            example = "1"
+    )
+    private Long id;
+}
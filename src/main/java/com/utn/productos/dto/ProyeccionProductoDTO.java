@@ -0,0 +1,15 @@
+package com.utn.productos.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.utn.productos.model.Categoria;
+
+// Producto del listado cuando se piden sólo algunos campos (fields=): los que no se pidieron quedan en null
+// y no se serializan
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProyeccionProductoDTO extends ProductoResponseDTO {
+
+    public ProyeccionProductoDTO(Long id, String nombre, String descripcion, Double precio, Integer stock,
+                                 Categoria categoria) {
+        super(id, nombre, descripcion, precio, stock, categoria);
+    }
+}
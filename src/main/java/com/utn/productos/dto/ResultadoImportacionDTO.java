@@ -0,0 +1,60 @@
+package com.utn.productos.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Schema(description = "Resumen de una importación masiva del catálogo")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoImportacionDTO {
+
+    @Schema(
+            description = "Cantidad de filas recibidas (sin contar la cabecera CSV)",
+            example = "1000000"
+    )
+    private long procesados;
+
+    @Schema(
+            description = "Cantidad de productos creados",
+            example = "999000"
+    )
+    private long creados;
+
+    @Schema(
+            description = "Cantidad de productos actualizados (filas con ID)",
+            example = "990"
+    )
+    private long actualizados;
+
+    @Schema(
+            description = "Cantidad de filas rechazadas",
+            example = "10"
+    )
+    private long fallidos;
+
+    @Schema(
+            description = "Duración de la importación en milisegundos",
+            example = "42000"
+    )
+    private long duracionMs;
+
+    @Schema(
+            description = "Filas procesadas por segundo",
+            example = "23809.5"
+    )
+    private double filasPorSegundo;
+
+    @Schema(description = "Filas rechazadas con sus errores, en orden; como máximo productos.importacion.max-errores")
+    private List<ResultadoItemLoteDTO> errores;
+
+    @Schema(
+            description = "Filas rechazadas que no se incluyen en 'errores' por superar el máximo",
+            example = "0"
+    )
+    private long erroresOmitidos;
+}
@@ -0,0 +1,52 @@
+package com.utn.productos.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Schema(description = "Resultado del procesamiento de un elemento de una operación masiva")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ResultadoItemLoteDTO {
+
+    public enum Estado {
+        CREADO,
+        ACTUALIZADO,
+        ERROR
+    }
+
+    @Schema(
+            description = "Posición del elemento dentro del lote (empieza en 0)",
+            example = "0"
+    )
+    private int indice;
+
+    @Schema(
+            description = "ID del producto afectado",
+            example = "1"
+    )
+    private Long id;
+
+    @Schema(
+            description = "Resultado del elemento",
+            example = "CREADO"
+    )
+    private Estado estado;
+
+    @Schema(description = "Errores de validación o de procesamiento (campo → mensaje)")
+    private Map<String, String> errores;
+
+    public static ResultadoItemLoteDTO exito(int indice, Long id, Estado estado) {
+        return new ResultadoItemLoteDTO(indice, id, estado, null);
+    }
+
+    public static ResultadoItemLoteDTO error(int indice, Long id, Map<String, String> errores) {
+        return new ResultadoItemLoteDTO(indice, id, Estado.ERROR, errores);
+    }
+}
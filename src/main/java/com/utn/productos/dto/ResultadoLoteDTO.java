@@ -0,0 +1,36 @@
+package com.utn.productos.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Schema(description = "Resumen de una operación masiva con el resultado de cada elemento")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoLoteDTO {
+
+    @Schema(
+            description = "Cantidad de elementos recibidos",
+            example = "1000"
+    )
+    private int procesados;
+
+    @Schema(
+            description = "Cantidad de elementos aplicados correctamente",
+            example = "998"
+    )
+    private int exitosos;
+
+    @Schema(
+            description = "Cantidad de elementos rechazados",
+            example = "2"
+    )
+    private int fallidos;
+
+    @Schema(description = "Resultado de cada elemento, en el orden recibido")
+    private List<ResultadoItemLoteDTO> resultados;
+}
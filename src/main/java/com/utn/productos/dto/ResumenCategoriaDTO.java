@@ -0,0 +1,50 @@
+package com.utn.productos.dto;
+
+import com.utn.productos.model.Categoria;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Schema(description = "Métricas agregadas de los productos de una categoría")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumenCategoriaDTO {
+
+    @Schema(
+            description = "Categoría resumida",
+            example = "ELECTRONICA"
+    )
+    private Categoria categoria;
+
+    @Schema(
+            description = "Cantidad de productos de la categoría",
+            example = "120"
+    )
+    private long cantidad;
+
+    @Schema(
+            description = "Suma del stock de todos los productos de la categoría",
+            example = "4350"
+    )
+    private long stockTotal;
+
+    @Schema(
+            description = "Precio mínimo (null si la categoría no tiene productos)",
+            example = "9.99"
+    )
+    private Double precioMinimo;
+
+    @Schema(
+            description = "Precio máximo (null si la categoría no tiene productos)",
+            example = "1999.99"
+    )
+    private Double precioMaximo;
+
+    @Schema(
+            description = "Precio promedio (null si la categoría no tiene productos)",
+            example = "349.5"
+    )
+    private Double precioPromedio;
+}
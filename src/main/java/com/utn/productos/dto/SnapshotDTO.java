@@ -0,0 +1,37 @@
+package com.utn.productos.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Schema(description = "Snapshot comprimido del catálogo de productos")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SnapshotDTO {
+
+    @Schema(
+            description = "Ruta del archivo generado",
+            example = "data/snapshots/productos-20251017T101500123Z.snapshot.gz"
+    )
+    private String archivo;
+
+    @Schema(
+            description = "Cantidad de productos incluidos",
+            example = "2000000"
+    )
+    private long productos;
+
+    @Schema(
+            description = "Tamaño del archivo comprimido en bytes",
+            example = "61234567"
+    )
+    private long bytes;
+
+    @Schema(
+            description = "Duración de la escritura en milisegundos",
+            example = "2350"
+    )
+    private long duracionMs;
+}
@@ -0,0 +1,8 @@
+package com.utn.productos.exception;
+
+public class ConsultaInvalidaException extends RuntimeException {
+
+    public ConsultaInvalidaException(String mensaje) {
+        super(mensaje);
+    }
+}
@@ -0,0 +1,8 @@
+package com.utn.productos.exception;
+
+public class CursorInvalidoException extends RuntimeException {
+
+    public CursorInvalidoException(String cursor) {
+        super("Cursor de paginación inválido: " + cursor);
+    }
+}
@@ -1,66 +1,167 @@
 package com.utn.productos.exception;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
-import org.springframework.web.context.request.WebRequest;
 
-import java.time.LocalDateTime;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+// Los cuerpos de error se escriben con plantillas precalculadas (PlantillaError): buena parte del tráfico
+// de bots son 404 y 400, y así no se arma un ErrorResponse ni se pasa por Jackson en cada uno.
+// Los handlers devuelven null cuando la plantilla ya escribió la respuesta.
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
+    private static final PlantillaError NO_ENCONTRADO =
+            new PlantillaError(HttpStatus.NOT_FOUND, ProductoNotFoundException.MENSAJE);
+    private static final PlantillaError MODIFICADO_CONCURRENTEMENTE = new PlantillaError(HttpStatus.CONFLICT,
+            "El producto fue modificado concurrentemente, reintente la operación");
+    private static final PlantillaError SATURADO = new PlantillaError(HttpStatus.SERVICE_UNAVAILABLE,
+            "Servicio saturado, reintente en unos segundos");
+    private static final PlantillaError SOLICITUD_INVALIDA = new PlantillaError(HttpStatus.BAD_REQUEST,
+            "Solicitud inválida: parámetro o cuerpo con formato incorrecto");
+    private static final PlantillaError ERROR_INTERNO = new PlantillaError(HttpStatus.INTERNAL_SERVER_ERROR,
+            "Error interno del servidor: ");
+
+    // Plantillas sin mensaje fijo (el mensaje de la excepción va como detalle), una por estado
+    private final Map<HttpStatus, PlantillaError> porEstado = new ConcurrentHashMap<>();
+
     // Producto no encontrado → 404
     @ExceptionHandler(ProductoNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleProductoNotFoundException(
-            ProductoNotFoundException ex, WebRequest request) {
+            ProductoNotFoundException ex, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        return NO_ENCONTRADO.responder(String.valueOf(ex.getId()), request, response);
+    }
 
-        ErrorResponse error = new ErrorResponse(
-                LocalDateTime.now(),
-                HttpStatus.NOT_FOUND.value(),
-                ex.getMessage(),
-                request.getDescription(false).replace("uri=", "")
-        );
+    // Stock insuficiente para una reserva → 409 Conflict
+    @ExceptionHandler(StockInsuficienteException.class)
+    public ResponseEntity<ErrorResponse> handleStockInsuficienteException(
+            StockInsuficienteException ex, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        return conMensaje(HttpStatus.CONFLICT, ex, request, response);
+    }
+
+    // Liberar dejaría el stock por encima del máximo representable → 409 Conflict
+    @ExceptionHandler(StockExcedidoException.class)
+    public ResponseEntity<ErrorResponse> handleStockExcedidoException(
+            StockExcedidoException ex, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        return conMensaje(HttpStatus.CONFLICT, ex, request, response);
+    }
+
+    // If-Match no coincide con la versión actual del producto → 412 Precondition Failed
+    @ExceptionHandler(PrecondicionFallidaException.class)
+    public ResponseEntity<ErrorResponse> handlePrecondicionFallidaException(
+            PrecondicionFallidaException ex, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        return conMensaje(HttpStatus.PRECONDITION_FAILED, ex, request, response);
+    }
+
+    // Otra operación modificó el producto en paralelo (@Version) → 409 Conflict
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailure(
+            ObjectOptimisticLockingFailureException ex, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        return MODIFICADO_CONCURRENTEMENTE.responder(null, request, response);
+    }
+
+    // Sin conexión disponible a tiempo (pool o límite de concurrencia agotados) → 503 Service Unavailable
+    @ExceptionHandler({CannotCreateTransactionException.class, CannotGetJdbcConnectionException.class})
+    public ResponseEntity<ErrorResponse> handleBaseDeDatosSaturada(
+            Exception ex, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        return SATURADO.responder(null, request, response);
+    }
 
-        return new ResponseEntity<>(error, HttpStatus.NOT_FOUND);
+    // Índice de búsqueda todavía construyéndose tras el arranque → 503 Service Unavailable
+    @ExceptionHandler(IndiceEnConstruccionException.class)
+    public ResponseEntity<ErrorResponse> handleIndiceEnConstruccionException(
+            IndiceEnConstruccionException ex, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        response.setHeader(HttpHeaders.RETRY_AFTER, "5");
+        return conMensaje(HttpStatus.SERVICE_UNAVAILABLE, ex, request, response);
     }
+
+    // Cursor de paginación corrupto o manipulado → 400
+    @ExceptionHandler(CursorInvalidoException.class)
+    public ResponseEntity<ErrorResponse> handleCursorInvalidoException(
+            CursorInvalidoException ex, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        return conMensaje(HttpStatus.BAD_REQUEST, ex, request, response);
+    }
+
+    // Campo desconocido en sort o fields del listado → 400
+    @ExceptionHandler(ConsultaInvalidaException.class)
+    public ResponseEntity<ErrorResponse> handleConsultaInvalidaException(
+            ConsultaInvalidaException ex, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        return conMensaje(HttpStatus.BAD_REQUEST, ex, request, response);
+    }
+
+    // Archivo de importación sin cabecera, con columnas desconocidas o sin saltos de línea → 400
+    @ExceptionHandler(ImportacionInvalidaException.class)
+    public ResponseEntity<ErrorResponse> handleImportacionInvalidaException(
+            ImportacionInvalidaException ex, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        return conMensaje(HttpStatus.BAD_REQUEST, ex, request, response);
+    }
+
     // Errores de validación de DTOs → 400 Bad Request
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, Object>> handleValidationException(
-            MethodArgumentNotValidException ex, WebRequest request) {
-
-        Map<String, Object> body = new HashMap<>();
-        body.put("timestamp", LocalDateTime.now());
-        body.put("status", HttpStatus.BAD_REQUEST.value());
-        body.put("path", request.getDescription(false).replace("uri=", ""));
+            MethodArgumentNotValidException ex, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
 
         // Recopilar los errores de validación campo → mensaje
         Map<String, String> errores = new HashMap<>();
         ex.getBindingResult().getFieldErrors().forEach(error ->
                 errores.put(error.getField(), error.getDefaultMessage())
         );
-        body.put("errors", errores);
 
-        return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+        return PlantillaError.responderValidacion(errores, request, response);
     }
 
+    // Id que no es un número, JSON mal formado → 400 Bad Request
+    @ExceptionHandler({TypeMismatchException.class, HttpMessageNotReadableException.class})
+    public ResponseEntity<ErrorResponse> handleSolicitudInvalida(
+            Exception ex, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        return SOLICITUD_INVALIDA.responder(null, request, response);
+    }
 
-    // Cualquier otro error → 500 Internal Server Error
+    // Cualquier otro error → 500 Internal Server Error. Las excepciones propias de Spring MVC con un estado
+    // (ruta inexistente → 404, método no soportado → 405, parámetro faltante → 400, ...) conservan el suyo.
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGlobalException(
-            Exception ex, WebRequest request) {
-
-        ErrorResponse error = new ErrorResponse(
-                LocalDateTime.now(),
-                HttpStatus.INTERNAL_SERVER_ERROR.value(),
-                "Error interno del servidor: " + ex.getMessage(),
-                request.getDescription(false).replace("uri=", "")
-        );
+            Exception ex, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (ex instanceof org.springframework.web.ErrorResponse errorWeb) {
+            HttpStatus estado = HttpStatus.resolve(errorWeb.getStatusCode().value());
+            if (estado != null) {
+                errorWeb.getHeaders().forEach((nombre, valores) -> valores.forEach(valor ->
+                        response.addHeader(nombre, valor)));
+                return porEstado.computeIfAbsent(estado, e -> new PlantillaError(e, ""))
+                        .responder(errorWeb.getBody().getDetail(), request, response);
+            }
+        }
+        return ERROR_INTERNO.responder(ex.getMessage(), request, response);
+    }
 
-        return new ResponseEntity<>(error, HttpStatus.INTERNAL_SERVER_ERROR);
+    private ResponseEntity<ErrorResponse> conMensaje(HttpStatus estado, Exception ex, HttpServletRequest request,
+                                                     HttpServletResponse response) throws IOException {
+        return porEstado.computeIfAbsent(estado, e -> new PlantillaError(e, ""))
+                .responder(ex.getMessage(), request, response);
     }
 }
@@ -0,0 +1,8 @@
+package com.utn.productos.exception;
+
+public class ImportacionInvalidaException extends RuntimeException {
+
+    public ImportacionInvalidaException(String mensaje) {
+        super("Archivo de importación inválido: " + mensaje);
+    }
+}
@@ -0,0 +1,8 @@
+package com.utn.productos.exception;
+
+public class IndiceEnConstruccionException extends RuntimeException {
+
+    public IndiceEnConstruccionException() {
+        super("El índice de búsqueda se está construyendo, reintente en unos segundos");
+    }
+}
@@ -0,0 +1,200 @@
+package com.utn.productos.exception;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+
+// Cuerpo de error (mismo JSON que ErrorResponse) con las partes fijas ya codificadas: el estado y el
+// comienzo del mensaje se pasan a bytes una sola vez y el timestamp se formatea como mucho una vez por
+// milisegundo. Por request sólo se codifican el final del mensaje (p. ej. el id) y la ruta, y se escriben
+// directo a la respuesta sin pasar por Jackson ni por la negociación de contenido.
+// Si el cliente no acepta JSON se devuelve un ResponseEntity: con el cuerpo si lo puede escribir otro
+// conversor (CBOR, Smile) o sólo con el estado (p. ej. con Accept: application/x-protobuf).
+// También la usa el limitador de tráfico para los 429 y 503, que se escriben antes de llegar a Spring MVC.
+public final class PlantillaError {
+
+    private static final byte[] INICIO = bytes("{\"timestamp\":\"");
+    private static final byte[] ANTES_DE_LA_RUTA = bytes("\",\"path\":\"");
+    private static final byte[] FIN = bytes("\"}");
+    private static final ZoneId ZONA = ZoneId.systemDefault();
+
+    private record Timestamp(long milis, byte[] texto) {
+    }
+
+    private static volatile Timestamp timestamp = new Timestamp(-1, null);
+
+    private final HttpStatus estado;
+    private final String mensaje;
+    // ","status":404,"error":"<mensaje>
+    private final byte[] antesDelDetalle;
+
+    public PlantillaError(HttpStatus estado, String mensaje) {
+        this.estado = estado;
+        this.mensaje = mensaje;
+        this.antesDelDetalle = bytes("\",\"status\":" + estado.value() + ",\"error\":\"" + escapar(mensaje));
+    }
+
+    // detalle se agrega al final del mensaje fijo (puede ser null); devuelve null si ya se escribió la respuesta
+    ResponseEntity<ErrorResponse> responder(String detalle, HttpServletRequest request,
+                                            HttpServletResponse response) throws IOException {
+        if (response.isCommitted()) {
+            return null; // error a mitad de un streaming: ya no se puede cambiar el estado ni el cuerpo
+        }
+        if (!aceptaJson(request)) {
+            if (!aceptaOtroFormatoJackson(request)) {
+                return ResponseEntity.status(estado).build();
+            }
+            return ResponseEntity.status(estado)
+                    .body(new ErrorResponse(LocalDateTime.now(), estado.value(),
+                            detalle == null ? mensaje : mensaje + detalle, request.getRequestURI()));
+        }
+        escribir(detalle, request, response);
+        return null;
+    }
+
+    // Escribe el cuerpo JSON sin mirar el Accept: para los rechazos que se resuelven antes de la negociación
+    // de contenido, que siempre respondieron JSON
+    public void escribir(String detalle, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        byte[] momento = timestamp();
+        byte[] textoDetalle = detalle == null ? null : bytes(escapar(detalle));
+        byte[] textoRuta = bytes(escapar(request.getRequestURI()));
+        int largo = INICIO.length + momento.length + antesDelDetalle.length
+                + (textoDetalle == null ? 0 : textoDetalle.length)
+                + ANTES_DE_LA_RUTA.length + textoRuta.length + FIN.length;
+
+        response.setStatus(estado.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(largo);
+        ServletOutputStream salida = response.getOutputStream();
+        salida.write(INICIO);
+        salida.write(momento);
+        salida.write(antesDelDetalle);
+        if (textoDetalle != null) {
+            salida.write(textoDetalle);
+        }
+        salida.write(ANTES_DE_LA_RUTA);
+        salida.write(textoRuta);
+        salida.write(FIN);
+    }
+
+    // Errores de validación: {"timestamp","status","path","errors":{campo: mensaje}}
+    static ResponseEntity<Map<String, Object>> responderValidacion(Map<String, String> errores,
+                                                                   HttpServletRequest request,
+                                                                   HttpServletResponse response) throws IOException {
+        if (response.isCommitted()) {
+            return null;
+        }
+        String ruta = request.getRequestURI();
+        if (!aceptaJson(request)) {
+            if (!aceptaOtroFormatoJackson(request)) {
+                return ResponseEntity.badRequest().build();
+            }
+            return ResponseEntity.badRequest().body(Map.of(
+                    "timestamp", LocalDateTime.now(),
+                    "status", HttpStatus.BAD_REQUEST.value(),
+                    "path", ruta,
+                    "errors", errores));
+        }
+        StringBuilder cuerpo = new StringBuilder(128)
+                .append("{\"timestamp\":\"").append(new String(timestamp(), StandardCharsets.US_ASCII))
+                .append("\",\"status\":").append(HttpStatus.BAD_REQUEST.value())
+                .append(",\"path\":\"").append(escapar(ruta))
+                .append("\",\"errors\":{");
+        boolean primero = true;
+        for (Map.Entry<String, String> error : errores.entrySet()) {
+            cuerpo.append(primero ? "\"" : ",\"").append(escapar(error.getKey())).append("\":");
+            if (error.getValue() == null) {
+                cuerpo.append("null");
+            } else {
+                cuerpo.append('"').append(escapar(error.getValue())).append('"');
+            }
+            primero = false;
+        }
+        byte[] texto = bytes(cuerpo.append("}}").toString());
+
+        response.setStatus(HttpStatus.BAD_REQUEST.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(texto.length);
+        response.getOutputStream().write(texto);
+        return null;
+    }
+
+    // Sin Accept, */*, application/* o cualquier tipo JSON
+    private static boolean aceptaJson(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        return accept == null || accept.isEmpty() || accept.contains("json") || accept.contains("*/*")
+                || accept.contains("application/*");
+    }
+
+    // Formatos binarios con conversor de Jackson (FormatosBinariosConfig), que pueden escribir el cuerpo de error.
+    // Protobuf no: sus esquemas sólo cubren los DTO de producto y el handler fallaría al escribir la respuesta
+    private static boolean aceptaOtroFormatoJackson(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        return accept.contains("cbor") || accept.contains("smile");
+    }
+
+    // Mismo formato que Jackson para LocalDateTime (ISO-8601 sin zona), con precisión de milisegundos
+    private static byte[] timestamp() {
+        long ahora = System.currentTimeMillis();
+        Timestamp actual = timestamp;
+        if (actual.milis() != ahora) {
+            LocalDateTime momento = LocalDateTime.ofInstant(Instant.ofEpochMilli(ahora), ZONA)
+                    .truncatedTo(ChronoUnit.MILLIS);
+            actual = new Timestamp(ahora, bytes(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(momento)));
+            timestamp = actual;
+        }
+        return actual.texto();
+    }
+
+    // Devuelve el mismo String si no hay nada que escapar, que es el caso habitual
+    static String escapar(String texto) {
+        int i = 0;
+        while (i < texto.length()) {
+            char c = texto.charAt(i);
+            if (c == '"' || c == '\\' || c < 0x20) {
+                break;
+            }
+            i++;
+        }
+        if (i == texto.length()) {
+            return texto;
+        }
+        StringBuilder escapado = new StringBuilder(texto.length() + 16).append(texto, 0, i);
+        for (; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            switch (c) {
+                case '"' -> escapado.append("\\\"");
+                case '\\' -> escapado.append("\\\\");
+                case '\n' -> escapado.append("\\n");
+                case '\r' -> escapado.append("\\r");
+                case '\t' -> escapado.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        escapado.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        escapado.append(c);
+                    }
+                }
+            }
+        }
+        return escapado.toString();
+    }
+
+    private static byte[] bytes(String texto) {
+        return texto.getBytes(StandardCharsets.UTF_8);
+    }
+}
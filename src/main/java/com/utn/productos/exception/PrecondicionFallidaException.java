@@ -0,0 +1,8 @@
+package com.utn.productos.exception;
+
+public class PrecondicionFallidaException extends RuntimeException {
+
+    public PrecondicionFallidaException(Long id) {
+        super("El producto con id " + id + " fue modificado por otra operación (If-Match no coincide)");
+    }
+}
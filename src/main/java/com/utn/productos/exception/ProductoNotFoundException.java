@@ -1,8 +1,24 @@
 package com.utn.productos.exception;
 
+// Sin stack trace ni supresiones: es un resultado esperado (404), no un error del servidor, y capturar
+// la pila en cada id inexistente es lo más caro de lanzarla. El mensaje se arma recién si se pide.
 public class ProductoNotFoundException extends RuntimeException {
 
+    static final String MENSAJE = "Producto no encontrado con id: ";
+
+    private final Long id;
+
     public ProductoNotFoundException(Long id) {
-        super("Producto no encontrado con id: " + id);
+        super(null, null, false, false);
+        this.id = id;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public String getMessage() {
+        return MENSAJE + id;
     }
 }
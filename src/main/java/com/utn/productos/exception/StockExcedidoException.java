@@ -0,0 +1,8 @@
+package com.utn.productos.exception;
+
+public class StockExcedidoException extends RuntimeException {
+
+    public StockExcedidoException(String mensaje) {
+        super(mensaje);
+    }
+}
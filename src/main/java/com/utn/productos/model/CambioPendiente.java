@@ -0,0 +1,25 @@
+package com.utn.productos.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Cambio de producto confirmado en la base que todavía no llegó al registro de cambios (outbox): se inserta
+// en la misma transacción que el cambio y se borra después de agregarlo al registro. Las filas se escriben
+// y se leen con JDBC (RegistroCambios); la entidad define la tabla para ddl-auto y para validar la migración.
+@Entity
+@Table(name = "cambio_pendiente")
+@Data
+@NoArgsConstructor
+public class CambioPendiente {
+
+    // El orden de los ids es el de publicación en el registro
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Cambio serializado tal como se agrega al registro
+    @Lob
+    @Column(nullable = false)
+    private byte[] datos;
+}
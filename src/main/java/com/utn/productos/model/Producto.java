@@ -1,18 +1,25 @@
 package com.utn.productos.model;
 
 import jakarta.persistence.*;
+import java.time.Instant;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+// El índice compuesto también resuelve las búsquedas sólo por categoría (es prefijo del índice).
+// Incluye el stock para que los resúmenes por categoría se carguen recorriendo sólo el índice.
 @Entity
+@Table(indexes = @Index(name = "idx_producto_categoria_precio_stock", columnList = "categoria, precio, stock"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Producto {
 
+    // Secuencia con optimizador pooled: Hibernate reserva bloques de ids en memoria,
+    // lo que permite agrupar los INSERT en batches JDBC (IDENTITY lo impide)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "producto_seq")
+    @SequenceGenerator(name = "producto_seq", sequenceName = "producto_seq", allocationSize = 50)
     private Long id;
 
     private String nombre;
@@ -22,4 +29,25 @@ public class Producto {
 
     @Enumerated(EnumType.STRING)
     private Categoria categoria;
+
+    // Control de concurrencia optimista: también es la base del ETag del producto
+    @Version
+    private Long version;
+
+    private Instant ultimaModificacion;
+
+    public Producto(Long id, String nombre, String descripcion, Double precio, Integer stock, Categoria categoria) {
+        this.id = id;
+        this.nombre = nombre;
+        this.descripcion = descripcion;
+        this.precio = precio;
+        this.stock = stock;
+        this.categoria = categoria;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void marcarModificacion() {
+        ultimaModificacion = Instant.now();
+    }
 }
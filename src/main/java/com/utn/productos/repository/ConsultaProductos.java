@@ -0,0 +1,109 @@
+package com.utn.productos.repository;
+
+import com.utn.productos.dto.ProductoResponseDTO;
+import com.utn.productos.model.Categoria;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+// Filtros, orden y campos pedidos para el listado de productos. Todo se resuelve en SQL: los filtros como
+// predicados (EspecificacionesProducto), el orden con paginación por clave y los campos como una proyección
+// a DTO que sólo lee esas columnas. Los filtros y campos en null no se aplican (todas las categorías, todos
+// los campos).
+public record ConsultaProductos(Set<Categoria> categorias, Double precioMin, Double precioMax, boolean soloConStock,
+                                String nombrePrefijo, List<Orden> orden, Set<Campo> campos) {
+
+    // Campos del producto que se pueden pedir en la proyección; todos menos la descripción sirven para ordenar
+    public enum Campo {
+        ID("id", Long.class, Long::valueOf, ProductoResponseDTO::getId),
+        NOMBRE("nombre", String.class, texto -> texto, ProductoResponseDTO::getNombre),
+        DESCRIPCION("descripcion", String.class, null, ProductoResponseDTO::getDescripcion),
+        PRECIO("precio", Double.class, Double::valueOf, ProductoResponseDTO::getPrecio),
+        STOCK("stock", Integer.class, Integer::valueOf, ProductoResponseDTO::getStock),
+        CATEGORIA("categoria", Categoria.class, Categoria::valueOf, ProductoResponseDTO::getCategoria);
+
+        private final String propiedad;
+        private final Class<?> tipo;
+        private final Function<String, Object> desdeTexto;
+        private final Function<ProductoResponseDTO, Object> valor;
+
+        Campo(String propiedad, Class<?> tipo, Function<String, Object> desdeTexto,
+              Function<ProductoResponseDTO, Object> valor) {
+            this.propiedad = propiedad;
+            this.tipo = tipo;
+            this.desdeTexto = desdeTexto;
+            this.valor = valor;
+        }
+
+        public String propiedad() {
+            return propiedad;
+        }
+
+        public Class<?> tipo() {
+            return tipo;
+        }
+
+        public boolean esOrdenable() {
+            return desdeTexto != null;
+        }
+
+        // Valor del campo escrito en un cursor, de vuelta a su tipo
+        public Object desdeTexto(String texto) {
+            return desdeTexto.apply(texto);
+        }
+
+        public Object valorEn(ProductoResponseDTO producto) {
+            return valor.apply(producto);
+        }
+
+        public static Optional<Campo> dePropiedad(String propiedad) {
+            return Arrays.stream(values()).filter(c -> c.propiedad.equals(propiedad)).findFirst();
+        }
+    }
+
+    public record Orden(Campo campo, boolean descendente) {
+
+        @Override
+        public String toString() {
+            return (descendente ? "-" : "") + campo.propiedad();
+        }
+    }
+
+    // Orden pedido terminado en id ascendente (si no lo incluye), para que sea total y sirva de clave de página
+    public List<Orden> ordenCompleto() {
+        if (orden.stream().anyMatch(o -> o.campo() == Campo.ID)) {
+            return orden;
+        }
+        List<Orden> completo = new ArrayList<>(orden);
+        completo.add(new Orden(Campo.ID, false));
+        return completo;
+    }
+
+    // Valores de la clave de página (un valor por cada elemento de ordenCompleto) de un producto del resultado
+    public List<Object> claveDe(ProductoResponseDTO producto) {
+        return ordenCompleto().stream().map(o -> o.campo().valorEn(producto)).toList();
+    }
+
+    // Deja en null los campos que se leyeron sólo para ordenar y no se pidieron
+    public void recortar(ProductoResponseDTO producto) {
+        if (campos == null) {
+            return;
+        }
+        for (Orden criterio : ordenCompleto()) {
+            if (!campos.contains(criterio.campo())) {
+                switch (criterio.campo()) {
+                    case ID -> producto.setId(null);
+                    case NOMBRE -> producto.setNombre(null);
+                    case DESCRIPCION -> producto.setDescripcion(null);
+                    case PRECIO -> producto.setPrecio(null);
+                    case STOCK -> producto.setStock(null);
+                    case CATEGORIA -> producto.setCategoria(null);
+                }
+            }
+        }
+    }
+}
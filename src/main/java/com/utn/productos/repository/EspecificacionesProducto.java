@@ -0,0 +1,45 @@
+package com.utn.productos.repository;
+
+import com.utn.productos.model.Producto;
+import org.springframework.data.jpa.domain.Specification;
+
+// Filtros del listado como Specification, compartidos por la consulta paginada y por el conteo del total
+public final class EspecificacionesProducto {
+
+    private EspecificacionesProducto() {
+    }
+
+    public static Specification<Producto> de(ConsultaProductos consulta) {
+        return Specification.allOf(
+                consulta.categorias() == null ? null : categoriaEn(consulta),
+                consulta.precioMin() == null ? null : precioDesde(consulta.precioMin()),
+                consulta.precioMax() == null ? null : precioHasta(consulta.precioMax()),
+                consulta.soloConStock() ? conStock() : null,
+                consulta.nombrePrefijo() == null ? null : nombreEmpiezaCon(consulta.nombrePrefijo()));
+    }
+
+    private static Specification<Producto> categoriaEn(ConsultaProductos consulta) {
+        return (producto, query, cb) -> producto.get("categoria").in(consulta.categorias());
+    }
+
+    private static Specification<Producto> precioDesde(Double minimo) {
+        return (producto, query, cb) -> cb.greaterThanOrEqualTo(producto.get("precio"), minimo);
+    }
+
+    private static Specification<Producto> precioHasta(Double maximo) {
+        return (producto, query, cb) -> cb.lessThanOrEqualTo(producto.get("precio"), maximo);
+    }
+
+    private static Specification<Producto> conStock() {
+        return (producto, query, cb) -> cb.greaterThan(producto.get("stock"), 0);
+    }
+
+    // Sin distinguir mayúsculas; % y _ del prefijo se toman literalmente
+    private static Specification<Producto> nombreEmpiezaCon(String prefijo) {
+        String patron = prefijo.toLowerCase()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_") + "%";
+        return (producto, query, cb) -> cb.like(cb.lower(producto.get("nombre")), patron, '\\');
+    }
+}
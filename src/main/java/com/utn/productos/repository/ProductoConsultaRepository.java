@@ -0,0 +1,13 @@
+package com.utn.productos.repository;
+
+import com.utn.productos.dto.ProductoResponseDTO;
+
+import java.util.List;
+
+// Fragmento de ProductoRepository con las consultas dinámicas del listado (implementado con Criteria)
+public interface ProductoConsultaRepository {
+
+    // Hasta limite productos que cumplen la consulta, en su orden, después de la fila con clave despuesDe
+    // (null para la primera página). Cada producto trae sólo los campos pedidos y los del orden.
+    List<ProductoResponseDTO> consultar(ConsultaProductos consulta, List<Object> despuesDe, int limite);
+}
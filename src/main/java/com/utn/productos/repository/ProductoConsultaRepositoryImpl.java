@@ -0,0 +1,86 @@
+package com.utn.productos.repository;
+
+import com.utn.productos.dto.ProductoResponseDTO;
+import com.utn.productos.dto.ProyeccionProductoDTO;
+import com.utn.productos.model.Producto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+class ProductoConsultaRepositoryImpl implements ProductoConsultaRepository {
+
+    private final EntityManager entityManager;
+
+    ProductoConsultaRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<ProductoResponseDTO> consultar(ConsultaProductos consulta, List<Object> despuesDe, int limite) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductoResponseDTO> query = cb.createQuery(ProductoResponseDTO.class);
+        Root<Producto> producto = query.from(Producto.class);
+        List<ConsultaProductos.Orden> orden = consulta.ordenCompleto();
+
+        // Proyección a DTO: los campos que no se pidieron ni se usan para ordenar se leen como null literal,
+        // así la base no tiene que traer esas columnas
+        Class<? extends ProductoResponseDTO> tipo = consulta.campos() == null
+                ? ProductoResponseDTO.class
+                : ProyeccionProductoDTO.class;
+        List<Selection<?>> columnas = new ArrayList<>();
+        for (ConsultaProductos.Campo campo : ConsultaProductos.Campo.values()) {
+            boolean necesario = consulta.campos() == null || consulta.campos().contains(campo)
+                    || orden.stream().anyMatch(o -> o.campo() == campo);
+            columnas.add(necesario ? producto.get(campo.propiedad()) : cb.nullLiteral(campo.tipo()));
+        }
+        query.select(cb.construct(tipo, columnas.toArray(Selection[]::new)));
+
+        List<Predicate> condiciones = new ArrayList<>();
+        Predicate filtros = EspecificacionesProducto.de(consulta).toPredicate(producto, query, cb);
+        if (filtros != null) {
+            condiciones.add(filtros);
+        }
+        if (despuesDe != null) {
+            condiciones.add(despuesDe(cb, producto, orden, despuesDe));
+        }
+        query.where(condiciones.toArray(Predicate[]::new));
+        query.orderBy(orden.stream()
+                .map(o -> o.descendente()
+                        ? cb.desc(producto.get(o.campo().propiedad()))
+                        : cb.asc(producto.get(o.campo().propiedad())))
+                .toList());
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limite)
+                .setHint(HINT_READ_ONLY, true)
+                .getResultList();
+    }
+
+    // Filas posteriores a la clave en el orden dado: (k1 > v1) or (k1 = v1 and k2 > v2) or ...
+    // (< en lugar de > para los campos descendentes)
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate despuesDe(CriteriaBuilder cb, Root<Producto> producto,
+                                       List<ConsultaProductos.Orden> orden, List<Object> clave) {
+        List<Predicate> alternativas = new ArrayList<>();
+        List<Predicate> iguales = new ArrayList<>();
+        for (int i = 0; i < orden.size(); i++) {
+            ConsultaProductos.Orden criterio = orden.get(i);
+            Expression<Comparable> campo = producto.get(criterio.campo().propiedad());
+            Comparable valor = (Comparable) clave.get(i);
+            List<Predicate> alternativa = new ArrayList<>(iguales);
+            alternativa.add(criterio.descendente() ? cb.lessThan(campo, valor) : cb.greaterThan(campo, valor));
+            alternativas.add(cb.and(alternativa.toArray(Predicate[]::new)));
+            iguales.add(cb.equal(campo, valor));
+        }
+        return cb.or(alternativas.toArray(Predicate[]::new));
+    }
+}
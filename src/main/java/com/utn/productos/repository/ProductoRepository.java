@@ -2,13 +2,74 @@ package com.utn.productos.repository;
 
 import com.utn.productos.model.Categoria;
 import com.utn.productos.model.Producto;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
-public interface ProductoRepository extends JpaRepository<Producto, Long> {
+// JpaSpecificationExecutor y ProductoConsultaRepository resuelven el listado con filtros, orden y proyección
+public interface ProductoRepository extends JpaRepository<Producto, Long>, JpaSpecificationExecutor<Producto>,
+        ProductoConsultaRepository {
 
     List<Producto> findByCategoria(Categoria categoria);
+
+    // Lectura con bloqueo de la fila (SELECT ... FOR UPDATE) para modificarla en la misma transacción
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from Producto p where p.id = :id")
+    Optional<Producto> findByIdParaActualizar(@Param("id") Long id);
+
+    // Agregados para reconstruir los resúmenes por categoría, agrupados por precio para armar el multiconjunto
+    // de precios sin traer cada fila (se resuelve recorriendo sólo el índice por categoría, precio y stock):
+    // [categoria, precio, cantidad, stock total]
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("select p.categoria, p.precio, count(p), sum(p.stock) from Producto p group by p.categoria, p.precio")
+    Stream<Object[]> streamValoresParaResumen();
+
+    // Columnas indexadas por el buscador: [id, nombre, descripcion, categoria, precio]
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("select p.id, p.nombre, p.descripcion, p.categoria, p.precio from Producto p")
+    Stream<Object[]> streamValoresParaBusqueda();
+
+    // Recorrido forward-only de toda la tabla (debe consumirse dentro de una transacción)
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("select p from Producto p order by p.id")
+    Stream<Producto> streamAllByOrderByIdAsc();
+
+    // Descuento atómico: sólo afecta la fila si hay stock suficiente (devuelve 0 si no)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Producto p set p.stock = p.stock - :cantidad, p.version = p.version + 1, "
+            + "p.ultimaModificacion = :ahora where p.id = :id and p.stock >= :cantidad")
+    int reservarStock(@Param("id") Long id, @Param("cantidad") int cantidad, @Param("ahora") Instant ahora);
+
+    // Reposición atómica del stock previamente reservado: sólo afecta la fila si la suma no supera maximo
+    // (devuelve 0 si no), así la columna INT nunca desborda
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Producto p set p.stock = p.stock + :cantidad, p.version = p.version + 1, "
+            + "p.ultimaModificacion = :ahora where p.id = :id and p.stock <= :maximo - :cantidad")
+    int liberarStock(@Param("id") Long id, @Param("cantidad") int cantidad, @Param("maximo") int maximo,
+                     @Param("ahora") Instant ahora);
 }
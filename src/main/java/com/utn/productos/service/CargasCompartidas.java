@@ -0,0 +1,65 @@
+package com.utn.productos.service;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+// Single-flight: mientras una carga de una clave está en curso, las llamadas concurrentes con la misma clave
+// esperan ese resultado en lugar de repetir la consulta. La carga corre en el hilo del primero que la pide;
+// al terminar se quita del mapa, así que no hace de caché.
+final class CargasCompartidas<K, V> {
+
+    // Recibe true si el resultado vino de una carga que ya estaba en curso
+    interface Observador {
+        void cargada(boolean compartida);
+    }
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> enCurso = new ConcurrentHashMap<>();
+    private final Observador observador;
+
+    CargasCompartidas(Observador observador) {
+        this.observador = observador;
+    }
+
+    V cargar(K clave, Function<K, V> carga) {
+        CompletableFuture<V> propia = new CompletableFuture<>();
+        CompletableFuture<V> existente = enCurso.putIfAbsent(clave, propia);
+        if (existente != null) {
+            observador.cargada(true);
+            return esperar(existente);
+        }
+        observador.cargada(false);
+        try {
+            V valor = carga.apply(clave);
+            propia.complete(valor);
+            return valor;
+        } catch (RuntimeException | Error ex) {
+            propia.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            enCurso.remove(clave, propia);
+        }
+    }
+
+    // Tras una escritura confirmada: quien pida la clave después inicia una carga nueva en lugar de sumarse
+    // a una que pudo haber leído la fila antes del cambio
+    void olvidar(K clave) {
+        enCurso.remove(clave);
+    }
+
+    static <V> V esperar(CompletableFuture<V> resultado) {
+        try {
+            return resultado.join();
+        } catch (CompletionException | CancellationException ex) {
+            if (ex.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            if (ex.getCause() instanceof Error causa) {
+                throw causa;
+            }
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,405 @@
+package com.utn.productos.service;
+
+import com.utn.productos.config.LecturaPrimaria;
+import com.utn.productos.dto.CambioProductoDTO;
+import com.utn.productos.exception.StockExcedidoException;
+import com.utn.productos.exception.StockInsuficienteException;
+import com.utn.productos.model.Producto;
+import com.utn.productos.repository.ProductoRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.function.LongUnaryOperator;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+// Modo de stock write-behind para picos de tráfico sobre pocos productos. El stock vigente de cada
+// producto tocado vive en un contador en memoria que es la fuente de verdad: las reservas se validan
+// contra él bajo un lock por franja (los productos se reparten en FRANJAS locks según su id), sin
+// transacción ni acceso a la base. Cada valor aceptado queda en el DiarioStock antes de responder, y un
+// hilo vuelca los contadores modificados a Producto.stock en un batch JDBC por intervalo o al superar
+// un umbral de operaciones. Al arrancar se reaplican los valores del diario que no llegaron a volcarse.
+//
+// Las escrituras que fijan el stock por otra vía (PUT, lotes) toman los locks de las franjas de sus ids
+// desde antes de leer la fila hasta sincronizar el contador al confirmar: una reserva concurrente espera
+// y se aplica sobre el stock nuevo, nunca se acepta contra el anterior para quedar pisada después. Si
+// igual cambian la fila entre una toma y su volcado, éste no la pisa (UPDATE condicionado a la versión)
+// y el contador se descarta para recargarse de la base. Las lecturas por id toman el stock del contador.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "productos.stock.write-behind.habilitado", havingValue = "true")
+public class ContadoresStock {
+
+    private static final int FRANJAS = 64;
+
+    private static final class Contador {
+
+        // Foto del producto tal como está en la base (nombre, categoría, versión, stock volcado)
+        private Producto producto;
+        // Stock vigente, posiblemente todavía no volcado
+        private long valor;
+
+        private Contador(Producto producto) {
+            this.producto = producto;
+            this.valor = producto.getStock() == null ? 0 : producto.getStock();
+        }
+
+        private long enBase() {
+            return producto.getStock() == null ? 0 : producto.getStock();
+        }
+
+        private Producto foto() {
+            return conStock(producto, (int) valor);
+        }
+    }
+
+    // Valor de un contador tomado para volcar
+    private record Volcado(Long id, Contador contador, long valor, long enBase, Long version) {
+    }
+
+    private final ProductoRepository productoRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductoCache productoCache;
+    private final ResumenCategorias resumenCategorias;
+    private final RegistroCambios registroCambios;
+    private final DiarioStock diario;
+    private final Duration intervalo;
+    private final int umbral;
+
+    private final Map<Long, Contador> contadores = new ConcurrentHashMap<>();
+    private final Object[] franjas = new Object[FRANJAS];
+    // Productos con operaciones desde el último volcado
+    private final Set<Long> modificados = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger operacionesPendientes = new AtomicInteger();
+    private final Thread volcador = new Thread(this::volcarPeriodicamente, "stock-volcado");
+    private volatile boolean activo = true;
+
+    public ContadoresStock(ProductoRepository productoRepository, JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager, ProductoCache productoCache,
+                           ResumenCategorias resumenCategorias, RegistroCambios registroCambios,
+                           MeterRegistry meterRegistry,
+                           @Value("${productos.stock.write-behind.diario:data/stock-diario}") Path directorioDiario,
+                           @Value("${productos.stock.write-behind.tamanio-diario:16MB}") DataSize tamanioDiario,
+                           @Value("${productos.stock.write-behind.intervalo:200ms}") Duration intervalo,
+                           @Value("${productos.stock.write-behind.umbral:1000}") int umbral) {
+        this.productoRepository = productoRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.productoCache = productoCache;
+        this.resumenCategorias = resumenCategorias;
+        this.registroCambios = registroCambios;
+        this.diario = new DiarioStock(directorioDiario, Math.toIntExact(tamanioDiario.toBytes()));
+        this.intervalo = intervalo;
+        this.umbral = umbral;
+        for (int i = 0; i < FRANJAS; i++) {
+            franjas[i] = new Object();
+        }
+        Gauge.builder("productos.stock.pendientes", modificados, Set::size)
+                .description("Productos con stock en memoria todavía no volcado a la base")
+                .register(meterRegistry);
+    }
+
+    // Reaplica lo que quedó en el diario de una ejecución anterior y arranca el volcador
+    @PostConstruct
+    public void iniciar() throws IOException {
+        Map<Long, Long> pendientes = diario.leerPendientes();
+        if (!pendientes.isEmpty()) {
+            Map<Long, Producto> productos = LecturaPrimaria.ejecutar(() ->
+                            productoRepository.findAllById(pendientes.keySet())).stream()
+                    .collect(Collectors.toMap(Producto::getId, Function.identity()));
+            List<Volcado> volcados = productos.values().stream()
+                    .map(p -> new Volcado(p.getId(), null, pendientes.get(p.getId()),
+                            p.getStock() == null ? 0 : p.getStock(), null))
+                    .toList();
+            escribirEnBase(volcados, false);
+            log.info("Reaplicados {} valores de stock pendientes del diario", volcados.size());
+        }
+        diario.iniciar();
+        volcador.setDaemon(true);
+        volcador.start();
+    }
+
+    // Al apagar se vuelca lo pendiente; si el volcado falla, el diario lo reaplica al volver a arrancar
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        activo = false;
+        LockSupport.unpark(volcador);
+        volcador.join(intervalo.toMillis() * 10);
+        volcar();
+    }
+
+    public Optional<Producto> establecer(Long id, int stock) {
+        return aplicar(id, actual -> stock);
+    }
+
+    public Optional<Producto> reservar(Long id, int cantidad) {
+        return aplicar(id, actual -> {
+            if (actual < cantidad) {
+                throw new StockInsuficienteException(
+                        "Stock insuficiente para reservar " + cantidad + " unidades del producto con id: " + id);
+            }
+            return actual - cantidad;
+        });
+    }
+
+    public Optional<Producto> liberar(Long id, int cantidad) {
+        return aplicar(id, actual -> actual + cantidad);
+    }
+
+    // Un producto se guardó por otra vía (PUT, lote): su stock confirmado pasa a ser el del contador
+    public void sincronizar(Producto guardado) {
+        Long id = guardado.getId();
+        if (!contadores.containsKey(id)) {
+            return;
+        }
+        Producto foto = new Producto(id, guardado.getNombre(), guardado.getDescripcion(), guardado.getPrecio(),
+                guardado.getStock(), guardado.getCategoria());
+        foto.setVersion(guardado.getVersion());
+        foto.setUltimaModificacion(guardado.getUltimaModificacion());
+        DiarioStock.Epoca epoca = diario.entrar();
+        try {
+            synchronized (franja(id)) {
+                Contador contador = contadores.get(id);
+                if (contador != null) {
+                    diario.registrar(epoca, id, foto.getStock() == null ? 0 : foto.getStock(), this::pedirVolcado);
+                    contador.producto = foto;
+                    contador.valor = contador.enBase();
+                }
+            }
+        } finally {
+            diario.salir(epoca);
+        }
+    }
+
+    // Ejecuta una escritura que fija el stock de estos ids por otra vía con los locks de sus franjas tomados
+    // (en orden, para no bloquearse con otra escritura): cubren la lectura, el commit y la sincronización
+    public <T> T conFranjasTomadas(Collection<Long> ids, Supplier<T> escritura) {
+        int[] indices = ids.stream()
+                .filter(Objects::nonNull)
+                .mapToInt(ContadoresStock::indiceFranja)
+                .distinct()
+                .sorted()
+                .toArray();
+        return conFranjasTomadas(indices, 0, escritura);
+    }
+
+    private <T> T conFranjasTomadas(int[] indices, int desde, Supplier<T> escritura) {
+        if (desde == indices.length) {
+            return escritura.get();
+        }
+        synchronized (franjas[indices[desde]]) {
+            return conFranjasTomadas(indices, desde + 1, escritura);
+        }
+    }
+
+    // El producto leído de la base o la caché, con el stock del contador si hay uno (todavía sin volcar)
+    public Producto conStockVigente(Producto producto) {
+        synchronized (franja(producto.getId())) {
+            Contador contador = contadores.get(producto.getId());
+            return contador == null ? producto : conStock(producto, (int) contador.valor);
+        }
+    }
+
+    // El producto fue eliminado
+    public void descartar(Long id) {
+        synchronized (franja(id)) {
+            contadores.remove(id);
+        }
+    }
+
+    private Optional<Producto> aplicar(Long id, LongUnaryOperator cambio) {
+        while (true) {
+            Contador contador = contadores.get(id);
+            if (contador == null) {
+                // El contador pasa a ser la fuente de verdad del stock: se parte del valor de la primaria. Se
+                // lee con el lock de la franja para no tomar la fila anterior a una escritura que la tiene tomada.
+                synchronized (franja(id)) {
+                    contador = contadores.get(id);
+                    if (contador == null) {
+                        Optional<Producto> producto = LecturaPrimaria.ejecutar(() -> productoRepository.findById(id));
+                        if (producto.isEmpty()) {
+                            return Optional.empty();
+                        }
+                        contador = new Contador(producto.get());
+                        contadores.put(id, contador);
+                    }
+                }
+            }
+            Producto foto;
+            DiarioStock.Epoca epoca = diario.entrar();
+            try {
+                synchronized (franja(id)) {
+                    if (contadores.get(id) != contador) {
+                        continue; // descartado entre la lectura y el lock
+                    }
+                    long nuevoValor = cambio.applyAsLong(contador.valor);
+                    if (nuevoValor > Integer.MAX_VALUE) {
+                        throw new StockExcedidoException("El stock del producto con id: " + id + " excede el máximo");
+                    }
+                    diario.registrar(epoca, id, nuevoValor, this::pedirVolcado);
+                    contador.valor = nuevoValor;
+                    modificados.add(id);
+                    foto = contador.foto();
+                }
+            } finally {
+                diario.salir(epoca);
+            }
+            if (operacionesPendientes.incrementAndGet() >= umbral) {
+                pedirVolcado();
+            }
+            return Optional.of(foto);
+        }
+    }
+
+    private void pedirVolcado() {
+        LockSupport.unpark(volcador);
+    }
+
+    private void volcarPeriodicamente() {
+        while (activo) {
+            LockSupport.parkNanos(this, intervalo.toNanos());
+            try {
+                volcar();
+            } catch (RuntimeException ex) {
+                log.warn("No se pudo volcar el stock a la base; se reintenta en el próximo ciclo", ex);
+            }
+        }
+    }
+
+    // Toma los contadores modificados, los escribe en la base en una transacción y libera el diario
+    private synchronized void volcar() {
+        if (modificados.isEmpty() && !diario.hayEntradas()) {
+            return;
+        }
+        operacionesPendientes.set(0);
+        // Las operaciones que empiecen desde ahora escriben en la época nueva; las que usaban la
+        // anterior ya terminaron, así que sus productos están en 'modificados'
+        DiarioStock.Epoca epoca = diario.rotar();
+        List<Volcado> volcados = new ArrayList<>();
+        for (Long id : List.copyOf(modificados)) {
+            modificados.remove(id);
+            synchronized (franja(id)) {
+                Contador contador = contadores.get(id);
+                if (contador != null && contador.valor != contador.enBase()) {
+                    volcados.add(new Volcado(id, contador, contador.valor, contador.enBase(),
+                            contador.producto.getVersion()));
+                }
+            }
+        }
+        try {
+            escribirEnBase(volcados, true);
+        } catch (RuntimeException ex) {
+            // Se vuelven a marcar para el próximo intento; el diario sigue cubriéndolos
+            volcados.forEach(v -> modificados.add(v.id()));
+            throw ex;
+        }
+        try {
+            diario.liberarHasta(epoca);
+        } catch (IOException ex) {
+            log.warn("No se pudieron borrar épocas ya volcadas del diario de stock", ex);
+        }
+    }
+
+    // Un único batch JDBC por volcado. Condicionado a la versión, el UPDATE no pisa una fila cambiada
+    // por otra vía. También actualiza cachés, agregados y registro de cambios, como el resto de las escrituras.
+    private void escribirEnBase(List<Volcado> volcados, boolean condicionadoAVersion) {
+        if (volcados.isEmpty()) {
+            return;
+        }
+        Timestamp ahora = Timestamp.from(Instant.now());
+        List<Producto> volcadosEnBase = transactionTemplate.execute(status -> {
+            int[] filas = condicionadoAVersion
+                    ? jdbcTemplate.batchUpdate(
+                            "update producto set stock = ?, version = version + 1, ultima_modificacion = ? "
+                                    + "where id = ? and version = ?",
+                            volcados.stream().map(v -> new Object[]{v.valor(), ahora, v.id(), v.version()}).toList())
+                    : jdbcTemplate.batchUpdate(
+                            "update producto set stock = ?, version = version + 1, ultima_modificacion = ? where id = ?",
+                            volcados.stream().map(v -> new Object[]{v.valor(), ahora, v.id()}).toList());
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < filas.length; i++) {
+                if (filas[i] > 0) {
+                    ids.add(volcados.get(i).id());
+                }
+            }
+            List<Producto> productos = productoRepository.findAllById(ids);
+            Map<Long, Volcado> porId = volcados.stream().collect(Collectors.toMap(Volcado::id, Function.identity()));
+            for (Producto producto : productos) {
+                Volcado volcado = porId.get(producto.getId());
+                productoCache.invalidar(producto);
+                resumenCategorias.registrarCambioStock(producto.getCategoria(), volcado.valor() - volcado.enBase());
+                registroCambios.registrar(CambioProductoDTO.Tipo.STOCK, producto);
+            }
+            return productos;
+        });
+
+        Map<Long, Producto> confirmados = volcadosEnBase.stream()
+                .collect(Collectors.toMap(Producto::getId, Function.identity()));
+        for (Volcado volcado : volcados) {
+            if (volcado.contador() == null) {
+                continue;
+            }
+            synchronized (franja(volcado.id())) {
+                Contador contador = volcado.contador();
+                // Si otra escritura ya sincronizó el contador, su foto es más nueva que la del volcado
+                if (contadores.get(volcado.id()) != contador
+                        || !volcado.version().equals(contador.producto.getVersion())) {
+                    continue;
+                }
+                Producto confirmado = confirmados.get(volcado.id());
+                if (confirmado != null) {
+                    contador.producto = confirmado;
+                    if (contador.valor != contador.enBase()) {
+                        modificados.add(volcado.id());
+                    }
+                } else {
+                    // La fila cambió por otra vía o ya no existe: se recarga desde la base en la próxima operación
+                    contadores.remove(volcado.id());
+                }
+            }
+        }
+    }
+
+    private Object franja(Long id) {
+        return franjas[indiceFranja(id)];
+    }
+
+    private static int indiceFranja(Long id) {
+        return (int) (id & (FRANJAS - 1));
+    }
+
+    private static Producto conStock(Producto producto, int stock) {
+        Producto copia = new Producto(producto.getId(), producto.getNombre(), producto.getDescripcion(),
+                producto.getPrecio(), stock, producto.getCategoria());
+        copia.setVersion(producto.getVersion());
+        copia.setUltimaModificacion(producto.getUltimaModificacion());
+        return copia;
+    }
+}
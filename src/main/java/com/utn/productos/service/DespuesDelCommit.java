@@ -0,0 +1,25 @@
+package com.utn.productos.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Aplica cambios sobre estructuras en memoria sólo si la transacción en curso confirma;
+// fuera de una transacción el cambio se aplica de inmediato
+final class DespuesDelCommit {
+
+    private DespuesDelCommit() {
+    }
+
+    static void ejecutar(Runnable cambio) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cambio.run();
+                }
+            });
+        } else {
+            cambio.run();
+        }
+    }
+}
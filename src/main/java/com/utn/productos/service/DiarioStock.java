@@ -0,0 +1,178 @@
+package com.utn.productos.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+// Diario de los contadores de stock en memoria: cada operación aceptada deja el valor resultante del
+// contador en un archivo mapeado en memoria antes de responder. Los valores son absolutos, así que
+// reaplicar una entrada ya volcada a la base no tiene efecto. El diario se divide en épocas: al volcar,
+// ContadoresStock abre una época nueva y, cuando la base confirma, borra las anteriores.
+final class DiarioStock {
+
+    // Entrada: id (long), valor (long), CRC32 de ambos (int) y marca (int)
+    private static final int ENTRADA = 24;
+    private static final int MARCA = 0x5354434B;
+    private static final String PREFIJO = "diario-";
+    private static final String EXTENSION = ".dat";
+
+    static final class Epoca {
+
+        private final int numero;
+        private final MappedByteBuffer buffer;
+        private final AtomicInteger posicion = new AtomicInteger();
+        // Operaciones que tomaron esta época y todavía no terminaron
+        private final AtomicInteger enCurso = new AtomicInteger();
+
+        private Epoca(int numero, MappedByteBuffer buffer) {
+            this.numero = numero;
+            this.buffer = buffer;
+        }
+
+        int numero() {
+            return numero;
+        }
+    }
+
+    private final Path directorio;
+    private final int tamanioEpoca;
+    private volatile Epoca actual;
+
+    DiarioStock(Path directorio, int tamanioEpoca) {
+        this.directorio = directorio;
+        this.tamanioEpoca = tamanioEpoca - tamanioEpoca % ENTRADA;
+    }
+
+    // Último valor registrado de cada producto en las épocas que quedaron en disco (de una ejecución anterior)
+    Map<Long, Long> leerPendientes() throws IOException {
+        Files.createDirectories(directorio);
+        Map<Long, Long> valores = new LinkedHashMap<>();
+        for (Path archivo : archivos()) {
+            try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+                // Las posiciones se reservan sin lock, así que una entrada a medio escribir puede quedar
+                // entre dos válidas: se saltea en lugar de cortar la lectura
+                for (int pos = 0; pos + ENTRADA <= buffer.capacity(); pos += ENTRADA) {
+                    if (buffer.getInt(pos + 20) == MARCA && buffer.getInt(pos + 16) == crc(buffer, pos)) {
+                        valores.put(buffer.getLong(pos), buffer.getLong(pos + 8));
+                    }
+                }
+            }
+        }
+        return valores;
+    }
+
+    // Descarta las épocas anteriores y empieza una nueva
+    void iniciar() throws IOException {
+        List<Path> anteriores = archivos();
+        int ultima = anteriores.isEmpty() ? 0 : numero(anteriores.get(anteriores.size() - 1));
+        actual = abrir(ultima + 1);
+        for (Path archivo : anteriores) {
+            Files.delete(archivo);
+        }
+    }
+
+    // Toma la época actual para una operación; se libera con salir()
+    Epoca entrar() {
+        while (true) {
+            Epoca epoca = actual;
+            epoca.enCurso.incrementAndGet();
+            if (epoca == actual) {
+                return epoca;
+            }
+            epoca.enCurso.decrementAndGet();
+        }
+    }
+
+    void salir(Epoca epoca) {
+        epoca.enCurso.decrementAndGet();
+    }
+
+    // Registra el valor de un contador. Si la época se llenó se espera a que el volcador abra otra;
+    // escribir en una época más nueva que la tomada es seguro porque se borra más tarde.
+    void registrar(Epoca epoca, long id, long valor, Runnable pedirRotacion) {
+        Epoca destino = epoca;
+        while (true) {
+            int pos = destino.posicion.getAndAdd(ENTRADA);
+            if (pos + ENTRADA <= destino.buffer.capacity()) {
+                destino.buffer.putLong(pos, id);
+                destino.buffer.putLong(pos + 8, valor);
+                destino.buffer.putInt(pos + 16, crc(destino.buffer, pos));
+                destino.buffer.putInt(pos + 20, MARCA);
+                return;
+            }
+            pedirRotacion.run();
+            while (actual == destino) {
+                Thread.onSpinWait();
+            }
+            destino = actual;
+        }
+    }
+
+    boolean hayEntradas() {
+        return actual.posicion.get() > 0;
+    }
+
+    // Abre una época nueva para las operaciones que empiecen a partir de ahora y espera a que terminen
+    // las que todavía usan la anterior. Devuelve la nueva: las anteriores a ella se borran con liberarHasta().
+    Epoca rotar() {
+        Epoca anterior = actual;
+        Epoca nueva = abrir(anterior.numero + 1);
+        actual = nueva;
+        while (anterior.enCurso.get() > 0) {
+            Thread.onSpinWait();
+        }
+        return nueva;
+    }
+
+    // Borra las épocas anteriores a la indicada, cuyos valores ya están en la base
+    void liberarHasta(Epoca epoca) throws IOException {
+        for (Path archivo : archivos()) {
+            if (numero(archivo) < epoca.numero) {
+                Files.delete(archivo);
+            }
+        }
+    }
+
+    private Epoca abrir(int numero) {
+        Path archivo = directorio.resolve(String.format("%s%010d%s", PREFIJO, numero, EXTENSION));
+        try (FileChannel canal = FileChannel.open(archivo,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return new Epoca(numero, canal.map(FileChannel.MapMode.READ_WRITE, 0, tamanioEpoca));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private List<Path> archivos() throws IOException {
+        try (Stream<Path> listado = Files.list(directorio)) {
+            return listado
+                    .filter(p -> p.getFileName().toString().startsWith(PREFIJO)
+                            && p.getFileName().toString().endsWith(EXTENSION))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static int numero(Path archivo) {
+        String nombre = archivo.getFileName().toString();
+        return Integer.parseInt(nombre.substring(PREFIJO.length(), nombre.length() - EXTENSION.length()));
+    }
+
+    // CRC32 del id y el valor de la entrada que empieza en pos
+    private static int crc(MappedByteBuffer buffer, int pos) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(pos, 16));
+        return (int) crc.getValue();
+    }
+}
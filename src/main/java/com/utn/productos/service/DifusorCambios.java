@@ -0,0 +1,173 @@
+package com.utn.productos.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+// Reparte los cambios del registro entre los suscriptores sin frenar a quien escribe: al agregar una
+// entrada sólo se despierta al hilo repartidor, que encola a cada suscriptor con cambios pendientes en
+// un pool acotado. Cada suscriptor avanza a su ritmo desde su propio offset, por lo que uno lento no
+// retrasa a los demás ni a las escrituras; si se queda atrás del anillo, sigue leyendo desde el disco.
+@Component
+public class DifusorCambios {
+
+    // Máximo de cambios que se envían a un suscriptor antes de ceder el hilo a otro
+    private static final int LOTE = 256;
+
+    // Hacia dónde se envían los cambios de una suscripción (por ejemplo, una conexión SSE)
+    public interface Destino {
+
+        void enviar(RegistroCambios.Cambio cambio) throws IOException;
+
+        // Mensaje vacío para mantener viva la conexión y detectar clientes desconectados
+        void latido() throws IOException;
+
+        // Cierra la conexión (al detener la aplicación); el cliente se reconecta y retoma desde su offset
+        void cerrar();
+    }
+
+    public final class Suscripcion {
+
+        private final Destino destino;
+        private final AtomicBoolean programada = new AtomicBoolean();
+        private volatile long siguiente;
+        private volatile boolean latidoPendiente;
+        private volatile boolean cancelada;
+
+        private Suscripcion(long desde, Destino destino) {
+            this.siguiente = desde;
+            this.destino = destino;
+        }
+
+        public void cancelar() {
+            cancelada = true;
+            suscripciones.remove(this);
+        }
+    }
+
+    private final RegistroCambios registro;
+    private final Duration intervaloLatido;
+    private final ExecutorService envios;
+    private final List<Suscripcion> suscripciones = new CopyOnWriteArrayList<>();
+    private final Thread repartidor = new Thread(this::repartir, "cambios-repartidor");
+    private volatile boolean activo = true;
+
+    public DifusorCambios(RegistroCambios registro,
+                          @Value("${productos.cambios.hilos-envio:4}") int hilosEnvio,
+                          @Value("${productos.cambios.intervalo-latido:15s}") Duration intervaloLatido) {
+        this.registro = registro;
+        this.intervaloLatido = intervaloLatido;
+        AtomicInteger numero = new AtomicInteger();
+        this.envios = Executors.newFixedThreadPool(hilosEnvio, tarea -> {
+            Thread hilo = new Thread(tarea, "cambios-envio-" + numero.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        repartidor.setDaemon(true);
+        repartidor.start();
+        registro.alAgregar(() -> LockSupport.unpark(repartidor));
+    }
+
+    // Al cerrar el contexto, antes del apagado ordenado del servidor: las conexiones SSE abiertas
+    // lo demorarían hasta agotar su tiempo de espera
+    @EventListener(ContextClosedEvent.class)
+    public void detener() {
+        activo = false;
+        LockSupport.unpark(repartidor);
+        envios.shutdownNow();
+        for (Suscripcion suscripcion : suscripciones) {
+            suscripcion.cancelar();
+            suscripcion.destino.cerrar();
+        }
+    }
+
+    // Suscribe un destino a partir de un offset (inclusive); null = sólo los cambios que lleguen desde ahora
+    public Suscripcion suscribir(Long desde, Destino destino) {
+        long inicio = desde == null ? registro.finOffset() : Math.max(desde, registro.primerOffset());
+        Suscripcion suscripcion = new Suscripcion(inicio, destino);
+        suscripciones.add(suscripcion);
+        programar(suscripcion);
+        return suscripcion;
+    }
+
+    public int cantidadSuscripciones() {
+        return suscripciones.size();
+    }
+
+    private void repartir() {
+        long proximoLatido = System.nanoTime() + intervaloLatido.toNanos();
+        while (activo) {
+            LockSupport.parkNanos(this, Math.max(0, proximoLatido - System.nanoTime()));
+            boolean tocaLatido = System.nanoTime() - proximoLatido >= 0;
+            if (tocaLatido) {
+                proximoLatido = System.nanoTime() + intervaloLatido.toNanos();
+            }
+            long fin = registro.finOffset();
+            for (Suscripcion suscripcion : suscripciones) {
+                if (tocaLatido) {
+                    suscripcion.latidoPendiente = true;
+                }
+                if (tocaLatido || suscripcion.siguiente < fin) {
+                    programar(suscripcion);
+                }
+            }
+        }
+    }
+
+    // Encola el envío de una suscripción, salvo que ya esté encolada o enviando
+    private void programar(Suscripcion suscripcion) {
+        if (!suscripcion.cancelada && suscripcion.programada.compareAndSet(false, true)) {
+            try {
+                envios.execute(() -> enviarPendientes(suscripcion));
+            } catch (RejectedExecutionException ex) {
+                // La aplicación se está deteniendo
+                suscripcion.programada.set(false);
+            }
+        }
+    }
+
+    private void enviarPendientes(Suscripcion suscripcion) {
+        try {
+            // Lo que la suscripción no llegó a leer ya salió de la retención: sigue desde lo que se conserva
+            suscripcion.siguiente = Math.max(suscripcion.siguiente, registro.primerOffset());
+            int enviados = 0;
+            RegistroCambios.Cambio cambio;
+            while (!suscripcion.cancelada && enviados < LOTE
+                    && (cambio = registro.leer(suscripcion.siguiente)) != null) {
+                suscripcion.destino.enviar(cambio);
+                suscripcion.siguiente = cambio.offset() + 1;
+                enviados++;
+            }
+            if (enviados == 0 && suscripcion.latidoPendiente && !suscripcion.cancelada) {
+                suscripcion.destino.latido();
+            }
+            suscripcion.latidoPendiente = false;
+        } catch (IOException | RuntimeException ex) {
+            // El cliente se desconectó o la conexión falló: se descarta la suscripción
+            suscripcion.cancelar();
+        } finally {
+            suscripcion.programada.set(false);
+        }
+        // Si quedaron cambios (lote agotado o llegaron mientras se enviaba) se vuelve a encolar al final
+        if (suscripcion.siguiente < registro.finOffset()) {
+            programar(suscripcion);
+        }
+    }
+}
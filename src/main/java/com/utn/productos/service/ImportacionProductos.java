@@ -0,0 +1,365 @@
+package com.utn.productos.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.utn.productos.dto.ProductoLoteDTO;
+import com.utn.productos.dto.ResultadoImportacionDTO;
+import com.utn.productos.dto.ResultadoItemLoteDTO;
+import com.utn.productos.exception.ImportacionInvalidaException;
+import com.utn.productos.model.Producto;
+import io.micrometer.core.instrument.LongTaskTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Importación masiva del catálogo desde CSV o NDJSON, en streaming. El hilo de la request sólo separa
+// el cuerpo en filas (un recorrido de bytes); interpretar y validar cada bloque de filas se reparte entre
+// un pool de hilos, y los bloques validados se guardan en orden con ProductoService.guardarLote (una
+// transacción con batching JDBC por bloque). A lo sumo 2 bloques por hilo están en vuelo a la vez,
+// así que la memoria usada no depende del tamaño del archivo.
+@Slf4j
+@Component
+public class ImportacionProductos {
+
+    public enum Formato {
+        CSV,
+        NDJSON
+    }
+
+    // Columnas que se pueden importar (y que se exportan, en este orden)
+    public static final List<String> COLUMNAS = List.of("id", "nombre", "descripcion", "precio", "stock", "categoria");
+
+    private static final int TAMANIO_MAXIMO_FILA = 1 << 20;
+    private static final int FILAS_ENTRE_AVISOS = 100_000;
+
+    // Fila del cuerpo todavía sin interpretar, con su posición (empieza en 0, sin contar la cabecera CSV)
+    private record Fila(int indice, byte[] datos) {
+    }
+
+    // Bloque de filas interpretadas y validadas: los productos válidos con su posición y los errores
+    private record BloqueValidado(List<Fila> filas, List<ProductoLoteDTO> validos, List<ResultadoItemLoteDTO> errores) {
+    }
+
+    // Convierte una fila en un producto; JsonProcessingException si la fila no se puede interpretar
+    @FunctionalInterface
+    private interface Interprete {
+        ProductoLoteDTO interpretar(byte[] datos) throws IOException;
+    }
+
+    private final ProductoService productoService;
+    private final ObjectReader ndjsonReader;
+    private final CsvMapper csvMapper = new CsvMapper();
+    private final Validator validator;
+    private final MeterRegistry meterRegistry;
+    private final LongTaskTimer importaciones;
+    private final ExecutorService ejecutor;
+    private final int enVueloMaximo;
+    private final int tamanioChunk;
+    private final int maxErrores;
+
+    public ImportacionProductos(ProductoService productoService, ObjectMapper objectMapper, Validator validator,
+                                MeterRegistry meterRegistry,
+                                @Value("${productos.importacion.hilos:0}") int hilos,
+                                @Value("${productos.lote.tamanio-chunk:1000}") int tamanioChunk,
+                                @Value("${productos.importacion.max-errores:1000}") int maxErrores) {
+        this.productoService = productoService;
+        this.ndjsonReader = objectMapper.readerFor(ProductoLoteDTO.class);
+        this.validator = validator;
+        this.meterRegistry = meterRegistry;
+        this.importaciones = LongTaskTimer.builder("productos.importacion")
+                .description("Importaciones del catálogo en curso y su duración")
+                .register(meterRegistry);
+        int cantidadHilos = hilos > 0 ? hilos : Runtime.getRuntime().availableProcessors();
+        AtomicInteger numero = new AtomicInteger();
+        this.ejecutor = Executors.newFixedThreadPool(cantidadHilos, tarea -> {
+            Thread hilo = new Thread(tarea, "importacion-" + numero.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        this.enVueloMaximo = cantidadHilos * 2;
+        this.tamanioChunk = tamanioChunk;
+        this.maxErrores = maxErrores;
+    }
+
+    @PreDestroy
+    public void detener() {
+        ejecutor.shutdownNow();
+    }
+
+    public ResultadoImportacionDTO importar(InputStream cuerpo, Formato formato) throws IOException {
+        LongTaskTimer.Sample muestra = importaciones.start();
+        long inicio = System.nanoTime();
+        Progreso progreso = new Progreso(formato, inicio);
+        Deque<Future<BloqueValidado>> enVuelo = new ArrayDeque<>();
+        try {
+            boolean csv = formato == Formato.CSV;
+            LectorFilas lector = new LectorFilas(cuerpo, csv);
+            Interprete interprete = csv ? interpreteCsv(lector.siguiente()) : ndjsonReader::readValue;
+
+            List<Fila> filas = new ArrayList<>(tamanioChunk);
+            int indice = 0;
+            byte[] datos;
+            while ((datos = lector.siguiente()) != null) {
+                if (datos.length == 0) {
+                    continue;
+                }
+                filas.add(new Fila(indice++, datos));
+                if (filas.size() == tamanioChunk) {
+                    List<Fila> bloque = filas;
+                    enVuelo.add(ejecutor.submit(() -> validar(bloque, interprete, csv)));
+                    filas = new ArrayList<>(tamanioChunk);
+                    if (enVuelo.size() >= enVueloMaximo) {
+                        guardar(esperar(enVuelo.poll()), progreso);
+                    }
+                }
+            }
+            if (!filas.isEmpty()) {
+                List<Fila> bloque = filas;
+                enVuelo.add(ejecutor.submit(() -> validar(bloque, interprete, csv)));
+            }
+            while (!enVuelo.isEmpty()) {
+                guardar(esperar(enVuelo.poll()), progreso);
+            }
+        } finally {
+            enVuelo.forEach(pendiente -> pendiente.cancel(true));
+            muestra.stop();
+        }
+        ResultadoImportacionDTO resultado = progreso.resumir();
+        log.info("Importación {} terminada: {} filas ({} creadas, {} actualizadas, {} con error) en {} ms, {} filas/s",
+                progreso.formato, resultado.getProcesados(), resultado.getCreados(), resultado.getActualizados(),
+                resultado.getFallidos(), resultado.getDuracionMs(), Math.round(resultado.getFilasPorSegundo()));
+        return resultado;
+    }
+
+    // CSV: la primera fila es la cabecera y define qué columna corresponde a cada campo
+    private Interprete interpreteCsv(byte[] cabecera) throws IOException {
+        if (cabecera == null || cabecera.length == 0) {
+            throw new ImportacionInvalidaException("El CSV no tiene cabecera");
+        }
+        String[] columnas = csvMapper.readerFor(String[].class).readValue(cabecera);
+        CsvSchema.Builder esquema = CsvSchema.builder();
+        for (String columna : columnas) {
+            String nombre = columna.trim();
+            if (!COLUMNAS.contains(nombre)) {
+                throw new ImportacionInvalidaException("Columna desconocida en la cabecera CSV: '" + nombre
+                        + "' (se admiten " + String.join(", ", COLUMNAS) + ")");
+            }
+            esquema.addColumn(nombre);
+        }
+        ObjectReader reader = csvMapper.readerFor(ProductoLoteDTO.class)
+                .with(esquema.build())
+                .with(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+                .with(CsvParser.Feature.TRIM_SPACES);
+        return reader::readValue;
+    }
+
+    // Corre en el pool: interpreta y valida cada fila del bloque
+    private BloqueValidado validar(List<Fila> filas, Interprete interprete, boolean csv) {
+        List<Fila> filasValidas = new ArrayList<>(filas.size());
+        List<ProductoLoteDTO> validos = new ArrayList<>(filas.size());
+        List<ResultadoItemLoteDTO> errores = new ArrayList<>();
+        for (Fila fila : filas) {
+            try {
+                ProductoLoteDTO producto = interprete.interpretar(fila.datos());
+                Map<String, String> violaciones = new HashMap<>();
+                for (ConstraintViolation<ProductoLoteDTO> violacion : validator.validate(producto)) {
+                    violaciones.put(violacion.getPropertyPath().toString(), violacion.getMessage());
+                }
+                if (violaciones.isEmpty()) {
+                    filasValidas.add(fila);
+                    validos.add(producto);
+                } else {
+                    errores.add(ResultadoItemLoteDTO.error(fila.indice(), producto.getId(), violaciones));
+                }
+            } catch (JsonProcessingException ex) {
+                errores.add(ResultadoItemLoteDTO.error(fila.indice(), null,
+                        Map.of(csv ? "csv" : "json", ex.getOriginalMessage())));
+            } catch (IOException ex) {
+                errores.add(ResultadoItemLoteDTO.error(fila.indice(), null,
+                        Map.of(csv ? "csv" : "json", String.valueOf(ex.getMessage()))));
+            }
+        }
+        return new BloqueValidado(filasValidas, validos, errores);
+    }
+
+    // En el hilo de la request y en orden: guarda los válidos del bloque y acumula el resultado
+    private void guardar(BloqueValidado bloque, Progreso progreso) {
+        List<Producto> productos = bloque.validos().stream()
+                .map(dto -> new Producto(dto.getId(), dto.getNombre(), dto.getDescripcion(), dto.getPrecio(),
+                        dto.getStock(), dto.getCategoria()))
+                .toList();
+        List<Producto> guardados = productos.isEmpty() ? List.of() : productoService.guardarLote(productos);
+
+        long creados = 0;
+        long actualizados = 0;
+        List<ResultadoItemLoteDTO> errores = new ArrayList<>(bloque.errores());
+        for (int i = 0; i < guardados.size(); i++) {
+            Long id = bloque.validos().get(i).getId();
+            if (guardados.get(i) == null) {
+                errores.add(ResultadoItemLoteDTO.error(bloque.filas().get(i).indice(), id,
+                        Map.of("id", "Producto no encontrado con id: " + id)));
+            } else if (id == null) {
+                creados++;
+            } else {
+                actualizados++;
+            }
+        }
+        errores.sort((a, b) -> Integer.compare(a.getIndice(), b.getIndice()));
+        progreso.sumar(creados, actualizados, errores);
+    }
+
+    private static BloqueValidado esperar(Future<BloqueValidado> bloque) {
+        try {
+            return bloque.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Importación interrumpida", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    // Totales de una importación; sólo lo modifica el hilo de la request
+    private final class Progreso {
+
+        private final String formato;
+        private final long inicio;
+        private final List<ResultadoItemLoteDTO> errores = new ArrayList<>();
+        private long creados;
+        private long actualizados;
+        private long fallidos;
+        private long proximoAviso = FILAS_ENTRE_AVISOS;
+
+        Progreso(Formato formato, long inicio) {
+            this.formato = formato.name().toLowerCase();
+            this.inicio = inicio;
+        }
+
+        void sumar(long creadosBloque, long actualizadosBloque, List<ResultadoItemLoteDTO> erroresBloque) {
+            creados += creadosBloque;
+            actualizados += actualizadosBloque;
+            fallidos += erroresBloque.size();
+            for (ResultadoItemLoteDTO error : erroresBloque) {
+                if (errores.size() < maxErrores) {
+                    errores.add(error);
+                }
+            }
+            contar("creado", creadosBloque);
+            contar("actualizado", actualizadosBloque);
+            contar("error", erroresBloque.size());
+
+            long procesados = procesados();
+            if (procesados >= proximoAviso) {
+                log.info("Importación {}: {} filas procesadas ({} filas/s)", formato, procesados,
+                        Math.round(filasPorSegundo()));
+                proximoAviso = (procesados / FILAS_ENTRE_AVISOS + 1) * FILAS_ENTRE_AVISOS;
+            }
+        }
+
+        private void contar(String resultado, long cantidad) {
+            if (cantidad > 0) {
+                meterRegistry.counter("productos.importacion.filas", "formato", formato, "resultado", resultado)
+                        .increment(cantidad);
+            }
+        }
+
+        long procesados() {
+            return creados + actualizados + fallidos;
+        }
+
+        double filasPorSegundo() {
+            long nanos = Math.max(1, System.nanoTime() - inicio);
+            return procesados() * 1_000_000_000.0 / nanos;
+        }
+
+        ResultadoImportacionDTO resumir() {
+            long duracionMs = (System.nanoTime() - inicio) / 1_000_000;
+            return new ResultadoImportacionDTO(procesados(), creados, actualizados, fallidos, duracionMs,
+                    filasPorSegundo(), errores, fallidos - errores.size());
+        }
+    }
+
+    // Separa el cuerpo en filas sin interpretarlas: corta en cada '\n' (en CSV, sólo fuera de comillas,
+    // porque un campo entre comillas puede contener saltos de línea). '"' y '\n' nunca forman parte de un
+    // carácter UTF-8 multibyte, así que se puede cortar sobre los bytes sin decodificar.
+    private static final class LectorFilas {
+
+        private final InputStream entrada;
+        private final boolean respetarComillas;
+        private final byte[] buffer = new byte[1 << 16];
+        private final ByteArrayOutputStream actual = new ByteArrayOutputStream(256);
+        private int posicion;
+        private int limite;
+
+        LectorFilas(InputStream entrada, boolean respetarComillas) {
+            this.entrada = entrada;
+            this.respetarComillas = respetarComillas;
+        }
+
+        // Próxima fila sin el salto de línea final (vacía si la línea está en blanco); null al terminar
+        byte[] siguiente() throws IOException {
+            actual.reset();
+            boolean entreComillas = false;
+            while (true) {
+                if (posicion == limite) {
+                    limite = Math.max(0, entrada.read(buffer));
+                    posicion = 0;
+                    if (limite == 0) {
+                        return actual.size() == 0 ? null : sinRetornoDeCarro(actual.toByteArray());
+                    }
+                }
+                int inicio = posicion;
+                while (posicion < limite) {
+                    byte b = buffer[posicion++];
+                    if (b == '"' && respetarComillas) {
+                        entreComillas = !entreComillas;
+                    } else if (b == '\n' && !entreComillas) {
+                        actual.write(buffer, inicio, posicion - 1 - inicio);
+                        return sinRetornoDeCarro(actual.toByteArray());
+                    }
+                }
+                actual.write(buffer, inicio, posicion - inicio);
+                if (actual.size() > TAMANIO_MAXIMO_FILA) {
+                    throw new ImportacionInvalidaException("Fila de más de " + TAMANIO_MAXIMO_FILA
+                            + " bytes: el archivo no parece " + (respetarComillas ? "CSV" : "NDJSON"));
+                }
+            }
+        }
+
+        private static byte[] sinRetornoDeCarro(byte[] fila) {
+            int largo = fila.length;
+            while (largo > 0 && (fila[largo - 1] == '\r' || fila[largo - 1] == ' ' || fila[largo - 1] == '\t')) {
+                largo--;
+            }
+            return largo == fila.length ? fila : Arrays.copyOf(fila, largo);
+        }
+    }
+}
@@ -0,0 +1,427 @@
+package com.utn.productos.service;
+
+import com.utn.productos.config.LecturaPrimaria;
+import com.utn.productos.exception.IndiceEnConstruccionException;
+import com.utn.productos.model.Categoria;
+import com.utn.productos.model.Producto;
+import com.utn.productos.repository.ProductoRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// Índice invertido en memoria sobre nombre y descripción de los productos.
+// Cada término apunta a la lista ordenada de ids que lo contienen (arrays primitivos, sin boxing),
+// y el diccionario de términos está ordenado para resolver búsquedas por prefijo con un subMap.
+// Se construye al iniciar y ProductoService lo mantiene al día en cada alta, modificación y baja.
+// Con productos.busqueda.construccion-en-segundo-plano la construcción no demora el arranque: mientras
+// dura, las búsquedas responden 503 y los cambios confirmados se encolan para aplicarse al terminar.
+// La cola guarda sólo el último cambio de cada id y tiene un máximo (productos.busqueda.max-pendientes): si se
+// supera, se descarta y el índice se vuelve a leer completo al terminar, con esos cambios ya confirmados.
+@Slf4j
+@Component
+public class IndiceBusqueda {
+
+    private static final Pattern DIACRITICOS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // Peso de un término según el campo donde aparece: el nombre pesa más que la descripción
+    private static final byte PESO_DESCRIPCION = 1;
+    private static final byte PESO_NOMBRE = 3;
+
+    // Valores de un producto que intervienen en la búsqueda
+    public record Documento(Long id, String nombre, String descripcion, Categoria categoria, Double precio) {
+
+        public static Documento de(Producto producto) {
+            return new Documento(producto.getId(), producto.getNombre(), producto.getDescripcion(),
+                    producto.getCategoria(), producto.getPrecio());
+        }
+    }
+
+    private record Entrada(Categoria categoria, Double precio, String[] terminos, byte[] pesos) {
+    }
+
+    // Lista de ids ordenada con el peso de cada uno
+    private static final class Postings {
+
+        private long[] ids = new long[4];
+        private byte[] pesos = new byte[4];
+        private int tamanio;
+
+        void poner(long id, byte peso) {
+            int pos = Arrays.binarySearch(ids, 0, tamanio, id);
+            if (pos >= 0) {
+                pesos[pos] = peso;
+                return;
+            }
+            pos = -pos - 1;
+            if (tamanio == ids.length) {
+                ids = Arrays.copyOf(ids, tamanio * 2);
+                pesos = Arrays.copyOf(pesos, tamanio * 2);
+            }
+            // Los ids nuevos suelen ser los mayores, por lo que casi siempre se agrega al final sin mover nada
+            System.arraycopy(ids, pos, ids, pos + 1, tamanio - pos);
+            System.arraycopy(pesos, pos, pesos, pos + 1, tamanio - pos);
+            ids[pos] = id;
+            pesos[pos] = peso;
+            tamanio++;
+        }
+
+        void quitar(long id) {
+            int pos = Arrays.binarySearch(ids, 0, tamanio, id);
+            if (pos >= 0) {
+                System.arraycopy(ids, pos + 1, ids, pos, tamanio - pos - 1);
+                System.arraycopy(pesos, pos + 1, pesos, pos, tamanio - pos - 1);
+                tamanio--;
+            }
+        }
+    }
+
+    private record Resultado(long id, double puntaje) {
+    }
+
+    private final ProductoRepository productoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TreeMap<String, Postings> terminos = new TreeMap<>();
+    private final Map<Long, Entrada> documentos = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final boolean enSegundoPlano;
+
+    private final int maxPendientes;
+
+    // Cambios confirmados durante la construcción en segundo plano, el último de cada id (cada uno reemplaza
+    // o quita todo lo indexado para su id); null cuando el índice ya está disponible. desbordado indica que
+    // se superó maxPendientes y hay que volver a leer. Se accede con el lock de escritura.
+    private Map<Long, Runnable> pendientes;
+    private boolean desbordado;
+    private volatile boolean disponible;
+
+    public IndiceBusqueda(ProductoRepository productoRepository, PlatformTransactionManager transactionManager,
+                          @Value("${productos.busqueda.construccion-en-segundo-plano:false}") boolean enSegundoPlano,
+                          @Value("${productos.busqueda.max-pendientes:10000}") int maxPendientes) {
+        this.productoRepository = productoRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.enSegundoPlano = enSegundoPlano;
+        this.maxPendientes = maxPendientes;
+        this.pendientes = enSegundoPlano ? new HashMap<>() : null;
+        this.disponible = !enSegundoPlano;
+    }
+
+    @PostConstruct
+    void iniciar() {
+        if (!enSegundoPlano) {
+            construir();
+            return;
+        }
+        Thread constructor = new Thread(this::construirEnSegundoPlano, "indice-busqueda");
+        constructor.setDaemon(true);
+        constructor.start();
+    }
+
+    // Desde la primaria: después el índice sólo se actualiza con los cambios de esta instancia
+    private void construir() {
+        LecturaPrimaria.ejecutar(() -> transactionTemplate.executeWithoutResult(estado -> {
+            try (Stream<Object[]> filas = productoRepository.streamValoresParaBusqueda()) {
+                filas.forEach(fila -> aplicar(new Documento((Long) fila[0], (String) fila[1], (String) fila[2],
+                        (Categoria) fila[3], (Double) fila[4])));
+            }
+        }));
+    }
+
+    // Los cambios encolados se aplican después de la lectura completa: como cada uno reemplaza (o quita)
+    // todo lo indexado para su id, pisan cualquier versión anterior que haya traído la lectura.
+    // Si la cola desbordó, los cambios descartados ya estaban confirmados: una lectura nueva los incluye
+    private void construirEnSegundoPlano() {
+        long inicio = System.nanoTime();
+        while (true) {
+            try {
+                construir();
+            } catch (RuntimeException ex) {
+                log.error("No se pudo construir el índice de búsqueda", ex);
+                return;
+            }
+            lock.writeLock().lock();
+            try {
+                if (!desbordado) {
+                    pendientes.values().forEach(Runnable::run);
+                    pendientes = null;
+                    disponible = true;
+                    break;
+                }
+                // Se vacía también lo leído: una baja descartada no la corrige una lectura nueva
+                desbordado = false;
+                terminos.clear();
+                documentos.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.warn("Más de {} cambios durante la construcción del índice de búsqueda; se vuelve a leer",
+                    maxPendientes);
+        }
+        log.info("Índice de búsqueda construido: {} productos en {} ms", documentos.size(),
+                (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    // Alta o modificación de un producto (reemplaza lo indexado previamente para ese id)
+    public void indexar(Documento documento) {
+        DespuesDelCommit.ejecutar(() -> aplicarOEncolar(documento.id(), () -> aplicar(documento)));
+    }
+
+    public void eliminar(Long id) {
+        DespuesDelCommit.ejecutar(() -> aplicarOEncolar(id, () -> {
+            lock.writeLock().lock();
+            try {
+                quitar(id);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }));
+    }
+
+    private void aplicarOEncolar(Long id, Runnable cambio) {
+        if (!disponible) {
+            lock.writeLock().lock();
+            try {
+                if (pendientes != null) {
+                    if (!desbordado) {
+                        pendientes.put(id, cambio);
+                        if (pendientes.size() > maxPendientes) {
+                            desbordado = true;
+                            pendientes.clear();
+                        }
+                    }
+                    return;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        cambio.run();
+    }
+
+    // Devuelve los ids que contienen todos los términos de la consulta (cada uno como palabra completa o prefijo),
+    // filtrados por categoría y rango de precio, ordenados por relevancia
+    public List<Long> buscar(String consulta, Categoria categoria, Double precioMin, Double precioMax, int limite) {
+        if (!disponible) {
+            throw new IndiceEnConstruccionException();
+        }
+        Set<String> terminosConsulta = tokenizar(consulta);
+        if (terminosConsulta.isEmpty()) {
+            return List.of();
+        }
+        boolean conFiltros = categoria != null || precioMin != null || precioMax != null;
+
+        lock.readLock().lock();
+        try {
+            // Se procesa primero el término más selectivo para que la intersección sea lo más chica posible
+            List<TerminoConsulta> consultas = new ArrayList<>(terminosConsulta.size());
+            for (String prefijo : terminosConsulta) {
+                TerminoConsulta termino = TerminoConsulta.de(prefijo, terminos);
+                if (termino.tamanio() == 0) {
+                    return List.of();
+                }
+                consultas.add(termino);
+            }
+            consultas.sort(Comparator.comparingLong(TerminoConsulta::tamanio));
+
+            double totalDocumentos = Math.max(1, documentos.size());
+            Map<Long, Double> puntajes = null;
+            for (TerminoConsulta termino : consultas) {
+                Map<Long, Double> puntajesTermino = puntajes == null
+                        ? puntuarPostings(termino, totalDocumentos, conFiltros, categoria, precioMin, precioMax)
+                        : puntuarCandidatos(termino, totalDocumentos, puntajes);
+                if (puntajesTermino.isEmpty()) {
+                    return List.of();
+                }
+                puntajes = puntajesTermino;
+            }
+
+            // Top-k con un heap acotado: desempate por id para que el orden sea estable
+            Comparator<Resultado> orden = Comparator.comparingDouble(Resultado::puntaje)
+                    .thenComparing(Resultado::id, Comparator.reverseOrder());
+            PriorityQueue<Resultado> mejores = new PriorityQueue<>(limite + 1, orden);
+            for (Map.Entry<Long, Double> candidato : puntajes.entrySet()) {
+                mejores.add(new Resultado(candidato.getKey(), candidato.getValue()));
+                if (mejores.size() > limite) {
+                    mejores.poll();
+                }
+            }
+
+            List<Long> ids = new ArrayList<>(mejores.size());
+            while (!mejores.isEmpty()) {
+                ids.add(mejores.poll().id());
+            }
+            Collections.reverse(ids);
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Término de la consulta con los términos del diccionario que lo tienen como prefijo
+    private record TerminoConsulta(String prefijo, SortedMap<String, Postings> coincidencias, long tamanio) {
+
+        static TerminoConsulta de(String prefijo, TreeMap<String, Postings> terminos) {
+            SortedMap<String, Postings> coincidencias = terminos.subMap(prefijo, prefijo + Character.MAX_VALUE);
+            long tamanio = 0;
+            for (Postings postings : coincidencias.values()) {
+                tamanio += postings.tamanio;
+            }
+            return new TerminoConsulta(prefijo, coincidencias, tamanio);
+        }
+    }
+
+    // Puntaje de un documento para un término: coincidencia exacta vale el doble que por prefijo
+    // y los términos poco frecuentes (idf alto) pesan más
+    private static double factor(String prefijo, String termino, int frecuencia, double totalDocumentos) {
+        return (termino.length() == prefijo.length() ? 2.0 : 1.0) * Math.log(1 + totalDocumentos / frecuencia);
+    }
+
+    // Primer término: recorre sus listas de ids aplicando los filtros de categoría y precio
+    private Map<Long, Double> puntuarPostings(TerminoConsulta termino, double totalDocumentos, boolean conFiltros,
+                                              Categoria categoria, Double precioMin, Double precioMax) {
+        Map<Long, Double> puntajes = new HashMap<>();
+        for (Map.Entry<String, Postings> coincidencia : termino.coincidencias().entrySet()) {
+            Postings postings = coincidencia.getValue();
+            double factor = factor(termino.prefijo(), coincidencia.getKey(), postings.tamanio, totalDocumentos);
+            for (int i = 0; i < postings.tamanio; i++) {
+                long id = postings.ids[i];
+                if (conFiltros && !cumpleFiltros(documentos.get(id), categoria, precioMin, precioMax)) {
+                    continue;
+                }
+                puntajes.merge(id, postings.pesos[i] * factor, Math::max);
+            }
+        }
+        return puntajes;
+    }
+
+    // Términos siguientes: intersección con los candidatos que ya cumplen los términos anteriores.
+    // Si quedan pocos candidatos se revisan sus términos en lugar de recorrer las listas completas.
+    private Map<Long, Double> puntuarCandidatos(TerminoConsulta termino, double totalDocumentos,
+                                                Map<Long, Double> candidatos) {
+        Map<Long, Double> puntajes = new HashMap<>();
+        if (candidatos.size() < termino.tamanio()) {
+            for (Map.Entry<Long, Double> candidato : candidatos.entrySet()) {
+                Entrada entrada = documentos.get(candidato.getKey());
+                double mejor = 0;
+                for (int i = 0; i < entrada.terminos().length; i++) {
+                    String terminoDocumento = entrada.terminos()[i];
+                    if (terminoDocumento.startsWith(termino.prefijo())) {
+                        int frecuencia = terminos.get(terminoDocumento).tamanio;
+                        mejor = Math.max(mejor, entrada.pesos()[i]
+                                * factor(termino.prefijo(), terminoDocumento, frecuencia, totalDocumentos));
+                    }
+                }
+                if (mejor > 0) {
+                    puntajes.put(candidato.getKey(), candidato.getValue() + mejor);
+                }
+            }
+            return puntajes;
+        }
+        for (Map.Entry<String, Postings> coincidencia : termino.coincidencias().entrySet()) {
+            Postings postings = coincidencia.getValue();
+            double factor = factor(termino.prefijo(), coincidencia.getKey(), postings.tamanio, totalDocumentos);
+            for (int i = 0; i < postings.tamanio; i++) {
+                Double anterior = candidatos.get(postings.ids[i]);
+                if (anterior != null) {
+                    puntajes.merge(postings.ids[i], anterior + postings.pesos[i] * factor, Math::max);
+                }
+            }
+        }
+        return puntajes;
+    }
+
+    private static boolean cumpleFiltros(Entrada entrada, Categoria categoria, Double precioMin, Double precioMax) {
+        if (categoria != null && categoria != entrada.categoria()) {
+            return false;
+        }
+        if (precioMin != null && (entrada.precio() == null || entrada.precio() < precioMin)) {
+            return false;
+        }
+        return precioMax == null || (entrada.precio() != null && entrada.precio() <= precioMax);
+    }
+
+    private void aplicar(Documento documento) {
+        Map<String, Byte> pesos = new HashMap<>();
+        for (String termino : tokenizar(documento.descripcion())) {
+            pesos.put(termino, PESO_DESCRIPCION);
+        }
+        for (String termino : tokenizar(documento.nombre())) {
+            pesos.merge(termino, PESO_NOMBRE, (a, b) -> (byte) (a + b));
+        }
+
+        lock.writeLock().lock();
+        try {
+            quitar(documento.id());
+            String[] terminosDocumento = new String[pesos.size()];
+            byte[] pesosDocumento = new byte[pesos.size()];
+            int i = 0;
+            for (Map.Entry<String, Byte> termino : pesos.entrySet()) {
+                terminos.computeIfAbsent(termino.getKey(), t -> new Postings())
+                        .poner(documento.id(), termino.getValue());
+                terminosDocumento[i] = termino.getKey();
+                pesosDocumento[i] = termino.getValue();
+                i++;
+            }
+            documentos.put(documento.id(), new Entrada(documento.categoria(), documento.precio(),
+                    terminosDocumento, pesosDocumento));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Debe llamarse con el lock de escritura tomado
+    private void quitar(Long id) {
+        Entrada anterior = documentos.remove(id);
+        if (anterior == null) {
+            return;
+        }
+        for (String termino : anterior.terminos()) {
+            Postings postings = terminos.get(termino);
+            if (postings != null) {
+                postings.quitar(id);
+                if (postings.tamanio == 0) {
+                    terminos.remove(termino);
+                }
+            }
+        }
+    }
+
+    // Minúsculas, sin tildes y separado por cualquier carácter que no sea letra o número
+    static Set<String> tokenizar(String texto) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (texto == null || texto.isBlank()) {
+            return tokens;
+        }
+        String normalizado = DIACRITICOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        for (String token : SEPARADORES.split(normalizado)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,111 @@
+package com.utn.productos.service;
+
+import com.utn.productos.model.Categoria;
+import com.utn.productos.model.Producto;
+import com.utn.productos.repository.ProductoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Lecturas por id y por categoría que no encontraron el valor en la caché. Con la caché fría, un pico de
+// requests por las mismas claves haría la misma consulta una vez por request. En cambio:
+// - las cargas concurrentes de una misma clave se comparten (productos.lectura.compartir-cargas);
+// - los findById de ids distintos que llegan dentro de productos.lectura.lote.ventana se agrupan en un
+//   único WHERE id IN (...) de hasta productos.lectura.lote.maximo ids (ventana 0, el valor por defecto,
+//   lo desactiva).
+// En ambos casos la entidad que lee una request termina en manos de otras, así que sale desvinculada del
+// contexto de persistencia de quien la cargó: si no, las demás recibirían una entidad gestionada por una
+// transacción ajena (con sus cambios pendientes y sus lazy loads).
+@Component
+public class LecturasProducto {
+
+    private final ProductoRepository productoRepository;
+    private final EntityManager entityManager;
+    // null si la opción correspondiente está desactivada
+    private final CargasCompartidas<Long, Optional<Producto>> cargasPorId;
+    private final CargasCompartidas<Categoria, List<Producto>> cargasPorCategoria;
+    private final LotesDeCarga<Long, Producto> lotesPorId;
+
+    public LecturasProducto(ProductoRepository productoRepository, EntityManager entityManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${productos.lectura.compartir-cargas:true}") boolean compartirCargas,
+                            @Value("${productos.lectura.lote.ventana:0ms}") Duration ventana,
+                            @Value("${productos.lectura.lote.maximo:100}") int maximoLote) {
+        this.productoRepository = productoRepository;
+        this.entityManager = entityManager;
+        this.cargasPorId = compartirCargas ? new CargasCompartidas<>(observador(meterRegistry, "id")) : null;
+        this.cargasPorCategoria = compartirCargas
+                ? new CargasCompartidas<>(observador(meterRegistry, "categoria"))
+                : null;
+        DistributionSummary idsPorConsulta = DistributionSummary.builder("productos.lectura.lote.ids")
+                .description("Ids consultados en cada WHERE id IN (...) de las lecturas agrupadas")
+                .register(meterRegistry);
+        this.lotesPorId = ventana.isZero() ? null : new LotesDeCarga<>(
+                ids -> separar(productoRepository.findAllById(ids)).stream()
+                        .collect(Collectors.toMap(Producto::getId, Function.identity())),
+                ventana.toNanos(), maximoLote, idsPorConsulta::record);
+    }
+
+    public Optional<Producto> porId(Long id) {
+        return cargasPorId == null ? cargarPorId(id) : cargasPorId.cargar(id, this::cargarPorId);
+    }
+
+    public List<Producto> porCategoria(Categoria categoria) {
+        return cargasPorCategoria == null
+                ? productoRepository.findByCategoria(categoria)
+                : cargasPorCategoria.cargar(categoria, c -> separar(productoRepository.findByCategoria(c)));
+    }
+
+    // Se llaman tras confirmar una escritura, junto con la invalidación de la caché
+    public void olvidarProducto(Long id) {
+        if (cargasPorId != null) {
+            cargasPorId.olvidar(id);
+        }
+    }
+
+    public void olvidarCategoria(Categoria categoria) {
+        if (cargasPorCategoria != null) {
+            cargasPorCategoria.olvidar(categoria);
+        }
+    }
+
+    // La consulta del lote ya desvincula lo que lee
+    private Optional<Producto> cargarPorId(Long id) {
+        if (lotesPorId != null) {
+            return Optional.ofNullable(lotesPorId.obtener(id));
+        }
+        Optional<Producto> producto = productoRepository.findById(id);
+        if (cargasPorId != null) {
+            producto.ifPresent(entityManager::detach);
+        }
+        return producto;
+    }
+
+    private List<Producto> separar(List<Producto> productos) {
+        productos.forEach(entityManager::detach);
+        return productos;
+    }
+
+    private static CargasCompartidas.Observador observador(MeterRegistry meterRegistry, String tipo) {
+        Counter ejecutadas = Counter.builder("productos.lectura.cargas")
+                .description("Cargas de la base por falta de caché: ejecutadas o compartidas con una en curso")
+                .tag("tipo", tipo)
+                .tag("resultado", "ejecutada")
+                .register(meterRegistry);
+        Counter compartidas = Counter.builder("productos.lectura.cargas")
+                .description("Cargas de la base por falta de caché: ejecutadas o compartidas con una en curso")
+                .tag("tipo", tipo)
+                .tag("resultado", "compartida")
+                .register(meterRegistry);
+        return compartida -> (compartida ? compartidas : ejecutadas).increment();
+    }
+}
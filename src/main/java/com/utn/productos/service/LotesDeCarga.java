@@ -0,0 +1,83 @@
+package com.utn.productos.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+
+// Micro-batching: los pedidos de claves distintas que llegan dentro de una ventana se resuelven con una sola
+// consulta (WHERE id IN (...)). El primer pedido de cada lote lo abre, espera la ventana (o a que el lote se
+// llene) y ejecuta la consulta en su propio hilo para todos; el resto sólo espera su resultado. No hay un
+// hilo propio: cada lote lo despacha una request distinta, así que los lotes se consultan en paralelo.
+final class LotesDeCarga<K, V> {
+
+    private final class Lote {
+
+        private final Map<K, CompletableFuture<V>> pedidos = new HashMap<>();
+        private final CountDownLatch lleno = new CountDownLatch(1);
+    }
+
+    private final Function<Set<K>, Map<K, V>> consulta;
+    private final long ventanaNanos;
+    private final int maximo;
+    private final IntConsumer tamanios;
+    private Lote abierto;
+
+    // consulta devuelve los valores encontrados por clave (las claves ausentes se resuelven con null);
+    // tamanios recibe la cantidad de claves de cada consulta ejecutada
+    LotesDeCarga(Function<Set<K>, Map<K, V>> consulta, long ventanaNanos, int maximo,
+                 IntConsumer tamanios) {
+        this.consulta = consulta;
+        this.ventanaNanos = ventanaNanos;
+        this.maximo = maximo;
+        this.tamanios = tamanios;
+    }
+
+    V obtener(K clave) {
+        Lote lote;
+        CompletableFuture<V> resultado;
+        boolean despacha;
+        synchronized (this) {
+            despacha = abierto == null;
+            if (despacha) {
+                abierto = new Lote();
+            }
+            lote = abierto;
+            resultado = lote.pedidos.computeIfAbsent(clave, k -> new CompletableFuture<>());
+            if (lote.pedidos.size() >= maximo) {
+                abierto = null;
+                lote.lleno.countDown();
+            }
+        }
+        if (despacha) {
+            despachar(lote);
+        }
+        return CargasCompartidas.esperar(resultado);
+    }
+
+    private void despachar(Lote lote) {
+        try {
+            lote.lleno.await(ventanaNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        Map<K, CompletableFuture<V>> pedidos;
+        synchronized (this) {
+            if (abierto == lote) {
+                abierto = null;
+            }
+            pedidos = lote.pedidos;
+        }
+        tamanios.accept(pedidos.size());
+        try {
+            Map<K, V> encontrados = consulta.apply(pedidos.keySet());
+            pedidos.forEach((clave, pedido) -> pedido.complete(encontrados.get(clave)));
+        } catch (RuntimeException | Error ex) {
+            pedidos.values().forEach(pedido -> pedido.completeExceptionally(ex));
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.utn.productos.service;
+
+import com.utn.productos.config.CacheConfig;
+import com.utn.productos.model.Categoria;
+import com.utn.productos.model.Producto;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+// Cachés de lectura de ProductoService (por id y por categoría) y su invalidación explícita.
+// Dentro de una transacción las invalidaciones se aplican recién después del commit,
+// para que una lectura concurrente no vuelva a cachear datos sin confirmar; ahí se descartan además
+// las cargas compartidas en curso de LecturasProducto, que pudieron leer la fila antes del cambio.
+// Una lectura que empezó antes del commit puede terminar después de la invalidación con el valor viejo:
+// cada clave tiene un número de invalidaciones (por franjas) que se toma antes de leer y se compara
+// después de guardar en la caché; si cambió, lo guardado se descarta.
+// También lleva un contador de versión por categoría que sirve de ETag del listado:
+// permite responder 304 sin leer ninguna fila.
+@Component
+public class ProductoCache {
+
+    // Franjas de contadores de invalidación: dos claves que comparten franja sólo se descartan de más
+    private static final int FRANJAS = 1024;
+
+    private final Cache productos;
+    private final Cache productosPorCategoria;
+    private final LecturasProducto lecturasProducto;
+    // El instante de arranque forma parte de la versión para que un reinicio invalide los ETags previos
+    private final long arranque = System.currentTimeMillis();
+    private final Map<Categoria, AtomicLong> versionesCategoria = new EnumMap<>(Categoria.class);
+    private final AtomicLongArray invalidaciones = new AtomicLongArray(FRANJAS);
+
+    public ProductoCache(CacheManager cacheManager, LecturasProducto lecturasProducto) {
+        this.lecturasProducto = lecturasProducto;
+        this.productos = cacheManager.getCache(CacheConfig.PRODUCTOS);
+        this.productosPorCategoria = cacheManager.getCache(CacheConfig.PRODUCTOS_POR_CATEGORIA);
+        for (Categoria categoria : Categoria.values()) {
+            versionesCategoria.put(categoria, new AtomicLong());
+        }
+    }
+
+    // Producto por id (también se cachean los inexistentes, hasta que se cree el producto)
+    public Optional<Producto> producto(Long id, Supplier<Optional<Producto>> carga) {
+        return leer(productos, id, carga);
+    }
+
+    public List<Producto> categoria(Categoria categoria, Supplier<List<Producto>> carga) {
+        return leer(productosPorCategoria, categoria, carga);
+    }
+
+    // Invalida el producto y el listado de su categoría
+    public void invalidar(Producto producto) {
+        invalidarProducto(producto.getId());
+        invalidarCategoria(producto.getCategoria());
+    }
+
+    public void invalidarProducto(Long id) {
+        if (id != null) {
+            DespuesDelCommit.ejecutar(() -> {
+                descartar(productos, id);
+                lecturasProducto.olvidarProducto(id);
+            });
+        }
+    }
+
+    public void invalidarCategoria(Categoria categoria) {
+        if (categoria != null) {
+            DespuesDelCommit.ejecutar(() -> {
+                descartar(productosPorCategoria, categoria);
+                lecturasProducto.olvidarCategoria(categoria);
+                versionesCategoria.get(categoria).incrementAndGet();
+            });
+        }
+    }
+
+    public String versionCategoria(Categoria categoria) {
+        return arranque + "-" + versionesCategoria.get(categoria).get();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T leer(Cache cache, Object clave, Supplier<T> carga) {
+        Cache.ValueWrapper cacheado = cache.get(clave);
+        if (cacheado != null) {
+            return (T) cacheado.get();
+        }
+        int franja = franja(clave);
+        long antes = invalidaciones.get(franja);
+        T valor = carga.get();
+        cache.put(clave, valor);
+        // Se vuelve a mirar después del put: o la invalidación llegó antes y se ve acá,
+        // o llega después y su evict borra lo que se acaba de guardar
+        if (invalidaciones.get(franja) != antes) {
+            cache.evict(clave);
+        }
+        return valor;
+    }
+
+    // El contador se incrementa antes del evict (ver leer)
+    private void descartar(Cache cache, Object clave) {
+        invalidaciones.incrementAndGet(franja(clave));
+        cache.evict(clave);
+    }
+
+    private static int franja(Object clave) {
+        return (clave.hashCode() & Integer.MAX_VALUE) % FRANJAS;
+    }
+}
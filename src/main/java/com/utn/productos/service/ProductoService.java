@@ -1,73 +1,434 @@
 package com.utn.productos.service;
 
+import com.utn.productos.dto.CambioProductoDTO;
+import com.utn.productos.dto.ProductoResponseDTO;
+import com.utn.productos.dto.ResumenCategoriaDTO;
+import com.utn.productos.exception.PrecondicionFallidaException;
+import com.utn.productos.exception.ProductoNotFoundException;
+import com.utn.productos.exception.StockExcedidoException;
+import com.utn.productos.exception.StockInsuficienteException;
 import com.utn.productos.model.Categoria;
 import com.utn.productos.model.Producto;
+import com.utn.productos.repository.ConsultaProductos;
+import com.utn.productos.repository.EspecificacionesProducto;
 import com.utn.productos.repository.ProductoRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+// Cada operación pública registra un timer productos.servicio{class, method}
+@Timed(value = "productos.servicio", description = "Duración de las operaciones de ProductoService")
 @Service
 public class ProductoService {
 
+    private static final int REINTENTOS_WRITE_BEHIND = 3;
+
     private final ProductoRepository productoRepository;
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductoCache productoCache;
+    private final LecturasProducto lecturasProducto;
+    private final ResumenCategorias resumenCategorias;
+    private final IndiceBusqueda indiceBusqueda;
+    private final RegistroCambios registroCambios;
+    private final TransactionTemplate transactionTemplate;
+    // Transacciones de sólo lectura (van a la réplica si hay una configurada)
+    private final TransactionTemplate lecturaTemplate;
+    // null salvo con productos.stock.write-behind.habilitado=true
+    private final ContadoresStock contadoresStock;
+
+    // Página del listado: siguiente es la clave de la última fila, o null si no hay más resultados
+    public record PaginaProductos(List<ProductoResponseDTO> productos, List<Object> siguiente) {
+    }
+
+    // Nuevo stock para un producto dentro de un ajuste masivo
+    public record AjusteStock(Long id, Integer stock) {
+    }
 
     // Inyección por constructor (recomendada por Spring)
-    public ProductoService(ProductoRepository productoRepository) {
+    public ProductoService(ProductoRepository productoRepository, EntityManager entityManager,
+                           JdbcTemplate jdbcTemplate, ProductoCache productoCache, LecturasProducto lecturasProducto,
+                           ResumenCategorias resumenCategorias, IndiceBusqueda indiceBusqueda,
+                           RegistroCambios registroCambios, PlatformTransactionManager transactionManager,
+                           ObjectProvider<ContadoresStock> contadoresStock) {
         this.productoRepository = productoRepository;
+        this.entityManager = entityManager;
+        this.jdbcTemplate = jdbcTemplate;
+        this.productoCache = productoCache;
+        this.lecturasProducto = lecturasProducto;
+        this.resumenCategorias = resumenCategorias;
+        this.indiceBusqueda = indiceBusqueda;
+        this.registroCambios = registroCambios;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.lecturaTemplate = new TransactionTemplate(transactionManager);
+        this.lecturaTemplate.setReadOnly(true);
+        this.contadoresStock = contadoresStock.getIfAvailable();
     }
 
-    // Crear un nuevo producto
+    // Crear un nuevo producto. Como el resto de las escrituras corre en una transacción: cachés, agregados,
+    // índice y registro de cambios se actualizan recién cuando confirma
     public Producto crearProducto(Producto producto) {
-        return productoRepository.save(producto);
+        return transactionTemplate.execute(status -> {
+            Producto guardado = productoRepository.save(producto);
+            productoCache.invalidar(guardado);
+            resumenCategorias.registrarAlta(ResumenCategorias.Valores.de(guardado));
+            indiceBusqueda.indexar(IndiceBusqueda.Documento.de(guardado));
+            registroCambios.registrar(CambioProductoDTO.Tipo.CREADO, guardado);
+            return guardado;
+        });
+    }
+
+    // Obtener una página del listado con filtros, orden y proyección resueltos en SQL, a partir de la clave
+    // de la última fila vista (keyset). Se pide una fila extra sólo para saber si hay página siguiente.
+    @Transactional(readOnly = true)
+    public PaginaProductos consultar(ConsultaProductos consulta, List<Object> despuesDe, int limite) {
+        List<ProductoResponseDTO> filas = productoRepository.consultar(consulta, despuesDe, limite + 1);
+        boolean hayMas = filas.size() > limite;
+        List<ProductoResponseDTO> productos = hayMas ? filas.subList(0, limite) : filas;
+        List<Object> siguiente = hayMas ? consulta.claveDe(productos.get(limite - 1)) : null;
+        productos.forEach(consulta::recortar);
+        return new PaginaProductos(productos, siguiente);
     }
 
-    // Obtener todos los productos
-    public List<Producto> obtenerTodos() {
-        return productoRepository.findAll();
+    // Total de productos que cumplen los filtros del listado (sin paginar)
+    @Transactional(readOnly = true)
+    public long contar(ConsultaProductos consulta) {
+        return productoRepository.count(EspecificacionesProducto.de(consulta));
     }
 
-    // Obtener producto por ID
+    // Recorrer todos los productos sin cargarlos en memoria: cada entidad se desvincula
+    // del contexto de persistencia apenas se procesa, así el consumo de heap es constante
+    @Transactional(readOnly = true)
+    public void recorrerTodos(Consumer<Producto> consumidor) {
+        try (Stream<Producto> productos = productoRepository.streamAllByOrderByIdAsc()) {
+            productos.forEach(p -> {
+                consumidor.accept(p);
+                entityManager.detach(p);
+            });
+        }
+    }
+
+    // Obtener producto por ID (los IDs inexistentes también se cachean, hasta que se cree el producto).
+    // La caché se consulta antes de abrir la transacción: un acierto no crea un EntityManager ni elige base.
+    // En modo write-behind el stock sale del contador: la base y la caché no lo ven hasta el volcado.
     public Optional<Producto> obtenerPorId(Long id) {
-        return productoRepository.findById(id);
+        Optional<Producto> producto = productoCache.producto(id,
+                () -> lecturaTemplate.execute(estado -> lecturasProducto.porId(id)));
+        return contadoresStock == null ? producto : producto.map(contadoresStock::conStockVigente);
     }
 
     // Obtener productos por categoría
     public List<Producto> obtenerPorCategoria(Categoria categoria) {
-        return productoRepository.findByCategoria(categoria);
+        List<Producto> productos = productoCache.categoria(categoria,
+                () -> lecturaTemplate.execute(estado -> lecturasProducto.porCategoria(categoria)));
+        return contadoresStock == null ? productos : productos.stream().map(contadoresStock::conStockVigente).toList();
+    }
+
+    // Buscar por texto en nombre y descripción (con prefijos), filtrando por categoría y rango de precio.
+    // El índice resuelve qué productos y en qué orden; sólo esos se leen de la base.
+    @Transactional(readOnly = true)
+    public List<Producto> buscar(String consulta, Categoria categoria, Double precioMin, Double precioMax, int limite) {
+        List<Long> ids = indiceBusqueda.buscar(consulta, categoria, precioMin, precioMax, limite);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Producto> encontrados = productoRepository.findAllById(ids)
+                .stream()
+                .collect(Collectors.toMap(Producto::getId, Function.identity()));
+        return ids.stream()
+                .map(encontrados::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    // Versión del listado de una categoría: cambia con cada alta, baja o modificación de sus productos
+    public String obtenerVersionCategoria(Categoria categoria) {
+        return productoCache.versionCategoria(categoria);
+    }
+
+    // Resumen de una categoría a partir de los agregados en memoria (sin consultar la base)
+    public ResumenCategoriaDTO obtenerResumen(Categoria categoria) {
+        return resumenCategorias.obtener(categoria);
+    }
+
+    // Actualizar producto completo. Si se indica versionEsperada (If-Match) y el producto cambió
+    // desde entonces, se rechaza; los cambios concurrentes posteriores los detecta @Version al guardar.
+    public Producto actualizarProducto(Long id, Producto productoActualizado, Long versionEsperada) {
+        if (contadoresStock != null && versionEsperada == null) {
+            // En modo write-behind los volcados de stock cambian la versión de la fila en segundo plano:
+            // sin If-Match eso no es un conflicto del cliente, así que se reintenta con la versión nueva
+            for (int intento = 1; ; intento++) {
+                try {
+                    return guardarProducto(id, productoActualizado, null);
+                } catch (ObjectOptimisticLockingFailureException ex) {
+                    if (intento == REINTENTOS_WRITE_BEHIND) {
+                        throw ex;
+                    }
+                }
+            }
+        }
+        return guardarProducto(id, productoActualizado, versionEsperada);
+    }
+
+    // Lectura y guardado en la misma transacción de escritura (en la primaria: con una réplica atrasada,
+    // @Version rechazaría el cambio).
+    // El flush antes de registrar deja la versión y la fecha de modificación definitivas (ETag, registro de cambios).
+    private Producto guardarProducto(Long id, Producto productoActualizado, Long versionEsperada) {
+        return conContadoresTomados(List.of(id),
+                () -> transactionTemplate.execute(status -> guardarProductoEnTransaccion(id, productoActualizado,
+                        versionEsperada)));
     }
 
-    // Actualizar producto completo
-    public Producto actualizarProducto(Long id, Producto productoActualizado) {
+    private Producto guardarProductoEnTransaccion(Long id, Producto productoActualizado, Long versionEsperada) {
         return productoRepository.findById(id)
                 .map(p -> {
-                    p.setNombre(productoActualizado.getNombre());
-                    p.setDescripcion(productoActualizado.getDescripcion());
-                    p.setPrecio(productoActualizado.getPrecio());
-                    p.setStock(productoActualizado.getStock());
-                    p.setCategoria(productoActualizado.getCategoria());
-                    return productoRepository.save(p);
+                    if (versionEsperada != null && !versionEsperada.equals(p.getVersion())) {
+                        throw new PrecondicionFallidaException(id);
+                    }
+                    // Si cambia la categoría hay que invalidar tanto la anterior como la nueva
+                    productoCache.invalidarCategoria(p.getCategoria());
+                    ResumenCategorias.Valores anteriores = ResumenCategorias.Valores.de(p);
+                    copiarDatos(productoActualizado, p);
+                    Producto guardado = productoRepository.saveAndFlush(p);
+                    productoCache.invalidar(guardado);
+                    resumenCategorias.registrarCambio(anteriores, ResumenCategorias.Valores.de(guardado));
+                    indiceBusqueda.indexar(IndiceBusqueda.Documento.de(guardado));
+                    registroCambios.registrar(CambioProductoDTO.Tipo.ACTUALIZADO, guardado);
+                    sincronizarContador(guardado);
+                    return guardado;
                 })
-                .orElseThrow(() -> new RuntimeException("Producto no encontrado con id: " + id));
-        // ⚠️ Más adelante reemplazaremos RuntimeException con una excepción personalizada (ver punto 5)
+                .orElseThrow(() -> new ProductoNotFoundException(id));
     }
 
-    // Actualizar solo el stock
+    // Actualizar solo el stock. En modo write-behind sólo cambia el contador en memoria.
     public Producto actualizarStock(Long id, Integer nuevoStock) {
-        return productoRepository.findById(id)
+        if (contadoresStock != null) {
+            return contadoresStock.establecer(id, nuevoStock)
+                    .orElseThrow(() -> new ProductoNotFoundException(id));
+        }
+        // Con @Version, leer y guardar en transacciones separadas haría fallar por conflicto a los PATCH
+        // concurrentes sobre el mismo producto: la fila se bloquea al leerla y se escribe en la misma transacción
+        return transactionTemplate.execute(status -> productoRepository.findByIdParaActualizar(id)
                 .map(p -> {
+                    int stockAnterior = p.getStock() == null ? 0 : p.getStock();
                     p.setStock(nuevoStock);
-                    return productoRepository.save(p);
+                    Producto guardado = productoRepository.saveAndFlush(p);
+                    productoCache.invalidar(guardado);
+                    resumenCategorias.registrarCambioStock(guardado.getCategoria(), nuevoStock - stockAnterior);
+                    registroCambios.registrar(CambioProductoDTO.Tipo.STOCK, guardado);
+                    return guardado;
                 })
-                .orElseThrow(() -> new RuntimeException("Producto no encontrado con id: " + id));
+                .orElseThrow(() -> new ProductoNotFoundException(id)));
+    }
+
+    // Reservar stock con un único UPDATE condicional: no hay lectura previa,
+    // por lo que dos compras concurrentes nunca pueden dejar el stock negativo.
+    // En modo write-behind la reserva se valida contra el contador en memoria, sin abrir transacción.
+    public Producto reservarStock(Long id, int cantidad) {
+        if (contadoresStock != null) {
+            return contadoresStock.reservar(id, cantidad).orElseThrow(() -> new ProductoNotFoundException(id));
+        }
+        return transactionTemplate.execute(status -> reservarStockEnBase(id, cantidad));
+    }
+
+    private Producto reservarStockEnBase(Long id, int cantidad) {
+        if (productoRepository.reservarStock(id, cantidad, Instant.now()) == 0) {
+            if (!productoRepository.existsById(id)) {
+                throw new ProductoNotFoundException(id);
+            }
+            throw new StockInsuficienteException(
+                    "Stock insuficiente para reservar " + cantidad + " unidades del producto con id: " + id);
+        }
+        Producto reservado = productoRepository.findById(id).orElseThrow(() -> new ProductoNotFoundException(id));
+        productoCache.invalidar(reservado);
+        resumenCategorias.registrarCambioStock(reservado.getCategoria(), -cantidad);
+        registroCambios.registrar(CambioProductoDTO.Tipo.STOCK, reservado);
+        return reservado;
+    }
+
+    // Liberar (devolver) stock reservado previamente
+    public Producto liberarStock(Long id, int cantidad) {
+        if (contadoresStock != null) {
+            return contadoresStock.liberar(id, cantidad).orElseThrow(() -> new ProductoNotFoundException(id));
+        }
+        return transactionTemplate.execute(status -> liberarStockEnBase(id, cantidad));
+    }
+
+    private Producto liberarStockEnBase(Long id, int cantidad) {
+        if (productoRepository.liberarStock(id, cantidad, Integer.MAX_VALUE, Instant.now()) == 0) {
+            if (!productoRepository.existsById(id)) {
+                throw new ProductoNotFoundException(id);
+            }
+            throw new StockExcedidoException(
+                    "Liberar " + cantidad + " unidades excede el stock máximo del producto con id: " + id);
+        }
+        Producto liberado = productoRepository.findById(id).orElseThrow(() -> new ProductoNotFoundException(id));
+        productoCache.invalidar(liberado);
+        resumenCategorias.registrarCambioStock(liberado.getCategoria(), cantidad);
+        registroCambios.registrar(CambioProductoDTO.Tipo.STOCK, liberado);
+        return liberado;
+    }
+
+    // Guardar un bloque de productos en una sola transacción: los que no tienen id se crean
+    // y los que tienen id se actualizan. Los INSERT/UPDATE se agrupan en batches JDBC al hacer flush.
+    // Devuelve los productos guardados en el mismo orden; null donde el id a actualizar no existe.
+    public List<Producto> guardarLote(List<Producto> productos) {
+        List<Long> ids = productos.stream()
+                .map(Producto::getId)
+                .filter(Objects::nonNull)
+                .toList();
+        return conContadoresTomados(ids, () -> transactionTemplate.execute(status -> guardarLote(productos, ids)));
+    }
+
+    private List<Producto> guardarLote(List<Producto> productos, List<Long> ids) {
+        Map<Long, Producto> existentes = ids.isEmpty() ? Map.of() : productoRepository.findAllById(ids)
+                .stream()
+                .collect(Collectors.toMap(Producto::getId, Function.identity()));
+
+        List<Producto> guardados = new ArrayList<>(productos.size());
+        List<Producto> creados = new ArrayList<>();
+        Set<Long> actualizados = new LinkedHashSet<>();
+        for (Producto producto : productos) {
+            if (producto.getId() == null) {
+                entityManager.persist(producto);
+                creados.add(producto);
+                productoCache.invalidar(producto);
+                resumenCategorias.registrarAlta(ResumenCategorias.Valores.de(producto));
+                indiceBusqueda.indexar(IndiceBusqueda.Documento.de(producto));
+                guardados.add(producto);
+            } else {
+                Producto existente = existentes.get(producto.getId());
+                if (existente != null) {
+                    actualizados.add(existente.getId());
+                    productoCache.invalidarCategoria(existente.getCategoria());
+                    ResumenCategorias.Valores anteriores = ResumenCategorias.Valores.de(existente);
+                    copiarDatos(producto, existente);
+                    productoCache.invalidar(existente);
+                    resumenCategorias.registrarCambio(anteriores, ResumenCategorias.Valores.de(existente));
+                    indiceBusqueda.indexar(IndiceBusqueda.Documento.de(existente));
+                }
+                guardados.add(existente);
+            }
+        }
+        entityManager.flush();
+        // Los cambios se registran después del flush, cuando cada producto ya tiene su versión definitiva
+        for (Producto creado : creados) {
+            registroCambios.registrar(CambioProductoDTO.Tipo.CREADO, creado);
+        }
+        for (Long id : actualizados) {
+            registroCambios.registrar(CambioProductoDTO.Tipo.ACTUALIZADO, existentes.get(id));
+            sincronizarContador(existentes.get(id));
+        }
+        // Vaciar el contexto de persistencia para que el consumo de memoria no crezca entre bloques
+        entityManager.clear();
+        return guardados;
+    }
+
+    // Ajustar el stock de un bloque de productos con un único batch JDBC.
+    // Devuelve, en el mismo orden, si cada producto existía y fue actualizado.
+    @Transactional
+    public List<Boolean> ajustarStockLote(List<AjusteStock> ajustes) {
+        if (contadoresStock != null) {
+            // En modo write-behind el stock vigente está en los contadores: el lote también pasa por ellos
+            return ajustes.stream()
+                    .map(a -> contadoresStock.establecer(a.id(), a.stock()).isPresent())
+                    .toList();
+        }
+        entityManager.flush();
+        // Stock y categoría previos de cada producto, para invalidar y actualizar los resúmenes con precisión
+        Map<Long, Producto> previos = productoRepository.findAllById(ajustes.stream().map(AjusteStock::id).toList())
+                .stream()
+                .collect(Collectors.toMap(Producto::getId, Function.identity()));
+        Timestamp ahora = Timestamp.from(Instant.now());
+        List<Object[]> parametros = ajustes.stream()
+                .map(a -> new Object[]{a.stock(), ahora, a.id()})
+                .toList();
+        int[] filas = jdbcTemplate.batchUpdate(
+                "update producto set stock = ?, version = version + 1, ultima_modificacion = ? where id = ?",
+                parametros);
+        entityManager.clear();
+
+        List<Boolean> actualizados = new ArrayList<>(filas.length);
+        Map<Long, Integer> stockActual = new HashMap<>();
+        Map<Long, Integer> aplicaciones = new HashMap<>();
+        for (int i = 0; i < filas.length; i++) {
+            AjusteStock ajuste = ajustes.get(i);
+            Producto previo = previos.get(ajuste.id());
+            boolean actualizado = filas[i] > 0 && previo != null;
+            actualizados.add(actualizado);
+            if (actualizado) {
+                // Un mismo id puede repetirse dentro del bloque: el delta se calcula contra el último valor aplicado
+                Integer anterior = stockActual.getOrDefault(ajuste.id(), previo.getStock());
+                stockActual.put(ajuste.id(), ajuste.stock());
+                resumenCategorias.registrarCambioStock(previo.getCategoria(),
+                        (long) ajuste.stock() - (anterior == null ? 0 : anterior));
+                productoCache.invalidar(previo);
+                // Cada UPDATE del batch incrementó la versión; se publica el estado que dejó este ajuste
+                Producto ajustado = new Producto(previo.getId(), previo.getNombre(), previo.getDescripcion(),
+                        previo.getPrecio(), ajuste.stock(), previo.getCategoria());
+                ajustado.setVersion(previo.getVersion() + aplicaciones.merge(ajuste.id(), 1, Integer::sum));
+                ajustado.setUltimaModificacion(ahora.toInstant());
+                registroCambios.registrar(CambioProductoDTO.Tipo.STOCK, ajustado);
+            }
+        }
+        return actualizados;
     }
 
     // Eliminar producto
     public void eliminarProducto(Long id) {
-        if (!productoRepository.existsById(id)) {
-            throw new RuntimeException("Producto no encontrado con id: " + id);
+        transactionTemplate.executeWithoutResult(status -> {
+            Producto producto = productoRepository.findById(id).orElseThrow(() -> new ProductoNotFoundException(id));
+            productoRepository.delete(producto);
+            productoCache.invalidar(producto);
+            resumenCategorias.registrarBaja(ResumenCategorias.Valores.de(producto));
+            indiceBusqueda.eliminar(producto.getId());
+            registroCambios.registrar(CambioProductoDTO.Tipo.ELIMINADO, producto);
+            if (contadoresStock != null) {
+                DespuesDelCommit.ejecutar(() -> contadoresStock.descartar(producto.getId()));
+            }
+        });
+    }
+
+    // Una escritura que fija el stock fuera de los contadores (PUT, lote) los deja tomados hasta sincronizarlos:
+    // las reservas de esos ids esperan al commit en lugar de aplicarse sobre el stock anterior
+    private <T> T conContadoresTomados(List<Long> ids, Supplier<T> escritura) {
+        return contadoresStock == null ? escritura.get() : contadoresStock.conFranjasTomadas(ids, escritura);
+    }
+
+    // Un producto guardado fuera de los contadores (PUT, lote) fija su stock también en memoria, al confirmar
+    private void sincronizarContador(Producto guardado) {
+        if (contadoresStock != null) {
+            DespuesDelCommit.ejecutar(() -> contadoresStock.sincronizar(guardado));
         }
-        productoRepository.deleteById(id);
+    }
+
+    private void copiarDatos(Producto origen, Producto destino) {
+        destino.setNombre(origen.getNombre());
+        destino.setDescripcion(origen.getDescripcion());
+        destino.setPrecio(origen.getPrecio());
+        destino.setStock(origen.getStock());
+        destino.setCategoria(origen.getCategoria());
     }
 }
@@ -0,0 +1,495 @@
+package com.utn.productos.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.utn.productos.dto.CambioProductoDTO;
+import com.utn.productos.dto.ProductoResponseDTO;
+import com.utn.productos.model.Producto;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+// Registro de cambios (CDC) de productos: log append-only en disco, mapeado en memoria y dividido
+// en segmentos de tamaño fijo. Cada cambio confirmado recibe un offset creciente y se escribe en el
+// segmento activo; además queda en un anillo acotado en memoria, desde el que se sirve a los lectores
+// que van al día. Los que van atrasados (o retoman tras reconectarse) leen directamente del disco.
+// Sin productos.cambios.directorio (desarrollo, con la base en memoria) el log va a un directorio temporal
+// que se borra al cerrar: los offsets no pueden sobrevivir a una base que se recrea vacía en cada arranque.
+//
+// Garantías:
+// - Todo cambio confirmado llega al registro, aunque el proceso se caiga justo después del commit: el cambio
+//   se inserta en la tabla cambio_pendiente (outbox) en la misma transacción, y se agrega al log y se borra
+//   de la tabla después de confirmar. Lo que quedó pendiente al caerse se publica al arrancar, salvo lo que
+//   ya estaba al final del log. Contra una caída del sistema operativo hace falta además
+//   productos.cambios.sincronizar=true (el log se fuerza a disco antes de borrar las filas).
+// - Los cambios de un mismo producto toman offsets en el orden en que confirmaron sus transacciones: la fila
+//   pendiente se inserta con la fila del producto ya bloqueada, y se publica en el orden de su id. Entre
+//   productos distintos el orden de los offsets no tiene por qué coincidir con el de los commits.
+// - Retención: se conservan los segmentos más nuevos hasta productos.cambios.retencion; al superarla se
+//   borra el más viejo. Quien retoma desde un offset ya borrado sigue desde el primero que se conserva.
+@Slf4j
+@Component
+public class RegistroCambios implements SmartInitializingSingleton {
+
+    // Cabecera de cada entrada: longitud del contenido (int), CRC32 del contenido (int) y offset (long)
+    private static final int CABECERA = 16;
+    private static final String EXTENSION = ".log";
+
+    // Entrada del registro: offset y cambio serializado en JSON
+    public record Cambio(long offset, byte[] datos) {
+    }
+
+    // null hasta abrir() si el directorio es temporal
+    private Path directorio;
+    private final boolean temporal;
+    private final int tamanioSegmento;
+    private final int maximoSegmentos;
+    private final boolean sincronizar;
+    private final ObjectMapper objectMapper;
+    // null sin outbox (pruebas del log aislado): los cambios se agregan al confirmar
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate nuevaTransaccion;
+    private final Cambio[] anillo;
+    private final int mascara;
+    private final ConcurrentSkipListMap<Long, Segmento> segmentos = new ConcurrentSkipListMap<>();
+    private final List<Runnable> oyentes = new CopyOnWriteArrayList<>();
+    private final Object escritura = new Object();
+
+    // Segmento donde se escribe; sólo se toca con el lock de escritura
+    private Segmento activo;
+    // Próximo offset a asignar: todo offset menor ya está escrito y es legible
+    private volatile long fin;
+
+    // Publicación de la tabla cambio_pendiente: un solo hilo a la vez; los pedidos que llegan mientras
+    // tanto los atiende el mismo hilo en otra vuelta
+    private final ReentrantLock publicacion = new ReentrantLock();
+    private final AtomicInteger publicacionesPedidas = new AtomicInteger();
+    // Filas ya agregadas al log cuyo borrado falló: no se vuelven a agregar. Sólo con el lock de publicación.
+    private final Set<Long> publicadasSinBorrar = new HashSet<>();
+    // Hasta recuperar lo pendiente de la ejecución anterior no se publica nada
+    private volatile boolean publicando;
+
+    public RegistroCambios(@Value("${productos.cambios.directorio:}") String directorio,
+                           @Value("${productos.cambios.tamanio-segmento:64MB}") DataSize tamanioSegmento,
+                           @Value("${productos.cambios.retencion:1GB}") DataSize retencion,
+                           @Value("${productos.cambios.capacidad-anillo:4096}") int capacidadAnillo,
+                           @Value("${productos.cambios.sincronizar:false}") boolean sincronizar,
+                           ObjectMapper objectMapper, JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager) {
+        this.temporal = directorio.isBlank();
+        this.directorio = temporal ? null : Path.of(directorio);
+        this.tamanioSegmento = Math.toIntExact(tamanioSegmento.toBytes());
+        // Al menos el activo y el anterior, para no borrar lo que un lector atrasado está por leer
+        this.maximoSegmentos = (int) Math.max(2, retencion.toBytes() / tamanioSegmento.toBytes());
+        this.sincronizar = sincronizar;
+        this.objectMapper = objectMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        if (transactionManager == null) {
+            this.nuevaTransaccion = null;
+        } else {
+            // Se publica desde afterCommit, donde la transacción que confirmó sigue asociada al hilo
+            this.nuevaTransaccion = new TransactionTemplate(transactionManager);
+            this.nuevaTransaccion.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        }
+        // Capacidad potencia de dos para ubicar cada offset con una máscara
+        int capacidad = Integer.highestOneBit(Math.max(2, capacidadAnillo - 1)) << 1;
+        this.anillo = new Cambio[capacidad];
+        this.mascara = capacidad - 1;
+    }
+
+    // Abre los segmentos existentes y retoma la numeración desde la última entrada válida
+    @PostConstruct
+    public void abrir() throws IOException {
+        if (temporal) {
+            directorio = Files.createTempDirectory("productos-cambios");
+        }
+        Files.createDirectories(directorio);
+        List<Path> archivos;
+        try (Stream<Path> listado = Files.list(directorio)) {
+            archivos = listado.filter(p -> p.getFileName().toString().endsWith(EXTENSION)).sorted().toList();
+        }
+        for (Path archivo : archivos) {
+            String nombre = archivo.getFileName().toString();
+            long base = Long.parseLong(nombre.substring(0, nombre.length() - EXTENSION.length()));
+            Segmento segmento = Segmento.abrir(archivo, base, tamanioSegmento);
+            segmento.recuperar();
+            segmentos.put(base, segmento);
+        }
+        if (segmentos.isEmpty()) {
+            segmentos.put(0L, Segmento.abrir(archivoSegmento(0), 0, tamanioSegmento));
+        }
+        activo = segmentos.lastEntry().getValue();
+        fin = activo.base + activo.cantidad;
+        aplicarRetencion();
+    }
+
+    // Con todos los beans creados (el esquema ya existe, migrado o generado) y antes de atender requests:
+    // agrega al log lo que quedó en cambio_pendiente de la ejecución anterior
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (jdbcTemplate == null) {
+            return;
+        }
+        publicacion.lock();
+        try {
+            // Lo que el log ya tiene al final se agregó antes de la caída pero no llegó a borrarse
+            List<Pendiente> pendientes = leerPendientes();
+            Set<String> alFinal = new HashSet<>();
+            for (long offset = Math.max(primerOffset(), fin - pendientes.size()); offset < fin; offset++) {
+                alFinal.add(new String(leer(offset).datos(), StandardCharsets.UTF_8));
+            }
+            for (Pendiente pendiente : pendientes) {
+                if (alFinal.contains(new String(pendiente.datos(), StandardCharsets.UTF_8))) {
+                    publicadasSinBorrar.add(pendiente.id());
+                }
+            }
+            publicar(pendientes);
+            if (!pendientes.isEmpty()) {
+                log.info("Recuperados {} cambios pendientes del registro de cambios", pendientes.size());
+            }
+            publicando = true;
+        } finally {
+            publicacion.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        synchronized (escritura) {
+            activo.buffer.force();
+        }
+        if (temporal) {
+            borrarDirectorio();
+        }
+    }
+
+    // Los segmentos siguen mapeados: donde el sistema no permite borrarlos, quedan en el temporal
+    private void borrarDirectorio() {
+        try (Stream<Path> listado = Files.list(directorio)) {
+            for (Path archivo : listado.toList()) {
+                Files.deleteIfExists(archivo);
+            }
+            Files.deleteIfExists(directorio);
+        } catch (IOException ex) {
+            log.warn("No se pudo borrar el registro de cambios temporal {}", directorio, ex);
+        }
+    }
+
+    // Registra el cambio de un producto. Se toma una foto del producto en el momento de la llamada; se
+    // guarda en cambio_pendiente al confirmar la transacción en curso (en ella, junto con los demás cambios
+    // que registró) y se agrega al log después del commit: un rollback no publica nada.
+    public void registrar(CambioProductoDTO.Tipo tipo, Producto producto) {
+        boolean eliminado = tipo == CambioProductoDTO.Tipo.ELIMINADO;
+        CambioProductoDTO cambio = new CambioProductoDTO(
+                tipo,
+                producto.getId(),
+                producto.getVersion(),
+                eliminado || producto.getUltimaModificacion() == null ? Instant.now() : producto.getUltimaModificacion(),
+                eliminado ? null : new ProductoResponseDTO(
+                        producto.getId(),
+                        producto.getNombre(),
+                        producto.getDescripcion(),
+                        producto.getPrecio(),
+                        producto.getStock(),
+                        producto.getCategoria()));
+        byte[] datos;
+        try {
+            datos = objectMapper.writeValueAsBytes(cambio);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("No se pudo serializar el cambio del producto " + producto.getId(), ex);
+        }
+        if (jdbcTemplate == null || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            // Sin transacción no hay commit que acompañar
+            DespuesDelCommit.ejecutar(() -> agregarConfirmado(datos, producto.getId()));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<byte[]> enTransaccion = (List<byte[]>) TransactionSynchronizationManager.getResource(this);
+        if (enTransaccion == null) {
+            List<byte[]> nuevos = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, nuevos);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    // Un solo batch por transacción, con las filas de los productos ya bloqueadas
+                    jdbcTemplate.batchUpdate("insert into cambio_pendiente (datos) values (?)",
+                            nuevos.stream().map(d -> new Object[]{d}).toList());
+                }
+
+                @Override
+                public void afterCommit() {
+                    publicarPendientes();
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(RegistroCambios.this);
+                }
+            });
+            enTransaccion = nuevos;
+        }
+        enTransaccion.add(datos);
+    }
+
+    // El cambio ya está confirmado en la base: un fallo del log no debe convertirse en un error del request
+    private boolean agregarConfirmado(byte[] datos, Object id) {
+        try {
+            agregar(datos);
+            return true;
+        } catch (RuntimeException ex) {
+            log.error("No se pudo agregar al registro de cambios el cambio {}", id, ex);
+            return false;
+        }
+    }
+
+    private record Pendiente(long id, byte[] datos) {
+    }
+
+    // Agrega al log, en orden de id, las filas de cambio_pendiente y las borra. Si otro hilo está publicando,
+    // sólo deja el pedido: ese hilo vuelve a leer la tabla antes de soltar el lock.
+    private void publicarPendientes() {
+        publicacionesPedidas.incrementAndGet();
+        while (publicando && publicacionesPedidas.get() > 0 && publicacion.tryLock()) {
+            try {
+                publicacionesPedidas.set(0);
+                publicar(leerPendientes());
+            } catch (RuntimeException ex) {
+                // Las filas siguen en la tabla: se publican con el próximo cambio o al arrancar
+                log.error("No se pudieron publicar los cambios pendientes", ex);
+                return;
+            } finally {
+                publicacion.unlock();
+            }
+        }
+    }
+
+    private List<Pendiente> leerPendientes() {
+        return nuevaTransaccion.execute(estado -> jdbcTemplate.query(
+                "select id, datos from cambio_pendiente order by id",
+                (fila, numero) -> new Pendiente(fila.getLong("id"), fila.getBytes("datos"))));
+    }
+
+    // Sólo con el lock de publicación
+    private void publicar(List<Pendiente> pendientes) {
+        for (Pendiente pendiente : pendientes) {
+            if (!publicadasSinBorrar.contains(pendiente.id())) {
+                if (!agregarConfirmado(pendiente.datos(), pendiente.id())) {
+                    break;
+                }
+                publicadasSinBorrar.add(pendiente.id());
+            }
+        }
+        if (publicadasSinBorrar.isEmpty()) {
+            return;
+        }
+        if (sincronizar) {
+            synchronized (escritura) {
+                activo.buffer.force();
+            }
+        }
+        Set<Long> borradas = new LinkedHashSet<>(publicadasSinBorrar);
+        nuevaTransaccion.executeWithoutResult(estado -> jdbcTemplate.batchUpdate(
+                "delete from cambio_pendiente where id = ?",
+                borradas.stream().map(id -> new Object[]{id}).toList()));
+        publicadasSinBorrar.removeAll(borradas);
+    }
+
+    // Agrega una entrada al final del log y avisa a los oyentes. Quien escribe nunca espera a los lectores.
+    public long agregar(byte[] datos) {
+        if (CABECERA + datos.length > tamanioSegmento) {
+            throw new IllegalArgumentException("La entrada (" + datos.length + " bytes) no entra en un segmento");
+        }
+        long offset;
+        synchronized (escritura) {
+            if (!activo.cabe(datos.length)) {
+                rotar();
+            }
+            offset = activo.agregar(datos);
+            if (sincronizar) {
+                activo.buffer.force();
+            }
+            anillo[(int) (offset & mascara)] = new Cambio(offset, datos);
+            fin = offset + 1;
+        }
+        oyentes.forEach(Runnable::run);
+        return offset;
+    }
+
+    // Lee la entrada de un offset: del anillo si todavía está ahí, del segmento en disco si no.
+    // Devuelve null si el offset aún no fue escrito.
+    public Cambio leer(long offset) {
+        if (offset >= fin) {
+            return null;
+        }
+        Cambio reciente = anillo[(int) (offset & mascara)];
+        if (reciente != null && reciente.offset() == offset) {
+            return reciente;
+        }
+        Map.Entry<Long, Segmento> segmento = segmentos.floorEntry(offset);
+        if (segmento == null) {
+            return null;
+        }
+        return new Cambio(offset, segmento.getValue().leer(offset));
+    }
+
+    public long primerOffset() {
+        return segmentos.firstKey();
+    }
+
+    // Próximo offset a asignar (el primero que todavía no existe)
+    public long finOffset() {
+        return fin;
+    }
+
+    // Registra una acción a ejecutar tras cada entrada agregada; debe ser rápida y no bloquear
+    public void alAgregar(Runnable oyente) {
+        oyentes.add(oyente);
+    }
+
+    private void rotar() {
+        activo.buffer.force();
+        long base = activo.base + activo.cantidad;
+        try {
+            activo = Segmento.abrir(archivoSegmento(base), base, tamanioSegmento);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        segmentos.put(base, activo);
+        aplicarRetencion();
+    }
+
+    // Borra los segmentos más viejos que excedan la retención. Un lector que ya tenía el segmento lo sigue
+    // leyendo: el mapeo se libera cuando deja de estar referenciado, aunque el archivo ya no exista.
+    private void aplicarRetencion() {
+        while (segmentos.size() > maximoSegmentos) {
+            Map.Entry<Long, Segmento> masViejo = segmentos.pollFirstEntry();
+            Path archivo = archivoSegmento(masViejo.getKey());
+            try {
+                Files.deleteIfExists(archivo);
+            } catch (IOException ex) {
+                log.warn("No se pudo borrar el segmento {} del registro de cambios", archivo, ex);
+            }
+        }
+    }
+
+    private Path archivoSegmento(long base) {
+        return directorio.resolve(String.format("%020d%s", base, EXTENSION));
+    }
+
+    private static final class Segmento {
+
+        private final long base;
+        private final MappedByteBuffer buffer;
+        // Posición en el archivo de cada entrada (índice = offset - base)
+        private int[] posiciones = new int[1024];
+        private int cantidad;
+        private int siguientePosicion;
+
+        private Segmento(long base, MappedByteBuffer buffer) {
+            this.base = base;
+            this.buffer = buffer;
+        }
+
+        static Segmento abrir(Path archivo, long base, int tamanio) throws IOException {
+            // El mapeo sigue siendo válido después de cerrar el canal
+            try (FileChannel canal = FileChannel.open(archivo,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                long tamanioArchivo = Math.max(canal.size(), tamanio);
+                return new Segmento(base, canal.map(FileChannel.MapMode.READ_WRITE, 0, tamanioArchivo));
+            }
+        }
+
+        // Recorre las entradas desde el principio y se detiene en la primera vacía o dañada
+        // (por ejemplo, una escritura interrumpida por una caída del proceso)
+        void recuperar() {
+            while (siguientePosicion + CABECERA <= buffer.capacity()) {
+                int pos = siguientePosicion;
+                int longitud = buffer.getInt(pos);
+                if (longitud <= 0 || pos + CABECERA + longitud > buffer.capacity()
+                        || buffer.getLong(pos + 8) != base + cantidad) {
+                    break;
+                }
+                byte[] datos = new byte[longitud];
+                buffer.get(pos + CABECERA, datos);
+                if (crc(datos) != buffer.getInt(pos + 4)) {
+                    break;
+                }
+                indexar(pos, longitud);
+            }
+            // Una entrada incompleta se descarta: la próxima escritura la reemplaza
+            if (siguientePosicion + CABECERA <= buffer.capacity()) {
+                buffer.putInt(siguientePosicion, 0);
+            }
+        }
+
+        boolean cabe(int longitud) {
+            return siguientePosicion + CABECERA + longitud <= buffer.capacity();
+        }
+
+        long agregar(byte[] datos) {
+            long offset = base + cantidad;
+            int pos = siguientePosicion;
+            buffer.put(pos + CABECERA, datos);
+            buffer.putLong(pos + 8, offset);
+            buffer.putInt(pos + 4, crc(datos));
+            // La longitud se escribe al final: una entrada a medio escribir se lee como vacía
+            buffer.putInt(pos, datos.length);
+            indexar(pos, datos.length);
+            return offset;
+        }
+
+        byte[] leer(long offset) {
+            int pos = posiciones[(int) (offset - base)];
+            byte[] datos = new byte[buffer.getInt(pos)];
+            buffer.get(pos + CABECERA, datos);
+            return datos;
+        }
+
+        private void indexar(int pos, int longitud) {
+            if (cantidad == posiciones.length) {
+                posiciones = Arrays.copyOf(posiciones, cantidad * 2);
+            }
+            posiciones[cantidad++] = pos;
+            siguientePosicion = pos + CABECERA + longitud;
+        }
+
+        private static int crc(byte[] datos) {
+            CRC32 crc = new CRC32();
+            crc.update(datos);
+            return (int) crc.getValue();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.utn.productos.service;
+
+import com.utn.productos.config.LecturaPrimaria;
+import com.utn.productos.dto.ResumenCategoriaDTO;
+import com.utn.productos.model.Categoria;
+import com.utn.productos.model.Producto;
+import com.utn.productos.repository.ProductoRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+// Agregados por categoría (cantidad, stock total y precio mínimo/máximo/promedio) mantenidos en memoria.
+// Se cargan una vez al iniciar y luego ProductoService les informa cada alta, baja y cambio de stock,
+// de modo que consultar un resumen no recorre la tabla.
+@Component
+public class ResumenCategorias {
+
+    // Valores de un producto que intervienen en los agregados
+    public record Valores(Categoria categoria, Double precio, Integer stock) {
+
+        public static Valores de(Producto producto) {
+            return new Valores(producto.getCategoria(), producto.getPrecio(), producto.getStock());
+        }
+    }
+
+    private static final class Acumulado {
+
+        private long cantidad;
+        private long stockTotal;
+        private long cantidadConPrecio;
+        private double sumaPrecios;
+        // Multiconjunto de precios (precio → cantidad de productos) para conocer mínimo y máximo tras una baja
+        private final TreeMap<Double, Integer> precios = new TreeMap<>();
+
+        synchronized void sumar(Valores valores, int signo) {
+            sumarGrupo(valores.precio(), signo, (long) signo * valorStock(valores.stock()));
+        }
+
+        // Suma 'productos' productos con el mismo precio (negativo para restarlos) y su stock total
+        synchronized void sumarGrupo(Double precio, int productos, long stock) {
+            cantidad += productos;
+            stockTotal += stock;
+            if (precio != null) {
+                cantidadConPrecio += productos;
+                sumaPrecios += productos * precio;
+                precios.merge(precio, productos, (actual, delta) -> actual + delta == 0 ? null : actual + delta);
+            }
+        }
+
+        synchronized void sumarStock(long delta) {
+            stockTotal += delta;
+        }
+
+        synchronized ResumenCategoriaDTO resumir(Categoria categoria) {
+            if (precios.isEmpty()) {
+                return new ResumenCategoriaDTO(categoria, cantidad, stockTotal, null, null, null);
+            }
+            return new ResumenCategoriaDTO(categoria, cantidad, stockTotal,
+                    precios.firstKey(), precios.lastKey(), sumaPrecios / cantidadConPrecio);
+        }
+    }
+
+    private final ProductoRepository productoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<Categoria, Acumulado> acumulados = new EnumMap<>(Categoria.class);
+
+    public ResumenCategorias(ProductoRepository productoRepository, PlatformTransactionManager transactionManager) {
+        this.productoRepository = productoRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        for (Categoria categoria : Categoria.values()) {
+            acumulados.put(categoria, new Acumulado());
+        }
+    }
+
+    // Única lectura al iniciar: reconstruye los agregados a partir de la base (la primaria, no una réplica
+    // atrasada), una fila por categoría y precio
+    @PostConstruct
+    void cargar() {
+        LecturaPrimaria.ejecutar(() -> transactionTemplate.executeWithoutResult(estado -> {
+            try (Stream<Object[]> grupos = productoRepository.streamValoresParaResumen()) {
+                grupos.forEach(grupo -> {
+                    if (grupo[0] != null) {
+                        acumulados.get((Categoria) grupo[0]).sumarGrupo((Double) grupo[1],
+                                Math.toIntExact((Long) grupo[2]), grupo[3] == null ? 0 : (Long) grupo[3]);
+                    }
+                });
+            }
+        }));
+    }
+
+    public ResumenCategoriaDTO obtener(Categoria categoria) {
+        return acumulados.get(categoria).resumir(categoria);
+    }
+
+    public void registrarAlta(Valores valores) {
+        DespuesDelCommit.ejecutar(() -> aplicar(valores, 1));
+    }
+
+    public void registrarBaja(Valores valores) {
+        DespuesDelCommit.ejecutar(() -> aplicar(valores, -1));
+    }
+
+    public void registrarCambio(Valores anteriores, Valores nuevos) {
+        DespuesDelCommit.ejecutar(() -> {
+            aplicar(anteriores, -1);
+            aplicar(nuevos, 1);
+        });
+    }
+
+    public void registrarCambioStock(Categoria categoria, long delta) {
+        if (categoria != null && delta != 0) {
+            DespuesDelCommit.ejecutar(() -> acumulados.get(categoria).sumarStock(delta));
+        }
+    }
+
+    private void aplicar(Valores valores, int signo) {
+        if (valores.categoria() != null) {
+            acumulados.get(valores.categoria()).sumar(valores, signo);
+        }
+    }
+
+    private static long valorStock(Integer stock) {
+        return stock == null ? 0 : stock;
+    }
+}
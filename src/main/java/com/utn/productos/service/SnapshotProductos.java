@@ -0,0 +1,294 @@
+package com.utn.productos.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Snapshot de la tabla producto en un archivo binario comprimido (gzip), pensado para arrancar un nodo
+// con el catálogo completo sin recargarlo por la API. Se lee con JDBC directo (sin Hibernate) para poder
+// usarlo antes de que exista el contexto de persistencia: la restauración corre desde la estrategia de
+// migración de Flyway, antes de que los índices en memoria hagan su lectura inicial.
+@Slf4j
+@Component
+public class SnapshotProductos {
+
+    // Formato: cabecera (MARCA, VERSION_FORMATO), una fila por producto precedida por 1, un 0 de cierre
+    // y al final la cantidad de filas (control) y el próximo valor de la secuencia de ids
+    private static final int MARCA = 0x50524F44;
+    private static final short VERSION_FORMATO = 1;
+    private static final String EXTENSION = ".snapshot.gz";
+    private static final DateTimeFormatter NOMBRE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmssSSS'Z'")
+            .withZone(ZoneOffset.UTC);
+    private static final int TAMANIO_BUFFER = 1 << 16;
+    private static final int TAMANIO_BATCH = 10_000;
+
+    private static final String SELECT = "select id, nombre, descripcion, precio, stock, categoria, version, "
+            + "ultima_modificacion from producto order by id";
+    private static final String INSERT = "insert into producto (id, nombre, descripcion, precio, stock, "
+            + "categoria, version, ultima_modificacion) values (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Resultado de una operación: archivo, cantidad de productos, tamaño en bytes y duración
+    public record Resultado(Path archivo, long productos, long bytes, Duration duracion) {
+    }
+
+    private final DataSource dataSource;
+    private final Path directorio;
+
+    public SnapshotProductos(DataSource dataSource,
+                             @Value("${productos.snapshot.directorio:data/snapshots}") Path directorio) {
+        this.dataSource = dataSource;
+        this.directorio = directorio;
+    }
+
+    // Escribe un snapshot consistente (una sola transacción REPEATABLE READ, sin bloquear las escrituras).
+    // Se escribe en un archivo temporal que se renombra al terminar: nunca queda un snapshot a medias.
+    public synchronized Resultado crear() throws IOException, SQLException {
+        long inicio = System.nanoTime();
+        Files.createDirectories(directorio);
+        Path destino = directorio.resolve("productos-" + NOMBRE.format(Instant.now()) + EXTENSION);
+        Path temporal = directorio.resolve(destino.getFileName() + ".tmp");
+        long productos;
+        try (Connection conexion = dataSource.getConnection()) {
+            conexion.setReadOnly(true);
+            conexion.setAutoCommit(false);
+            conexion.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            try (FileOutputStream archivo = new FileOutputStream(temporal.toFile());
+                 DataOutputStream salida = new DataOutputStream(new BufferedOutputStream(
+                         new GZIPOutputStream(archivo, TAMANIO_BUFFER), TAMANIO_BUFFER))) {
+                salida.writeInt(MARCA);
+                salida.writeShort(VERSION_FORMATO);
+                productos = escribirFilas(conexion, salida);
+                salida.writeByte(0);
+                salida.writeLong(productos);
+                salida.writeLong(proximoId(conexion));
+                salida.flush();
+                archivo.getFD().sync();
+            } finally {
+                conexion.rollback();
+            }
+        } catch (IOException | SQLException | RuntimeException ex) {
+            Files.deleteIfExists(temporal);
+            throw ex;
+        }
+        Files.move(temporal, destino, StandardCopyOption.ATOMIC_MOVE);
+        Resultado resultado = new Resultado(destino, productos, Files.size(destino),
+                Duration.ofNanos(System.nanoTime() - inicio));
+        log.info("Snapshot de {} productos en {} ({} bytes, {} ms)", productos, destino,
+                resultado.bytes(), resultado.duracion().toMillis());
+        return resultado;
+    }
+
+    // Carga un snapshot en la tabla producto, que debe estar vacía (si no, no hace nada y devuelve vacío).
+    // Los índices secundarios se quitan durante la carga y se recrean al final: construirlos de una vez es
+    // mucho más barato que mantenerlos fila por fila. Las filas se insertan en batches JDBC confirmando cada
+    // uno; si algo falla se vacía la tabla, así que o se carga el archivo completo o nada.
+    public Optional<Resultado> restaurar(Path archivo) throws IOException, SQLException {
+        long inicio = System.nanoTime();
+        try (Connection conexion = dataSource.getConnection()) {
+            if (contarProductos(conexion) > 0) {
+                log.warn("La tabla producto no está vacía: no se restaura el snapshot {}", archivo);
+                return Optional.empty();
+            }
+            long productos;
+            long proximoId;
+            Map<String, String> indices = indicesSecundarios(conexion);
+            try (Statement sentencia = conexion.createStatement()) {
+                for (String indice : indices.keySet()) {
+                    sentencia.execute("drop index " + indice);
+                }
+            }
+            conexion.setAutoCommit(false);
+            try (DataInputStream entrada = new DataInputStream(new BufferedInputStream(
+                    new GZIPInputStream(Files.newInputStream(archivo), TAMANIO_BUFFER), TAMANIO_BUFFER))) {
+                if (entrada.readInt() != MARCA || entrada.readShort() != VERSION_FORMATO) {
+                    throw new IOException("El archivo " + archivo + " no es un snapshot de productos válido");
+                }
+                productos = insertarFilas(conexion, entrada);
+                long esperados = entrada.readLong();
+                if (productos != esperados) {
+                    throw new IOException("Snapshot incompleto: " + productos + " de " + esperados + " productos");
+                }
+                proximoId = entrada.readLong();
+            } catch (IOException | SQLException | RuntimeException ex) {
+                conexion.rollback();
+                try (Statement sentencia = conexion.createStatement()) {
+                    sentencia.execute("truncate table producto");
+                }
+                throw ex;
+            } finally {
+                try (Statement sentencia = conexion.createStatement()) {
+                    for (String creacion : indices.values()) {
+                        sentencia.execute(creacion);
+                    }
+                }
+            }
+            try (Statement sentencia = conexion.createStatement()) {
+                sentencia.execute("alter sequence producto_seq restart with " + proximoId);
+            }
+            conexion.commit();
+            Resultado resultado = new Resultado(archivo, productos, Files.size(archivo),
+                    Duration.ofNanos(System.nanoTime() - inicio));
+            log.info("Restaurados {} productos desde {} en {} ms", productos, archivo,
+                    resultado.duracion().toMillis());
+            return Optional.of(resultado);
+        }
+    }
+
+    // Snapshot más reciente del directorio configurado (los nombres llevan la fecha en UTC)
+    public Optional<Path> ultimo() throws IOException {
+        if (!Files.isDirectory(directorio)) {
+            return Optional.empty();
+        }
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            return archivos.filter(p -> p.getFileName().toString().endsWith(EXTENSION)).max(Path::compareTo);
+        }
+    }
+
+    private static long escribirFilas(Connection conexion, DataOutputStream salida)
+            throws SQLException, IOException {
+        long cantidad = 0;
+        try (PreparedStatement consulta = conexion.prepareStatement(SELECT)) {
+            consulta.setFetchSize(TAMANIO_BATCH);
+            try (ResultSet filas = consulta.executeQuery()) {
+                while (filas.next()) {
+                    salida.writeByte(1);
+                    salida.writeLong(filas.getLong(1));
+                    escribirTexto(salida, filas.getString(2));
+                    escribirTexto(salida, filas.getString(3));
+                    escribirNumero(salida, filas.getObject(4, Double.class));
+                    escribirNumero(salida, filas.getObject(5, Integer.class));
+                    escribirTexto(salida, filas.getString(6));
+                    escribirNumero(salida, filas.getObject(7, Long.class));
+                    OffsetDateTime modificacion = filas.getObject(8, OffsetDateTime.class);
+                    salida.writeBoolean(modificacion != null);
+                    if (modificacion != null) {
+                        salida.writeLong(modificacion.toEpochSecond());
+                        salida.writeInt(modificacion.getNano());
+                    }
+                    cantidad++;
+                }
+            }
+        }
+        return cantidad;
+    }
+
+    private static long insertarFilas(Connection conexion, DataInputStream entrada)
+            throws SQLException, IOException {
+        long cantidad = 0;
+        try (PreparedStatement insercion = conexion.prepareStatement(INSERT)) {
+            while (entrada.readByte() == 1) {
+                insercion.setLong(1, entrada.readLong());
+                insercion.setString(2, leerTexto(entrada));
+                insercion.setString(3, leerTexto(entrada));
+                insercion.setObject(4, entrada.readBoolean() ? entrada.readDouble() : null, Types.DOUBLE);
+                insercion.setObject(5, entrada.readBoolean() ? entrada.readInt() : null, Types.INTEGER);
+                insercion.setString(6, leerTexto(entrada));
+                insercion.setObject(7, entrada.readBoolean() ? entrada.readLong() : null, Types.BIGINT);
+                insercion.setObject(8, entrada.readBoolean()
+                        ? OffsetDateTime.ofInstant(Instant.ofEpochSecond(entrada.readLong(), entrada.readInt()),
+                        ZoneOffset.UTC)
+                        : null, Types.TIMESTAMP_WITH_TIMEZONE);
+                insercion.addBatch();
+                if (++cantidad % TAMANIO_BATCH == 0) {
+                    insercion.executeBatch();
+                    conexion.commit();
+                }
+            }
+            insercion.executeBatch();
+            conexion.commit();
+        }
+        return cantidad;
+    }
+
+    // Índices no únicos de la tabla producto (nombre → sentencia para recrearlo), según information_schema
+    private static Map<String, String> indicesSecundarios(Connection conexion) throws SQLException {
+        Map<String, List<String>> columnas = new LinkedHashMap<>();
+        try (Statement sentencia = conexion.createStatement();
+             ResultSet filas = sentencia.executeQuery("select i.index_name, c.column_name "
+                     + "from information_schema.indexes i join information_schema.index_columns c "
+                     + "on c.index_schema = i.index_schema and c.index_name = i.index_name "
+                     + "where i.table_schema = current_schema and i.table_name = 'PRODUCTO' "
+                     + "and i.index_type_name = 'INDEX' order by i.index_name, c.ordinal_position")) {
+            while (filas.next()) {
+                columnas.computeIfAbsent(filas.getString(1), nombre -> new ArrayList<>())
+                        .add('"' + filas.getString(2) + '"');
+            }
+        }
+        Map<String, String> indices = new LinkedHashMap<>();
+        columnas.forEach((nombre, lista) -> indices.put('"' + nombre + '"',
+                "create index \"" + nombre + "\" on producto (" + String.join(", ", lista) + ")"));
+        return indices;
+    }
+
+    private static long contarProductos(Connection conexion) throws SQLException {
+        try (Statement sentencia = conexion.createStatement();
+             ResultSet resultado = sentencia.executeQuery("select count(*) from producto")) {
+            resultado.next();
+            return resultado.getLong(1);
+        }
+    }
+
+    // Próximo valor de la secuencia: cubre todos los ids asignados hasta ahora
+    private static long proximoId(Connection conexion) throws SQLException {
+        try (Statement sentencia = conexion.createStatement();
+             ResultSet resultado = sentencia.executeQuery("select base_value from information_schema.sequences "
+                     + "where sequence_name = 'PRODUCTO_SEQ'")) {
+            if (!resultado.next()) {
+                throw new SQLException("No existe la secuencia producto_seq");
+            }
+            return resultado.getLong(1);
+        }
+    }
+
+    private static void escribirTexto(DataOutputStream salida, String texto) throws IOException {
+        salida.writeBoolean(texto != null);
+        if (texto != null) {
+            salida.writeUTF(texto);
+        }
+    }
+
+    private static String leerTexto(DataInputStream entrada) throws IOException {
+        return entrada.readBoolean() ? entrada.readUTF() : null;
+    }
+
+    private static void escribirNumero(DataOutputStream salida, Number numero) throws IOException {
+        salida.writeBoolean(numero != null);
+        if (numero instanceof Double d) {
+            salida.writeDouble(d);
+        } else if (numero instanceof Integer i) {
+            salida.writeInt(i);
+        } else if (numero instanceof Long l) {
+            salida.writeLong(l);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+-- Esquema inicial de productos (equivalente al que generaba Hibernate con ddl-auto)
+
+-- Secuencia con incremento 50: coincide con el allocationSize del optimizador pooled de Producto
+create sequence producto_seq start with 1 increment by 50;
+
+create table producto (
+    id bigint not null,
+    nombre varchar(255),
+    descripcion varchar(255),
+    precio float(53),
+    stock integer,
+    categoria enum ('ALIMENTOS', 'DEPORTES', 'ELECTRONICA', 'HOGAR', 'ROPA'),
+    version bigint,
+    ultima_modificacion timestamp(6) with time zone,
+    primary key (id)
+);
+
+create index idx_producto_categoria_precio_stock on producto (categoria, precio, stock);
@@ -0,0 +1,7 @@
+-- Cambios confirmados que todavía no se agregaron al registro de cambios (outbox de RegistroCambios)
+
+create table cambio_pendiente (
+    id bigint generated by default as identity,
+    datos blob not null,
+    primary key (id)
+);
@@ -0,0 +1,49 @@
+package com.utn.productos.reactivo;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Wrapped;
+import org.reactivestreams.Publisher;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+// Entrega cada conexión de R2DBC en un planificador propio, con un hilo por conexión del pool.
+// r2dbc-h2 ejecuta H2 (embebido) en el hilo que se suscribe, y el pool le pasa cada conexión liberada al siguiente
+// en espera en el hilo que la libera. Sin este salto, bajo carga un mismo hilo (un event loop de Netty) encadena
+// el trabajo de la base de los demás requests y deja sin atender sus propias conexiones HTTP hasta que baja la carga.
+final class ConexionesEnPlanificador implements ConnectionFactory, Wrapped<ConnectionFactory> {
+
+    private final ConnectionFactory delegado;
+    private final Scheduler planificador;
+
+    ConexionesEnPlanificador(ConnectionFactory delegado, int hilos) {
+        this.delegado = delegado;
+        this.planificador = Schedulers.newBoundedElastic(hilos, Integer.MAX_VALUE, "r2dbc-h2", 60, true);
+    }
+
+    @Override
+    public Publisher<? extends Connection> create() {
+        return Mono.from(delegado.create()).publishOn(planificador);
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return delegado.getMetadata();
+    }
+
+    @Override
+    public ConnectionFactory unwrap() {
+        return delegado;
+    }
+
+    // Método de destrucción del bean del pool (ConnectionPool.dispose)
+    public void dispose() {
+        if (delegado instanceof Disposable pool) {
+            pool.dispose();
+        }
+        planificador.dispose();
+    }
+}
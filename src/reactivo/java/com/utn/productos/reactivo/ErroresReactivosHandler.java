@@ -0,0 +1,119 @@
+package com.utn.productos.reactivo;
+
+import com.utn.productos.exception.CursorInvalidoException;
+import com.utn.productos.exception.ErrorResponse;
+import com.utn.productos.exception.PrecondicionFallidaException;
+import com.utn.productos.exception.ProductoNotFoundException;
+import com.utn.productos.exception.StockExcedidoException;
+import com.utn.productos.exception.StockInsuficienteException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ServerWebInputException;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Los mismos cuerpos de error que GlobalExceptionHandler en la API MVC, armados con ErrorResponse
+@RestControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ErroresReactivosHandler {
+
+    // Producto no encontrado → 404
+    @ExceptionHandler(ProductoNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleProductoNotFoundException(ProductoNotFoundException ex,
+                                                                        ServerHttpRequest request) {
+        return responder(HttpStatus.NOT_FOUND, ex.getMessage(), request);
+    }
+
+    // Stock insuficiente para una reserva → 409 Conflict
+    @ExceptionHandler(StockInsuficienteException.class)
+    public ResponseEntity<ErrorResponse> handleStockInsuficienteException(StockInsuficienteException ex,
+                                                                          ServerHttpRequest request) {
+        return responder(HttpStatus.CONFLICT, ex.getMessage(), request);
+    }
+
+    // Liberar dejaría el stock por encima del máximo representable → 409 Conflict
+    @ExceptionHandler(StockExcedidoException.class)
+    public ResponseEntity<ErrorResponse> handleStockExcedidoException(StockExcedidoException ex,
+                                                                      ServerHttpRequest request) {
+        return responder(HttpStatus.CONFLICT, ex.getMessage(), request);
+    }
+
+    // If-Match no coincide con la versión actual del producto → 412 Precondition Failed
+    @ExceptionHandler(PrecondicionFallidaException.class)
+    public ResponseEntity<ErrorResponse> handlePrecondicionFallidaException(PrecondicionFallidaException ex,
+                                                                            ServerHttpRequest request) {
+        return responder(HttpStatus.PRECONDITION_FAILED, ex.getMessage(), request);
+    }
+
+    // Otra operación modificó el producto en paralelo (@Version) → 409 Conflict
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailure(OptimisticLockingFailureException ex,
+                                                                        ServerHttpRequest request) {
+        return responder(HttpStatus.CONFLICT, "El producto fue modificado concurrentemente, reintente la operación",
+                request);
+    }
+
+    // Cursor de paginación corrupto o manipulado → 400
+    @ExceptionHandler(CursorInvalidoException.class)
+    public ResponseEntity<ErrorResponse> handleCursorInvalidoException(CursorInvalidoException ex,
+                                                                       ServerHttpRequest request) {
+        return responder(HttpStatus.BAD_REQUEST, ex.getMessage(), request);
+    }
+
+    // Errores de validación de DTOs → 400 Bad Request
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<Map<String, Object>> handleValidationException(WebExchangeBindException ex,
+                                                                         ServerHttpRequest request) {
+        Map<String, String> errores = new HashMap<>();
+        ex.getBindingResult().getFieldErrors().forEach(error ->
+                errores.put(error.getField(), error.getDefaultMessage())
+        );
+
+        Map<String, Object> cuerpo = new LinkedHashMap<>();
+        cuerpo.put("timestamp", LocalDateTime.now());
+        cuerpo.put("status", HttpStatus.BAD_REQUEST.value());
+        cuerpo.put("path", request.getPath().value());
+        cuerpo.put("errors", errores);
+        return ResponseEntity.badRequest().body(cuerpo);
+    }
+
+    // Id que no es un número, JSON mal formado → 400 Bad Request
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<ErrorResponse> handleSolicitudInvalida(ServerWebInputException ex,
+                                                                 ServerHttpRequest request) {
+        return responder(HttpStatus.BAD_REQUEST, "Solicitud inválida: parámetro o cuerpo con formato incorrecto",
+                request);
+    }
+
+    // Cualquier otro error → 500 Internal Server Error. Las excepciones propias de Spring con un estado
+    // (ruta inexistente → 404, método no soportado → 405, ...) conservan el suyo y sus headers.
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<ErrorResponse> handleGlobalException(Exception ex, ServerHttpRequest request) {
+        if (ex instanceof org.springframework.web.ErrorResponse errorWeb) {
+            HttpStatusCode estado = errorWeb.getStatusCode();
+            String detalle = errorWeb.getBody().getDetail();
+            return ResponseEntity.status(estado)
+                    .headers(errorWeb.getHeaders())
+                    .body(new ErrorResponse(LocalDateTime.now(), estado.value(), detalle == null ? "" : detalle,
+                            request.getPath().value()));
+        }
+        return responder(HttpStatus.INTERNAL_SERVER_ERROR, "Error interno del servidor: " + ex.getMessage(),
+                request);
+    }
+
+    private static ResponseEntity<ErrorResponse> responder(HttpStatus estado, String mensaje,
+                                                           ServerHttpRequest request) {
+        return ResponseEntity.status(estado)
+                .body(new ErrorResponse(LocalDateTime.now(), estado.value(), mensaje, request.getPath().value()));
+    }
+}
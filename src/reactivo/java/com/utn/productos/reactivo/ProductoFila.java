@@ -0,0 +1,36 @@
+package com.utn.productos.reactivo;
+
+import com.utn.productos.model.Categoria;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.Instant;
+
+// Fila de la tabla producto para Spring Data R2DBC: mismas columnas que la entidad JPA Producto
+@Table("producto")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductoFila {
+
+    // Lo asigna el servicio con ProductoReactivoRepository.siguienteId(). @Sequence no sirve junto con @Version:
+    // Spring Data R2DBC inicializa la versión antes de generar el id y ya no trata a la fila como nueva.
+    @Id
+    private Long id;
+
+    private String nombre;
+    private String descripcion;
+    private Double precio;
+    private Integer stock;
+    private Categoria categoria;
+
+    // Control de concurrencia optimista, como en Producto: también es la base del ETag
+    @Version
+    private Long version;
+
+    private Instant ultimaModificacion;
+}
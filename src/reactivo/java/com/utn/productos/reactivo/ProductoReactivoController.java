@@ -0,0 +1,193 @@
+package com.utn.productos.reactivo;
+
+import com.utn.productos.controller.CursorPaginacion;
+import com.utn.productos.controller.ETags;
+import com.utn.productos.dto.ActualizarStockDTO;
+import com.utn.productos.dto.MovimientoStockDTO;
+import com.utn.productos.dto.ProductoDTO;
+import com.utn.productos.dto.ProductoResponseDTO;
+import com.utn.productos.model.Categoria;
+import com.utn.productos.repository.ConsultaProductos;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+// Mismo contrato que ProductoController (rutas, DTOs, validación, códigos de estado, ETag e If-Match) sobre
+// WebFlux: ningún hilo queda esperando a la base. El listado pagina sólo por id, sin filtros, orden ni fields.
+@RestController
+@RequestMapping("/api/productos")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ProductoReactivoController {
+
+    private static final int LIMITE_MAXIMO = 1000;
+    private static final String HEADER_SIGUIENTE_CURSOR = "X-Next-Cursor";
+    private static final List<ConsultaProductos.Orden> ORDEN_POR_ID =
+            List.of(new ConsultaProductos.Orden(ConsultaProductos.Campo.ID, false));
+
+    private final ProductoReactivoService productoService;
+    private final int filasPorPedido;
+
+    public ProductoReactivoController(ProductoReactivoService productoService,
+                                      @Value("${productos.reactivo.filas-por-pedido:256}") int filasPorPedido) {
+        this.productoService = productoService;
+        this.filasPorPedido = filasPorPedido;
+    }
+
+    static ProductoResponseDTO mapToDTO(ProductoFila producto) {
+        return new ProductoResponseDTO(producto.getId(), producto.getNombre(), producto.getDescripcion(),
+                producto.getPrecio(), producto.getStock(), producto.getCategoria());
+    }
+
+    static ProductoFila mapToEntity(ProductoDTO dto) {
+        ProductoFila producto = new ProductoFila();
+        producto.setNombre(dto.getNombre());
+        producto.setDescripcion(dto.getDescripcion());
+        producto.setPrecio(dto.getPrecio());
+        producto.setStock(dto.getStock());
+        producto.setCategoria(dto.getCategoria());
+        return producto;
+    }
+
+    // ================================================================
+    // GET /api/productos - Listar productos paginados por cursor
+    // ================================================================
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<List<ProductoResponseDTO>>> obtenerTodos(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "100") int limit,
+            ServerHttpRequest request) {
+
+        int limite = Math.max(1, Math.min(limit, LIMITE_MAXIMO));
+        List<Object> despuesDe = CursorPaginacion.decodificar(after, ORDEN_POR_ID);
+        return productoService.consultar(despuesDe == null ? null : (Long) despuesDe.get(0), limite)
+                .map(pagina -> {
+                    ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok();
+                    if (pagina.siguiente() != null) {
+                        String cursor = CursorPaginacion.codificar(ORDEN_POR_ID, List.of(pagina.siguiente()));
+                        String siguiente = UriComponentsBuilder.fromUri(request.getURI())
+                                .replaceQueryParam("after", cursor)
+                                .replaceQueryParam("limit", limite)
+                                .toUriString();
+                        respuesta.header(HEADER_SIGUIENTE_CURSOR, cursor)
+                                .header("Link", "<" + siguiente + ">; rel=\"next\"");
+                    }
+                    return respuesta.body(pagina.productos().stream()
+                            .map(ProductoReactivoController::mapToDTO)
+                            .toList());
+                });
+    }
+
+    // ==================================================================
+    // GET /api/productos (Accept: application/x-ndjson) - Streaming
+    // ==================================================================
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ProductoResponseDTO> transmitirTodos() {
+        return productoService.obtenerTodos()
+                .limitRate(filasPorPedido)
+                .map(ProductoReactivoController::mapToDTO);
+    }
+
+    // ======================================================
+    // GET /api/productos/{id} - Obtener producto por ID
+    // ======================================================
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<ProductoResponseDTO>> obtenerPorId(@PathVariable Long id) {
+        // WebFlux también responde 304 si If-None-Match / If-Modified-Since coinciden
+        return productoService.obtenerPorId(id)
+                .map(producto -> {
+                    ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok()
+                            .eTag(ETags.producto(producto.getId(), producto.getVersion()));
+                    if (producto.getUltimaModificacion() != null) {
+                        respuesta.lastModified(producto.getUltimaModificacion());
+                    }
+                    return respuesta.body(mapToDTO(producto));
+                })
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    // =================================================================
+    // GET /api/productos/categoria/{categoria} - Filtrar por categoría
+    // =================================================================
+    // Las filas se piden a la base de a filasPorPedido según lo que el cliente va consumiendo (backpressure):
+    // un cliente lento frena la lectura en lugar de acumular la categoría entera en memoria.
+    // Con Accept: application/x-ndjson cada producto se envía apenas se lee.
+    @GetMapping(value = "/categoria/{categoria}",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<ProductoResponseDTO> obtenerPorCategoria(@PathVariable Categoria categoria) {
+        return productoService.obtenerPorCategoria(categoria)
+                .limitRate(filasPorPedido)
+                .map(ProductoReactivoController::mapToDTO);
+    }
+
+    // ===================================================
+    // POST /api/productos - Crear nuevo producto
+    // ===================================================
+    @PostMapping
+    public Mono<ResponseEntity<ProductoResponseDTO>> crearProducto(@Valid @RequestBody ProductoDTO dto) {
+        return productoService.crearProducto(mapToEntity(dto))
+                .map(guardado -> ResponseEntity.status(HttpStatus.CREATED).body(mapToDTO(guardado)));
+    }
+
+    // ======================================================
+    // PUT /api/productos/{id} - Actualizar producto completo
+    // ======================================================
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<ProductoResponseDTO>> actualizarProducto(
+            @PathVariable Long id,
+            @Valid @RequestBody ProductoDTO dto,
+            @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+        return productoService.actualizarProducto(id, mapToEntity(dto), ETags.versionEsperada(ifMatch, id))
+                .map(guardado -> ResponseEntity.ok()
+                        .eTag(ETags.producto(guardado.getId(), guardado.getVersion()))
+                        .body(mapToDTO(guardado)));
+    }
+
+    // ====================================================
+    // PATCH /api/productos/{id}/stock - Actualizar stock
+    // ====================================================
+    @PatchMapping("/{id}/stock")
+    public Mono<ResponseEntity<ProductoResponseDTO>> actualizarStock(@PathVariable Long id,
+                                                                     @Valid @RequestBody ActualizarStockDTO dto) {
+        return productoService.actualizarStock(id, dto.getStock())
+                .map(actualizado -> ResponseEntity.ok(mapToDTO(actualizado)));
+    }
+
+    // ==================================================================
+    // POST /api/productos/{id}/stock/reservar - Reservar stock
+    // ==================================================================
+    @PostMapping("/{id}/stock/reservar")
+    public Mono<ResponseEntity<ProductoResponseDTO>> reservarStock(@PathVariable Long id,
+                                                                   @Valid @RequestBody MovimientoStockDTO dto) {
+        return productoService.reservarStock(id, dto.getCantidad())
+                .map(actualizado -> ResponseEntity.ok(mapToDTO(actualizado)));
+    }
+
+    // ==================================================================
+    // POST /api/productos/{id}/stock/liberar - Liberar stock reservado
+    // ==================================================================
+    @PostMapping("/{id}/stock/liberar")
+    public Mono<ResponseEntity<ProductoResponseDTO>> liberarStock(@PathVariable Long id,
+                                                                  @Valid @RequestBody MovimientoStockDTO dto) {
+        return productoService.liberarStock(id, dto.getCantidad())
+                .map(actualizado -> ResponseEntity.ok(mapToDTO(actualizado)));
+    }
+
+    // =====================================================
+    // DELETE /api/productos/{id} - Eliminar un producto
+    // =====================================================
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> eliminarProducto(@PathVariable Long id) {
+        return productoService.eliminarProducto(id)
+                .then(Mono.fromSupplier(() -> ResponseEntity.noContent().build())); // 204 No Content
+    }
+}
@@ -0,0 +1,44 @@
+package com.utn.productos.reactivo;
+
+import com.utn.productos.model.Categoria;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+public interface ProductoReactivoRepository extends R2dbcRepository<ProductoFila, Long> {
+
+    // R2DBC no reserva bloques de ids como Hibernate: cada alta pide el siguiente valor a la secuencia
+    @Query("select next value for producto_seq")
+    Mono<Long> siguienteId();
+
+    // Página por keyset: los productos con id mayor al último visto
+    Flux<ProductoFila> findByIdGreaterThanOrderByIdAsc(Long id, Limit limite);
+
+    Flux<ProductoFila> findByCategoriaOrderByIdAsc(Categoria categoria);
+
+    // Reemplazo del stock en un único UPDATE, sin leer antes la fila
+    @Modifying
+    @Query("update producto set stock = :stock, version = version + 1, ultima_modificacion = :ahora where id = :id")
+    Mono<Integer> establecerStock(@Param("id") Long id, @Param("stock") int stock, @Param("ahora") Instant ahora);
+
+    // Descuento atómico: sólo afecta la fila si hay stock suficiente (devuelve 0 si no)
+    @Modifying
+    @Query("update producto set stock = stock - :cantidad, version = version + 1, ultima_modificacion = :ahora "
+            + "where id = :id and stock >= :cantidad")
+    Mono<Integer> reservarStock(@Param("id") Long id, @Param("cantidad") int cantidad,
+                                @Param("ahora") Instant ahora);
+
+    // Reposición atómica del stock previamente reservado: sólo afecta la fila si la suma no supera maximo
+    // (devuelve 0 si no), así la columna INT nunca desborda
+    @Modifying
+    @Query("update producto set stock = stock + :cantidad, version = version + 1, ultima_modificacion = :ahora "
+            + "where id = :id and stock <= :maximo - :cantidad")
+    Mono<Integer> liberarStock(@Param("id") Long id, @Param("cantidad") int cantidad, @Param("maximo") int maximo,
+                               @Param("ahora") Instant ahora);
+}
@@ -0,0 +1,133 @@
+package com.utn.productos.reactivo;
+
+import com.utn.productos.exception.PrecondicionFallidaException;
+import com.utn.productos.exception.ProductoNotFoundException;
+import com.utn.productos.exception.StockExcedidoException;
+import com.utn.productos.exception.StockInsuficienteException;
+import com.utn.productos.model.Categoria;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+
+// Las mismas operaciones que ProductoService, sin bloquear: cada método devuelve un Mono o un Flux que
+// recién consulta la base al suscribirse. No tiene cachés, resúmenes, índice de búsqueda ni registro de cambios.
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ProductoReactivoService {
+
+    private final ProductoReactivoRepository productoRepository;
+
+    public ProductoReactivoService(ProductoReactivoRepository productoRepository) {
+        this.productoRepository = productoRepository;
+    }
+
+    // Con id asignado y versión nula, save() hace un INSERT
+    public Mono<ProductoFila> crearProducto(ProductoFila producto) {
+        return productoRepository.siguienteId()
+                .flatMap(id -> {
+                    producto.setId(id);
+                    producto.setVersion(null);
+                    producto.setUltimaModificacion(Instant.now());
+                    return productoRepository.save(producto);
+                });
+    }
+
+    // Página por keyset a partir del último id visto. Se pide una fila extra sólo para saber si hay página siguiente.
+    public Mono<PaginaProductos> consultar(Long despuesDe, int limite) {
+        return productoRepository.findByIdGreaterThanOrderByIdAsc(despuesDe == null ? 0L : despuesDe,
+                        Limit.of(limite + 1))
+                .collectList()
+                .map(filas -> {
+                    boolean hayMas = filas.size() > limite;
+                    List<ProductoFila> productos = hayMas ? filas.subList(0, limite) : filas;
+                    return new PaginaProductos(productos, hayMas ? productos.get(limite - 1).getId() : null);
+                });
+    }
+
+    public Flux<ProductoFila> obtenerTodos() {
+        return productoRepository.findAll(Sort.by("id"));
+    }
+
+    // Vacío si no existe (el controller responde 404 sin cuerpo, como la API MVC)
+    public Mono<ProductoFila> obtenerPorId(Long id) {
+        return productoRepository.findById(id);
+    }
+
+    public Flux<ProductoFila> obtenerPorCategoria(Categoria categoria) {
+        return productoRepository.findByCategoriaOrderByIdAsc(categoria);
+    }
+
+    // Con @Version el UPDATE lleva "where version = ?": si otra operación guardó en el medio,
+    // falla con OptimisticLockingFailureException (409)
+    @Transactional
+    public Mono<ProductoFila> actualizarProducto(Long id, ProductoFila productoActualizado, Long versionEsperada) {
+        return productoRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new ProductoNotFoundException(id)))
+                .flatMap(p -> {
+                    if (versionEsperada != null && !versionEsperada.equals(p.getVersion())) {
+                        return Mono.error(new PrecondicionFallidaException(id));
+                    }
+                    copiarDatos(productoActualizado, p);
+                    p.setUltimaModificacion(Instant.now());
+                    return productoRepository.save(p);
+                });
+    }
+
+    @Transactional
+    public Mono<ProductoFila> actualizarStock(Long id, int nuevoStock) {
+        return productoRepository.establecerStock(id, nuevoStock, Instant.now())
+                .flatMap(filas -> filas == 0 ? Mono.error(new ProductoNotFoundException(id)) : releer(id));
+    }
+
+    // Reservar stock con un único UPDATE condicional: dos compras concurrentes nunca dejan el stock negativo
+    @Transactional
+    public Mono<ProductoFila> reservarStock(Long id, int cantidad) {
+        return productoRepository.reservarStock(id, cantidad, Instant.now())
+                .flatMap(filas -> filas > 0 ? releer(id) : productoRepository.existsById(id)
+                        .flatMap(existe -> Mono.error(existe
+                                ? new StockInsuficienteException("Stock insuficiente para reservar " + cantidad
+                                        + " unidades del producto con id: " + id)
+                                : new ProductoNotFoundException(id))));
+    }
+
+    // Liberar (devolver) stock reservado previamente
+    @Transactional
+    public Mono<ProductoFila> liberarStock(Long id, int cantidad) {
+        return productoRepository.liberarStock(id, cantidad, Integer.MAX_VALUE, Instant.now())
+                .flatMap(filas -> filas > 0 ? releer(id) : productoRepository.existsById(id)
+                        .flatMap(existe -> Mono.error(existe
+                                ? new StockExcedidoException("Liberar " + cantidad
+                                        + " unidades excede el stock máximo del producto con id: " + id)
+                                : new ProductoNotFoundException(id))));
+    }
+
+    @Transactional
+    public Mono<Void> eliminarProducto(Long id) {
+        return productoRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new ProductoNotFoundException(id)))
+                .flatMap(productoRepository::delete);
+    }
+
+    private Mono<ProductoFila> releer(Long id) {
+        return productoRepository.findById(id).switchIfEmpty(Mono.error(() -> new ProductoNotFoundException(id)));
+    }
+
+    private void copiarDatos(ProductoFila origen, ProductoFila destino) {
+        destino.setNombre(origen.getNombre());
+        destino.setDescripcion(origen.getDescripcion());
+        destino.setPrecio(origen.getPrecio());
+        destino.setStock(origen.getStock());
+        destino.setCategoria(origen.getCategoria());
+    }
+
+    // Una página del listado y el último id incluido si hay más resultados (null si es la última)
+    public record PaginaProductos(List<ProductoFila> productos, Long siguiente) {
+    }
+}
@@ -0,0 +1,53 @@
+package com.utn.productos.reactivo;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.flyway.FlywayAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+// Variante reactiva de la API (perfil Maven "reactivo"): WebFlux sobre Netty y R2DBC contra H2, sin JDBC ni JPA.
+// Usa su propia configuración (reactivo.properties). El escaneo de componentes de ProductosApplication también
+// encuentra este paquete, por eso todos sus beans se activan sólo en una aplicación reactiva.
+@SpringBootApplication(exclude = {DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class,
+        FlywayAutoConfiguration.class})
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ProductosReactivoApplication {
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(ProductosReactivoApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .properties("spring.config.name=reactivo")
+                .run(args);
+    }
+
+    // Tomcat también está en el classpath (lo trae la API MVC) y Spring Boot lo preferiría: se fija Netty,
+    // que atiende todas las conexiones con un event loop por núcleo
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    // Envuelve el pool de conexiones de Spring Boot (ver ConexionesEnPlanificador)
+    @Bean
+    static BeanPostProcessor conexionesEnPlanificadorPostProcessor(Environment environment) {
+        int hilos = environment.getProperty("spring.r2dbc.pool.max-size", Integer.class, 10);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof ConnectionFactory connectionFactory
+                        && !(bean instanceof ConexionesEnPlanificador) && "connectionFactory".equals(beanName)) {
+                    return new ConexionesEnPlanificador(connectionFactory, hilos);
+                }
+                return bean;
+            }
+        };
+    }
+}
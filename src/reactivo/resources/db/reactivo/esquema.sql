@@ -0,0 +1,19 @@
+-- Esquema de la variante reactiva: el de V1__crear_tabla_producto.sql con dos diferencias
+--  * la secuencia incrementa de a 1: R2DBC pide un valor por alta, no reserva bloques como Hibernate
+--  * categoria es varchar con CHECK: r2dbc-h2 no convierte los parámetros de texto al tipo ENUM de H2
+
+create sequence producto_seq start with 1 increment by 1;
+
+create table producto (
+    id bigint not null,
+    nombre varchar(255),
+    descripcion varchar(255),
+    precio float(53),
+    stock integer,
+    categoria varchar(20) check (categoria in ('ALIMENTOS', 'DEPORTES', 'ELECTRONICA', 'HOGAR', 'ROPA')),
+    version bigint,
+    ultima_modificacion timestamp(6) with time zone,
+    primary key (id)
+);
+
+create index idx_producto_categoria_precio_stock on producto (categoria, precio, stock);
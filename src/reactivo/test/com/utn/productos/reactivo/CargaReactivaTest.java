@@ -0,0 +1,39 @@
+package com.utn.productos.reactivo;
+
+import com.utn.productos.CargaHttp;
+import com.utn.productos.model.Categoria;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import reactor.core.publisher.Flux;
+
+// Prueba de carga manual sobre HTTP real, con la misma mezcla de requests que CargaHttpTest:
+//   mvn test -Preactivo -Dtest=CargaReactivaTest -Dcarga=true
+@SpringBootTest(classes = ProductosReactivoApplication.class,
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.config.name=reactivo",
+        "spring.main.web-application-type=reactive",
+        "logging.level.root=WARN",
+        "logging.level.com.utn.productos.CargaHttp=INFO"
+})
+@EnabledIfSystemProperty(named = "carga", matches = "true")
+class CargaReactivaTest {
+
+    @LocalServerPort
+    private int puerto;
+
+    @Autowired
+    private ProductoReactivoService productoService;
+
+    @Test
+    void medirThroughputYLatencia() throws Exception {
+        Flux.range(0, CargaHttp.PRODUCTOS)
+                .concatMap(i -> productoService.crearProducto(new ProductoFila(null, "Producto " + i,
+                        "Descripción " + i, 10.0 + i, 1_000_000, Categoria.values()[i % 5], null, null)))
+                .blockLast();
+
+        new CargaHttp(puerto).medir("WebFlux + R2DBC");
+    }
+}
@@ -0,0 +1,106 @@
+package com.utn.productos.reactivo;
+
+import com.utn.productos.dto.ProductoResponseDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// El contrato de la variante reactiva frente al de la API MVC: ETag, If-Match, errores y validación
+@SpringBootTest(classes = ProductosReactivoApplication.class,
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.config.name=reactivo",
+        "spring.main.web-application-type=reactive"
+})
+class ProductoReactivoControllerTest {
+
+    @Autowired
+    private WebTestClient cliente;
+
+    private ProductoResponseDTO crear(String nombre, int stock, String categoria) {
+        return cliente.post().uri("/api/productos")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"nombre\":\"" + nombre + "\",\"precio\":10.5,\"stock\":" + stock
+                        + ",\"categoria\":\"" + categoria + "\"}")
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(ProductoResponseDTO.class)
+                .returnResult().getResponseBody();
+    }
+
+    @Test
+    void etagEIfMatchComoEnLaApiMvc() {
+        ProductoResponseDTO creado = crear("Mate", 5, "HOGAR");
+        String ruta = "/api/productos/" + creado.getId();
+        String etag = "\"" + creado.getId() + "-0\"";
+
+        cliente.get().uri(ruta).exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", etag);
+        cliente.get().uri(ruta).header("If-None-Match", etag).exchange()
+                .expectStatus().isNotModified();
+
+        String cambio = "{\"nombre\":\"Mate grande\",\"precio\":12,\"stock\":5,\"categoria\":\"HOGAR\"}";
+        cliente.put().uri(ruta).header("If-Match", etag).contentType(MediaType.APPLICATION_JSON).bodyValue(cambio)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"" + creado.getId() + "-1\"");
+        // El ETag viejo ya no coincide
+        cliente.put().uri(ruta).header("If-Match", etag).contentType(MediaType.APPLICATION_JSON).bodyValue(cambio)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @Test
+    void erroresConElMismoCuerpoQueLaApiMvc() {
+        ProductoResponseDTO creado = crear("Pava", 2, "HOGAR");
+
+        cliente.post().uri("/api/productos/{id}/stock/reservar", creado.getId())
+                .contentType(MediaType.APPLICATION_JSON).bodyValue("{\"cantidad\":3}")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.CONFLICT)
+                .expectBody().jsonPath("$.status").isEqualTo(409)
+                .jsonPath("$.path").isEqualTo("/api/productos/" + creado.getId() + "/stock/reservar");
+        cliente.post().uri("/api/productos/{id}/stock/reservar", creado.getId())
+                .contentType(MediaType.APPLICATION_JSON).bodyValue("{\"cantidad\":2}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.stock").isEqualTo(0);
+
+        cliente.get().uri("/api/productos/999999").exchange().expectStatus().isNotFound();
+        cliente.delete().uri("/api/productos/999999").exchange()
+                .expectStatus().isNotFound()
+                .expectBody().jsonPath("$.error").isEqualTo("Producto no encontrado con id: 999999");
+        cliente.post().uri("/api/productos").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"nombre\":\"\",\"precio\":-1,\"stock\":1}")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.errors.nombre").exists()
+                .jsonPath("$.errors.precio").exists()
+                .jsonPath("$.errors.categoria").exists();
+    }
+
+    @Test
+    void laCategoriaSeTransmiteComoNdjsonEnOrdenDeId() {
+        List<Long> ids = List.of(crear("Pelota", 1, "DEPORTES").getId(), crear("Red", 1, "DEPORTES").getId(),
+                crear("Paleta", 1, "DEPORTES").getId());
+
+        List<Long> recibidos = cliente.get().uri("/api/productos/categoria/DEPORTES")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(ProductoResponseDTO.class)
+                .getResponseBody()
+                .map(ProductoResponseDTO::getId)
+                .collectList()
+                .block();
+        assertEquals(ids, recibidos);
+    }
+}
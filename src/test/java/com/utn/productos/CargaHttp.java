@@ -0,0 +1,99 @@
+package com.utn.productos;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Generador de carga de las pruebas manuales sobre HTTP real (CargaHttpTest para la API MVC y
+// CargaReactivaTest para la variante reactiva): la misma mezcla de requests contra los ids 1..PRODUCTOS
+@Slf4j
+public final class CargaHttp {
+
+    public static final int PRODUCTOS = 2_000;
+    private static final int CLIENTES_CONCURRENTES = 500;
+    private static final int REQUESTS = 30_000;
+
+    private final String base;
+    private final HttpClient cliente = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    public CargaHttp(int puerto) {
+        this.base = "http://localhost:" + puerto + "/api/productos";
+    }
+
+    // Calienta el servidor, mide REQUESTS requests y registra el throughput y la latencia bajo el título modo
+    public void medir(String modo) throws Exception {
+        ejecutar(2_000); // calentamiento
+
+        long inicio = System.nanoTime();
+        long[] latencias = ejecutar(REQUESTS);
+        double segundos = (System.nanoTime() - inicio) / 1_000_000_000.0;
+
+        Arrays.sort(latencias);
+        log.info("Modo: {}", modo);
+        log.info("Throughput: {} req/s", String.format("%,.0f", REQUESTS / segundos));
+        log.info("p50: {} ms | p99: {} ms | max: {} ms", String.format("%.1f", percentil(latencias, 0.50)),
+                String.format("%.1f", percentil(latencias, 0.99)),
+                String.format("%.1f", latencias[latencias.length - 1] / 1e6));
+    }
+
+    // Mezcla de lecturas paginadas (70%) y reservas/liberaciones de stock (30%) con CLIENTES_CONCURRENTES en vuelo
+    private long[] ejecutar(int total) {
+        long[] latencias = new long[total];
+        AtomicInteger siguiente = new AtomicInteger();
+        AtomicInteger errores = new AtomicInteger();
+        CompletableFuture<?>[] trabajadores = new CompletableFuture<?>[CLIENTES_CONCURRENTES];
+        for (int t = 0; t < CLIENTES_CONCURRENTES; t++) {
+            trabajadores[t] = encadenar(siguiente, total, latencias, errores);
+        }
+        CompletableFuture.allOf(trabajadores).join();
+        assertEquals(0, errores.get(), "Requests con error");
+        return latencias;
+    }
+
+    private CompletableFuture<Void> encadenar(AtomicInteger siguiente, int total, long[] latencias,
+                                              AtomicInteger errores) {
+        int indice = siguiente.getAndIncrement();
+        if (indice >= total) {
+            return CompletableFuture.completedFuture(null);
+        }
+        long inicio = System.nanoTime();
+        return cliente.sendAsync(nuevoRequest(), HttpResponse.BodyHandlers.discarding())
+                .thenCompose(respuesta -> {
+                    latencias[indice] = System.nanoTime() - inicio;
+                    if (respuesta.statusCode() != 200) {
+                        errores.incrementAndGet();
+                    }
+                    return encadenar(siguiente, total, latencias, errores);
+                });
+    }
+
+    private HttpRequest nuevoRequest() {
+        ThreadLocalRandom azar = ThreadLocalRandom.current();
+        if (azar.nextInt(10) < 7) {
+            return HttpRequest.newBuilder(URI.create(base + "?limit=50")).GET().build();
+        }
+        long id = 1 + azar.nextInt(PRODUCTOS);
+        String accion = azar.nextBoolean() ? "reservar" : "liberar";
+        return HttpRequest.newBuilder(URI.create(base + "/" + id + "/stock/" + accion))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"cantidad\":1}"))
+                .build();
+    }
+
+    private static double percentil(long[] ordenadas, double p) {
+        return ordenadas[(int) Math.min(ordenadas.length - 1, Math.ceil(p * ordenadas.length) - 1)] / 1e6;
+    }
+}
@@ -0,0 +1,49 @@
+package com.utn.productos;
+
+import com.utn.productos.model.Categoria;
+import com.utn.productos.model.Producto;
+import com.utn.productos.service.ProductoService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Prueba de carga manual sobre HTTP real. Compara hilos de plataforma contra hilos virtuales:
+//   mvn test -Dtest=CargaHttpTest -Dcarga=true
+//   mvn test -Pjava21 -Dtest=CargaHttpTest -Dcarga=true -Dspring.profiles.active=virtual
+// La misma carga contra la variante reactiva: mvn test -Preactivo -Dtest=CargaReactivaTest -Dcarga=true
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.format_sql=false",
+        "logging.level.root=WARN",
+        "logging.level.com.utn.productos.CargaHttp=INFO",
+        // Mide la capacidad del servicio: un único cliente agotaría su cubeta de tokens enseguida
+        "productos.limites.habilitado=false"
+})
+@EnabledIfSystemProperty(named = "carga", matches = "true")
+class CargaHttpTest {
+
+    @LocalServerPort
+    private int puerto;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Test
+    void medirThroughputYLatencia() throws Exception {
+        List<Producto> productos = new ArrayList<>();
+        for (int i = 0; i < CargaHttp.PRODUCTOS; i++) {
+            productos.add(new Producto(null, "Producto " + i, "Descripción " + i, 10.0 + i,
+                    1_000_000, Categoria.values()[i % 5]));
+        }
+        productoService.guardarLote(productos);
+
+        new CargaHttp(puerto).medir(Boolean.getBoolean("spring.threads.virtual.enabled")
+                || "virtual".equals(System.getProperty("spring.profiles.active"))
+                ? "hilos virtuales" : "hilos de plataforma");
+    }
+}
@@ -0,0 +1,167 @@
+package com.utn.productos;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.OptionalLong;
+
+// Benchmark de arranque del perfil Maven "arranque" (fase verify). Lanza el jar extraído con el perfil prod
+// en procesos nuevos y mide, por modo (JVM, CDS, AOT, AOT + CDS), el tiempo hasta el primer
+// GET /api/productos/{id} exitoso (desde que se lanza el proceso) y el RSS del proceso en ese momento.
+// Argumentos: jar extraído, archivo CDS y repeticiones por modo (se informa la mediana).
+@Slf4j
+public final class MedicionArranque {
+
+    private static final Duration ESPERA_MAXIMA = Duration.ofMinutes(2);
+
+    private final Path jar;
+    private final Path cds;
+    private final Path directorio;
+    private final long idProducto;
+    private final HttpClient cliente = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofMillis(200))
+            .build();
+
+    private MedicionArranque(Path jar, Path cds, Path directorio, long idProducto) {
+        this.jar = jar;
+        this.cds = cds;
+        this.directorio = directorio;
+        this.idProducto = idProducto;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path jar = Path.of(args[0]);
+        Path cds = Path.of(args[1]);
+        int repeticiones = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+        Path directorio = Files.createTempDirectory("arranque");
+        MedicionArranque medicion = new MedicionArranque(jar, cds, directorio, prepararBase(directorio));
+
+        log.info("Arranque hasta el primer GET /api/productos/{id} exitoso (mediana de {} corridas)", repeticiones);
+        log.info("{}", String.format("%-10s %12s %10s", "Modo", "Tiempo", "RSS"));
+        medicion.medir("JVM", repeticiones, List.of());
+        medicion.medir("CDS", repeticiones, List.of("-XX:SharedArchiveFile=" + cds));
+        medicion.medir("AOT", repeticiones, List.of("-Dspring.aot.enabled=true"));
+        medicion.medir("AOT + CDS", repeticiones,
+                List.of("-XX:SharedArchiveFile=" + cds, "-Dspring.aot.enabled=true"));
+    }
+
+    // Base H2 en archivo con el esquema de Flyway y un producto: la aplicación arranca como en prod (migra
+    // y valida el esquema) y el primer GET tiene algo que devolver
+    private static long prepararBase(Path directorio) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL(urlBase(directorio));
+        dataSource.setUser("sa");
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        long id = jdbc.queryForObject("select next value for producto_seq", Long.class);
+        jdbc.update("insert into producto (id, nombre, descripcion, precio, stock, categoria, version, "
+                + "ultima_modificacion) values (?, 'Producto de arranque', null, 10.0, 1, 'HOGAR', 0, "
+                + "current_timestamp)", id);
+        return id;
+    }
+
+    private static String urlBase(Path directorio) {
+        return "jdbc:h2:file:" + directorio.resolve("productosdb").toAbsolutePath() + ";DB_CLOSE_ON_EXIT=FALSE";
+    }
+
+    private void medir(String modo, int repeticiones, List<String> opcionesJvm) throws Exception {
+        long[] tiempos = new long[repeticiones];
+        long[] rss = new long[repeticiones];
+        for (int i = 0; i < repeticiones; i++) {
+            long[] corrida = arrancar(opcionesJvm);
+            tiempos[i] = corrida[0];
+            rss[i] = corrida[1];
+        }
+        Arrays.sort(tiempos);
+        Arrays.sort(rss);
+        long rssMediana = rss[repeticiones / 2];
+        log.info("{}", String.format("%-10s %9d ms %10s", modo, tiempos[repeticiones / 2] / 1_000_000,
+                rssMediana < 0 ? "n/d" : rssMediana / 1024 + " MB"));
+    }
+
+    // Devuelve {nanos hasta el primer GET exitoso, RSS en KB (-1 si no se puede leer)}
+    private long[] arrancar(List<String> opcionesJvm) throws Exception {
+        int puerto = puertoLibre();
+        List<String> comando = new ArrayList<>();
+        comando.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        comando.addAll(opcionesJvm);
+        comando.addAll(List.of("-jar", jar.toString(),
+                "--spring.profiles.active=prod",
+                "--server.port=" + puerto,
+                "--spring.datasource.url=" + urlBase(directorio),
+                "--productos.snapshot.restaurar=",
+                "--productos.cambios.directorio=" + directorio.resolve("cambios")));
+        ProcessBuilder builder = new ProcessBuilder(comando)
+                .redirectErrorStream(true)
+                .redirectOutput(directorio.resolve("aplicacion.log").toFile());
+
+        HttpRequest pedido = HttpRequest.newBuilder(
+                URI.create("http://localhost:" + puerto + "/api/productos/" + idProducto)).GET().build();
+        long inicio = System.nanoTime();
+        Process proceso = builder.start();
+        try {
+            while (true) {
+                if (!proceso.isAlive()) {
+                    throw new IllegalStateException("La aplicación terminó al arrancar (código "
+                            + proceso.exitValue() + "), ver " + directorio.resolve("aplicacion.log"));
+                }
+                if (System.nanoTime() - inicio > ESPERA_MAXIMA.toNanos()) {
+                    throw new IllegalStateException("La aplicación no respondió en " + ESPERA_MAXIMA);
+                }
+                if (respondeOk(pedido)) {
+                    long tiempo = System.nanoTime() - inicio;
+                    return new long[]{tiempo, rssKb(proceso.pid()).orElse(-1)};
+                }
+                Thread.sleep(5);
+            }
+        } finally {
+            // Apagado ordenado: la base en archivo queda cerrada para la corrida siguiente
+            proceso.destroy();
+            proceso.waitFor();
+        }
+    }
+
+    private boolean respondeOk(HttpRequest pedido) throws InterruptedException {
+        try {
+            return cliente.send(pedido, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        } catch (IOException ex) {
+            return false; // todavía no escucha
+        }
+    }
+
+    // VmRSS de /proc (Linux); en otros sistemas no se informa
+    private static OptionalLong rssKb(long pid) {
+        try {
+            for (String linea : Files.readAllLines(Path.of("/proc", String.valueOf(pid), "status"))) {
+                if (linea.startsWith("VmRSS:")) {
+                    return OptionalLong.of(Long.parseLong(linea.replaceAll("\\D", "")));
+                }
+            }
+        } catch (IOException | NumberFormatException ex) {
+            // sin /proc
+        }
+        return OptionalLong.empty();
+    }
+
+    private static int puertoLibre() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.utn.productos.config;
+
+import com.utn.productos.service.ProductoService;
+import org.junit.jupiter.api.Test;
+import org.springdoc.webmvc.api.OpenApiWebMvcResource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ArranqueConfigTest {
+
+    @Autowired
+    private ConfigurableListableBeanFactory beanFactory;
+
+    @Test
+    void laDocumentacionOpenApiSeCreaRecienAlUsarla() {
+        String[] nombres = beanFactory.getBeanNamesForType(OpenApiWebMvcResource.class, true, false);
+        assertEquals(1, nombres.length);
+        String nombre = nombres[0];
+        assertTrue(beanFactory.getBeanDefinition(nombre).isLazyInit());
+        assertTrue(beanFactory.getBeanDefinition("h2ConsoleLogger").isLazyInit());
+        assertFalse(beanFactory.containsSingleton(nombre), "springdoc se creó durante el arranque");
+
+        // La API sigue siendo eager
+        String servicio = beanFactory.getBeanNamesForType(ProductoService.class)[0];
+        assertFalse(beanFactory.getBeanDefinition(servicio).isLazyInit());
+
+        assertNotNull(beanFactory.getBean(nombre));
+        assertTrue(beanFactory.containsSingleton(nombre));
+    }
+}
@@ -0,0 +1,92 @@
+package com.utn.productos.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CubetaTokensTest {
+
+    private static final long SEGUNDO = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void admiteLaRafagaYDespuesLaTasa() {
+        long inicio = 1_000 * SEGUNDO;
+        CubetaTokens cubeta = new CubetaTokens(2, 3, inicio);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, cubeta.tomar(inicio));
+        }
+        // Un token se repone cada medio segundo
+        assertEquals(SEGUNDO / 2, cubeta.tomar(inicio));
+        assertEquals(0, cubeta.tomar(inicio + SEGUNDO / 2));
+        assertTrue(cubeta.tomar(inicio + SEGUNDO / 2) > 0);
+        // Tras un rato sin uso vuelve a estar llena, pero no acumula más que su capacidad
+        long despues = inicio + 60 * SEGUNDO;
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, cubeta.tomar(despues));
+        }
+        assertTrue(cubeta.tomar(despues) > 0);
+    }
+
+    @Test
+    void informaCuantoFaltaParaElProximoTokenSinConsumirlo() {
+        long inicio = 1_000 * SEGUNDO;
+        CubetaTokens cubeta = new CubetaTokens(1, 1, inicio);
+
+        assertEquals(0, cubeta.tomar(inicio));
+        assertEquals(3 * SEGUNDO / 4, cubeta.tomar(inicio + SEGUNDO / 4));
+        // Los rechazos no gastan: al cumplirse el plazo informado hay un token
+        assertEquals(SEGUNDO / 4, cubeta.tomar(inicio + 3 * SEGUNDO / 4));
+        assertEquals(0, cubeta.tomar(inicio + SEGUNDO));
+    }
+
+    @Test
+    void unaTasaMenorAUnoPorSegundoEspaciaLosTokens() {
+        long inicio = 1_000 * SEGUNDO;
+        CubetaTokens cubeta = new CubetaTokens(0.2, 2, inicio);
+
+        assertEquals(0, cubeta.tomar(inicio));
+        assertEquals(0, cubeta.tomar(inicio));
+        assertEquals(5 * SEGUNDO, cubeta.tomar(inicio));
+        assertEquals(0, cubeta.tomar(inicio + 5 * SEGUNDO));
+    }
+
+    @Test
+    void noEntregaDeMasConHilosConcurrentes() throws Exception {
+        CubetaTokens cubeta = new CubetaTokens(0.001, 1000, System.nanoTime());
+        AtomicInteger admitidas = new AtomicInteger();
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                tareas.add(executor.submit(() -> {
+                    largada.await();
+                    for (int i = 0; i < 1000; i++) {
+                        if (cubeta.tomar(System.nanoTime()) == 0) {
+                            admitidas.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            largada.countDown();
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1000, admitidas.get());
+    }
+}
@@ -0,0 +1,123 @@
+package com.utn.productos.config;
+
+import com.utn.productos.config.LimitadorTraficoFilter.Presupuesto;
+import com.utn.productos.config.LimitadorTraficoFilter.TipoRuta;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LimitadorTraficoTest {
+
+    private static final long SEGUNDO = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void lasRutasMasivasSeClasificanSoloPorRuta() {
+        assertEquals(TipoRuta.MASIVA, LimitadorTraficoFilter.clasificar(request("POST", "/api/productos/import", null)));
+        assertEquals(TipoRuta.MASIVA, LimitadorTraficoFilter.clasificar(request("GET", "/api/productos/export", null)));
+        assertEquals(TipoRuta.MASIVA,
+                LimitadorTraficoFilter.clasificar(request("PATCH", "/api/productos/stock/batch", null)));
+        // Pedir NDJSON no convierte una lectura en masiva
+        assertEquals(TipoRuta.LECTURA,
+                LimitadorTraficoFilter.clasificar(request("GET", "/api/productos/1", "application/x-ndjson")));
+        assertEquals(TipoRuta.ESCRITURA,
+                LimitadorTraficoFilter.clasificar(request("POST", "/api/productos/1/stock/reservar", null)));
+    }
+
+    @Test
+    void elFiltroRespondeTooManyRequestsAlAgotarseElPresupuestoDelCliente() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        LimitadorTraficoFilter filtro = new LimitadorTraficoFilter(
+                Map.of(TipoRuta.LECTURA, new Presupuesto(0.5, 2),
+                        TipoRuta.ESCRITURA, new Presupuesto(0.5, 1),
+                        TipoRuta.MASIVA, new Presupuesto(0.5, 1)),
+                new LimiteConcurrenciaAdaptativo(10, 1, 10, SEGUNDO, () -> 0),
+                "X-Client-Id", Set.of("127.0.0.1"), registry);
+
+        assertEquals(200, ejecutar(filtro, "GET", "/api/productos", "a").getStatus());
+        assertEquals(200, ejecutar(filtro, "GET", "/api/productos/1", "a").getStatus());
+        MockHttpServletResponse rechazada = ejecutar(filtro, "GET", "/api/productos", "a");
+        assertEquals(429, rechazada.getStatus());
+        assertEquals("2", rechazada.getHeader("Retry-After"));
+
+        // Otro cliente y otro tipo de ruta tienen su propio presupuesto
+        assertEquals(200, ejecutar(filtro, "GET", "/api/productos", "b").getStatus());
+        assertEquals(200, ejecutar(filtro, "POST", "/api/productos", "a").getStatus());
+        assertEquals(200, ejecutar(filtro, "POST", "/api/productos/batch", "a").getStatus());
+        assertEquals(429, ejecutar(filtro, "GET", "/api/productos/export", "a").getStatus());
+
+        assertEquals(3, registry.get("productos.limites.admitidas").tag("tipo", "lectura").counter().count());
+        assertEquals(1, registry.get("productos.limites.rechazadas").tags("tipo", "lectura", "motivo", "tasa")
+                .counter().count());
+        assertEquals(1, registry.get("productos.limites.rechazadas").tags("tipo", "masiva", "motivo", "tasa")
+                .counter().count());
+    }
+
+    @Test
+    void elFiltroRespondeServiceUnavailableConElLimiteDeConcurrenciaLleno() throws Exception {
+        LimiteConcurrenciaAdaptativo limite = new LimiteConcurrenciaAdaptativo(1, 1, 1, SEGUNDO, () -> 0);
+        LimitadorTraficoFilter filtro = new LimitadorTraficoFilter(
+                Map.of(TipoRuta.LECTURA, new Presupuesto(100, 100),
+                        TipoRuta.ESCRITURA, new Presupuesto(100, 100),
+                        TipoRuta.MASIVA, new Presupuesto(100, 100)),
+                limite, "X-Client-Id", Set.of("127.0.0.1"), new SimpleMeterRegistry());
+
+        assertTrue(limite.intentarAdmitir());
+        MockHttpServletResponse rechazada = ejecutar(filtro, "GET", "/api/productos", "a");
+        assertEquals(503, rechazada.getStatus());
+        assertEquals("1", rechazada.getHeader("Retry-After"));
+        // El flujo de cambios no ocupa lugar en el límite
+        assertEquals(200, ejecutar(filtro, "GET", "/api/productos/cambios", "a").getStatus());
+
+        limite.liberarSinMedir();
+        assertEquals(200, ejecutar(filtro, "GET", "/api/productos", "a").getStatus());
+        assertEquals(0, limite.getEnCurso());
+    }
+
+    @Test
+    void elHeaderDeClienteSoloSeAceptaDeUnProxyDeConfianza() throws Exception {
+        LimitadorTraficoFilter filtro = new LimitadorTraficoFilter(
+                Map.of(TipoRuta.LECTURA, new Presupuesto(0.5, 1),
+                        TipoRuta.ESCRITURA, new Presupuesto(0.5, 1),
+                        TipoRuta.MASIVA, new Presupuesto(0.5, 1)),
+                new LimiteConcurrenciaAdaptativo(10, 1, 10, SEGUNDO, () -> 0),
+                "X-Client-Id", Set.of("10.0.0.1"), new SimpleMeterRegistry());
+
+        // Desde cualquier otra IP, un id nuevo por request no estrena cubeta: cuenta la IP
+        assertEquals(200, ejecutar(filtro, "GET", "/api/productos", "a").getStatus());
+        assertEquals(429, ejecutar(filtro, "GET", "/api/productos", "b").getStatus());
+
+        // Desde el proxy, cada id tiene su cubeta
+        MockHttpServletRequest viaProxy = new MockHttpServletRequest("GET", "/api/productos");
+        viaProxy.setRemoteAddr("10.0.0.1");
+        viaProxy.addHeader("X-Client-Id", "c");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filtro.doFilter(viaProxy, response, new MockFilterChain());
+        assertEquals(200, response.getStatus());
+    }
+
+    private static MockHttpServletRequest request(String metodo, String ruta, String accept) {
+        MockHttpServletRequest request = new MockHttpServletRequest(metodo, ruta);
+        if (accept != null) {
+            request.addHeader("Accept", accept);
+        }
+        return request;
+    }
+
+    private static MockHttpServletResponse ejecutar(LimitadorTraficoFilter filtro, String metodo, String ruta,
+                                                    String cliente) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(metodo, ruta);
+        request.addHeader("X-Client-Id", cliente);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filtro.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
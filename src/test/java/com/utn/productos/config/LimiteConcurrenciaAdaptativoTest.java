@@ -0,0 +1,119 @@
+package com.utn.productos.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LimiteConcurrenciaAdaptativoTest {
+
+    private static final long SEGUNDO = TimeUnit.SECONDS.toNanos(1);
+    // Las reducciones se espacian al menos una latencia objetivo: con 1 ms, los tests esperan 2 ms entre una y otra
+    private static final long OBJETIVO = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void bajaConRespuestasLentasYSubeConRapidas() {
+        LimiteConcurrenciaAdaptativo limite = new LimiteConcurrenciaAdaptativo(2, 1, 3, OBJETIVO, () -> 0);
+
+        assertTrue(limite.intentarAdmitir());
+        assertTrue(limite.intentarAdmitir());
+        assertFalse(limite.intentarAdmitir());
+
+        limite.liberar(SEGUNDO, false);
+        assertEquals(1, limite.getLimite());
+        // Dentro de la misma latencia objetivo no vuelve a bajar
+        limite.liberar(SEGUNDO, false);
+        assertEquals(1, limite.getLimite());
+        assertEquals(0, limite.getEnCurso());
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limite.intentarAdmitir());
+            limite.liberar(0, false);
+        }
+        assertEquals(3, limite.getLimite());
+    }
+
+    @Test
+    void bajaUnDiezPorCientoPorCadaSenalDeSaturacion() throws Exception {
+        AtomicInteger esperandoConexion = new AtomicInteger();
+        LimiteConcurrenciaAdaptativo limite = new LimiteConcurrenciaAdaptativo(100, 4, 200, OBJETIVO,
+                esperandoConexion::get);
+
+        // 503 por falta de conexión
+        limite.intentarAdmitir();
+        limite.liberar(0, true);
+        assertEquals(90, limite.getLimite());
+
+        // Hilos esperando una conexión de Hikari, aunque la respuesta haya sido rápida
+        Thread.sleep(2);
+        esperandoConexion.set(1);
+        limite.intentarAdmitir();
+        limite.liberar(0, false);
+        assertEquals(81, limite.getLimite());
+
+        // Respuesta más lenta que la objetivo
+        Thread.sleep(2);
+        esperandoConexion.set(0);
+        limite.intentarAdmitir();
+        limite.liberar(2 * OBJETIVO, false);
+        assertEquals(72, limite.getLimite());
+    }
+
+    @Test
+    void subeDeAUnoCadaLimiteRespuestasRapidas() {
+        LimiteConcurrenciaAdaptativo limite = new LimiteConcurrenciaAdaptativo(10, 1, 20, SEGUNDO, () -> 0);
+
+        for (int i = 0; i < 9; i++) {
+            limite.intentarAdmitir();
+            limite.liberar(0, false);
+        }
+        assertEquals(10, limite.getLimite());
+        limite.intentarAdmitir();
+        limite.liberar(0, false);
+        assertEquals(11, limite.getLimite());
+
+        // El siguiente aumento necesita 11 respuestas rápidas
+        for (int i = 0; i < 10; i++) {
+            limite.intentarAdmitir();
+            limite.liberar(0, false);
+        }
+        assertEquals(11, limite.getLimite());
+        limite.intentarAdmitir();
+        limite.liberar(0, false);
+        assertEquals(12, limite.getLimite());
+    }
+
+    @Test
+    void noBajaDelMinimoNiSubeDelMaximo() throws Exception {
+        LimiteConcurrenciaAdaptativo limite = new LimiteConcurrenciaAdaptativo(5, 4, 6, OBJETIVO, () -> 0);
+
+        for (int i = 0; i < 3; i++) {
+            limite.intentarAdmitir();
+            limite.liberar(SEGUNDO, false);
+            Thread.sleep(2);
+        }
+        assertEquals(4, limite.getLimite());
+
+        for (int i = 0; i < 100; i++) {
+            limite.intentarAdmitir();
+            limite.liberar(0, false);
+        }
+        assertEquals(6, limite.getLimite());
+    }
+
+    @Test
+    void lasRequestsSinMedirNoAjustanElLimite() {
+        LimiteConcurrenciaAdaptativo limite = new LimiteConcurrenciaAdaptativo(1, 1, 10, OBJETIVO, () -> 5);
+
+        assertTrue(limite.intentarAdmitir());
+        assertFalse(limite.intentarAdmitir());
+        limite.liberarSinMedir();
+        assertEquals(1, limite.getLimite());
+        assertEquals(0, limite.getEnCurso());
+        assertTrue(limite.intentarAdmitir());
+    }
+}
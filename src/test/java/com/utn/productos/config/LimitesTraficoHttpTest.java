@@ -0,0 +1,61 @@
+package com.utn.productos.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// El limitador con la aplicación completa: presupuesto de lecturas de 2 y un único lugar en vuelo
+@SpringBootTest(properties = {
+        "productos.limites.habilitado=true",
+        "productos.limites.lectura.por-segundo=0.1",
+        "productos.limites.lectura.rafaga=2",
+        "productos.limites.concurrencia.inicial=1",
+        "productos.limites.concurrencia.minimo=1",
+        "productos.limites.concurrencia.maximo=1"
+})
+@AutoConfigureMockMvc
+class LimitesTraficoHttpTest {
+
+    private static final String RUTA = "/api/productos/categoria/HOGAR";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private LimiteConcurrenciaAdaptativo concurrencia;
+
+    @Test
+    void rechazaConServiceUnavailableYTooManyRequests() throws Exception {
+        // Con el único lugar ocupado por otra request → 503
+        assertTrue(concurrencia.intentarAdmitir());
+        try {
+            mockMvc.perform(get(RUTA))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string("Retry-After", "1"))
+                    .andExpect(jsonPath("$.status").value(503))
+                    .andExpect(jsonPath("$.path").value(RUTA));
+        } finally {
+            concurrencia.liberarSinMedir();
+        }
+
+        // La request rechazada por concurrencia gastó el primer token; la segunda pasa y la tercera no
+        mockMvc.perform(get(RUTA)).andExpect(status().isOk());
+        MvcResult rechazada = mockMvc.perform(get(RUTA))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(jsonPath("$.status").value(429))
+                .andExpect(jsonPath("$.error").value("Demasiadas solicitudes, reintente más tarde"))
+                .andReturn();
+        // Un token cada 10 s
+        int segundos = Integer.parseInt(rechazada.getResponse().getHeader("Retry-After"));
+        assertTrue(segundos >= 1 && segundos <= 10, "Retry-After: " + segundos);
+    }
+}
@@ -0,0 +1,73 @@
+package com.utn.productos.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// MockMvc atiende el request en el hilo del test, así que también se puede ver si el contador por hilo
+// quedó limpio al terminar
+@SpringBootTest
+@AutoConfigureMockMvc
+class MetricasSqlTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // {requests registrados, sentencias acumuladas} para el método y la ruta
+    private double[] sentencias(String metodo, String ruta) {
+        DistributionSummary resumen = meterRegistry.find("productos.sql.sentencias")
+                .tag("method", metodo)
+                .tag("uri", ruta)
+                .summary();
+        return resumen == null ? new double[2] : new double[]{resumen.count(), resumen.totalAmount()};
+    }
+
+    @Test
+    void registraLasSentenciasDeCadaRequestPorRuta() throws Exception {
+        double[] listado = sentencias("GET", "/api/productos");
+        double[] porId = sentencias("GET", "/api/productos/{id}");
+
+        // Página y total: dos consultas
+        mockMvc.perform(get("/api/productos").param("total", "true")).andExpect(status().isOk());
+        assertEquals(-1, ContadorSentenciasSql.finalizar());
+        double[] despues = sentencias("GET", "/api/productos");
+        assertEquals(listado[0] + 1, despues[0]);
+        assertEquals(listado[1] + 2, despues[1]);
+
+        // También con error (404) el request se registra con su ruta y el contador se limpia
+        mockMvc.perform(get("/api/productos/{id}", Long.MAX_VALUE)).andExpect(status().isNotFound());
+        assertEquals(-1, ContadorSentenciasSql.finalizar());
+        assertEquals(porId[0] + 1, sentencias("GET", "/api/productos/{id}")[0]);
+    }
+
+    @Test
+    void losRequestsAsincronosNoSeRegistran() throws Exception {
+        double[] antes = sentencias("GET", "/api/productos");
+
+        MvcResult inicio = mockMvc.perform(get("/api/productos").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertEquals(-1, ContadorSentenciasSql.finalizar());
+        mockMvc.perform(asyncDispatch(inicio)).andExpect(status().isOk());
+        assertEquals(-1, ContadorSentenciasSql.finalizar());
+
+        double[] despues = sentencias("GET", "/api/productos");
+        assertEquals(antes[0], despues[0]);
+        assertEquals(antes[1], despues[1]);
+    }
+}
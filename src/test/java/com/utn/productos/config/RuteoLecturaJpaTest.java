@@ -0,0 +1,90 @@
+package com.utn.productos.config;
+
+import com.utn.productos.model.Categoria;
+import com.utn.productos.model.Producto;
+import com.utn.productos.service.ProductoService;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// RuteoLecturaTest cubre el ruteo con DataSourceTransactionManager; acá el servicio real pasa por
+// JpaTransactionManager y Hibernate, que es lo que corre con el perfil "replica".
+// Base propia (y réplica vinculada a ella) para no compartir la del resto de los tests
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:ruteo-jpa",
+        "productos.bd.replica.url=jdbc:h2:mem:ruteo-jpa-replica;INIT=CREATE LINKED TABLE IF NOT EXISTS "
+                + "PRODUCTO('org.h2.Driver', 'jdbc:h2:mem:ruteo-jpa', 'sa', '', 'PRODUCTO')",
+        // Sin ventana de escritura reciente: la lectura que sigue a un alta ya puede ir a la réplica
+        "productos.bd.replica.retraso-maximo=0ms"
+})
+@ActiveProfiles("replica")
+class RuteoLecturaJpaTest {
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    @Qualifier("primariaDataSource")
+    private HikariDataSource primaria;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private HikariDataSource replica;
+
+    private double conexiones(String destino, String motivo) {
+        return meterRegistry.get("productos.bd.conexiones").tag("destino", destino).tag("motivo", motivo)
+                .counter().count();
+    }
+
+    @Test
+    void lasEscriturasUsanLaPrimariaYLasLecturasLaReplica() {
+        assertInstanceOf(JpaTransactionManager.class, transactionManager);
+
+        double escrituras = conexiones("primaria", "escritura");
+        double lecturas = conexiones("replica", "lectura");
+        String nombre = "Ruteo " + UUID.randomUUID();
+        Producto creado = productoService.crearProducto(new Producto(null, nombre, null, 10.0, 5, Categoria.HOGAR));
+        assertTrue(conexiones("primaria", "escritura") > escrituras);
+        assertEquals(lecturas, conexiones("replica", "lectura"));
+
+        // Mientras se recorre el catálogo la conexión en uso es de la réplica, no del pool de escritura
+        List<Integer> activasPrimaria = new ArrayList<>();
+        List<Integer> activasReplica = new ArrayList<>();
+        List<String> nombres = new ArrayList<>();
+        productoService.recorrerTodos(producto -> {
+            activasPrimaria.add(primaria.getHikariPoolMXBean().getActiveConnections());
+            activasReplica.add(replica.getHikariPoolMXBean().getActiveConnections());
+            nombres.add(producto.getNombre());
+        });
+        assertTrue(nombres.contains(nombre), "La réplica no ve el producto creado en la primaria");
+        assertTrue(activasPrimaria.stream().allMatch(activas -> activas == 0), activasPrimaria.toString());
+        assertTrue(activasReplica.stream().allMatch(activas -> activas == 1), activasReplica.toString());
+        assertEquals(lecturas + 1, conexiones("replica", "lectura"));
+
+        // Una escritura tras la lectura vuelve a la primaria
+        escrituras = conexiones("primaria", "escritura");
+        productoService.actualizarStock(creado.getId(), 3);
+        assertTrue(conexiones("primaria", "escritura") > escrituras);
+        assertEquals(lecturas + 1, conexiones("replica", "lectura"));
+    }
+}
@@ -0,0 +1,83 @@
+package com.utn.productos.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RuteoLecturaTest {
+
+    private static final long RETRASO_MAXIMO = TimeUnit.MILLISECONDS.toNanos(300);
+
+    // Dos bases H2 independientes hacen de primaria y réplica; cada una sabe cuál es
+    private static DataSource base(String nombre) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:ruteo-" + nombre + ";DB_CLOSE_DELAY=-1");
+        new JdbcTemplate(dataSource).execute("create table if not exists origen (nombre varchar(20))");
+        new JdbcTemplate(dataSource).update("insert into origen values (?)", nombre);
+        return dataSource;
+    }
+
+    private static final class Bases {
+
+        private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        private final JdbcTemplate jdbc;
+        private final TransactionTemplate lectura;
+        private final TransactionTemplate escritura;
+
+        Bases(DataSource primaria, DataSource replica) {
+            DataSource ruteo = new LazyConnectionDataSourceProxy(new RuteoLecturaDataSource(primaria, replica,
+                    RETRASO_MAXIMO, TimeUnit.HOURS.toNanos(1), registry));
+            DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(ruteo);
+            jdbc = new JdbcTemplate(ruteo);
+            lectura = new TransactionTemplate(transactionManager);
+            lectura.setReadOnly(true);
+            escritura = new TransactionTemplate(transactionManager);
+        }
+
+        String leer() {
+            return lectura.execute(estado -> jdbc.queryForObject("select min(nombre) from origen", String.class));
+        }
+
+        double conexiones(String destino, String motivo) {
+            return registry.get("productos.bd.conexiones").tag("destino", destino).tag("motivo", motivo)
+                    .counter().count();
+        }
+    }
+
+    @Test
+    void lasLecturasVanALaReplicaSalvoJustoDespuesDeUnaEscritura() throws Exception {
+        Bases bases = new Bases(base("primaria"), base("replica"));
+        assertEquals("replica", bases.leer());
+
+        bases.escritura.executeWithoutResult(estado ->
+                bases.jdbc.update("insert into origen values ('primaria-2')"));
+        assertEquals("primaria", bases.leer());
+        assertEquals(1, bases.conexiones("primaria", "escritura-reciente"));
+
+        Thread.sleep(TimeUnit.NANOSECONDS.toMillis(RETRASO_MAXIMO) + 100);
+        assertEquals("replica", bases.leer());
+        assertEquals("primaria", LecturaPrimaria.ejecutar(bases::leer));
+        assertEquals(2, bases.conexiones("replica", "lectura"));
+    }
+
+    @Test
+    void sinReplicaSeLeeDeLaPrimaria() {
+        JdbcDataSource caida = new JdbcDataSource();
+        caida.setURL("jdbc:h2:mem:ruteo-inexistente;IFEXISTS=TRUE");
+        Bases bases = new Bases(base("primaria"), caida);
+
+        assertEquals("primaria", bases.leer());
+        assertEquals("primaria", bases.leer());
+        // Tras la primera falla la réplica ni se intenta hasta que pase el tiempo de reintento
+        assertEquals(2, bases.conexiones("primaria", "replica-no-disponible"));
+    }
+}
@@ -0,0 +1,28 @@
+package com.utn.productos.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class AdminHttpTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired(required = false)
+    private AdminController adminController;
+
+    @Test
+    void sinHabilitarloElSnapshotNoSePublica() throws Exception {
+        assertNull(adminController, "AdminController registrado sin productos.admin.habilitado");
+        mockMvc.perform(post("/api/admin/snapshot")).andExpect(status().isNotFound());
+    }
+}
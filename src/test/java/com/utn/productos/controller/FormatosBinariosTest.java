@@ -0,0 +1,98 @@
+package com.utn.productos.controller;
+
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufMapper;
+import com.utn.productos.config.ProtobufProductosHttpMessageConverter;
+import com.utn.productos.config.ProtobufProductosHttpMessageConverter.ListaProductos;
+import com.utn.productos.dto.ProductoResponseDTO;
+import com.utn.productos.model.Categoria;
+import com.utn.productos.model.Producto;
+import com.utn.productos.service.ProductoService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class FormatosBinariosTest {
+
+    private static final String PROTOBUF = ProtobufProductosHttpMessageConverter.APPLICATION_PROTOBUF.toString();
+
+    private final ProtobufMapper protobuf = new ProtobufMapper();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductoService productoService;
+
+    private List<ProductoResponseDTO> leerLista(MvcResult resultado) throws Exception {
+        ListaProductos lista = protobuf.readerFor(ListaProductos.class)
+                .with(protobuf.generateSchemaFor(ListaProductos.class))
+                .readValue(resultado.getResponse().getContentAsByteArray());
+        return lista.productos();
+    }
+
+    @Test
+    void losListadosPorCategoriaSeNegocianEnProtobuf() throws Exception {
+        Producto creado = productoService.crearProducto(new Producto(null, "Protobuf " + UUID.randomUUID(),
+                null, 12.5, 3, Categoria.DEPORTES));
+
+        MvcResult resultado = mockMvc.perform(get("/api/productos/categoria/DEPORTES").accept(PROTOBUF))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(PROTOBUF))
+                .andReturn();
+
+        List<ProductoResponseDTO> productos = leerLista(resultado);
+        assertTrue(productos.stream().allMatch(p -> p.getCategoria() == Categoria.DEPORTES));
+        ProductoResponseDTO leido = productos.stream().filter(p -> p.getId().equals(creado.getId()))
+                .findFirst().orElseThrow();
+        assertEquals(creado.getNombre(), leido.getNombre());
+        assertEquals(12.5, leido.getPrecio());
+    }
+
+    @Test
+    void laBusquedaSeNegociaEnProtobuf() throws Exception {
+        String palabra = "protobusqueda" + UUID.randomUUID().toString().substring(0, 8);
+        Producto creado = productoService.crearProducto(new Producto(null, "Lámpara " + palabra,
+                "Con " + palabra, 30.0, 1, Categoria.HOGAR));
+
+        MvcResult resultado = mockMvc.perform(get("/api/productos/buscar").param("q", palabra).accept(PROTOBUF))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(PROTOBUF))
+                .andReturn();
+
+        List<ProductoResponseDTO> productos = leerLista(resultado);
+        assertEquals(List.of(creado.getId()), productos.stream().map(ProductoResponseDTO::getId).toList());
+    }
+
+    @Test
+    void unErrorConAcceptProtobufLlegaSoloConElEstado() throws Exception {
+        MvcResult noEncontrado = mockMvc.perform(get("/api/productos/{id}", Long.MAX_VALUE).accept(PROTOBUF))
+                .andExpect(status().isNotFound())
+                .andReturn();
+        assertEquals(0, noEncontrado.getResponse().getContentAsByteArray().length);
+
+        mockMvc.perform(get("/api/productos/no-es-un-id").accept(PROTOBUF))
+                .andExpect(status().isBadRequest());
+
+        // El resumen no tiene representación protobuf: 406 resuelto por el handler, con un único Accept
+        // (si el handler falla al escribir, Spring lo vuelve a resolver y repite los headers)
+        MvcResult noAceptable = mockMvc.perform(get("/api/productos/categoria/HOGAR/resumen").accept(PROTOBUF))
+                .andExpect(status().isNotAcceptable())
+                .andReturn();
+        List<String> aceptados = noAceptable.getResponse().getHeaders("Accept");
+        assertEquals(aceptados.stream().distinct().toList(), aceptados);
+    }
+}
@@ -0,0 +1,99 @@
+package com.utn.productos.controller;
+
+import com.utn.productos.model.Categoria;
+import com.utn.productos.model.Producto;
+import com.utn.productos.service.ProductoService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Base propia: el spy arma otro contexto y su create-drop reiniciaría la secuencia de la base compartida
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:lotes-http", "productos.lote.tamanio-chunk=2"})
+@AutoConfigureMockMvc
+class LotesHttpTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    // Real: sólo falla cuando el bloque contiene el elemento marcado
+    @MockitoSpyBean
+    private ProductoService productoService;
+
+    private static String producto(String nombre) {
+        return "{\"nombre\":\"" + nombre + "\",\"precio\":10.0,\"stock\":5,\"categoria\":\"HOGAR\"}";
+    }
+
+    @Test
+    void unBloqueQueFallaSeInformaPorElementoYElLoteSigue() throws Exception {
+        String prefijo = "Lote " + UUID.randomUUID() + " ";
+        doAnswer(invocacion -> {
+            List<Producto> productos = invocacion.getArgument(0);
+            if (productos.stream().anyMatch(p -> p.getNombre().endsWith("Conflicto"))) {
+                throw new ObjectOptimisticLockingFailureException(Producto.class, 0L);
+            }
+            return invocacion.callRealMethod();
+        }).when(productoService).guardarLote(anyList());
+
+        // Bloques de a dos: el primero falla entero y se reintenta elemento por elemento; el segundo pasa
+        String cuerpo = "[" + producto(prefijo + "A") + "," + producto(prefijo + "Conflicto") + ","
+                + producto(prefijo + "B") + "," + producto(prefijo + "C") + "]";
+        mockMvc.perform(post("/api/productos/batch").contentType(MediaType.APPLICATION_JSON).content(cuerpo))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.procesados").value(4))
+                .andExpect(jsonPath("$.exitosos").value(3))
+                .andExpect(jsonPath("$.fallidos").value(1))
+                .andExpect(jsonPath("$.resultados[0].estado").value("CREADO"))
+                .andExpect(jsonPath("$.resultados[1].indice").value(1))
+                .andExpect(jsonPath("$.resultados[1].errores.base").exists())
+                .andExpect(jsonPath("$.resultados[2].estado").value("CREADO"))
+                .andExpect(jsonPath("$.resultados[3].estado").value("CREADO"));
+
+        long guardados = productoService.obtenerPorCategoria(Categoria.HOGAR).stream()
+                .filter(p -> p.getNombre().startsWith(prefijo))
+                .count();
+        assertEquals(3, guardados);
+    }
+
+    @Test
+    void unAjusteQueFallaNoAbortaLosDemasBloques() throws Exception {
+        Producto uno = productoService.crearProducto(new Producto(null, "Ajuste uno", null, 10.0, 5, Categoria.HOGAR));
+        Producto dos = productoService.crearProducto(new Producto(null, "Ajuste dos", null, 10.0, 5, Categoria.HOGAR));
+        Producto tres = productoService.crearProducto(new Producto(null, "Ajuste tres", null, 10.0, 5, Categoria.HOGAR));
+        doAnswer(invocacion -> {
+            List<ProductoService.AjusteStock> ajustes = invocacion.getArgument(0);
+            if (ajustes.stream().anyMatch(a -> a.id().equals(dos.getId()))) {
+                throw new ObjectOptimisticLockingFailureException(Producto.class, dos.getId());
+            }
+            return invocacion.callRealMethod();
+        }).when(productoService).ajustarStockLote(anyList());
+
+        String cuerpo = "[{\"id\":" + uno.getId() + ",\"stock\":7},{\"id\":" + dos.getId() + ",\"stock\":7},"
+                + "{\"id\":" + tres.getId() + ",\"stock\":7}]";
+        mockMvc.perform(patch("/api/productos/stock/batch").contentType(MediaType.APPLICATION_JSON).content(cuerpo))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.exitosos").value(2))
+                .andExpect(jsonPath("$.fallidos").value(1))
+                .andExpect(jsonPath("$.resultados[1].id").value(dos.getId()))
+                .andExpect(jsonPath("$.resultados[1].errores.base").exists());
+
+        assertEquals(7, productoService.obtenerPorId(uno.getId()).orElseThrow().getStock());
+        assertEquals(5, productoService.obtenerPorId(dos.getId()).orElseThrow().getStock());
+        assertEquals(7, productoService.obtenerPorId(tres.getId()).orElseThrow().getStock());
+    }
+}
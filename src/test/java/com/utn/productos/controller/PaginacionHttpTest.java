@@ -0,0 +1,183 @@
+package com.utn.productos.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.utn.productos.model.Categoria;
+import com.utn.productos.model.Producto;
+import com.utn.productos.service.ProductoService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class PaginacionHttpTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Productos con un prefijo de nombre propio, para filtrarlos con nombre=
+    private List<Producto> crear(String prefijo, double... precios) {
+        List<Producto> creados = new ArrayList<>();
+        for (int i = 0; i < precios.length; i++) {
+            creados.add(productoService.crearProducto(new Producto(null, prefijo + " " + i, null, precios[i], 1,
+                    Categoria.HOGAR)));
+        }
+        return creados;
+    }
+
+    private static String prefijo() {
+        return "Paginado" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    // Recorre todas las páginas siguiendo X-Next-Cursor; devuelve los ids en el orden recibido
+    private List<Long> recorrer(String nombre, String sort, int limite) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            var pedido = get("/api/productos").param("nombre", nombre).param("limit", String.valueOf(limite));
+            if (sort != null) {
+                pedido.param("sort", sort);
+            }
+            if (cursor != null) {
+                pedido.param("after", cursor);
+            }
+            MvcResult resultado = mockMvc.perform(pedido).andExpect(status().isOk()).andReturn();
+            JsonNode pagina = objectMapper.readTree(resultado.getResponse().getContentAsString());
+            pagina.forEach(producto -> ids.add(producto.get("id").asLong()));
+            cursor = resultado.getResponse().getHeader(ProductoController.HEADER_SIGUIENTE_CURSOR);
+            if (cursor == null) {
+                // Última página: sin cursor ni Link
+                assertNull(resultado.getResponse().getHeader("Link"));
+                assertTrue(pagina.size() <= limite);
+            } else {
+                assertEquals(limite, pagina.size());
+                assertTrue(resultado.getResponse().getHeader("Link").contains("rel=\"next\""));
+            }
+        } while (cursor != null);
+        return ids;
+    }
+
+    @Test
+    void elCursorRecorreTodasLasPaginasSinRepetirNiSaltear() throws Exception {
+        String prefijo = prefijo();
+        List<Producto> creados = crear(prefijo, 30, 10, 20, 10, 50);
+
+        assertEquals(creados.stream().map(Producto::getId).toList(), recorrer(prefijo, null, 2));
+        // Con otro orden el cursor lleva la clave completa (precio repetido: desempata el nombre y el id)
+        List<Long> porPrecio = creados.stream()
+                .sorted(Comparator.comparing(Producto::getPrecio).reversed().thenComparing(Producto::getNombre))
+                .map(Producto::getId)
+                .toList();
+        assertEquals(porPrecio, recorrer(prefijo, "-precio,nombre", 2));
+        // Si la última página queda llena no lleva cursor (se pide una fila de más para saberlo)
+        assertEquals(creados.stream().map(Producto::getId).toList(), recorrer(prefijo, null, 5));
+    }
+
+    @Test
+    void unCursorInvalidoResponde400() throws Exception {
+        String prefijo = prefijo();
+        crear(prefijo, 1, 2, 3);
+        String porId = mockMvc.perform(get("/api/productos").param("nombre", prefijo).param("limit", "1"))
+                .andReturn().getResponse().getHeader(ProductoController.HEADER_SIGUIENTE_CURSOR);
+
+        List<String> invalidos = List.of(
+                "%%no-es-base64%%",
+                Base64.getUrlEncoder().encodeToString("id:abc".getBytes(StandardCharsets.UTF_8)),
+                Base64.getUrlEncoder().encodeToString("otro:1".getBytes(StandardCharsets.UTF_8)));
+        for (String cursor : invalidos) {
+            mockMvc.perform(get("/api/productos").param("after", cursor))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.status").value(400));
+        }
+        // Un cursor sólo vale para el orden con el que se generó
+        mockMvc.perform(get("/api/productos").param("after", porId).param("sort", "-precio"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/productos").param("nombre", prefijo).param("after", porId))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void elStreamingNdjsonEsUnObjetoPorLineaYNoTieneTimeout() throws Exception {
+        String prefijo = prefijo();
+        Producto creado = crear(prefijo, 42).get(0);
+
+        MvcResult inicio = mockMvc.perform(get("/api/productos").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertTrue(inicio.getRequest().getAsyncContext().getTimeout() <= 0, "El export tiene timeout");
+
+        String cuerpo = mockMvc.perform(asyncDispatch(inicio))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        assertTrue(cuerpo.endsWith("\n"));
+        boolean encontrado = false;
+        for (String linea : cuerpo.substring(0, cuerpo.length() - 1).split("\n", -1)) {
+            assertFalse(linea.isBlank(), "Línea vacía en el NDJSON");
+            JsonNode producto = objectMapper.readTree(linea);
+            assertTrue(producto.isObject());
+            if (producto.get("id").asLong() == creado.getId()) {
+                encontrado = true;
+                assertEquals(creado.getNombre(), producto.get("nombre").asText());
+                assertEquals(42.0, producto.get("precio").asDouble());
+            }
+        }
+        assertTrue(encontrado);
+    }
+
+    @Test
+    void laExportacionNdjsonEsIgualAlStreamingYTerminaCadaLinea() throws Exception {
+        crear(prefijo(), 7);
+        String streaming = descargar(get("/api/productos").accept(MediaType.APPLICATION_NDJSON));
+        String exportado = descargar(get("/api/productos/export"));
+
+        assertTrue(exportado.endsWith("\n"), "La última línea del export no termina en salto de línea");
+        assertEquals(streaming, exportado);
+    }
+
+    private String descargar(MockHttpServletRequestBuilder pedido) throws Exception {
+        MvcResult inicio = mockMvc.perform(pedido).andExpect(request().asyncStarted()).andReturn();
+        return mockMvc.perform(asyncDispatch(inicio))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void laExportacionCsvTampocoTieneTimeout() throws Exception {
+        MvcResult inicio = mockMvc.perform(get("/api/productos/export").param("formato", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertTrue(inicio.getRequest().getAsyncContext().getTimeout() <= 0, "El export CSV tiene timeout");
+        mockMvc.perform(asyncDispatch(inicio)).andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,147 @@
+package com.utn.productos.controller;
+
+import com.utn.productos.model.Categoria;
+import com.utn.productos.model.Producto;
+import com.utn.productos.service.ProductoCache;
+import com.utn.productos.service.ProductoService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Base propia: el spy arma otro contexto y su create-drop reiniciaría la secuencia de la base compartida
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:precondiciones")
+@AutoConfigureMockMvc
+class PrecondicionesHttpTest {
+
+    private static final Pattern ETAG_CATEGORIA = Pattern.compile("\"c(\\d+)-(\\d+)\"");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Real: sólo se intercepta en el test de conflicto
+    @MockitoSpyBean
+    private ProductoCache productoCache;
+
+    private Producto crear(Categoria categoria) {
+        return productoService.crearProducto(new Producto(null, "Precondiciones " + UUID.randomUUID(),
+                null, 10.0, 5, categoria));
+    }
+
+    private static String cuerpo(String nombre, Categoria categoria) {
+        return "{\"nombre\":\"" + nombre + "\",\"precio\":11.0,\"stock\":5,\"categoria\":\"" + categoria + "\"}";
+    }
+
+    private String etag(String url) throws Exception {
+        return mockMvc.perform(get(url)).andExpect(status().isOk()).andReturn().getResponse()
+                .getHeader(HttpHeaders.ETAG);
+    }
+
+    @Test
+    void conIfNoneMatchVigenteRespondeNoModificado() throws Exception {
+        Producto producto = crear(Categoria.HOGAR);
+        String url = "/api/productos/" + producto.getId();
+        String etag = etag(url);
+        assertEquals(ETags.producto(producto.getId(), producto.getVersion()), etag);
+
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+
+        mockMvc.perform(put(url).contentType(MediaType.APPLICATION_JSON).content(cuerpo("Nuevo", Categoria.HOGAR)))
+                .andExpect(status().isOk());
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nombre").value("Nuevo"));
+    }
+
+    @Test
+    void conIfMatchViejoOIlegibleRespondePrecondicionFallida() throws Exception {
+        Producto producto = crear(Categoria.HOGAR);
+        String url = "/api/productos/" + producto.getId();
+        String etag = etag(url);
+
+        String nuevo = mockMvc.perform(put(url).header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON).content(cuerpo("Primero", Categoria.HOGAR)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, nuevo);
+
+        for (String ifMatch : new String[]{etag, "no-es-un-etag", "\"" + producto.getId() + "-x\"", "W/" + nuevo}) {
+            mockMvc.perform(put(url).header(HttpHeaders.IF_MATCH, ifMatch)
+                            .contentType(MediaType.APPLICATION_JSON).content(cuerpo("Pisado", Categoria.HOGAR)))
+                    .andExpect(status().isPreconditionFailed());
+        }
+        mockMvc.perform(get(url)).andExpect(jsonPath("$.nombre").value("Primero"));
+
+        // "*" y la lista que incluye el vigente sí pasan
+        mockMvc.perform(put(url).header(HttpHeaders.IF_MATCH, "\"otro\", " + nuevo)
+                        .contentType(MediaType.APPLICATION_JSON).content(cuerpo("Segundo", Categoria.HOGAR)))
+                .andExpect(status().isOk());
+        mockMvc.perform(put(url).header(HttpHeaders.IF_MATCH, "*")
+                        .contentType(MediaType.APPLICATION_JSON).content(cuerpo("Tercero", Categoria.HOGAR)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void unaModificacionConcurrenteRespondeConflicto() throws Exception {
+        Producto producto = crear(Categoria.DEPORTES);
+        String url = "/api/productos/" + producto.getId();
+        // Otra transacción confirma un cambio entre la lectura y el guardado del PUT
+        doAnswer(invocacion -> {
+            jdbcTemplate.update("update producto set version = version + 1 where id = ?", producto.getId());
+            return invocacion.callRealMethod();
+        }).when(productoCache).invalidarCategoria(any());
+
+        mockMvc.perform(put(url).contentType(MediaType.APPLICATION_JSON).content(cuerpo("Perdido", Categoria.DEPORTES)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status").value(409));
+        assertEquals(producto.getNombre(), productoService.obtenerPorId(producto.getId()).orElseThrow().getNombre());
+    }
+
+    @Test
+    void elEtagDeCategoriaEsArranqueYContador() throws Exception {
+        String url = "/api/productos/categoria/ROPA";
+        String etag = etag(url);
+        Matcher anterior = ETAG_CATEGORIA.matcher(etag);
+        assertTrue(anterior.matches(), etag);
+
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        crear(Categoria.ROPA);
+        String nuevo = mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        Matcher actual = ETAG_CATEGORIA.matcher(nuevo);
+        assertTrue(actual.matches(), nuevo);
+        assertEquals(anterior.group(1), actual.group(1));
+        assertTrue(Long.parseLong(actual.group(2)) > Long.parseLong(anterior.group(2)));
+    }
+}
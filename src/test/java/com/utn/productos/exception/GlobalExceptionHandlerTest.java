@@ -0,0 +1,100 @@
+package com.utn.productos.exception;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.HttpRequestMethodNotSupportedException;
+import org.springframework.web.servlet.resource.NoResourceFoundException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GlobalExceptionHandlerTest {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Test
+    void elProductoInexistenteSeEscribeComoUnErrorResponse() throws Exception {
+        ProductoNotFoundException ex = new ProductoNotFoundException(42L);
+        assertEquals(0, ex.getStackTrace().length);
+
+        // Una ruta con comillas y barras tiene que seguir siendo JSON válido
+        MockHttpServletRequest request = new MockHttpServletRequest("DELETE", "/api/productos/42\"\\x");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertNull(handler.handleProductoNotFoundException(ex, request, response));
+
+        assertEquals(404, response.getStatus());
+        assertEquals("application/json", response.getContentType());
+        assertEquals(response.getContentAsByteArray().length, response.getContentLength());
+        ErrorResponse error = objectMapper.readValue(response.getContentAsByteArray(), ErrorResponse.class);
+        assertEquals(404, error.getStatus());
+        assertEquals("Producto no encontrado con id: 42", error.getError());
+        assertEquals("/api/productos/42\"\\x", error.getPath());
+        assertNotNull(error.getTimestamp());
+    }
+
+    @Test
+    void sinUnFormatoQuePuedaEscribirElCuerpoSeRespondeSoloElEstado() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/productos/7");
+        request.addHeader("Accept", "application/x-protobuf");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        ResponseEntity<ErrorResponse> respuesta =
+                handler.handleProductoNotFoundException(new ProductoNotFoundException(7L), request, response);
+
+        assertEquals(HttpStatus.NOT_FOUND, respuesta.getStatusCode());
+        assertNull(respuesta.getBody());
+        assertEquals(0, response.getContentLength());
+    }
+
+    @Test
+    void conLaRespuestaYaComprometidaNoSeEscribeNada() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/productos");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.getOutputStream().write("{\"id\":1}\n".getBytes());
+        response.flushBuffer();
+
+        assertNull(handler.handleGlobalException(new IllegalStateException("falla"), request, response));
+        assertEquals(200, response.getStatus());
+        assertEquals("{\"id\":1}\n", response.getContentAsString());
+    }
+
+    @Test
+    void sinJsonEnAcceptSeNegociaComoAntes() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/productos/7");
+        request.addHeader("Accept", "application/cbor");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        ResponseEntity<ErrorResponse> respuesta =
+                handler.handleProductoNotFoundException(new ProductoNotFoundException(7L), request, response);
+
+        assertEquals(HttpStatus.NOT_FOUND, respuesta.getStatusCode());
+        assertEquals("Producto no encontrado con id: 7", respuesta.getBody().getError());
+        assertEquals(0, response.getContentLength());
+    }
+
+    @Test
+    void lasExcepcionesDeSpringMvcConservanSuEstado() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/wp-login.php");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        handler.handleGlobalException(new NoResourceFoundException(HttpMethod.GET, "wp-login.php"), request, response);
+        assertEquals(404, response.getStatus());
+
+        response = new MockHttpServletResponse();
+        handler.handleGlobalException(new HttpRequestMethodNotSupportedException("PATCH", List.of("GET")),
+                request, response);
+        assertEquals(405, response.getStatus());
+        assertEquals("GET", response.getHeader("Allow"));
+        assertTrue(objectMapper.readTree(response.getContentAsByteArray()).get("error").asText().contains("PATCH"));
+    }
+}
@@ -0,0 +1,100 @@
+package com.utn.productos.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CargasCompartidasTest {
+
+    private static final int HILOS = 8;
+
+    @Test
+    void lasCargasConcurrentesDeUnaClaveSeHacenUnaSolaVez() throws Exception {
+        AtomicInteger cargas = new AtomicInteger();
+        AtomicInteger compartidas = new AtomicInteger();
+        CargasCompartidas<Long, String> cargasCompartidas =
+                new CargasCompartidas<>(compartida -> (compartida ? compartidas : cargas).incrementAndGet());
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        try {
+            List<Future<String>> resultados = new ArrayList<>();
+            for (int i = 0; i < HILOS; i++) {
+                resultados.add(executor.submit(() -> cargasCompartidas.cargar(7L, clave -> {
+                    // La carga no termina hasta que todos los hilos se sumaron a ella
+                    try {
+                        liberar.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return "producto " + clave;
+                })));
+            }
+            while (cargas.get() + compartidas.get() < HILOS) {
+                Thread.sleep(1);
+            }
+            liberar.countDown();
+            for (Future<String> resultado : resultados) {
+                assertEquals("producto 7", resultado.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, cargas.get());
+        assertEquals(HILOS - 1, compartidas.get());
+
+        // Terminada la carga, la clave no queda guardada y los errores llegan a quien la pidió
+        assertThrows(IllegalStateException.class, () -> cargasCompartidas.cargar(7L, clave -> {
+            throw new IllegalStateException("base caída");
+        }));
+        assertEquals(2, cargas.get());
+    }
+
+    @Test
+    void losPedidosDeClavesDistintasDentroDeLaVentanaVanEnUnaConsulta() throws Exception {
+        List<Set<Long>> consultas = new CopyOnWriteArrayList<>();
+        LotesDeCarga<Long, String> lotes = new LotesDeCarga<>(ids -> {
+            consultas.add(Set.copyOf(ids));
+            Map<Long, String> encontrados = new HashMap<>();
+            ids.stream().filter(id -> id % 2 == 0).forEach(id -> encontrados.put(id, "producto " + id));
+            return encontrados;
+        }, TimeUnit.SECONDS.toNanos(5), HILOS, tamanio -> { });
+
+        // El lote se despacha al llenarse, sin esperar los 5 segundos de ventana
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        try {
+            List<Future<String>> resultados = new ArrayList<>();
+            for (long id = 0; id < HILOS; id++) {
+                long clave = id;
+                resultados.add(executor.submit(() -> lotes.obtener(clave)));
+            }
+            for (int id = 0; id < HILOS; id++) {
+                String resultado = resultados.get(id).get(3, TimeUnit.SECONDS);
+                if (id % 2 == 0) {
+                    assertEquals("producto " + id, resultado);
+                } else {
+                    assertNull(resultado);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, consultas.size());
+        assertEquals(HILOS, consultas.get(0).size());
+    }
+}
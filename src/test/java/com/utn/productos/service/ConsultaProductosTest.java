@@ -0,0 +1,106 @@
+package com.utn.productos.service;
+
+import com.utn.productos.dto.ProductoResponseDTO;
+import com.utn.productos.dto.ProyeccionProductoDTO;
+import com.utn.productos.model.Categoria;
+import com.utn.productos.model.Producto;
+import com.utn.productos.repository.ConsultaProductos;
+import com.utn.productos.repository.ConsultaProductos.Campo;
+import com.utn.productos.repository.ConsultaProductos.Orden;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ConsultaProductosTest {
+
+    // Prefijo propio de cada test para no depender de los productos que crean los demás sobre la misma base
+    private final String prefijo = "Consulta_%" + UUID.randomUUID().toString().substring(0, 8) + "-";
+
+    @Autowired
+    private ProductoService productoService;
+
+    private final List<Producto> creados = new ArrayList<>();
+
+    @BeforeEach
+    void crearProductos() {
+        Categoria[] categorias = {Categoria.HOGAR, Categoria.ROPA, Categoria.DEPORTES};
+        for (int i = 0; i < 30; i++) {
+            // Precios repetidos de a tres para que el orden dependa también del desempate
+            creados.add(productoService.crearProducto(new Producto(null, prefijo + i, "Descripción " + i,
+                    10.0 + (i / 3), i % 4 == 0 ? 0 : i, categorias[i % 3])));
+        }
+        // No coincide con el prefijo: el _ y el % se toman literalmente
+        productoService.crearProducto(new Producto(null, prefijo.replace("_%", "X"), null, 15.0, 5, Categoria.HOGAR));
+    }
+
+    private ConsultaProductos consulta(Set<Categoria> categorias, Double precioMin, Double precioMax,
+                                       boolean soloConStock, List<Orden> orden, Set<Campo> campos) {
+        return new ConsultaProductos(categorias, precioMin, precioMax, soloConStock, prefijo.toLowerCase(), orden,
+                campos);
+    }
+
+    // Recorre todas las páginas siguiendo la clave de la última fila
+    private List<ProductoResponseDTO> todasLasPaginas(ConsultaProductos consulta, int limite) {
+        List<ProductoResponseDTO> resultado = new ArrayList<>();
+        List<Object> despues = null;
+        do {
+            ProductoService.PaginaProductos pagina = productoService.consultar(consulta, despues, limite);
+            assertTrue(pagina.productos().size() <= limite);
+            resultado.addAll(pagina.productos());
+            despues = pagina.siguiente();
+        } while (despues != null);
+        return resultado;
+    }
+
+    @Test
+    void filtraYOrdenaEnLaBaseRecorriendoPorClave() {
+        ConsultaProductos consulta = consulta(EnumSet.of(Categoria.HOGAR, Categoria.ROPA), 11.0, 17.0, true,
+                List.of(new Orden(Campo.PRECIO, true), new Orden(Campo.NOMBRE, false)), null);
+
+        List<ProductoResponseDTO> obtenidos = todasLasPaginas(consulta, 4);
+
+        List<String> esperados = creados.stream()
+                .filter(p -> p.getCategoria() != Categoria.DEPORTES)
+                .filter(p -> p.getPrecio() >= 11.0 && p.getPrecio() <= 17.0 && p.getStock() > 0)
+                .sorted(Comparator.comparing(Producto::getPrecio).reversed().thenComparing(Producto::getNombre))
+                .map(Producto::getNombre)
+                .toList();
+        assertEquals(esperados, obtenidos.stream().map(ProductoResponseDTO::getNombre).toList());
+        assertEquals(esperados.size(), productoService.contar(consulta));
+    }
+
+    @Test
+    void laProyeccionDevuelveSoloLosCamposPedidos() {
+        ConsultaProductos consulta = consulta(null, null, null, false,
+                List.of(new Orden(Campo.STOCK, false)), EnumSet.of(Campo.NOMBRE, Campo.PRECIO));
+
+        List<ProductoResponseDTO> obtenidos = todasLasPaginas(consulta, 7);
+
+        assertEquals(30, obtenidos.size());
+        assertEquals(30, productoService.contar(consulta));
+        for (ProductoResponseDTO producto : obtenidos) {
+            assertInstanceOf(ProyeccionProductoDTO.class, producto);
+            assertTrue(producto.getNombre().startsWith(prefijo));
+            assertTrue(producto.getPrecio() >= 10.0);
+            // El id y el stock se leen para paginar y ordenar, pero no se devuelven
+            assertNull(producto.getId());
+            assertNull(producto.getStock());
+            assertNull(producto.getDescripcion());
+            assertNull(producto.getCategoria());
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.utn.productos.service;
+
+import com.utn.productos.exception.StockExcedidoException;
+import com.utn.productos.exception.StockInsuficienteException;
+import com.utn.productos.model.Categoria;
+import com.utn.productos.model.Producto;
+import com.utn.productos.repository.ProductoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+// Base propia: el spy arma otro contexto y su create-drop reiniciaría la secuencia de la base compartida
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:contadores-stock",
+        "productos.stock.write-behind.habilitado=true",
+        "productos.stock.write-behind.intervalo=50ms"
+})
+class ContadoresStockTest {
+
+    private static final int HILOS = 64;
+    private static final int INTENTOS_POR_HILO = 50;
+    private static final int STOCK_INICIAL = 1000;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    // Real: sólo se intercepta para frenar un PUT dentro de su transacción
+    @MockitoSpyBean
+    private IndiceBusqueda indiceBusqueda;
+
+    @DynamicPropertySource
+    static void directorios(DynamicPropertyRegistry registry) throws Exception {
+        // Diario y registro de cambios propios: este contexto convive con el de los demás tests
+        registry.add("productos.stock.write-behind.diario", () -> crearDirectorio("stock-diario"));
+        registry.add("productos.cambios.directorio", () -> crearDirectorio("cambios"));
+    }
+
+    private static String crearDirectorio(String prefijo) {
+        try {
+            return Files.createTempDirectory(prefijo).toString();
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    @Test
+    void reservarConcurrenteNoSobrevendeYSeVuelcaALaBase() throws Exception {
+        Long id = productoRepository.save(
+                new Producto(null, "Producto en oferta", null, 10.0, STOCK_INICIAL, Categoria.ELECTRONICA)).getId();
+
+        AtomicInteger reservasExitosas = new AtomicInteger();
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        try {
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int i = 0; i < HILOS; i++) {
+                tareas.add(executor.submit(() -> {
+                    largada.await();
+                    for (int j = 0; j < INTENTOS_POR_HILO; j++) {
+                        try {
+                            productoService.reservarStock(id, 1);
+                            reservasExitosas.incrementAndGet();
+                        } catch (StockInsuficienteException ex) {
+                            // esperado una vez agotado el stock
+                        }
+                    }
+                    return null;
+                }));
+            }
+            largada.countDown();
+            for (Future<?> tarea : tareas) {
+                tarea.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(STOCK_INICIAL, reservasExitosas.get());
+        assertThrows(StockInsuficienteException.class, () -> productoService.reservarStock(id, 1));
+        assertEquals(0, esperarStockEnBase(id, 0));
+    }
+
+    @Test
+    void unPutFijaElStockDelContador() throws Exception {
+        Long id = productoRepository.save(
+                new Producto(null, "Producto editado", null, 5.0, 10, Categoria.HOGAR)).getId();
+
+        assertEquals(7, productoService.reservarStock(id, 3).getStock());
+        productoService.actualizarProducto(id,
+                new Producto(null, "Producto editado", null, 5.0, 50, Categoria.HOGAR), null);
+
+        assertEquals(49, productoService.reservarStock(id, 1).getStock());
+        assertEquals(49, esperarStockEnBase(id, 49));
+    }
+
+    @Test
+    void unaReservaDuranteUnPutSeAplicaSobreElStockNuevo() throws Exception {
+        Long id = productoRepository.save(
+                new Producto(null, "Producto en disputa", null, 5.0, 10, Categoria.HOGAR)).getId();
+        assertEquals(9, productoService.reservarStock(id, 1).getStock());
+
+        CountDownLatch enTransaccion = new CountDownLatch(1);
+        CountDownLatch seguir = new CountDownLatch(1);
+        doAnswer(invocacion -> {
+            enTransaccion.countDown();
+            seguir.await(5, TimeUnit.SECONDS);
+            return invocacion.callRealMethod();
+        }).when(indiceBusqueda).indexar(any());
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Producto> put = executor.submit(() -> productoService.actualizarProducto(id,
+                    new Producto(null, "Producto en disputa", null, 5.0, 50, Categoria.HOGAR), null));
+            assertTrue(enTransaccion.await(5, TimeUnit.SECONDS));
+            Future<Producto> reserva = executor.submit(() -> productoService.reservarStock(id, 1));
+            // La reserva espera a que el PUT confirme y fije el contador: no se acepta contra el stock anterior
+            assertThrows(TimeoutException.class, () -> reserva.get(200, TimeUnit.MILLISECONDS));
+            seguir.countDown();
+            assertEquals(50, put.get(5, TimeUnit.SECONDS).getStock());
+            assertEquals(49, reserva.get(5, TimeUnit.SECONDS).getStock());
+        } finally {
+            seguir.countDown();
+            executor.shutdownNow();
+        }
+        assertEquals(49, productoService.obtenerPorId(id).orElseThrow().getStock());
+        assertEquals(49, esperarStockEnBase(id, 49));
+    }
+
+    @Test
+    void laLecturaPorIdTomaElStockDelContador() {
+        Long id = productoRepository.save(
+                new Producto(null, "Producto leído", null, 5.0, 10, Categoria.ROPA)).getId();
+        // Queda en la caché con el stock de la base
+        assertEquals(10, productoService.obtenerPorId(id).orElseThrow().getStock());
+
+        productoService.reservarStock(id, 3);
+        assertEquals(7, productoService.obtenerPorId(id).orElseThrow().getStock());
+        assertTrue(productoService.obtenerPorCategoria(Categoria.ROPA).stream()
+                .anyMatch(p -> p.getId().equals(id) && p.getStock() == 7));
+    }
+
+    @Test
+    void liberarPorEncimaDelMaximoLanzaExcepcion() {
+        Long id = productoRepository.save(
+                new Producto(null, "Producto colmado", null, 5.0, Integer.MAX_VALUE - 1, Categoria.HOGAR)).getId();
+
+        assertThrows(StockExcedidoException.class, () -> productoService.liberarStock(id, 2));
+        assertEquals(Integer.MAX_VALUE, productoService.liberarStock(id, 1).getStock());
+    }
+
+    // El volcado es asíncrono: se espera hasta que la base refleje el valor (o se agote el plazo)
+    private int esperarStockEnBase(Long id, int esperado) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        int stock;
+        do {
+            stock = productoRepository.findById(id).orElseThrow().getStock();
+            if (stock == esperado) {
+                break;
+            }
+            Thread.sleep(20);
+        } while (System.nanoTime() < limite);
+        return stock;
+    }
+}
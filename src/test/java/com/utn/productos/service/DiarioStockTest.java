@@ -0,0 +1,63 @@
+package com.utn.productos.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DiarioStockTest {
+
+    @TempDir
+    Path directorio;
+
+    private void registrar(DiarioStock diario, long id, long valor) {
+        DiarioStock.Epoca epoca = diario.entrar();
+        try {
+            diario.registrar(epoca, id, valor, () -> {
+            });
+        } finally {
+            diario.salir(epoca);
+        }
+    }
+
+    @Test
+    void trasUnaCaidaSeRecuperaElUltimoValorDeCadaProducto() throws Exception {
+        DiarioStock diario = new DiarioStock(directorio, 4096);
+        diario.leerPendientes();
+        diario.iniciar();
+        registrar(diario, 1, 10);
+        registrar(diario, 2, 5);
+        DiarioStock.Epoca volcada = diario.rotar();
+        registrar(diario, 1, 9);
+        registrar(diario, 1, 8);
+        // Sin liberarHasta: el volcado nunca confirmó
+
+        Map<Long, Long> pendientes = new DiarioStock(directorio, 4096).leerPendientes();
+        assertEquals(Map.of(1L, 8L, 2L, 5L), pendientes);
+
+        diario.liberarHasta(volcada);
+        assertEquals(Map.of(1L, 8L), new DiarioStock(directorio, 4096).leerPendientes());
+    }
+
+    @Test
+    void alIniciarSeDescartanLasEpocasReaplicadas() throws Exception {
+        DiarioStock diario = new DiarioStock(directorio, 4096);
+        diario.leerPendientes();
+        diario.iniciar();
+        registrar(diario, 1, 3);
+
+        DiarioStock reiniciado = new DiarioStock(directorio, 4096);
+        assertEquals(Map.of(1L, 3L), reiniciado.leerPendientes());
+        reiniciado.iniciar();
+        assertTrue(reiniciado.leerPendientes().isEmpty());
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            assertEquals(1, archivos.count());
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.utn.productos.service;
+
+import com.utn.productos.controller.ImportacionController;
+import com.utn.productos.dto.ResultadoImportacionDTO;
+import com.utn.productos.dto.ResultadoItemLoteDTO;
+import com.utn.productos.exception.ImportacionInvalidaException;
+import com.utn.productos.model.Categoria;
+import com.utn.productos.model.Producto;
+import com.utn.productos.repository.ProductoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ImportacionProductosTest {
+
+    @Autowired
+    private ImportacionProductos importacionProductos;
+
+    @Autowired
+    private ImportacionController importacionController;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    private ResultadoImportacionDTO importar(String cuerpo, ImportacionProductos.Formato formato) throws IOException {
+        return importacionProductos.importar(
+                new ByteArrayInputStream(cuerpo.getBytes(StandardCharsets.UTF_8)), formato);
+    }
+
+    @Test
+    void importaCsvValidandoCadaFilaYRespetandoLasComillas() throws Exception {
+        String csv = """
+                nombre,descripcion,precio,stock,categoria\r
+                Lámpara importada,"Con coma, y
+                salto de línea",1500.5,10,HOGAR\r
+                Remera importada,,2500,3,ROPA
+                
+                X,nombre corto,10,1,ROPA
+                Pelota importada,,no-es-un-número,1,DEPORTES
+                Arroz importado,,900,5,ALIMENTOS
+                Mesa importada,,-1,2,HOGAR
+                Silla importada,,800,4,HOGAR
+                """;
+
+        ResultadoImportacionDTO resultado = importar(csv, ImportacionProductos.Formato.CSV);
+
+        assertEquals(7, resultado.getProcesados());
+        assertEquals(4, resultado.getCreados());
+        assertEquals(3, resultado.getFallidos());
+        assertEquals(List.of(2, 3, 5), resultado.getErrores().stream().map(ResultadoItemLoteDTO::getIndice).toList());
+        assertTrue(resultado.getErrores().get(0).getErrores().containsKey("nombre"));
+        assertTrue(resultado.getErrores().get(1).getErrores().containsKey("csv"));
+        assertTrue(resultado.getErrores().get(2).getErrores().containsKey("precio"));
+
+        Producto lampara = productoRepository.findAll().stream()
+                .filter(p -> p.getNombre().equals("Lámpara importada"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals("Con coma, y\nsalto de línea", lampara.getDescripcion());
+        assertEquals(Categoria.HOGAR, lampara.getCategoria());
+    }
+
+    @Test
+    void importaNdjsonCreandoYActualizando() throws Exception {
+        Long id = productoRepository.save(
+                new Producto(null, "Producto original", null, 10.0, 1, Categoria.ELECTRONICA)).getId();
+        String ndjson = """
+                {"id":%d,"nombre":"Producto renombrado","precio":12.0,"stock":7,"categoria":"ELECTRONICA"}
+                {"nombre":"Producto nuevo","precio":5.0,"stock":1,"categoria":"DEPORTES"}
+                {"id":999999999,"nombre":"Producto inexistente","precio":5.0,"stock":1,"categoria":"DEPORTES"}
+                {"nombre":
+                """.formatted(id);
+
+        ResultadoImportacionDTO resultado = importar(ndjson, ImportacionProductos.Formato.NDJSON);
+
+        assertEquals(4, resultado.getProcesados());
+        assertEquals(1, resultado.getCreados());
+        assertEquals(1, resultado.getActualizados());
+        assertEquals(List.of(2, 3), resultado.getErrores().stream().map(ResultadoItemLoteDTO::getIndice).toList());
+        assertEquals("Producto renombrado", productoRepository.findById(id).orElseThrow().getNombre());
+    }
+
+    @Test
+    void loExportadoEnCsvSeVuelveAImportarSinErrores() throws Exception {
+        importar("nombre,precio,stock,categoria\nYerba exportada,300,8,ALIMENTOS\n", ImportacionProductos.Formato.CSV);
+
+        ByteArrayOutputStream exportado = new ByteArrayOutputStream();
+        importacionController.exportar("csv").getBody().writeTo(exportado);
+        long productos = productoRepository.count();
+
+        ResultadoImportacionDTO resultado = importar(exportado.toString(StandardCharsets.UTF_8),
+                ImportacionProductos.Formato.CSV);
+
+        assertEquals(productos, resultado.getProcesados());
+        assertEquals(productos, resultado.getActualizados());
+        assertEquals(0, resultado.getFallidos());
+        assertEquals(productos, productoRepository.count());
+    }
+
+    @Test
+    void rechazaUnCsvConColumnasDesconocidas() {
+        assertThrows(ImportacionInvalidaException.class,
+                () -> importar("nombre,color\nLámpara,rojo\n", ImportacionProductos.Formato.CSV));
+    }
+}
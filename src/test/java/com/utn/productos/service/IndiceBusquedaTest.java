@@ -0,0 +1,217 @@
+package com.utn.productos.service;
+
+import com.utn.productos.exception.IndiceEnConstruccionException;
+import com.utn.productos.model.Categoria;
+import com.utn.productos.repository.ProductoRepository;
+import com.utn.productos.service.IndiceBusqueda.Documento;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IndiceBusquedaTest {
+
+    @Test
+    void tokenizaSinTildesNiMayusculas() {
+        assertEquals(List.of("cafe", "con", "leche", "nandu", "2x"),
+                List.copyOf(IndiceBusqueda.tokenizar("Café  con-Leche, ÑANDÚ 2x")));
+        assertTrue(IndiceBusqueda.tokenizar("  ").isEmpty());
+        assertTrue(IndiceBusqueda.tokenizar(null).isEmpty());
+    }
+
+    @Test
+    void buscaPorPalabraOPrefijoSinImportarTildesNiMayusculas() {
+        IndiceBusqueda indice = indice(
+                new Documento(1L, "Cafetera eléctrica", null, Categoria.HOGAR, 50.0),
+                new Documento(2L, "Teclado mecánico", "Switches táctiles", Categoria.ELECTRONICA, 80.0),
+                new Documento(3L, "Teclado de membrana", null, Categoria.ELECTRONICA, 20.0));
+
+        assertEquals(List.of(1L), indice.buscar("ELECTRICA", null, null, null, 10));
+        assertEquals(List.of(1L), indice.buscar("eléc", null, null, null, 10));
+        assertEquals(List.of(2L, 3L), indice.buscar("tecl", null, null, null, 10));
+        // Todos los términos tienen que estar
+        assertEquals(List.of(2L), indice.buscar("teclado MECA", null, null, null, 10));
+        assertEquals(List.of(), indice.buscar("teclado inalambrico", null, null, null, 10));
+        assertEquals(List.of(), indice.buscar(" ,; ", null, null, null, 10));
+    }
+
+    @Test
+    void ordenaPorRelevancia() {
+        IndiceBusqueda indice = indice(
+                new Documento(1L, "Mesada de cocina", null, Categoria.HOGAR, 100.0),
+                new Documento(2L, "Mesa ratona", null, Categoria.HOGAR, 100.0),
+                new Documento(3L, "Lámpara", "Ideal para la mesa de luz", Categoria.HOGAR, 100.0),
+                new Documento(4L, "Mantel", "Para mesa", Categoria.HOGAR, 100.0));
+
+        // Palabra completa antes que prefijo; nombre antes que descripción; a igual puntaje, por id
+        assertEquals(List.of(2L, 1L, 3L, 4L), indice.buscar("mesa", null, null, null, 10));
+        assertEquals(List.of(2L, 1L), indice.buscar("mesa", null, null, null, 2));
+    }
+
+    @Test
+    void filtraPorCategoriaYPrecio() {
+        IndiceBusqueda indice = indice(
+                new Documento(1L, "Pelota de fútbol", null, Categoria.DEPORTES, 30.0),
+                new Documento(2L, "Pelota antiestrés", null, Categoria.HOGAR, 5.0),
+                new Documento(3L, "Pelota de tenis", null, Categoria.DEPORTES, 10.0),
+                new Documento(4L, "Pelota sin precio", null, Categoria.DEPORTES, null));
+
+        assertEquals(List.of(1L, 3L, 4L), indice.buscar("pelota", Categoria.DEPORTES, null, null, 10));
+        assertEquals(List.of(2L, 3L), indice.buscar("pelota", null, null, 10.0, 10));
+        assertEquals(List.of(1L, 3L), indice.buscar("pelota", Categoria.DEPORTES, 10.0, null, 10));
+        assertEquals(List.of(3L), indice.buscar("pelota", Categoria.DEPORTES, 10.0, 10.0, 10));
+        assertEquals(List.of(), indice.buscar("pelota", Categoria.ROPA, null, null, 10));
+    }
+
+    @Test
+    void reflejaModificacionesYBajas() {
+        IndiceBusqueda indice = indice(
+                new Documento(1L, "Silla plegable", null, Categoria.HOGAR, 40.0),
+                new Documento(2L, "Silla gamer", null, Categoria.ELECTRONICA, 300.0));
+
+        indice.indexar(new Documento(1L, "Banqueta alta", null, Categoria.DEPORTES, 45.0));
+        assertEquals(List.of(2L), indice.buscar("silla", null, null, null, 10));
+        assertEquals(List.of(1L), indice.buscar("banqueta", Categoria.DEPORTES, null, null, 10));
+        assertEquals(List.of(), indice.buscar("banqueta", Categoria.HOGAR, null, null, 10));
+
+        indice.eliminar(2L);
+        assertEquals(List.of(), indice.buscar("silla", null, null, null, 10));
+        assertEquals(List.of(), indice.buscar("gamer", null, null, null, 10));
+    }
+
+    @Test
+    void losCambiosDuranteLaConstruccionSeAplicanAlTerminar() throws Exception {
+        Base base = new Base(
+                new Documento(1L, "Lámpara de pie", null, Categoria.HOGAR, 90.0),
+                new Documento(2L, "Mesa ratona", null, Categoria.HOGAR, 120.0));
+        IndiceBusqueda indice = base.indiceEnSegundoPlano(2);
+        indice.iniciar();
+        assertThrows(IndiceEnConstruccionException.class, () -> indice.buscar("mesa", null, null, null, 10));
+
+        // Varios cambios del mismo producto ocupan un solo lugar en la cola
+        for (String nombre : List.of("Lámpara de escritorio", "Velador azul", "Velador")) {
+            base.indexar(indice, new Documento(1L, nombre, null, Categoria.HOGAR, 90.0));
+        }
+        base.eliminar(indice, 2L);
+        base.liberar.countDown();
+
+        esperarDisponible(indice);
+        assertEquals(List.of(1L), indice.buscar("velador", null, null, null, 10));
+        assertEquals(List.of(), indice.buscar("lampara", null, null, null, 10));
+        assertEquals(List.of(), indice.buscar("mesa", null, null, null, 10));
+        assertEquals(1, base.lecturas.get());
+    }
+
+    @Test
+    void siLaColaSeLlenaSeVuelveALeerCompleto() throws Exception {
+        Base base = new Base(
+                new Documento(1L, "Lámpara de pie", null, Categoria.HOGAR, 90.0),
+                new Documento(2L, "Mesa ratona", null, Categoria.HOGAR, 120.0));
+        IndiceBusqueda indice = base.indiceEnSegundoPlano(1);
+        indice.iniciar();
+
+        base.eliminar(indice, 2L);
+        base.indexar(indice, new Documento(3L, "Silla", null, Categoria.HOGAR, 40.0));
+        base.indexar(indice, new Documento(4L, "Sillón", null, Categoria.HOGAR, 400.0));
+        base.liberar.countDown();
+
+        esperarDisponible(indice);
+        assertEquals(2, base.lecturas.get());
+        // La baja se descartó de la cola pero la segunda lectura partió de cero
+        assertEquals(List.of(), indice.buscar("mesa", null, null, null, 10));
+        assertEquals(List.of(3L, 4L), indice.buscar("sill", null, null, null, 10));
+        assertEquals(List.of(1L), indice.buscar("lampara", null, null, null, 10));
+    }
+
+    private static IndiceBusqueda indice(Documento... documentos) {
+        IndiceBusqueda indice = new IndiceBusqueda(null, null, false, 0);
+        for (Documento documento : documentos) {
+            indice.indexar(documento);
+        }
+        return indice;
+    }
+
+    private static void esperarDisponible(IndiceBusqueda indice) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (true) {
+            try {
+                indice.buscar("x", null, null, null, 1);
+                return;
+            } catch (IndiceEnConstruccionException ex) {
+                assertTrue(System.nanoTime() < limite, "El índice no terminó de construirse");
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    // Base simulada: la primera lectura toma los productos al empezar y no termina hasta que se libera,
+    // para confirmar cambios mientras el índice se construye
+    private static final class Base {
+
+        private final Map<Long, Documento> productos = new ConcurrentHashMap<>();
+        private final CountDownLatch liberar = new CountDownLatch(1);
+        private final AtomicInteger lecturas = new AtomicInteger();
+
+        Base(Documento... documentos) {
+            for (Documento documento : documentos) {
+                productos.put(documento.id(), documento);
+            }
+        }
+
+        void indexar(IndiceBusqueda indice, Documento documento) {
+            productos.put(documento.id(), documento);
+            indice.indexar(documento);
+        }
+
+        void eliminar(IndiceBusqueda indice, Long id) {
+            productos.remove(id);
+            indice.eliminar(id);
+        }
+
+        IndiceBusqueda indiceEnSegundoPlano(int maxPendientes) {
+            ProductoRepository repositorio = (ProductoRepository) Proxy.newProxyInstance(
+                    getClass().getClassLoader(), new Class<?>[]{ProductoRepository.class}, (proxy, metodo, args) -> {
+                        if (!metodo.getName().equals("streamValoresParaBusqueda")) {
+                            throw new UnsupportedOperationException(metodo.getName());
+                        }
+                        List<Object[]> filas = productos.values().stream()
+                                .map(d -> new Object[]{d.id(), d.nombre(), d.descripcion(), d.categoria(), d.precio()})
+                                .toList();
+                        if (lecturas.getAndIncrement() == 0) {
+                            liberar.await();
+                        }
+                        return filas.stream();
+                    });
+            return new IndiceBusqueda(repositorio, new SinTransacciones(), true, maxPendientes);
+        }
+    }
+
+    private static final class SinTransacciones implements PlatformTransactionManager {
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
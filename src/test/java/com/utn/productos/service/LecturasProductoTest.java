@@ -0,0 +1,54 @@
+package com.utn.productos.service;
+
+import com.utn.productos.model.Categoria;
+import com.utn.productos.model.Producto;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Base propia: la ventana de agrupado arma otro contexto
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:lecturas-producto",
+        "productos.lectura.lote.ventana=5ms"
+})
+class LecturasProductoTest {
+
+    @Autowired
+    private LecturasProducto lecturasProducto;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void lasLecturasCompartidasSalenDesvinculadasDelContextoDeQuienLasCargo() {
+        Producto producto = productoService.crearProducto(new Producto(null, "Lectura " + UUID.randomUUID(),
+                null, 10.0, 5, Categoria.HOGAR));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(estado -> {
+            Producto leido = lecturasProducto.porId(producto.getId()).orElseThrow();
+            assertEquals(producto.getNombre(), leido.getNombre());
+            assertFalse(entityManager.contains(leido));
+
+            List<Producto> categoria = lecturasProducto.porCategoria(Categoria.HOGAR);
+            assertTrue(categoria.stream().anyMatch(p -> p.getId().equals(producto.getId())));
+            assertTrue(categoria.stream().noneMatch(entityManager::contains));
+        });
+        assertTrue(lecturasProducto.porId(-1L).isEmpty());
+    }
+}
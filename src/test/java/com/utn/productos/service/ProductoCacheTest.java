@@ -0,0 +1,127 @@
+package com.utn.productos.service;
+
+import com.utn.productos.config.CacheConfig;
+import com.utn.productos.model.Categoria;
+import com.utn.productos.model.Producto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ProductoCacheTest {
+
+    @Autowired
+    private ProductoService productoService;
+
+    private Producto crear(String nombre, Categoria categoria) {
+        return productoService.crearProducto(new Producto(null, nombre + " " + UUID.randomUUID(), null, 10.0, 5,
+                categoria));
+    }
+
+    private boolean contiene(Categoria categoria, Long id) {
+        return productoService.obtenerPorCategoria(categoria).stream().anyMatch(p -> p.getId().equals(id));
+    }
+
+    @Test
+    void unaLecturaQueTerminaDespuesDeLaInvalidacionNoQuedaCacheada() {
+        ProductoCache cache = new ProductoCache(
+                new ConcurrentMapCacheManager(CacheConfig.PRODUCTOS, CacheConfig.PRODUCTOS_POR_CATEGORIA),
+                new LecturasProducto(null, null, new SimpleMeterRegistry(), false, Duration.ZERO, 100));
+        Producto viejo = new Producto(1L, "Viejo", null, 10.0, 1, Categoria.HOGAR);
+        Producto nuevo = new Producto(1L, "Nuevo", null, 10.0, 1, Categoria.HOGAR);
+
+        // La escritura confirma e invalida mientras la lectura todavía tiene la fila anterior
+        assertEquals(viejo, cache.producto(1L, () -> {
+            cache.invalidarProducto(1L);
+            return Optional.of(viejo);
+        }).orElseThrow());
+        assertEquals("Nuevo", cache.producto(1L, () -> Optional.of(nuevo)).orElseThrow().getNombre());
+
+        assertEquals(List.of(viejo), cache.categoria(Categoria.HOGAR, () -> {
+            cache.invalidarCategoria(Categoria.HOGAR);
+            return List.of(viejo);
+        }));
+        assertEquals(List.of(nuevo), cache.categoria(Categoria.HOGAR, () -> List.of(nuevo)));
+
+        // Sin invalidaciones la lectura sí queda en la caché
+        AtomicInteger cargas = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            cache.producto(2L, () -> {
+                cargas.incrementAndGet();
+                return Optional.of(nuevo);
+            });
+        }
+        assertEquals(1, cargas.get());
+    }
+
+    @Test
+    void despuesDeModificarSeLeeElValorNuevo() {
+        Producto producto = crear("Cacheado", Categoria.HOGAR);
+        Long id = producto.getId();
+        assertEquals(producto.getNombre(), productoService.obtenerPorId(id).orElseThrow().getNombre());
+        assertTrue(contiene(Categoria.HOGAR, id));
+
+        productoService.actualizarProducto(id,
+                new Producto(null, "Modificado", null, 20.0, 5, Categoria.DEPORTES), null);
+        Producto leido = productoService.obtenerPorId(id).orElseThrow();
+        assertEquals("Modificado", leido.getNombre());
+        assertEquals(20.0, leido.getPrecio());
+        assertFalse(contiene(Categoria.HOGAR, id));
+        assertTrue(contiene(Categoria.DEPORTES, id));
+    }
+
+    @Test
+    void despuesDeCambiarElStockSeLeeElValorNuevo() {
+        Long id = crear("Stock cacheado", Categoria.ROPA).getId();
+        assertEquals(5, productoService.obtenerPorId(id).orElseThrow().getStock());
+
+        productoService.actualizarStock(id, 9);
+        assertEquals(9, productoService.obtenerPorId(id).orElseThrow().getStock());
+        productoService.reservarStock(id, 4);
+        assertEquals(5, productoService.obtenerPorId(id).orElseThrow().getStock());
+        productoService.liberarStock(id, 1);
+        assertEquals(6, productoService.obtenerPorId(id).orElseThrow().getStock());
+        productoService.ajustarStockLote(List.of(new ProductoService.AjusteStock(id, 2)));
+        assertEquals(2, productoService.obtenerPorId(id).orElseThrow().getStock());
+        assertEquals(2, productoService.obtenerPorCategoria(Categoria.ROPA).stream()
+                .filter(p -> p.getId().equals(id)).findFirst().orElseThrow().getStock());
+    }
+
+    @Test
+    void despuesDeEliminarNoSeLeeMas() {
+        Long id = crear("Eliminado", Categoria.ALIMENTOS).getId();
+        assertTrue(productoService.obtenerPorId(id).isPresent());
+        assertTrue(contiene(Categoria.ALIMENTOS, id));
+
+        productoService.eliminarProducto(id);
+        assertTrue(productoService.obtenerPorId(id).isEmpty());
+        assertFalse(contiene(Categoria.ALIMENTOS, id));
+    }
+
+    @Test
+    void despuesDeGuardarUnLoteSeLeenLosValoresNuevos() {
+        Producto existente = crear("Lote existente", Categoria.ELECTRONICA);
+        assertTrue(productoService.obtenerPorId(existente.getId()).isPresent());
+        assertTrue(contiene(Categoria.ELECTRONICA, existente.getId()));
+
+        List<Producto> guardados = productoService.guardarLote(List.of(
+                new Producto(null, "Lote nuevo " + UUID.randomUUID(), null, 1.0, 1, Categoria.ELECTRONICA),
+                new Producto(existente.getId(), "Lote modificado", null, 2.0, 1, Categoria.ELECTRONICA)));
+        Long nuevo = guardados.get(0).getId();
+        assertEquals(guardados.get(0).getNombre(), productoService.obtenerPorId(nuevo).orElseThrow().getNombre());
+        assertTrue(contiene(Categoria.ELECTRONICA, nuevo));
+        assertEquals("Lote modificado", productoService.obtenerPorId(existente.getId()).orElseThrow().getNombre());
+    }
+}
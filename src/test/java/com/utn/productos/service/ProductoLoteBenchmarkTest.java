@@ -0,0 +1,110 @@
+package com.utn.productos.service;
+
+import com.utn.productos.ProductosApplication;
+import com.utn.productos.model.Categoria;
+import com.utn.productos.model.Producto;
+import com.utn.productos.repository.ProductoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Benchmark manual de escritura masiva: mvn test -Dtest=ProductoLoteBenchmarkTest -Dbenchmark=true
+// La línea de base es la escritura anterior a las altas en lote: ids IDENTITY (Hibernate no puede agrupar
+// los INSERT) y un crearProducto por fila. Cada variante arranca su propio contexto con su propia base.
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ProductoLoteBenchmarkTest {
+
+    private static final int FILAS = 20_000;
+    private static final int TAMANIO_CHUNK = 1000;
+
+    @Test
+    void compararAltaIndividualConIdentityContraLote() {
+        double individual;
+        try (ConfigurableApplicationContext contexto = iniciar("lote-benchmark-identity",
+                "spring.jpa.mapping-resources=benchmark/producto-identidad.xml")) {
+            assertEquals("YES", contexto.getBean(JdbcTemplate.class).queryForObject(
+                    "select is_identity from information_schema.columns "
+                            + "where table_name = 'PRODUCTO' and column_name = 'ID'", String.class));
+            ProductoService productoService = contexto.getBean(ProductoService.class);
+            individual = medir(contexto, filas -> {
+                for (int i = 0; i < filas; i++) {
+                    productoService.crearProducto(nuevoProducto(i));
+                }
+            });
+        }
+
+        double lote;
+        try (ConfigurableApplicationContext contexto = iniciar("lote-benchmark-secuencia")) {
+            ProductoService productoService = contexto.getBean(ProductoService.class);
+            lote = medir(contexto, filas -> insertarEnLotes(productoService, filas));
+        }
+
+        log.info("Alta individual (crearProducto, ids IDENTITY): {} filas/s", String.format("%,.0f", individual));
+        log.info("Alta en lote (guardarLote, chunk={}, secuencia): {} filas/s", TAMANIO_CHUNK,
+                String.format("%,.0f", lote));
+        log.info("Mejora: {}x", String.format("%.1f", lote / individual));
+        assertTrue(lote > individual, "El alta en lote no supera a la individual");
+    }
+
+    // Calienta el JIT y el pool de conexiones, vacía la tabla y devuelve las filas por segundo de FILAS altas
+    private static double medir(ConfigurableApplicationContext contexto, IntConsumer insertar) {
+        ProductoRepository productoRepository = contexto.getBean(ProductoRepository.class);
+        insertar.accept(2_000);
+        productoRepository.deleteAllInBatch();
+
+        long inicio = System.nanoTime();
+        insertar.accept(FILAS);
+        double filasPorSegundo = FILAS / ((System.nanoTime() - inicio) / 1_000_000_000.0);
+        assertEquals(FILAS, productoRepository.count());
+        return filasPorSegundo;
+    }
+
+    private static void insertarEnLotes(ProductoService productoService, int filas) {
+        List<Producto> bloque = new ArrayList<>(TAMANIO_CHUNK);
+        for (int i = 0; i < filas; i++) {
+            bloque.add(nuevoProducto(i));
+            if (bloque.size() == TAMANIO_CHUNK) {
+                productoService.guardarLote(bloque);
+                bloque = new ArrayList<>(TAMANIO_CHUNK);
+            }
+        }
+        if (!bloque.isEmpty()) {
+            productoService.guardarLote(bloque);
+        }
+    }
+
+    // Las propiedades van como argumentos de línea de comandos para que tengan prioridad sobre
+    // application.properties
+    private static ConfigurableApplicationContext iniciar(String baseDeDatos, String... propiedades) {
+        List<String> argumentos = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:" + baseDeDatos,
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.utn.productos.service.ProductoLoteBenchmarkTest=INFO"));
+        for (String propiedad : propiedades) {
+            argumentos.add("--" + propiedad);
+        }
+        return new SpringApplicationBuilder(ProductosApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run(argumentos.toArray(String[]::new));
+    }
+
+    private static Producto nuevoProducto(int i) {
+        return new Producto(null, "Producto " + i, "Descripción del producto " + i, 10.0 + i % 100, i % 50,
+                Categoria.values()[i % Categoria.values().length]);
+    }
+}
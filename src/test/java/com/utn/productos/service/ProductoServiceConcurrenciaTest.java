@@ -0,0 +1,96 @@
+package com.utn.productos.service;
+
+import com.utn.productos.exception.StockExcedidoException;
+import com.utn.productos.exception.StockInsuficienteException;
+import com.utn.productos.model.Categoria;
+import com.utn.productos.model.Producto;
+import com.utn.productos.repository.ProductoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ProductoServiceConcurrenciaTest {
+
+    private static final int HILOS = 64;
+    private static final int INTENTOS_POR_HILO = 50;
+    private static final int STOCK_INICIAL = 1000;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Test
+    void reservarStockConcurrenteNoSobrevende() throws Exception {
+        Long id = productoRepository.save(
+                new Producto(null, "Producto caliente", null, 10.0, STOCK_INICIAL, Categoria.ELECTRONICA)).getId();
+
+        AtomicInteger reservasExitosas = new AtomicInteger();
+        AtomicInteger reservasRechazadas = new AtomicInteger();
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        try {
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int i = 0; i < HILOS; i++) {
+                tareas.add(executor.submit(() -> {
+                    largada.await();
+                    for (int j = 0; j < INTENTOS_POR_HILO; j++) {
+                        try {
+                            productoService.reservarStock(id, 1);
+                            reservasExitosas.incrementAndGet();
+                        } catch (StockInsuficienteException ex) {
+                            reservasRechazadas.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            largada.countDown();
+            for (Future<?> tarea : tareas) {
+                tarea.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(STOCK_INICIAL, reservasExitosas.get());
+        assertEquals(HILOS * INTENTOS_POR_HILO - STOCK_INICIAL, reservasRechazadas.get());
+        assertEquals(0, productoRepository.findById(id).orElseThrow().getStock());
+    }
+
+    @Test
+    void reservarMasQueElStockDisponibleLanzaExcepcion() {
+        Long id = productoRepository.save(
+                new Producto(null, "Producto escaso", null, 5.0, 3, Categoria.HOGAR)).getId();
+
+        assertThrows(StockInsuficienteException.class, () -> productoService.reservarStock(id, 4));
+        assertEquals(1, productoService.reservarStock(id, 2).getStock());
+        assertEquals(3, productoService.liberarStock(id, 2).getStock());
+        assertTrue(productoRepository.findById(id).isPresent());
+    }
+
+    @Test
+    void liberarPorEncimaDelMaximoLanzaExcepcionSinDesbordar() {
+        Long id = productoRepository.save(
+                new Producto(null, "Producto colmado", null, 5.0, Integer.MAX_VALUE - 1, Categoria.HOGAR)).getId();
+
+        assertThrows(StockExcedidoException.class, () -> productoService.liberarStock(id, 2));
+        assertEquals(Integer.MAX_VALUE - 1, productoRepository.findById(id).orElseThrow().getStock());
+        assertEquals(Integer.MAX_VALUE, productoService.liberarStock(id, 1).getStock());
+    }
+}
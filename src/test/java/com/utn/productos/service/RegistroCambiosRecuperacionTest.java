@@ -0,0 +1,115 @@
+package com.utn.productos.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.utn.productos.dto.CambioProductoDTO;
+import com.utn.productos.model.Categoria;
+import com.utn.productos.model.Producto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Base propia: se insertan filas en cambio_pendiente como si el proceso se hubiera caído, y el registro
+// de cambios de cualquier otro contexto sobre la misma base las publicaría
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:registro-cambios-recuperacion")
+class RegistroCambiosRecuperacionTest {
+
+    @TempDir
+    Path directorio;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void vaciarPendientes() {
+        jdbcTemplate.update("delete from cambio_pendiente");
+    }
+
+    // Un arranque: abre el log del directorio y publica lo pendiente de la ejecución anterior
+    private RegistroCambios arrancar() throws Exception {
+        RegistroCambios registro = new RegistroCambios(directorio.toString(), DataSize.ofKilobytes(64),
+                DataSize.ofGigabytes(1), 16, false, objectMapper, jdbcTemplate, transactionManager);
+        registro.abrir();
+        registro.afterSingletonsInstantiated();
+        return registro;
+    }
+
+    private static Producto producto(long id) {
+        Producto producto = new Producto(id, "Producto " + id, null, 10.0, 5, Categoria.HOGAR);
+        producto.setVersion(1L);
+        return producto;
+    }
+
+    private int pendientes() {
+        return jdbcTemplate.queryForObject("select count(*) from cambio_pendiente", Integer.class);
+    }
+
+    private String datos(RegistroCambios registro, long offset) {
+        return new String(registro.leer(offset).datos(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void unCambioSePublicaAlConfirmarYNoSiHayRollback() throws Exception {
+        RegistroCambios registro = arrancar();
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+
+        transaccion.executeWithoutResult(estado -> {
+            registro.registrar(CambioProductoDTO.Tipo.ACTUALIZADO, producto(1));
+            registro.registrar(CambioProductoDTO.Tipo.STOCK, producto(2));
+            // Hasta el commit no hay nada en el log
+            assertEquals(0, registro.finOffset());
+        });
+        assertEquals(2, registro.finOffset());
+        assertTrue(datos(registro, 0).contains("\"id\":1"));
+        assertTrue(datos(registro, 1).contains("\"id\":2"));
+        assertEquals(0, pendientes());
+
+        transaccion.executeWithoutResult(estado -> {
+            registro.registrar(CambioProductoDTO.Tipo.ACTUALIZADO, producto(3));
+            estado.setRollbackOnly();
+        });
+        assertEquals(2, registro.finOffset());
+        assertEquals(0, pendientes());
+        registro.cerrar();
+    }
+
+    @Test
+    void loConfirmadoQueNoLlegoAlLogSePublicaAlArrancarSinDuplicar() throws Exception {
+        RegistroCambios anterior = arrancar();
+        new TransactionTemplate(transactionManager).executeWithoutResult(estado ->
+                anterior.registrar(CambioProductoDTO.Tipo.CREADO, producto(10)));
+        String publicado = datos(anterior, 0);
+        anterior.cerrar();
+
+        // Caída: una fila ya agregada al log que no llegó a borrarse y otra confirmada que no llegó al log
+        jdbcTemplate.update("insert into cambio_pendiente (datos) values (?)",
+                (Object) publicado.getBytes(StandardCharsets.UTF_8));
+        String perdido = publicado.replace("\"id\":10", "\"id\":11");
+        jdbcTemplate.update("insert into cambio_pendiente (datos) values (?)",
+                (Object) perdido.getBytes(StandardCharsets.UTF_8));
+
+        RegistroCambios registro = arrancar();
+        assertEquals(2, registro.finOffset());
+        assertEquals(publicado, datos(registro, 0));
+        assertEquals(perdido, datos(registro, 1));
+        assertEquals(0, pendientes());
+        registro.cerrar();
+    }
+}
@@ -0,0 +1,110 @@
+package com.utn.productos.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RegistroCambiosTest {
+
+    @TempDir
+    Path directorio;
+
+    private RegistroCambios abrir(int capacidadAnillo) throws Exception {
+        return abrir(capacidadAnillo, DataSize.ofGigabytes(1));
+    }
+
+    // Segmentos chicos para forzar varias rotaciones; sin outbox (el log aislado)
+    private RegistroCambios abrir(int capacidadAnillo, DataSize retencion) throws Exception {
+        RegistroCambios registro = new RegistroCambios(directorio.toString(), DataSize.ofKilobytes(4), retencion,
+                capacidadAnillo, false, new ObjectMapper(), null, null);
+        registro.abrir();
+        return registro;
+    }
+
+    private static byte[] entrada(int i) {
+        return ("{\"cambio\":" + i + "}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void asignaOffsetsConsecutivosYLeeDesdeAnilloYDisco() throws Exception {
+        RegistroCambios registro = abrir(16);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, registro.agregar(entrada(i)));
+        }
+        assertEquals(1000, registro.finOffset());
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            assertTrue(archivos.count() > 1, "Debería haber rotado de segmento");
+        }
+        // Los primeros ya salieron del anillo y se leen del segmento correspondiente
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(new String(entrada(i), StandardCharsets.UTF_8),
+                    new String(registro.leer(i).datos(), StandardCharsets.UTF_8));
+        }
+        assertNull(registro.leer(1000));
+    }
+
+    @Test
+    void sinDirectorioCadaEjecucionEmpiezaDeCero() throws Exception {
+        for (int ejecucion = 0; ejecucion < 2; ejecucion++) {
+            RegistroCambios registro = new RegistroCambios("", DataSize.ofKilobytes(4), DataSize.ofGigabytes(1), 16,
+                    false, new ObjectMapper(), null, null);
+            registro.abrir();
+            assertEquals(0, registro.finOffset());
+            for (int i = 0; i < 10; i++) {
+                assertEquals(i, registro.agregar(entrada(i)));
+            }
+            registro.cerrar();
+        }
+    }
+
+    @Test
+    void laRetencionBorraLosSegmentosMasViejos() throws Exception {
+        RegistroCambios registro = abrir(16, DataSize.ofKilobytes(12));
+        for (int i = 0; i < 1000; i++) {
+            registro.agregar(entrada(i));
+        }
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            assertEquals(3, archivos.count());
+        }
+        long primero = registro.primerOffset();
+        assertTrue(primero > 0);
+        assertNull(registro.leer(primero - 20));
+        for (long i = primero; i < 1000; i++) {
+            assertEquals(new String(entrada((int) i), StandardCharsets.UTF_8),
+                    new String(registro.leer(i).datos(), StandardCharsets.UTF_8));
+        }
+        registro.cerrar();
+
+        // Al reabrir con menos retención también se recorta
+        RegistroCambios reabierto = abrir(16, DataSize.ofKilobytes(8));
+        assertEquals(1000, reabierto.finOffset());
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            assertEquals(2, archivos.count());
+        }
+    }
+
+    @Test
+    void alReabrirRetomaDespuesDeLaUltimaEntradaValida() throws Exception {
+        RegistroCambios registro = abrir(16);
+        for (int i = 0; i < 300; i++) {
+            registro.agregar(entrada(i));
+        }
+        registro.cerrar();
+
+        RegistroCambios reabierto = abrir(16);
+        assertEquals(300, reabierto.finOffset());
+        assertEquals(300, reabierto.agregar(entrada(300)));
+        assertEquals("{\"cambio\":7}", new String(reabierto.leer(7).datos(), StandardCharsets.UTF_8));
+        assertEquals("{\"cambio\":300}", new String(reabierto.leer(300).datos(), StandardCharsets.UTF_8));
+    }
+}
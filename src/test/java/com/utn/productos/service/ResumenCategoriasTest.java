@@ -0,0 +1,124 @@
+package com.utn.productos.service;
+
+import com.utn.productos.dto.ResumenCategoriaDTO;
+import com.utn.productos.model.Categoria;
+import com.utn.productos.model.Producto;
+import com.utn.productos.repository.ProductoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// Base propia: los agregados se comparan con la tabla completa, sin filas de los demás tests
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:resumen-categorias")
+class ResumenCategoriasTest {
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Producto producto(Double precio, Integer stock, Categoria categoria) {
+        return new Producto(null, "Resumen " + UUID.randomUUID(), null, precio, stock, categoria);
+    }
+
+    // Los agregados en memoria tienen que coincidir con recalcularlos desde la base
+    private void verificar(Categoria categoria) {
+        List<Producto> productos = productoRepository.findByCategoria(categoria);
+        List<Double> precios = productos.stream().map(Producto::getPrecio).filter(Objects::nonNull).toList();
+        ResumenCategoriaDTO resumen = productoService.obtenerResumen(categoria);
+
+        assertEquals(productos.size(), resumen.getCantidad(), categoria + ": cantidad");
+        assertEquals(productos.stream().mapToLong(p -> p.getStock() == null ? 0 : p.getStock()).sum(),
+                resumen.getStockTotal(), categoria + ": stock");
+        if (precios.isEmpty()) {
+            assertNull(resumen.getPrecioMinimo());
+            return;
+        }
+        assertEquals(precios.stream().mapToDouble(Double::doubleValue).min().orElseThrow(),
+                resumen.getPrecioMinimo(), categoria + ": mínimo");
+        assertEquals(precios.stream().mapToDouble(Double::doubleValue).max().orElseThrow(),
+                resumen.getPrecioMaximo(), categoria + ": máximo");
+        assertEquals(precios.stream().mapToDouble(Double::doubleValue).average().orElseThrow(),
+                resumen.getPrecioPromedio(), 1e-6, categoria + ": promedio");
+    }
+
+    private void verificarTodas() {
+        for (Categoria categoria : Categoria.values()) {
+            verificar(categoria);
+        }
+    }
+
+    @Test
+    void losAgregadosAcompañanAltasModificacionesYBajas() {
+        Producto barato = productoService.crearProducto(producto(0.01, 3, Categoria.DEPORTES));
+        Producto caro = productoService.crearProducto(producto(1e9, 7, Categoria.DEPORTES));
+        Producto sinPrecio = productoService.crearProducto(producto(null, null, Categoria.DEPORTES));
+        verificarTodas();
+
+        productoService.actualizarProducto(barato.getId(), producto(50.0, 10, Categoria.DEPORTES), null);
+        verificarTodas();
+
+        // Cambio de categoría: sale de una y entra en la otra con sus valores nuevos
+        productoService.actualizarProducto(caro.getId(), producto(2e9, 1, Categoria.ALIMENTOS), null);
+        verificarTodas();
+
+        productoService.actualizarStock(barato.getId(), 4);
+        productoService.reservarStock(barato.getId(), 3);
+        productoService.liberarStock(barato.getId(), 2);
+        verificarTodas();
+
+        productoService.eliminarProducto(caro.getId());
+        productoService.eliminarProducto(sinPrecio.getId());
+        verificarTodas();
+    }
+
+    @Test
+    void losAgregadosAcompañanLosLotes() {
+        Producto existente = productoService.crearProducto(producto(15.0, 2, Categoria.ROPA));
+        List<Producto> guardados = productoService.guardarLote(List.of(
+                producto(0.02, 5, Categoria.ROPA),
+                producto(3e9, 6, Categoria.HOGAR),
+                new Producto(existente.getId(), "Movido", null, 20.0, 8, Categoria.HOGAR)));
+        verificarTodas();
+
+        productoService.ajustarStockLote(List.of(
+                new ProductoService.AjusteStock(guardados.get(0).getId(), 1),
+                new ProductoService.AjusteStock(guardados.get(1).getId(), 9),
+                new ProductoService.AjusteStock(guardados.get(0).getId(), 4)));
+        verificarTodas();
+    }
+
+    @Test
+    void unaEscrituraQueNoConfirmaNoCambiaLosAgregados() {
+        ResumenCategoriaDTO antes = productoService.obtenerResumen(Categoria.ELECTRONICA);
+        Producto existente = productoService.crearProducto(producto(30.0, 3, Categoria.ELECTRONICA));
+        verificar(Categoria.ELECTRONICA);
+
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        transaccion.executeWithoutResult(status -> {
+            productoService.crearProducto(producto(5e9, 100, Categoria.ELECTRONICA));
+            productoService.actualizarProducto(existente.getId(), producto(1e-3, 50, Categoria.ELECTRONICA), null);
+            productoService.actualizarStock(existente.getId(), 70);
+            // Hasta el commit los agregados no ven nada
+            assertEquals(antes.getCantidad() + 1, productoService.obtenerResumen(Categoria.ELECTRONICA).getCantidad());
+            status.setRollbackOnly();
+        });
+        verificar(Categoria.ELECTRONICA);
+
+        transaccion.executeWithoutResult(status -> productoService.eliminarProducto(existente.getId()));
+        verificar(Categoria.ELECTRONICA);
+    }
+}
@@ -0,0 +1,66 @@
+package com.utn.productos.service;
+
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnapshotProductosTest {
+
+    private static final String FILAS = "select * from producto order by id";
+
+    @TempDir
+    Path directorio;
+
+    // Base H2 en memoria con el esquema de las migraciones de Flyway (el mismo del perfil prod)
+    private static DataSource baseMigrada(String nombre) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + nombre + ";DB_CLOSE_DELAY=-1");
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        return dataSource;
+    }
+
+    @Test
+    void unSnapshotRestauradoReproduceLaTablaYLaSecuencia() throws Exception {
+        DataSource origen = baseMigrada("snapshot-origen");
+        JdbcTemplate jdbcOrigen = new JdbcTemplate(origen);
+        for (int i = 0; i < 120; i++) {
+            jdbcOrigen.update("insert into producto (id, nombre, descripcion, precio, stock, categoria, version, "
+                            + "ultima_modificacion) values (next value for producto_seq, ?, ?, ?, ?, ?, ?, "
+                            + "current_timestamp)",
+                    "Producto " + i, i % 3 == 0 ? null : "Descripción ñ " + i, i * 1.5, i,
+                    i % 2 == 0 ? "HOGAR" : "ROPA", (long) i % 4);
+        }
+        SnapshotProductos.Resultado snapshot = new SnapshotProductos(origen, directorio).crear();
+        assertEquals(120, snapshot.productos());
+
+        DataSource destino = baseMigrada("snapshot-destino");
+        SnapshotProductos restaurador = new SnapshotProductos(destino, directorio);
+        assertEquals(Optional.of(snapshot.archivo()), restaurador.ultimo());
+        assertEquals(120, restaurador.restaurar(snapshot.archivo()).orElseThrow().productos());
+
+        JdbcTemplate jdbcDestino = new JdbcTemplate(destino);
+        List<Map<String, Object>> esperadas = jdbcOrigen.queryForList(FILAS);
+        assertEquals(esperadas, jdbcDestino.queryForList(FILAS));
+        assertEquals(jdbcOrigen.queryForObject("select next value for producto_seq", Long.class),
+                jdbcDestino.queryForObject("select next value for producto_seq", Long.class));
+
+        // Los índices secundarios, quitados durante la carga, vuelven a estar
+        String indices = "select index_name from information_schema.indexes where table_name = 'PRODUCTO' "
+                + "order by index_name";
+        assertEquals(jdbcOrigen.queryForList(indices, String.class), jdbcDestino.queryForList(indices, String.class));
+
+        // Sobre una tabla con datos no se restaura nada
+        assertTrue(restaurador.restaurar(snapshot.archivo()).isEmpty());
+    }
+}